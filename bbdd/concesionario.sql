@@ -90,11 +90,13 @@ CREATE TABLE `repair_order` (
   `start_at` datetime DEFAULT NULL,
   `end_at` datetime DEFAULT NULL,
   `notes` text COLLATE utf8mb4_unicode_ci,
+  `version` int NOT NULL DEFAULT '0',
   PRIMARY KEY (`id`),
   KEY `vehicle_id` (`vehicle_id`),
   KEY `customer_id` (`customer_id`),
   KEY `created_by_boss_id` (`created_by_boss_id`),
   KEY `assigned_mechanic_id` (`assigned_mechanic_id`),
+  FULLTEXT KEY `ft_repair_order_notes` (`notes`),
   CONSTRAINT `repair_order_ibfk_1` FOREIGN KEY (`vehicle_id`) REFERENCES `vehicle` (`id`),
   CONSTRAINT `repair_order_ibfk_2` FOREIGN KEY (`customer_id`) REFERENCES `customer` (`id`),
   CONSTRAINT `repair_order_ibfk_3` FOREIGN KEY (`created_by_boss_id`) REFERENCES `user` (`id`),
@@ -108,7 +110,7 @@ CREATE TABLE `repair_order` (
 
 LOCK TABLES `repair_order` WRITE;
 /*!40000 ALTER TABLE `repair_order` DISABLE KEYS */;
-INSERT INTO `repair_order` VALUES (1,3,7,2,4,'FINISHED',NULL,NULL,'2026-01-11 13:25:24','2026-01-11 13:25:25','Oil change'),(2,3,3,2,4,'FINISHED',NULL,NULL,'2026-01-11 23:30:08','2026-01-11 23:30:24','Engine fail'),(3,5,6,2,4,'FINISHED',NULL,NULL,'2026-01-12 10:34:48','2026-02-01 21:14:59','Light fails'),(4,5,5,2,5,'ASSIGNED',NULL,NULL,NULL,NULL,'Engine and oil'),(5,9,6,2,4,'FINISHED',NULL,NULL,'2026-01-12 10:33:43','2026-01-12 10:33:49','Oil and engine'),(6,2,3,2,4,'ASSIGNED',NULL,NULL,NULL,NULL,'oil and engine'),(7,3,3,2,10,'ASSIGNED',NULL,NULL,NULL,NULL,'break'),(8,22,6,2,4,'IN_PROGRESS',NULL,NULL,'2026-01-25 21:27:57',NULL,'engine'),(9,24,7,2,4,'FINISHED',NULL,NULL,'2026-01-25 20:37:38','2026-01-25 20:37:40','engine'),(10,8,7,2,4,'ASSIGNED',NULL,NULL,NULL,NULL,'engine'),(11,3,4,2,4,'ASSIGNED',NULL,NULL,NULL,NULL,'oil'),(12,46,5,2,4,'ASSIGNED',NULL,NULL,NULL,NULL,'engine'),(13,5,5,2,4,'ASSIGNED',NULL,NULL,NULL,NULL,'lights'),(14,3,3,2,4,'ASSIGNED',NULL,NULL,NULL,NULL,'ffds');
+INSERT INTO `repair_order` VALUES (1,3,7,2,4,'FINISHED',NULL,NULL,'2026-01-11 13:25:24','2026-01-11 13:25:25','Oil change',0),(2,3,3,2,4,'FINISHED',NULL,NULL,'2026-01-11 23:30:08','2026-01-11 23:30:24','Engine fail',0),(3,5,6,2,4,'FINISHED',NULL,NULL,'2026-01-12 10:34:48','2026-02-01 21:14:59','Light fails',0),(4,5,5,2,5,'ASSIGNED',NULL,NULL,NULL,NULL,'Engine and oil',0),(5,9,6,2,4,'FINISHED',NULL,NULL,'2026-01-12 10:33:43','2026-01-12 10:33:49','Oil and engine',0),(6,2,3,2,4,'ASSIGNED',NULL,NULL,NULL,NULL,'oil and engine',0),(7,3,3,2,10,'ASSIGNED',NULL,NULL,NULL,NULL,'break',0),(8,22,6,2,4,'IN_PROGRESS',NULL,NULL,'2026-01-25 21:27:57',NULL,'engine',0),(9,24,7,2,4,'FINISHED',NULL,NULL,'2026-01-25 20:37:38','2026-01-25 20:37:40','engine',0),(10,8,7,2,4,'ASSIGNED',NULL,NULL,NULL,NULL,'engine',0),(11,3,4,2,4,'ASSIGNED',NULL,NULL,NULL,NULL,'oil',0),(12,46,5,2,4,'ASSIGNED',NULL,NULL,NULL,NULL,'engine',0),(13,5,5,2,4,'ASSIGNED',NULL,NULL,NULL,NULL,'lights',0),(14,3,3,2,4,'ASSIGNED',NULL,NULL,NULL,NULL,'ffds',0);
 /*!40000 ALTER TABLE `repair_order` ENABLE KEYS */;
 UNLOCK TABLES;
 
@@ -162,6 +164,7 @@ CREATE TABLE `sale` (
   KEY `idx_sale_seller` (`seller_user_id`),
   KEY `idx_sale_dealership` (`dealership_id`),
   KEY `idx_sale_date` (`sale_date`),
+  KEY `idx_sale_dealership_date` (`dealership_id`,`sale_date`),
   CONSTRAINT `fk_sale_customer` FOREIGN KEY (`customer_id`) REFERENCES `customer` (`id`),
   CONSTRAINT `fk_sale_dealership` FOREIGN KEY (`dealership_id`) REFERENCES `dealership` (`id`),
   CONSTRAINT `fk_sale_proposal` FOREIGN KEY (`proposal_id`) REFERENCES `sale_proposal` (`id`),
@@ -199,6 +202,7 @@ CREATE TABLE `sale_proposal` (
   `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
   `updated_at` datetime DEFAULT NULL ON UPDATE CURRENT_TIMESTAMP,
   `valid_until` date DEFAULT NULL,
+  `version` int NOT NULL DEFAULT '0',
   PRIMARY KEY (`id`),
   KEY `idx_sale_proposal_customer` (`customer_id`),
   KEY `idx_sale_proposal_vehicle` (`vehicle_id`),
@@ -218,7 +222,7 @@ CREATE TABLE `sale_proposal` (
 
 LOCK TABLES `sale_proposal` WRITE;
 /*!40000 ALTER TABLE `sale_proposal` DISABLE KEYS */;
-INSERT INTO `sale_proposal` VALUES (1,1,1,12,1,10000.00,'Car in perfect condition','ACCEPTED','2026-01-25 17:57:20','2026-01-25 17:57:20','2026-02-09'),(2,2,2,12,1,12000.00,'Includes 1 year warranty','ACCEPTED','2026-01-25 17:57:20','2026-02-01 20:55:26','2026-02-09'),(3,3,4,13,2,9000.00,'Good conditions','ACCEPTED','2026-02-01 21:18:01','2026-02-01 21:18:36',NULL),(8,6,25,13,2,12000.00,'Engine problems','ACCEPTED','2026-02-02 10:41:21','2026-02-02 10:42:04',NULL),(9,1,4,13,2,15000.00,'perfect','ACCEPTED','2026-02-02 10:43:14','2026-02-02 12:08:23',NULL),(10,5,3,13,2,13000.00,'Perfect','ACCEPTED','2026-02-02 12:08:15','2026-02-02 12:24:36',NULL),(11,5,6,13,2,8000.00,'Bad conditions','ACTIVE','2026-02-02 12:08:47',NULL,NULL),(12,2,4,13,2,14000.00,'Perfect conditions','ACTIVE','2026-02-02 12:25:11',NULL,NULL);
+INSERT INTO `sale_proposal` VALUES (1,1,1,12,1,10000.00,'Car in perfect condition','ACCEPTED','2026-01-25 17:57:20','2026-01-25 17:57:20','2026-02-09',0),(2,2,2,12,1,12000.00,'Includes 1 year warranty','ACCEPTED','2026-01-25 17:57:20','2026-02-01 20:55:26','2026-02-09',0),(3,3,4,13,2,9000.00,'Good conditions','ACCEPTED','2026-02-01 21:18:01','2026-02-01 21:18:36',NULL,0),(8,6,25,13,2,12000.00,'Engine problems','ACCEPTED','2026-02-02 10:41:21','2026-02-02 10:42:04',NULL,0),(9,1,4,13,2,15000.00,'perfect','ACCEPTED','2026-02-02 10:43:14','2026-02-02 12:08:23',NULL,0),(10,5,3,13,2,13000.00,'Perfect','ACCEPTED','2026-02-02 12:08:15','2026-02-02 12:24:36',NULL,0),(11,5,6,13,2,8000.00,'Bad conditions','ACTIVE','2026-02-02 12:08:47',NULL,NULL,0),(12,2,4,13,2,14000.00,'Perfect conditions','ACTIVE','2026-02-02 12:25:11',NULL,NULL,0);
 /*!40000 ALTER TABLE `sale_proposal` ENABLE KEYS */;
 UNLOCK TABLES;
 
@@ -290,6 +294,8 @@ CREATE TABLE `vehicle` (
   KEY `idx_vehicle_entry_date` (`entry_date`),
   KEY `idx_vehicle_status` (`status`),
   KEY `idx_vehicle_brand_model` (`brand`,`model`),
+  KEY `idx_vehicle_dealership_entry_date` (`current_dealership_id`,`entry_date`),
+  FULLTEXT KEY `ft_vehicle_notes` (`notes`),
   CONSTRAINT `vehicle_ibfk_1` FOREIGN KEY (`category_id`) REFERENCES `vehicle_category` (`id`),
   CONSTRAINT `vehicle_ibfk_2` FOREIGN KEY (`current_dealership_id`) REFERENCES `dealership` (`id`)
 ) ENGINE=InnoDB AUTO_INCREMENT=51 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -1,9 +1,12 @@
 package dealership;
 
+import dealership.util.DbAsync;
+import dealership.util.DbConnection;
+import dealership.util.SceneLoader;
+import dealership.util.ViewPrewarm;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 /**
@@ -20,9 +23,14 @@ public class MainApp extends Application {
     /**
      * Starts the JavaFX application.
      * <p>
-     * This method loads the main FXML view used for user login, attaches
-     * the application stylesheet, sets up the stage configuration and
-     * finally displays the main window.
+     * This method loads the main FXML view used for user login, sets up the
+     * stage configuration and finally displays the main window through
+     * {@link SceneLoader}, which creates the long-lived scene with the
+     * application stylesheet.
+     * </p>
+     * <p>
+     * Once the login screen is shown, the post-login views are pre-warmed in the
+     * background (see {@link ViewPrewarm}).
      * </p>
      *
      * @param stage the primary stage provided by the JavaFX runtime
@@ -32,10 +40,6 @@ public class MainApp extends Application {
     public void start(Stage stage) throws Exception {
 
         Parent root = FXMLLoader.load(getClass().getResource("/views/login-view.fxml"));
-        Scene scene = new Scene(root);
-
-        scene.getStylesheets().add(getClass().getResource("/styles/app.css").toExternalForm());
-
         stage.setTitle("Concesionario Picasso");
 
         stage.setWidth(1100);
@@ -43,9 +47,23 @@ public class MainApp extends Application {
         stage.setMinWidth(1100);
         stage.setMinHeight(800);
 
-        stage.setScene(scene);
         stage.setResizable(true);
-        stage.show();
+        SceneLoader.show(stage, root);
+
+        ViewPrewarm.start();
+    }
+
+    /**
+     * Stops the JavaFX application.
+     * <p>
+     * It stops the background database threads and closes the shared database
+     * connection pool so no connection is left open when the window is closed.
+     * </p>
+     */
+    @Override
+    public void stop() {
+        DbAsync.shutdown();
+        DbConnection.shutdown();
     }
 
     /**
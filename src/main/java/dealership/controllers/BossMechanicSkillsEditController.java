@@ -1,13 +1,14 @@
 package dealership.controllers;
 
 import dealership.dao.UserDao;
+import dealership.util.DbAsync;
 import dealership.util.MechanicSelectionContext;
 import dealership.util.SessionContext;
+import dealership.util.SceneLoader;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextArea;
 import javafx.stage.Stage;
@@ -64,22 +65,28 @@ public class BossMechanicSkillsEditController {
      * Skills are fetched from the database using the boss and mechanic IDs.
      * If the mechanic does not exist or the boss has no permissions,
      * the input area is disabled and an error message is displayed.
+     * The query runs in the background (see {@link DbAsync}) and the input area
+     * stays disabled until it finishes.
      * </p>
      */
     private void loadSkills() {
-        try {
-            String skills = userDao.findMechanicSkillsForBossDealership(bossId, mechanicId);
-            if (skills == null) {
-                errorLabel.setText("Mechanic not found (or you don't have permissions).");
-                skillsArea.setDisable(true);
-                return;
-            }
-            skillsArea.setText(skills);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            errorLabel.setText("Could not load mechanic skills.");
-            skillsArea.setDisable(true);
-        }
+        skillsArea.setDisable(true);
+
+        DbAsync.load(
+                () -> userDao.findMechanicSkillsForBossDealership(bossId, mechanicId),
+                skills -> {
+                    if (skills == null) {
+                        errorLabel.setText("Mechanic not found (or you don't have permissions).");
+                        return;
+                    }
+                    skillsArea.setText(skills);
+                    skillsArea.setDisable(false);
+                },
+                ex -> {
+                    ex.printStackTrace();
+                    errorLabel.setText("Could not load mechanic skills.");
+                }
+        );
     }
 
     /**
@@ -139,8 +146,8 @@ public class BossMechanicSkillsEditController {
     /**
      * Navigates to a different view.
      * <p>
-     * This method loads the given FXML file, applies the main stylesheet
-     * if available and replaces the current scene on the active stage.
+     * This method loads the given FXML file and shows it on the active stage
+     * through {@link SceneLoader}, which swaps the root of the current scene.
      * </p>
      *
      * @param source   the node that triggered the navigation
@@ -150,11 +157,6 @@ public class BossMechanicSkillsEditController {
     private void goTo(Node source, String fxmlPath) throws Exception {
         Stage stage = (Stage) source.getScene().getWindow();
         Parent root = FXMLLoader.load(getClass().getResource(fxmlPath));
-        Scene scene = new Scene(root);
-        if (getClass().getResource("/styles/app.css") != null) {
-            scene.getStylesheets().add(getClass().getResource("/styles/app.css").toExternalForm());
-        }
-        stage.setScene(scene);
-        stage.show();
+        SceneLoader.show(stage, root);
     }
 }
@@ -2,15 +2,16 @@ package dealership.controllers;
 
 import dealership.dao.UserDao;
 import dealership.model.MechanicSkillRow;
+import dealership.util.DbAsync;
 import dealership.util.MechanicSelectionContext;
 import dealership.util.SessionContext;
+import dealership.util.SceneLoader;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableCell;
@@ -129,7 +130,8 @@ public class BossMechanicsSkillsController {
      * <p>
      * The boss user ID is read from {@link SessionContext}. If the session has
      * expired, an error is displayed. Otherwise, mechanics and their skills are
-     * retrieved from the database using {@link UserDao}.
+     * retrieved from the database using {@link UserDao} in the background
+     * (see {@link DbAsync}) while the table shows a loading placeholder.
      * </p>
      */
     private void loadMechanics() {
@@ -141,15 +143,21 @@ public class BossMechanicsSkillsController {
             return;
         }
 
-        try {
-            ObservableList<MechanicSkillRow> data = FXCollections.observableArrayList(
-                    userDao.findMechanicsWithSkillsForBossDealership(bossId)
-            );
-            mechanicsTable.setItems(data);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            errorLabel.setText("Could not load mechanics.");
-        }
+        mechanicsTable.setPlaceholder(new Label("Loading mechanics..."));
+
+        DbAsync.load(
+                () -> userDao.findMechanicsWithSkillsForBossDealership(bossId),
+                rows -> {
+                    ObservableList<MechanicSkillRow> data = FXCollections.observableArrayList(rows);
+                    mechanicsTable.setItems(data);
+                    mechanicsTable.setPlaceholder(new Label("No mechanics found."));
+                },
+                ex -> {
+                    ex.printStackTrace();
+                    mechanicsTable.setPlaceholder(new Label("Could not load mechanics."));
+                    errorLabel.setText("Could not load mechanics.");
+                }
+        );
     }
 
     /**
@@ -172,10 +180,10 @@ public class BossMechanicsSkillsController {
     }
 
     /**
-     * Navigates to a different view by replacing the current scene.
+     * Navigates to a different view by replacing the root of the current scene.
      * <p>
-     * It loads the given FXML, applies the main stylesheet if available,
-     * and sets the scene on the current stage.
+     * It loads the given FXML and shows it on the current stage
+     * through {@link SceneLoader}.
      * </p>
      *
      * @param source   the node that triggered the navigation
@@ -185,11 +193,6 @@ public class BossMechanicsSkillsController {
     private void goTo(Node source, String fxmlPath) throws Exception {
         Stage stage = (Stage) source.getScene().getWindow();
         Parent root = FXMLLoader.load(getClass().getResource(fxmlPath));
-        Scene scene = new Scene(root);
-        if (getClass().getResource("/styles/app.css") != null) {
-            scene.getStylesheets().add(getClass().getResource("/styles/app.css").toExternalForm());
-        }
-        stage.setScene(scene);
-        stage.show();
+        SceneLoader.show(stage, root);
     }
 }
@@ -1,10 +1,10 @@
 package dealership.controllers;
 
+import dealership.util.SceneLoader;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.stage.Stage;
 
@@ -13,7 +13,8 @@ import javafx.stage.Stage;
  * <p>
  * This controller handles navigation actions available for the boss role,
  * such as registering a new repair, viewing existing repairs, managing
- * mechanics and their skills, and logging out of the application.
+ * mechanics and their skills, searching repair and vehicle notes, and
+ * logging out of the application.
  * </p>
  */
 public class BossMenuController {
@@ -73,6 +74,25 @@ public class BossMenuController {
         }
     }
 
+    /**
+     * Opens the "Search notes" screen.
+     * <p>
+     * This screen searches the free-text notes of repair orders and vehicles.
+     * If the view cannot be loaded, an error alert is shown.
+     * </p>
+     *
+     * @param event the action event triggered by the corresponding menu button
+     */
+    @FXML
+    private void handleSearchNotes(javafx.event.ActionEvent event) {
+        try {
+            goTo(event, "/views/boss-notes-search-view.fxml");
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            showError("Could not open Search notes screen.");
+        }
+    }
+
     /**
      * Logs the user out by returning to the login screen.
      * <p>
@@ -93,10 +113,10 @@ public class BossMenuController {
     }
 
     /**
-     * Navigates to the given FXML view, replacing the current scene.
+     * Navigates to the given FXML view, replacing the root of the current scene.
      * <p>
-     * It loads the FXML, applies the application stylesheet if present,
-     * and displays the new scene in the current stage.
+     * It loads the FXML and displays it in the current stage
+     * through {@link SceneLoader}.
      * </p>
      *
      * @param event    the action event that triggered the navigation
@@ -107,13 +127,7 @@ public class BossMenuController {
         Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
         Parent root = FXMLLoader.load(getClass().getResource(fxmlPath));
 
-        Scene scene = new Scene(root);
-        if (getClass().getResource("/styles/app.css") != null) {
-            scene.getStylesheets().add(getClass().getResource("/styles/app.css").toExternalForm());
-        }
-
-        stage.setScene(scene);
-        stage.show();
+        SceneLoader.show(stage, root);
     }
 
     /**
@@ -0,0 +1,218 @@
+package dealership.controllers;
+
+import dealership.dao.NotesSearchDao;
+import dealership.model.NotesSearchRow;
+import dealership.util.DbAsync;
+import dealership.util.QueryScope;
+import dealership.util.SceneLoader;
+import dealership.util.SessionContext;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.Stage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Controller for the boss notes search screen.
+ * <p>
+ * The boss types a few words (for example "brakes") and optionally a date range,
+ * and gets the repair orders or vehicles whose notes mention them, most relevant
+ * first. The search runs in MySQL through the FULLTEXT indexes on the notes
+ * columns (see {@link NotesSearchDao}).
+ * </p>
+ * <p>
+ * Results are loaded one page at a time; "Load more" appends the next page.
+ * Starting a new search cancels the one still running.
+ * </p>
+ */
+public class BossNotesSearchController {
+
+    /**
+     * Number of results loaded per page.
+     */
+    private static final int PAGE_SIZE = 50;
+
+    private static final String SCOPE_REPAIRS = "Repair orders";
+    private static final String SCOPE_VEHICLES = "Vehicles";
+
+    @FXML private TextField searchField;
+    @FXML private ChoiceBox<String> scopeChoice;
+    @FXML private DatePicker fromDatePicker;
+    @FXML private DatePicker toDatePicker;
+
+    @FXML private TableView<NotesSearchRow> resultsTable;
+    @FXML private TableColumn<NotesSearchRow, Integer> idColumn;
+    @FXML private TableColumn<NotesSearchRow, String> vehicleColumn;
+    @FXML private TableColumn<NotesSearchRow, String> statusColumn;
+    @FXML private TableColumn<NotesSearchRow, LocalDate> dateColumn;
+    @FXML private TableColumn<NotesSearchRow, String> notesColumn;
+
+    @FXML private Button loadMoreButton;
+    @FXML private Label resultsLabel;
+    @FXML private Label errorLabel;
+
+    private final NotesSearchDao notesSearchDao = new NotesSearchDao();
+    private final ObservableList<NotesSearchRow> results = FXCollections.observableArrayList();
+
+    private QueryScope searchScope = new QueryScope();
+
+    /**
+     * Criteria of the search whose results are shown, reused by "Load more".
+     */
+    private String searchText;
+    private String searchTarget;
+    private LocalDate searchFrom;
+    private LocalDate searchTo;
+
+    /**
+     * Initializes the controller after the FXML has been loaded.
+     * <p>
+     * It binds the table columns and fills the scope selector.
+     * Nothing is searched until the user asks for it.
+     * </p>
+     */
+    @FXML
+    public void initialize() {
+        idColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
+        vehicleColumn.setCellValueFactory(new PropertyValueFactory<>("vehicle"));
+        statusColumn.setCellValueFactory(new PropertyValueFactory<>("status"));
+        dateColumn.setCellValueFactory(new PropertyValueFactory<>("date"));
+        notesColumn.setCellValueFactory(new PropertyValueFactory<>("notes"));
+
+        scopeChoice.getItems().setAll(SCOPE_REPAIRS, SCOPE_VEHICLES);
+        scopeChoice.setValue(SCOPE_REPAIRS);
+        scopeChoice.valueProperty().addListener((obs, oldValue, newValue) ->
+                idColumn.setText(SCOPE_VEHICLES.equals(newValue) ? "Vehicle ID" : "Repair ID"));
+
+        resultsTable.setItems(results);
+        resultsTable.setPlaceholder(new Label("Type some words and press Search."));
+        loadMoreButton.setDisable(true);
+    }
+
+    /**
+     * Starts a new search with the criteria on screen (Search button or Enter).
+     */
+    @FXML
+    private void handleSearch() {
+        errorLabel.setText("");
+
+        String text = (searchField.getText() == null) ? "" : searchField.getText().trim();
+        if (text.isEmpty()) {
+            errorLabel.setText("Type at least one word to search.");
+            return;
+        }
+
+        LocalDate from = fromDatePicker.getValue();
+        LocalDate to = toDatePicker.getValue();
+        if (from != null && to != null && from.isAfter(to)) {
+            errorLabel.setText("The start date must be before the end date.");
+            return;
+        }
+
+        searchText = text;
+        searchTarget = scopeChoice.getValue();
+        searchFrom = from;
+        searchTo = to;
+
+        results.clear();
+        resultsLabel.setText("");
+        resultsTable.setPlaceholder(new Label("Searching..."));
+        loadPage();
+    }
+
+    /**
+     * Appends the next page of the current search.
+     */
+    @FXML
+    private void handleLoadMore() {
+        if (searchText != null) {
+            loadPage();
+        }
+    }
+
+    /**
+     * Loads the page after the results already shown.
+     * <p>
+     * One row more than a page is requested, to know whether another page exists.
+     * The previous search scope is cancelled first, so a slow search started
+     * earlier cannot append its results to this one.
+     * </p>
+     */
+    private void loadPage() {
+        Integer bossId = SessionContext.getUserId();
+        if (bossId == null) {
+            errorLabel.setText("Session expired. Please login again.");
+            return;
+        }
+
+        searchScope.cancel();
+        searchScope = new QueryScope();
+
+        String text = searchText;
+        LocalDate from = searchFrom;
+        LocalDate to = searchTo;
+        int offset = results.size();
+        boolean vehicles = SCOPE_VEHICLES.equals(searchTarget);
+        Integer dealershipId = SessionContext.getDealershipId();
+
+        loadMoreButton.setDisable(true);
+
+        DbAsync.load(
+                searchScope,
+                () -> vehicles
+                        ? notesSearchDao.searchVehicleNotes(dealershipId, text, from, to, offset, PAGE_SIZE + 1)
+                        : notesSearchDao.searchRepairNotes(bossId, text, from, to, offset, PAGE_SIZE + 1),
+                rows -> showPage(rows),
+                ex -> {
+                    ex.printStackTrace();
+                    resultsTable.setPlaceholder(new Label("Could not search notes."));
+                    errorLabel.setText("Could not search notes in database.");
+                }
+        );
+    }
+
+    /**
+     * Appends a loaded page to the table.
+     *
+     * @param rows the loaded rows (one more than a page if another page exists)
+     */
+    private void showPage(List<NotesSearchRow> rows) {
+        boolean more = rows.size() > PAGE_SIZE;
+        results.addAll(more ? rows.subList(0, PAGE_SIZE) : rows);
+
+        loadMoreButton.setDisable(!more);
+        resultsLabel.setText(results.size() + (more ? "+ results" : " results"));
+        resultsTable.setPlaceholder(new Label("No notes match these words."));
+    }
+
+    /**
+     * Handles the back action from this screen: returns to the boss menu view.
+     *
+     * @param event the action event triggered by the back button
+     */
+    @FXML
+    private void handleBack(javafx.event.ActionEvent event) {
+        try {
+            searchScope.cancel();
+            Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
+            Parent root = FXMLLoader.load(getClass().getResource("/views/boss-menu-view.fxml"));
+            SceneLoader.show(stage, root);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            errorLabel.setText("Could not go back.");
+        }
+    }
+}
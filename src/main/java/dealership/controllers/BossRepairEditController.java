@@ -3,21 +3,21 @@ package dealership.controllers;
 import dealership.dao.RepairOrderDao;
 import dealership.dao.UserDao;
 import dealership.model.BossRepairEditDetails;
+import dealership.model.UpdateOutcome;
+import dealership.util.DbAsync;
 import dealership.util.RepairSelectionContext;
 import dealership.util.SessionContext;
+import dealership.util.SceneLoader;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextArea;
 import javafx.stage.Stage;
 
-import java.util.List;
-
 /**
  * Controller for the boss repair edit screen.
  * <p>
@@ -58,13 +58,20 @@ public class BossRepairEditController {
     private Integer repairId;
     private Integer bossId;
 
+    /**
+     * Version of the repair shown on screen, sent back with every change so that
+     * a repair changed meanwhile by someone else is not overwritten.
+     */
+    private Integer version;
+
     /**
      * Initializes the controller after the FXML is loaded.
      * <p>
      * It retrieves the current boss ID from {@link SessionContext} and the selected
      * repair ID from {@link RepairSelectionContext}. If required data is missing,
      * the screen is disabled. Otherwise, it loads mechanics for the combo box and
-     * the repair details to be edited.
+     * then the repair details to be edited (the details select the assigned
+     * mechanic, so they are loaded once the combo box is filled).
      * </p>
      */
     @FXML
@@ -81,29 +88,36 @@ public class BossRepairEditController {
         }
 
         loadMechanics();
-        loadRepairDetails();
     }
 
     /**
      * Loads the list of active mechanics into the combo box.
      * <p>
      * It always adds a default "(none)" option first, then appends the list coming
-     * from the database. The first option is selected by default.
+     * from the database. The first option is selected by default. The query runs
+     * in the background (see {@link DbAsync}); when it finishes, successfully or
+     * not, the repair details are loaded. Save and Unassign stay disabled meanwhile.
      * </p>
      */
     private void loadMechanics() {
-        try {
-            mechanicCombo.getItems().clear();
-            mechanicCombo.getItems().add(new RegisterRepairController.IdName(-1, "(none)"));
-
-            List<RegisterRepairController.IdName> mechanics = userDao.findActiveMechanicsForCombo();
-            mechanicCombo.getItems().addAll(mechanics);
-
-            mechanicCombo.getSelectionModel().selectFirst();
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            errorLabel.setText("Could not load mechanics.");
-        }
+        mechanicCombo.getItems().clear();
+        mechanicCombo.getItems().add(new RegisterRepairController.IdName(-1, "(none)"));
+        mechanicCombo.getSelectionModel().selectFirst();
+        statusLabel.setText("Loading...");
+        setActionsDisabled(true);
+
+        DbAsync.load(
+                userDao::findActiveMechanicsForCombo,
+                mechanics -> {
+                    mechanicCombo.getItems().addAll(mechanics);
+                    loadRepairDetails();
+                },
+                ex -> {
+                    ex.printStackTrace();
+                    errorLabel.setText("Could not load mechanics.");
+                    loadRepairDetails();
+                }
+        );
     }
 
     /**
@@ -112,32 +126,46 @@ public class BossRepairEditController {
      * Details are retrieved using both the repair ID and the boss ID (to validate
      * permissions). If the repair cannot be found or is not accessible, editing is
      * disabled. Editing is also disabled when the repair status is not editable.
+     * The query runs in the background (see {@link DbAsync}).
      * </p>
      */
     private void loadRepairDetails() {
-        try {
-            BossRepairEditDetails details = repairOrderDao.findBossEditDetailsById(repairId, bossId);
-            if (details == null) {
-                errorLabel.setText("Repair not found (or you don't have permissions). ");
-                disableEditing();
-                return;
-            }
+        DbAsync.load(
+                () -> repairOrderDao.findBossEditDetailsById(repairId, bossId),
+                this::showRepairDetails,
+                ex -> {
+                    ex.printStackTrace();
+                    statusLabel.setText("");
+                    errorLabel.setText("Could not load repair details.");
+                    disableEditing();
+                }
+        );
+    }
 
-            repairIdLabel.setText(String.format("%05d", details.getRepairId()));
-            vehicleLabel.setText(details.getVehicleText());
-            statusLabel.setText(details.getStatus());
-            notesArea.setText(details.getNotes());
+    /**
+     * Shows the loaded repair details on screen.
+     *
+     * @param details the loaded details, or null if the repair is not accessible
+     */
+    private void showRepairDetails(BossRepairEditDetails details) {
+        if (details == null) {
+            statusLabel.setText("");
+            errorLabel.setText("Repair not found (or you don't have permissions). ");
+            disableEditing();
+            return;
+        }
 
-            selectMechanic(details.getAssignedMechanicId());
+        version = details.getVersion();
+        setActionsDisabled(false);
+        repairIdLabel.setText(String.format("%05d", details.getRepairId()));
+        vehicleLabel.setText(details.getVehicleText());
+        statusLabel.setText(details.getStatus());
+        notesArea.setText(details.getNotes());
 
-            if (!canEdit(details.getStatus())) {
-                errorLabel.setText("This repair cannot be edited because its status is: " + details.getStatus());
-                disableEditing();
-            }
+        selectMechanic(details.getAssignedMechanicId());
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            errorLabel.setText("Could not load repair details.");
+        if (!canEdit(details.getStatus())) {
+            errorLabel.setText("This repair cannot be edited because its status is: " + details.getStatus());
             disableEditing();
         }
     }
@@ -184,6 +212,17 @@ public class BossRepairEditController {
         mechanicCombo.getSelectionModel().selectFirst();
     }
 
+    /**
+     * Enables or disables the Save and Unassign buttons. They stay disabled until
+     * the repair details (and their version) are loaded.
+     *
+     * @param disabled true to disable them
+     */
+    private void setActionsDisabled(boolean disabled) {
+        unassignButton.setDisable(disabled);
+        saveButton.setDisable(disabled);
+    }
+
     /**
      * Disables all editable controls in the screen.
      * <p>
@@ -194,8 +233,7 @@ public class BossRepairEditController {
     private void disableEditing() {
         mechanicCombo.setDisable(true);
         notesArea.setEditable(false);
-        unassignButton.setDisable(true);
-        saveButton.setDisable(true);
+        setActionsDisabled(true);
     }
 
     /**
@@ -216,6 +254,10 @@ public class BossRepairEditController {
             errorLabel.setText("Session expired.");
             return;
         }
+        if (version == null) {
+            errorLabel.setText("Still loading the repair. Please wait.");
+            return;
+        }
 
         RegisterRepairController.IdName selected = mechanicCombo.getSelectionModel().getSelectedItem();
         if (selected == null || selected.getId() <= 0) {
@@ -225,9 +267,8 @@ public class BossRepairEditController {
 
         try {
             String notes = notesArea.getText() != null ? notesArea.getText().trim() : "";
-            boolean ok = repairOrderDao.assignMechanicAndUpdateNotes(repairId, bossId, selected.getId(), notes);
-            if (!ok) {
-                errorLabel.setText("No changes were saved (maybe status is not editable).");
+            UpdateOutcome outcome = repairOrderDao.assignMechanicAndUpdateNotes(repairId, bossId, selected.getId(), notes, version);
+            if (!showIfNotSaved(outcome)) {
                 return;
             }
 
@@ -255,12 +296,15 @@ public class BossRepairEditController {
             errorLabel.setText("Session expired.");
             return;
         }
+        if (version == null) {
+            errorLabel.setText("Still loading the repair. Please wait.");
+            return;
+        }
 
         try {
             String notes = notesArea.getText() != null ? notesArea.getText().trim() : "";
-            boolean ok = repairOrderDao.unassignMechanicAndUpdateNotes(repairId, bossId, notes);
-            if (!ok) {
-                errorLabel.setText("No changes were saved (maybe status is not editable).");
+            UpdateOutcome outcome = repairOrderDao.unassignMechanicAndUpdateNotes(repairId, bossId, notes, version);
+            if (!showIfNotSaved(outcome)) {
                 return;
             }
 
@@ -271,6 +315,35 @@ public class BossRepairEditController {
         }
     }
 
+    /**
+     * Tells the boss why a change was not saved.
+     * <p>
+     * If someone else changed the repair meanwhile (for example a mechanic started it,
+     * or it was reassigned from the repairs list), the repair is reloaded so the boss
+     * sees the current data before trying again.
+     * </p>
+     *
+     * @param outcome the outcome of the update
+     * @return true if the change was saved, false otherwise
+     */
+    private boolean showIfNotSaved(UpdateOutcome outcome) {
+        switch (outcome) {
+            case UPDATED -> {
+                return true;
+            }
+            case CONFLICT -> {
+                errorLabel.setText("Someone else changed this repair. It has been reloaded; review it and save again.");
+                loadRepairDetails();
+            }
+            case NOT_ALLOWED -> errorLabel.setText("No changes were saved: the status of this repair is not editable.");
+            case NOT_FOUND -> {
+                errorLabel.setText("Repair not found (or you don't have permissions). ");
+                disableEditing();
+            }
+        }
+        return false;
+    }
+
     /**
      * Handles the back navigation action.
      * <p>
@@ -290,9 +363,9 @@ public class BossRepairEditController {
     }
 
     /**
-     * Navigates to a different view by loading an FXML and replacing the current scene.
+     * Navigates to a different view by loading an FXML and replacing the root of the current scene.
      * <p>
-     * If the main stylesheet exists, it is applied to the new scene as well.
+     * The scene and its stylesheet are kept (see {@link SceneLoader}).
      * </p>
      *
      * @param source   the node that triggered navigation
@@ -302,11 +375,6 @@ public class BossRepairEditController {
     private void goTo(Node source, String fxmlPath) throws Exception {
         Stage stage = (Stage) source.getScene().getWindow();
         Parent root = FXMLLoader.load(getClass().getResource(fxmlPath));
-        Scene scene = new Scene(root);
-        if (getClass().getResource("/styles/app.css") != null) {
-            scene.getStylesheets().add(getClass().getResource("/styles/app.css").toExternalForm());
-        }
-        stage.setScene(scene);
-        stage.show();
+        SceneLoader.show(stage, root);
     }
 }
@@ -1,24 +1,33 @@
 package dealership.controllers;
 
 import dealership.dao.RepairOrderDao;
+import dealership.dao.UserDao;
+import dealership.model.RepairReassignResult;
 import dealership.model.RepairTaskRow;
+import dealership.util.DbAsync;
+import dealership.util.ListDiff;
 import dealership.util.RepairSelectionContext;
 import dealership.util.SessionContext;
+import dealership.util.SceneLoader;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.SelectionMode;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Controller for the boss repairs list screen.
  * <p>
@@ -26,6 +35,10 @@ import javafx.stage.Stage;
  * the boss to open the edit view for a specific repair. The selected repair ID
  * is stored in {@link RepairSelectionContext} before navigating to the edit screen.
  * </p>
+ * <p>
+ * Several repairs can be selected (Ctrl/Shift + click) and reassigned to another
+ * mechanic, or unassigned, in one operation (for example when a mechanic is absent).
+ * </p>
  */
 public class BossRepairsController {
 
@@ -47,17 +60,31 @@ public class BossRepairsController {
     @FXML
     private TableColumn<RepairTaskRow, Void> actionColumn;
 
+    @FXML
+    private ComboBox<RegisterRepairController.IdName> mechanicCombo;
+
+    @FXML
+    private Button reassignButton;
+
+    @FXML
+    private Button unassignButton;
+
+    @FXML
+    private Label resultLabel;
+
     @FXML
     private Label errorLabel;
 
     private final RepairOrderDao repairOrderDao = new RepairOrderDao();
+    private final UserDao userDao = new UserDao();
+    private final ObservableList<RepairTaskRow> repairs = FXCollections.observableArrayList();
 
     /**
      * Initializes the controller after the FXML has been loaded.
      * <p>
      * It binds table columns to {@link RepairTaskRow} properties, configures the
-     * action column with an "Edit" link and loads the repairs list for the
-     * current boss user.
+     * action column with an "Edit" link, enables multiple selection and loads the
+     * repairs list and the mechanics for the current boss user.
      * </p>
      */
     @FXML
@@ -67,7 +94,130 @@ public class BossRepairsController {
         statusColumn.setCellValueFactory(new PropertyValueFactory<>("status"));
 
         setupActionColumn();
+        repairsTable.setItems(repairs);
+        repairsTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
         loadRepairs();
+        loadMechanics();
+    }
+
+    /**
+     * Loads the active mechanics into the bulk reassignment combo box, in the background.
+     * <p>
+     * A failure is shown in the combo box itself, not in the error label, so that
+     * reloading the repairs does not clear it.
+     * </p>
+     */
+    private void loadMechanics() {
+        DbAsync.load(
+                userDao::findActiveMechanicsForCombo,
+                mechanics -> mechanicCombo.getItems().setAll(mechanics),
+                ex -> {
+                    ex.printStackTrace();
+                    mechanicCombo.setPromptText("Could not load mechanics");
+                    mechanicCombo.setDisable(true);
+                }
+        );
+    }
+
+    /**
+     * Handles the "Reassign" action: assigns the chosen mechanic to every selected repair.
+     */
+    @FXML
+    private void handleReassignSelected() {
+        RegisterRepairController.IdName mechanic = mechanicCombo.getSelectionModel().getSelectedItem();
+        if (mechanic == null) {
+            errorLabel.setText("Select the mechanic to assign.");
+            return;
+        }
+        reassignSelected(mechanic.getId());
+    }
+
+    /**
+     * Handles the "Unassign" action: removes the mechanic from every selected repair.
+     */
+    @FXML
+    private void handleUnassignSelected() {
+        reassignSelected(null);
+    }
+
+    /**
+     * Reassigns (or unassigns) the selected repairs in one background operation.
+     * <p>
+     * The whole selection is updated in a single transaction (see
+     * {@link RepairOrderDao#reassignRepairs}); repairs that are not editable anymore
+     * are skipped and listed in the result. The table is reloaded afterwards.
+     * </p>
+     *
+     * @param mechanicId the mechanic to assign, or null to unassign
+     */
+    private void reassignSelected(Integer mechanicId) {
+        errorLabel.setText("");
+        resultLabel.setText("");
+
+        Integer bossId = SessionContext.getUserId();
+        if (bossId == null) {
+            errorLabel.setText("Session expired. Please login again.");
+            return;
+        }
+
+        List<Integer> repairIds = new ArrayList<>();
+        for (RepairTaskRow row : repairsTable.getSelectionModel().getSelectedItems()) {
+            repairIds.add(row.getRepairId());
+        }
+        if (repairIds.isEmpty()) {
+            errorLabel.setText("Select one or more repairs first.");
+            return;
+        }
+
+        setBulkButtonsDisabled(true);
+
+        DbAsync.load(
+                () -> repairOrderDao.reassignRepairs(repairIds, bossId, mechanicId),
+                results -> {
+                    setBulkButtonsDisabled(false);
+                    resultLabel.setText(describe(results, mechanicId != null));
+                    repairsTable.getSelectionModel().clearSelection();
+                    loadRepairs();
+                },
+                ex -> {
+                    ex.printStackTrace();
+                    setBulkButtonsDisabled(false);
+                    errorLabel.setText("Could not update the selected repairs. No changes were saved.");
+                }
+        );
+    }
+
+    /**
+     * Builds the summary of a bulk operation, listing the repairs that were skipped.
+     *
+     * @param results the per-repair outcomes
+     * @param assigned true for a reassignment, false for an unassignment
+     * @return the summary text
+     */
+    private String describe(List<RepairReassignResult> results, boolean assigned) {
+        int updated = 0;
+        StringBuilder skipped = new StringBuilder();
+
+        for (RepairReassignResult result : results) {
+            switch (result.getOutcome()) {
+                case UPDATED -> updated++;
+                case NOT_EDITABLE -> skipped.append(String.format("%n#%d skipped: status is %s.",
+                        result.getRepairId(), result.getStatus()));
+                case NOT_FOUND -> skipped.append(String.format("%n#%d skipped: not found.", result.getRepairId()));
+            }
+        }
+
+        return updated + " of " + results.size() + " repairs " + (assigned ? "reassigned." : "unassigned.") + skipped;
+    }
+
+    /**
+     * Enables or disables the bulk reassignment buttons while an operation runs.
+     *
+     * @param disabled true to disable them
+     */
+    private void setBulkButtonsDisabled(boolean disabled) {
+        reassignButton.setDisable(disabled);
+        unassignButton.setDisable(disabled);
     }
 
     /**
@@ -131,7 +281,9 @@ public class BossRepairsController {
      * <p>
      * The boss user ID is retrieved from {@link SessionContext}. If the session
      * is missing/expired, an error message is shown. Otherwise, repairs are
-     * queried through {@link RepairOrderDao}.
+     * queried through {@link RepairOrderDao} in the background (see {@link DbAsync})
+     * while the table shows a loading placeholder, and merged into the table with
+     * {@link ListDiff}.
      * </p>
      */
     private void loadRepairs() {
@@ -143,15 +295,20 @@ public class BossRepairsController {
             return;
         }
 
-        try {
-            ObservableList<RepairTaskRow> data = FXCollections.observableArrayList(
-                    repairOrderDao.findRepairsByBossId(bossId)
-            );
-            repairsTable.setItems(data);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            errorLabel.setText("Could not load repairs from database.");
-        }
+        repairsTable.setPlaceholder(new Label("Loading repairs..."));
+
+        DbAsync.load(
+                () -> repairOrderDao.findRepairsByBossId(bossId),
+                rows -> {
+                    ListDiff.merge(repairs, rows, RepairTaskRow::getRepairId, RepairTaskRow::updateFrom);
+                    repairsTable.setPlaceholder(new Label("No repairs found."));
+                },
+                ex -> {
+                    ex.printStackTrace();
+                    repairsTable.setPlaceholder(new Label("Could not load repairs."));
+                    errorLabel.setText("Could not load repairs from database.");
+                }
+        );
     }
 
     /**
@@ -174,9 +331,9 @@ public class BossRepairsController {
     }
 
     /**
-     * Navigates to a different view by loading an FXML file and replacing the scene.
+     * Navigates to a different view by loading an FXML file and replacing the scene root.
      * <p>
-     * If the main stylesheet exists, it is applied to the new scene as well.
+     * The scene and its stylesheet are kept (see {@link SceneLoader}).
      * </p>
      *
      * @param source   the node that triggered navigation
@@ -186,11 +343,6 @@ public class BossRepairsController {
     private void goTo(Node source, String fxmlPath) throws Exception {
         Stage stage = (Stage) source.getScene().getWindow();
         Parent root = FXMLLoader.load(getClass().getResource(fxmlPath));
-        Scene scene = new Scene(root);
-        if (getClass().getResource("/styles/app.css") != null) {
-            scene.getStylesheets().add(getClass().getResource("/styles/app.css").toExternalForm());
-        }
-        stage.setScene(scene);
-        stage.show();
+        SceneLoader.show(stage, root);
     }
 }
@@ -1,8 +1,9 @@
 package dealership.controllers;
 
 import dealership.model.RepairDetails;
+import dealership.util.SceneLoader;
 import javafx.fxml.FXML;
-import javafx.scene.Scene;
+import javafx.scene.Parent;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Label;
 import javafx.stage.Stage;
@@ -12,7 +13,7 @@ import javafx.stage.Stage;
  * <p>
  * This view is used to display customer contact information related to a repair,
  * plus the vehicle involved. It also provides a simple "Notify" action and a
- * back navigation to return to the previous scene.
+ * back navigation to return to the previous view.
  * </p>
  */
 public class CustomerDetailsController {
@@ -32,21 +33,21 @@ public class CustomerDetailsController {
     private RepairDetails details;
 
     private Stage stage;
-    private Scene previousScene; 
+    private Parent previousRoot;
 
     /**
      * Sets the navigation context needed to return back to the previous screen.
      * <p>
      * This controller does not load scenes by itself. Instead, the caller provides
-     * the current stage and the scene to return to when the user presses Back.
+     * the current stage and the root of the view to return to when the user presses Back.
      * </p>
      *
      * @param stage the stage where this view is being shown
-     * @param previousScene the scene to restore when going back
+     * @param previousRoot the root of the view to restore when going back
      */
-    public void setNavigationContext(Stage stage, Scene previousScene) {
+    public void setNavigationContext(Stage stage, Parent previousRoot) {
         this.stage = stage;
-        this.previousScene = previousScene;
+        this.previousRoot = previousRoot;
     }
 
     /**
@@ -96,15 +97,14 @@ public class CustomerDetailsController {
     /**
      * Handles the back action.
      * <p>
-     * Restores the previous scene in the same stage if both were provided.
+     * Restores the previous view in the same stage if both were provided.
      * </p>
      */
     @FXML
     private void handleBack() {
         try {
-            if (stage != null && previousScene != null) {
-                stage.setScene(previousScene);
-                stage.show();
+            if (stage != null && previousRoot != null) {
+                SceneLoader.show(stage, previousRoot);
             }
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -1,14 +1,17 @@
 package dealership.controllers;
 
+import dealership.dao.RepairOrderDao;
 import dealership.dao.UserDao;
+import dealership.dao.VehicleDao;
 import dealership.model.AuthUser;
 import dealership.util.SessionContext;
+import dealership.util.ViewPrewarm;
+import dealership.util.SceneLoader;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
@@ -35,6 +38,10 @@ public class LoginController {
      * authenticates the user, stores the session (including dealership id),
      * and loads the correct view based on the resolved role.
      * </p>
+     * <p>
+     * The first query of the role screen is prefetched before the view is loaded,
+     * so it runs in parallel with the scene switch (see {@link ViewPrewarm}).
+     * </p>
      *
      * @param event the action event triggered by the login button
      */
@@ -71,19 +78,24 @@ public class LoginController {
 
             if ("MECHANIC".equals(role)) {
 
+                int mechanicId = user.getId();
+                ViewPrewarm.prefetch(ViewPrewarm.MECHANIC_TASKS,
+                        () -> new RepairOrderDao().findTasksByMechanicId(mechanicId));
                 loadView(stage, "/views/mechanic-tasks-view.fxml");
 
             } else if ("CHIEF_MECHANIC".equals(role) || "MECHANIC_BOSS".equals(role) || "BOSS_MECHANIC".equals(role)) {
 
                 loadView(stage, "/views/boss-menu-view.fxml");
 
-            } else if ("SALES".equals(role)) {
-
-                loadView(stage, "/views/sales-main-view.fxml");
+            } else if ("SALES".equals(role) || "OWNER".equals(role)) {
 
-            } else if ("OWNER".equals(role)) {
+                // Owners get the same screens read-only (see SessionContext.isReadOnly).
 
-                errorLabel.setText("Owner role will be implemented later.");
+                Integer dealershipId = SessionContext.getListDealershipId();
+                ViewPrewarm.prefetch(ViewPrewarm.SALES_VEHICLES_FIRST_PAGE,
+                        () -> new VehicleDao().searchVehiclesForSalesPage(dealershipId, "", null,
+                                SalesVehiclesController.PAGE_SIZE));
+                loadView(stage, "/views/sales-main-view.fxml");
 
             } else {
 
@@ -110,8 +122,8 @@ public class LoginController {
     /**
      * Loads an FXML view into the given stage.
      * <p>
-     * This method creates a new {@link Scene}, applies the main application
-     * stylesheet if available, and shows the stage.
+     * This method shows the loaded view through {@link SceneLoader}, which
+     * reuses the scene of the login screen and its stylesheet.
      * </p>
      *
      * @param stage the stage where the view will be displayed
@@ -122,14 +134,7 @@ public class LoginController {
         FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
         Parent root = loader.load();
 
-        Scene scene = new Scene(root);
-
-        if (getClass().getResource("/styles/app.css") != null) {
-            scene.getStylesheets().add(getClass().getResource("/styles/app.css").toExternalForm());
-        }
-
-        stage.setScene(scene);
-        stage.show();
+        SceneLoader.show(stage, root);
     }
 }
 
@@ -2,11 +2,14 @@ package dealership.controllers;
 
 import dealership.dao.RepairHistoryDao;
 import dealership.model.RepairHistoryRow;
+import dealership.util.DbAsync;
 import dealership.util.SessionContext;
+import dealership.util.SceneLoader;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.scene.Scene;
+import javafx.scene.Parent;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.stage.Stage;
@@ -16,7 +19,7 @@ import javafx.stage.Stage;
  * <p>
  * This view shows a table with the repairs previously handled by the current mechanic.
  * The mechanic ID is taken from {@link SessionContext}. A simple navigation context
- * can be injected so the user can return to the previous scene.
+ * can be injected so the user can return to the previous view.
  * </p>
  */
 public class MechanicHistoryController {
@@ -39,21 +42,21 @@ public class MechanicHistoryController {
     private final ObservableList<RepairHistoryRow> data = FXCollections.observableArrayList();
 
     private Stage stage;
-    private Scene previousScene;
+    private Parent previousRoot;
 
     /**
      * Sets the navigation context used for returning to the previous screen.
      * <p>
-     * The caller provides the stage currently showing this view and the scene
+     * The caller provides the stage currently showing this view and the root
      * that should be restored when the user presses Back.
      * </p>
      *
      * @param stage the stage where this view is shown
-     * @param previousScene the scene to restore when going back
+     * @param previousRoot the root of the view to restore when going back
      */
-    public void setNavigationContext(Stage stage, Scene previousScene) {
+    public void setNavigationContext(Stage stage, Parent previousRoot) {
         this.stage = stage;
-        this.previousScene = previousScene;
+        this.previousRoot = previousRoot;
     }
 
     /**
@@ -80,38 +83,43 @@ public class MechanicHistoryController {
      * Loads the repair history for the current mechanic.
      * <p>
      * The mechanic ID is read from {@link SessionContext}. If it is missing,
-     * a default value is used. The results are loaded through {@link RepairHistoryDao}
-     * and appended to the observable list bound to the table.
+     * a default value is used. The results are loaded in the background through
+     * {@link RepairHistoryDao} and {@link DbAsync}, then appended to the observable
+     * list bound to the table. A loading placeholder is shown meanwhile.
      * </p>
      */
     private void loadHistory() {
         data.clear();
-
-        Integer mechanicId = SessionContext.getUserId();
-        if (mechanicId == null) {
-            mechanicId = 1;
-        }
-
-        try {
-            RepairHistoryDao dao = new RepairHistoryDao();
-            data.addAll(dao.findHistoryByMechanicId(mechanicId));
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+        historyTable.setPlaceholder(new Label("Loading history..."));
+
+        Integer sessionUserId = SessionContext.getUserId();
+        int mechanicId = (sessionUserId != null) ? sessionUserId : 1;
+
+        RepairHistoryDao dao = new RepairHistoryDao();
+        DbAsync.load(
+                () -> dao.findHistoryByMechanicId(mechanicId),
+                rows -> {
+                    data.addAll(rows);
+                    historyTable.setPlaceholder(new Label("No finished repairs yet."));
+                },
+                ex -> {
+                    ex.printStackTrace();
+                    historyTable.setPlaceholder(new Label("Could not load history."));
+                }
+        );
     }
 
     /**
      * Handles the back action.
      * <p>
-     * If a navigation context was provided, it restores the previous scene on
+     * If a navigation context was provided, it restores the previous view on
      * the same stage.
      * </p>
      */
     @FXML
     private void handleBack() {
-        if (stage != null && previousScene != null) {
-            stage.setScene(previousScene);
-            stage.show();
+        if (stage != null && previousRoot != null) {
+            SceneLoader.show(stage, previousRoot);
         }
     }
 }
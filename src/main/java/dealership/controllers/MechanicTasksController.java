@@ -2,20 +2,27 @@ package dealership.controllers;
 
 import dealership.dao.RepairOrderDao;
 import dealership.model.RepairTaskRow;
+import dealership.util.DbAsync;
+import dealership.util.ListDiff;
 import dealership.util.SessionContext;
+import dealership.util.ViewPrewarm;
+import dealership.util.SceneLoader;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.stage.Stage;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Controller for the mechanic tasks screen.
  * <p>
@@ -65,26 +72,34 @@ public class MechanicTasksController {
      * Loads the tasks assigned to the current mechanic.
      * <p>
      * The mechanic ID is retrieved from {@link SessionContext}. If the session does not
-     * provide an ID, a default value is used. Tasks are fetched from the database using
-     * {@link RepairOrderDao} and displayed in the table.
+     * provide an ID, a default value is used. Tasks are fetched in the background using
+     * {@link RepairOrderDao} (through {@link DbAsync}) and merged into the table
+     * with {@link ListDiff}, so rows already shown are kept and updated in place.
+     * While the table is empty it shows a loading placeholder. Right after login
+     * the tasks may already have been prefetched (see {@link ViewPrewarm}).
      * </p>
      */
     private void loadTasks() {
-        tasks.clear();
-
-        Integer mechanicId = SessionContext.getUserId();
-        if (mechanicId == null) {
-            mechanicId = 1;
-        }
-
-        try {
-            RepairOrderDao dao = new RepairOrderDao();
-            tasks.addAll(dao.findTasksByMechanicId(mechanicId));
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
-
         tasksTable.setItems(tasks);
+        tasksTable.setPlaceholder(new Label("Loading tasks..."));
+
+        Integer sessionUserId = SessionContext.getUserId();
+        int mechanicId = (sessionUserId != null) ? sessionUserId : 1;
+
+        RepairOrderDao dao = new RepairOrderDao();
+        CompletableFuture<List<RepairTaskRow>> prefetched = ViewPrewarm.takePrefetched(ViewPrewarm.MECHANIC_TASKS);
+
+        DbAsync.load(
+                (prefetched != null) ? prefetched::get : () -> dao.findTasksByMechanicId(mechanicId),
+                list -> {
+                    ListDiff.merge(tasks, list, RepairTaskRow::getRepairId, RepairTaskRow::updateFrom);
+                    tasksTable.setPlaceholder(new Label("No tasks assigned."));
+                },
+                ex -> {
+                    ex.printStackTrace();
+                    tasksTable.setPlaceholder(new Label("Could not load tasks."));
+                }
+        );
     }
 
     /**
@@ -139,20 +154,16 @@ public class MechanicTasksController {
             Node source = (Node) event.getSource();
             Stage stage = (Stage) source.getScene().getWindow();
 
-            Scene previousScene = source.getScene();
+            Parent previousRoot = source.getScene().getRoot();
 
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/views/repair-details-view.fxml"));
             Parent root = loader.load();
 
             RepairDetailsController controller = loader.getController();
-            controller.setNavigationContext(stage, previousScene);
+            controller.setNavigationContext(stage, previousRoot);
             controller.setRepairId(repairId);
 
-            Scene scene = new Scene(root);
-            scene.getStylesheets().add(getClass().getResource("/styles/app.css").toExternalForm());
-
-            stage.setScene(scene);
-            stage.show();
+            SceneLoader.show(stage, root);
 
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -174,11 +185,8 @@ public class MechanicTasksController {
         try {
             Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
             Parent root = FXMLLoader.load(getClass().getResource("/views/login-view.fxml"));
-            Scene scene = new Scene(root);
-            scene.getStylesheets().add(getClass().getResource("/styles/app.css").toExternalForm());
             stage.setTitle("Concesionario Picasso");
-            stage.setScene(scene);
-            stage.show();
+            SceneLoader.show(stage, root);
         } catch (Exception ex) {
             ex.printStackTrace();
         }
@@ -198,7 +206,7 @@ public class MechanicTasksController {
         try {
             javafx.scene.Node source = (javafx.scene.Node) event.getSource();
             javafx.stage.Stage stage = (javafx.stage.Stage) source.getScene().getWindow();
-            javafx.scene.Scene previousScene = source.getScene();
+            javafx.scene.Parent previousRoot = source.getScene().getRoot();
 
             javafx.fxml.FXMLLoader loader =
                     new javafx.fxml.FXMLLoader(getClass().getResource("/views/mechanic-history-view.fxml"));
@@ -206,13 +214,9 @@ public class MechanicTasksController {
             javafx.scene.Parent root = loader.load();
 
             MechanicHistoryController controller = loader.getController();
-            controller.setNavigationContext(stage, previousScene);
-
-            javafx.scene.Scene scene = new javafx.scene.Scene(root);
-            scene.getStylesheets().add(getClass().getResource("/styles/app.css").toExternalForm());
+            controller.setNavigationContext(stage, previousRoot);
 
-            stage.setScene(scene);
-            stage.show();
+            SceneLoader.show(stage, root);
 
         } catch (Exception ex) {
             ex.printStackTrace();
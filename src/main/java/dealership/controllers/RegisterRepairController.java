@@ -4,20 +4,23 @@ import dealership.dao.CustomerDao;
 import dealership.dao.RepairOrderDao;
 import dealership.dao.UserDao;
 import dealership.dao.VehicleDao;
+import dealership.util.DbAsync;
 import dealership.util.SessionContext;
-import javafx.collections.FXCollections;
+import dealership.util.SceneLoader;
+import dealership.util.TypeaheadSelector;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.ChoiceDialog;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextArea;
 import javafx.stage.Stage;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -25,7 +28,7 @@ import java.util.Optional;
  * <p>
  * This controller allows the boss to create a new repair order by selecting:
  * a vehicle, a customer and an assigned mechanic, plus writing some notes.
- * The required combo data is loaded from the database on initialization.
+ * Vehicles and customers are picked with typeahead combo boxes.
  * </p>
  */
 public class RegisterRepairController {
@@ -47,30 +50,29 @@ public class RegisterRepairController {
 
     private IdName selectedMechanic;
 
+    private TypeaheadSelector<IdName> vehicleSelector;
+    private TypeaheadSelector<IdName> customerSelector;
+
     /**
      * Initializes the controller after the FXML has been loaded.
      * <p>
-     * It loads vehicles and customers from the database and sets initial UI values.
-     * If any database load fails, a message is shown on the screen.
+     * It turns the vehicle and customer combo boxes into typeahead selectors
+     * (see {@link TypeaheadSelector}): instead of loading every vehicle and
+     * customer, they query the database by prefix in the background as the user
+     * types. It also sets the initial UI values.
      * </p>
      */
     @FXML
     private void initialize() {
         errorLabel.setText("");
 
-        try {
-            VehicleDao vehicleDao = new VehicleDao();
-            List<IdName> vehicles = vehicleDao.findAllVehiclesForCombo();
-            vehicleCombo.setItems(FXCollections.observableArrayList(vehicles));
-
-            CustomerDao customerDao = new CustomerDao();
-            List<IdName> customers = customerDao.findAllCustomersForCombo();
-            customerCombo.setItems(FXCollections.observableArrayList(customers));
+        VehicleDao vehicleDao = new VehicleDao();
+        vehicleSelector = TypeaheadSelector.attach(vehicleCombo,
+                "Type a plate, brand or model", vehicleDao::findVehiclesForComboByPrefix, IdName::getSearchKeys);
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            errorLabel.setText("Error loading data from database.");
-        }
+        CustomerDao customerDao = new CustomerDao();
+        customerSelector = TypeaheadSelector.attach(customerCombo,
+                "Type a name or DNI", customerDao::findCustomersForComboByPrefix, IdName::getSearchKeys);
 
         selectedMechanic = null;
         assignedMechanicLabel.setText("Assigned mechanic: (none)");
@@ -89,6 +91,8 @@ public class RegisterRepairController {
     @FXML
     private void handleBack(javafx.event.ActionEvent event) {
         errorLabel.setText("");
+        vehicleSelector.cancel();
+        customerSelector.cancel();
         try {
             goTo(event, "/views/boss-menu-view.fxml");
         } catch (Exception ex) {
@@ -100,7 +104,8 @@ public class RegisterRepairController {
     /**
      * Opens a dialog to select and assign a mechanic to the new repair.
      * <p>
-     * The mechanics list is loaded from the database. If the user selects a mechanic,
+     * The mechanics list is loaded from the database in the background. Once it
+     * arrives, a selection dialog is shown. If the user selects a mechanic,
      * the selection is stored and the UI label is updated.
      * </p>
      *
@@ -108,32 +113,35 @@ public class RegisterRepairController {
      */
     @FXML
     private void handleAssignMechanic(javafx.event.ActionEvent event) {
-        errorLabel.setText("");
-
-        try {
-            UserDao userDao = new UserDao();
-            List<IdName> mechanics = userDao.findActiveMechanicsForCombo();
-
-            if (mechanics.isEmpty()) {
-                errorLabel.setText("No mechanics found.");
-                return;
-            }
-
-            ChoiceDialog<IdName> dialog = new ChoiceDialog<>(mechanics.get(0), mechanics);
-            dialog.setTitle("Assign to mechanic");
-            dialog.setHeaderText("Select a mechanic");
-            dialog.setContentText("Mechanic:");
-
-            Optional<IdName> result = dialog.showAndWait();
-            if (result.isPresent()) {
-                selectedMechanic = result.get();
-                assignedMechanicLabel.setText("Assigned mechanic: " + selectedMechanic.getName());
-            }
-
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            errorLabel.setText("Error loading mechanics.");
-        }
+        errorLabel.setText("Loading mechanics...");
+
+        UserDao userDao = new UserDao();
+        DbAsync.load(
+                userDao::findActiveMechanicsForCombo,
+                mechanics -> {
+                    errorLabel.setText("");
+
+                    if (mechanics.isEmpty()) {
+                        errorLabel.setText("No mechanics found.");
+                        return;
+                    }
+
+                    ChoiceDialog<IdName> dialog = new ChoiceDialog<>(mechanics.get(0), mechanics);
+                    dialog.setTitle("Assign to mechanic");
+                    dialog.setHeaderText("Select a mechanic");
+                    dialog.setContentText("Mechanic:");
+
+                    Optional<IdName> result = dialog.showAndWait();
+                    if (result.isPresent()) {
+                        selectedMechanic = result.get();
+                        assignedMechanicLabel.setText("Assigned mechanic: " + selectedMechanic.getName());
+                    }
+                },
+                ex -> {
+                    ex.printStackTrace();
+                    errorLabel.setText("Error loading mechanics.");
+                }
+        );
     }
 
     /**
@@ -150,8 +158,8 @@ public class RegisterRepairController {
     private void handleCreateRepair(javafx.event.ActionEvent event) {
         errorLabel.setText("");
 
-        IdName selectedVehicle = vehicleCombo.getValue();
-        IdName selectedCustomer = customerCombo.getValue();
+        IdName selectedVehicle = vehicleSelector.getSelected();
+        IdName selectedCustomer = customerSelector.getSelected();
 
         if (selectedVehicle == null) {
             errorLabel.setText("Select a car.");
@@ -197,10 +205,10 @@ public class RegisterRepairController {
     }
 
     /**
-     * Navigates to a given FXML view by replacing the current scene.
+     * Navigates to a given FXML view by replacing the root of the current scene.
      * <p>
      * This method is used by this controller to move between screens.
-     * If the main stylesheet exists, it is applied to the loaded scene.
+     * The scene and its stylesheet are kept (see {@link SceneLoader}).
      * </p>
      *
      * @param event the action event that triggered navigation
@@ -211,13 +219,7 @@ public class RegisterRepairController {
         Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
         Parent root = FXMLLoader.load(getClass().getResource(fxmlPath));
 
-        Scene scene = new Scene(root);
-        if (getClass().getResource("/styles/app.css") != null) {
-            scene.getStylesheets().add(getClass().getResource("/styles/app.css").toExternalForm());
-        }
-
-        stage.setScene(scene);
-        stage.show();
+        SceneLoader.show(stage, root);
     }
 
     /**
@@ -230,6 +232,7 @@ public class RegisterRepairController {
     public static class IdName {
         private final int id;
         private final String name;
+        private final List<String> searchKeys;
 
         /**
          * Creates a new ID/name pair.
@@ -240,6 +243,21 @@ public class RegisterRepairController {
         public IdName(int id, String name) {
             this.id = id;
             this.name = name;
+            this.searchKeys = List.of();
+        }
+
+        /**
+         * Creates a new ID/name pair found by a typeahead prefix query.
+         *
+         * @param id the database identifier
+         * @param name the display name to show in the UI
+         * @param searchKeys the column values the query compared the typed words with
+         *                   (null values are skipped)
+         */
+        public IdName(int id, String name, String... searchKeys) {
+            this.id = id;
+            this.name = name;
+            this.searchKeys = Arrays.stream(searchKeys).filter(Objects::nonNull).toList();
         }
 
         /**
@@ -256,6 +274,13 @@ public class RegisterRepairController {
          */
         public String getName() { return name; }
 
+        /**
+         * Returns the column values a typeahead prefix query compared with the typed words.
+         *
+         * @return the search keys (empty for items not found by a prefix query)
+         */
+        public List<String> getSearchKeys() { return searchKeys; }
+
         /**
          * Returns the string representation used by JavaFX controls.
          *
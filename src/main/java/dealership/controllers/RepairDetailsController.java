@@ -2,10 +2,12 @@ package dealership.controllers;
 
 import dealership.dao.RepairOrderDao;
 import dealership.model.RepairDetails;
+import dealership.model.UpdateOutcome;
+import dealership.util.DbAsync;
+import dealership.util.SceneLoader;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -41,21 +43,21 @@ public class RepairDetailsController {
     private RepairDetails details;
 
     private Stage stage;
-    private Scene previousScene; 
+    private Parent previousRoot;
 
     /**
      * Sets the navigation context used to return to the previous screen.
      * <p>
-     * The caller should provide the stage and the previous scene so this controller
+     * The caller should provide the stage and the root of the previous view so this controller
      * can restore it when the user presses Back.
      * </p>
      *
      * @param stage the stage where this view is being displayed
-     * @param previousScene the scene to return to when going back
+     * @param previousRoot the root of the view to return to when going back
      */
-    public void setNavigationContext(Stage stage, Scene previousScene) {
+    public void setNavigationContext(Stage stage, Parent previousRoot) {
         this.stage = stage;
-        this.previousScene = previousScene;
+        this.previousRoot = previousRoot;
     }
 
     /**
@@ -74,37 +76,56 @@ public class RepairDetailsController {
     /**
      * Loads repair details from the database and updates the UI.
      * <p>
-     * If the repair does not exist, the screen is disabled and an informative message
-     * is displayed. Errors are handled by showing default messages and disabling actions.
+     * The query runs in the background through {@link DbAsync}. While it runs,
+     * the status shows a loading text and the actions are disabled. Errors are
+     * handled by showing default messages and disabling actions.
      * </p>
      */
     private void loadDetails() {
-        try {
-            RepairOrderDao dao = new RepairOrderDao();
-            details = dao.findRepairDetailsById(repairId);
-
-            if (details == null) {
-                statusLabel.setText("Unknown");
-                notesArea.setText("Repair not found.");
-                startButton.setDisable(true);
-                finishButton.setDisable(true);
-                customerButton.setDisable(true);
-                return;
-            }
+        statusLabel.setText("Loading...");
+        startButton.setDisable(true);
+        finishButton.setDisable(true);
 
-            statusLabel.setText(formatStatus(details.getStatus()));
-            notesArea.setText(details.getNotes().isEmpty() ? "No notes." : details.getNotes());
+        RepairOrderDao dao = new RepairOrderDao();
+        DbAsync.load(
+                () -> dao.findRepairDetailsById(repairId),
+                this::showDetails,
+                ex -> {
+                    ex.printStackTrace();
+                    statusLabel.setText("Error");
+                    notesArea.setText("Could not load repair details.");
+                    startButton.setDisable(true);
+                    finishButton.setDisable(true);
+                    customerButton.setDisable(true);
+                }
+        );
+    }
 
-            updateButtonsByStatus(details.getStatus());
+    /**
+     * Shows the loaded repair details on screen.
+     * <p>
+     * If the repair does not exist, the screen is disabled and an informative message
+     * is displayed.
+     * </p>
+     *
+     * @param loaded the loaded details, or null if the repair does not exist
+     */
+    private void showDetails(RepairDetails loaded) {
+        details = loaded;
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            statusLabel.setText("Error");
-            notesArea.setText("Could not load repair details.");
+        if (details == null) {
+            statusLabel.setText("Unknown");
+            notesArea.setText("Repair not found.");
             startButton.setDisable(true);
             finishButton.setDisable(true);
             customerButton.setDisable(true);
+            return;
         }
+
+        statusLabel.setText(formatStatus(details.getStatus()));
+        notesArea.setText(details.getNotes().isEmpty() ? "No notes." : details.getNotes());
+
+        updateButtonsByStatus(details.getStatus());
     }
 
     /**
@@ -173,9 +194,11 @@ public class RepairDetailsController {
      */
     @FXML
     private void handleStartRepair() {
+        if (details == null) return;
+
         try {
             RepairOrderDao dao = new RepairOrderDao();
-            dao.startRepair(repairId);
+            showIfNotApplied(dao.startRepair(repairId, details.getVersion()), "started");
             loadDetails();
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -192,9 +215,11 @@ public class RepairDetailsController {
      */
     @FXML
     private void handleFinishRepair() {
+        if (details == null) return;
+
         try {
             RepairOrderDao dao = new RepairOrderDao();
-            dao.finishRepair(repairId);
+            showIfNotApplied(dao.finishRepair(repairId, details.getVersion()), "finished");
             loadDetails();
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -202,6 +227,27 @@ public class RepairDetailsController {
         }
     }
 
+    /**
+     * Tells the mechanic why a status change did not apply.
+     * <p>
+     * This happens when the repair changed since it was loaded (for example the boss
+     * reassigned it), or when its status no longer allows the change. The caller
+     * reloads the repair afterwards, so the mechanic sees its current state.
+     * </p>
+     *
+     * @param outcome the outcome of the update
+     * @param action the action, for the message ("started" or "finished")
+     */
+    private void showIfNotApplied(UpdateOutcome outcome, String action) {
+        switch (outcome) {
+            case UPDATED -> { }
+            case CONFLICT -> showError("This repair was changed by someone else and has not been " + action
+                    + ". It has been reloaded.");
+            case NOT_ALLOWED -> showError("This repair cannot be " + action + " in its current status.");
+            case NOT_FOUND -> showError("Repair not found.");
+        }
+    }
+
     /**
      * Opens the customer details view for the current repair.
      * <p>
@@ -218,20 +264,16 @@ public class RepairDetailsController {
                 stage = (Stage) customerButton.getScene().getWindow();
             }
 
-            Scene repairDetailsScene = customerButton.getScene();
+            Parent repairDetailsRoot = customerButton.getScene().getRoot();
 
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/views/customer-details-view.fxml"));
             Parent root = loader.load();
 
             CustomerDetailsController controller = loader.getController();
             controller.setDetails(details);
-            controller.setNavigationContext(stage, repairDetailsScene);
-
-            Scene scene = new Scene(root);
-            scene.getStylesheets().add(getClass().getResource("/styles/app.css").toExternalForm());
+            controller.setNavigationContext(stage, repairDetailsRoot);
 
-            stage.setScene(scene);
-            stage.show();
+            SceneLoader.show(stage, root);
 
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -242,7 +284,7 @@ public class RepairDetailsController {
     /**
      * Handles the back action from this view.
      * <p>
-     * Restores the previous scene if it was provided through {@link #setNavigationContext(Stage, Scene)}.
+     * Restores the previous view if it was provided through {@link #setNavigationContext(Stage, Parent)}.
      * </p>
      */
     @FXML
@@ -251,9 +293,8 @@ public class RepairDetailsController {
             if (stage == null) {
                 stage = (Stage) customerButton.getScene().getWindow();
             }
-            if (previousScene != null) {
-                stage.setScene(previousScene);
-                stage.show();
+            if (previousRoot != null) {
+                SceneLoader.show(stage, previousRoot);
             }
         } catch (Exception ex) {
             ex.printStackTrace();
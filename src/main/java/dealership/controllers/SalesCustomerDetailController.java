@@ -2,10 +2,15 @@ package dealership.controllers;
 
 import dealership.dao.CustomerDao;
 import dealership.model.CustomerDetail;
+import dealership.util.DbAsync;
+import dealership.util.QueryScope;
+import dealership.util.RefreshableView;
 import dealership.util.SalesNavigation;
 import dealership.util.SelectedCustomerContext;
+import dealership.util.SessionContext;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
 
 import java.util.Optional;
 
@@ -18,7 +23,7 @@ import java.util.Optional;
  * customer is provided by {@link SelectedCustomerContext}.
  * </p>
  */
-public class SalesCustomerDetailController {
+public class SalesCustomerDetailController implements RefreshableView {
 
     // View labels
     @FXML private Label fullNameValue;
@@ -35,8 +40,10 @@ public class SalesCustomerDetailController {
     @FXML private Button saveButton;
     @FXML private Button cancelButton;
     @FXML private Button deleteButton;
+    @FXML private HBox actionsBox;
 
     private final CustomerDao customerDao = new CustomerDao();
+    private QueryScope viewScope = SalesNavigation.currentScope();
 
     private Integer customerId;
     private CustomerDetail currentCustomer;
@@ -52,6 +59,11 @@ public class SalesCustomerDetailController {
      */
     @FXML
     private void initialize() {
+        if (SessionContext.isReadOnly()) {
+            actionsBox.setVisible(false);
+            actionsBox.setManaged(false);
+        }
+
         customerId = SelectedCustomerContext.getCustomerId();
 
         if (customerId == null) {
@@ -64,38 +76,70 @@ public class SalesCustomerDetailController {
         setEditMode(false);
     }
 
+    /**
+     * Called when the cached view is shown again.
+     * <p>
+     * The selected customer may have changed since the view was last shown, so it
+     * runs the same steps as {@link #initialize()} with the id currently stored
+     * in {@link SelectedCustomerContext}.
+     * </p>
+     */
+    @Override
+    public void refresh() {
+        viewScope = SalesNavigation.currentScope();
+        initialize();
+    }
+
     /**
      * Loads the customer information for the given id and updates the UI.
      * <p>
-     * It fills both the read-only labels and the editable text fields.
-     * If the customer is not found, the user is redirected back to the list.
+     * The query runs in the background through {@link DbAsync}; the name label
+     * shows a loading text until the result arrives.
      * </p>
      *
      * @param id the customer identifier
      */
     private void loadCustomer(int id) {
-        try {
-            currentCustomer = customerDao.findCustomerDetailById(id);
+        fullNameValue.setText("Loading...");
+
+        DbAsync.load(
+                viewScope,
+                () -> customerDao.findCustomerDetailById(id),
+                customer -> showCustomer(id, customer),
+                e -> {
+                    e.printStackTrace();
+                    showError("Database error", "Could not load customer details.");
+                }
+        );
+    }
 
-            if (currentCustomer == null) {
-                showError("Not found", "Customer not found (ID: " + id + ").");
-                SalesNavigation.loadCenter("/views/sales-customers-view.fxml");
-                return;
-            }
+    /**
+     * Shows the loaded customer on screen.
+     * <p>
+     * It fills both the read-only labels and the editable text fields.
+     * If the customer is not found, the user is redirected back to the list.
+     * </p>
+     *
+     * @param id the requested customer identifier
+     * @param customer the loaded customer, or null if it does not exist
+     */
+    private void showCustomer(int id, CustomerDetail customer) {
+        currentCustomer = customer;
 
-            fullNameValue.setText(safeText(currentCustomer.getFullName()));
-            phoneValue.setText(safeText(currentCustomer.getPhone()));
-            emailValue.setText(safeText(currentCustomer.getEmail()));
+        if (currentCustomer == null) {
+            showError("Not found", "Customer not found (ID: " + id + ").");
+            SalesNavigation.loadCenter("/views/sales-customers-view.fxml");
+            return;
+        }
 
-            // Pre-fill edit fields
-            fullNameField.setText(safeTextForEdit(currentCustomer.getFullName()));
-            phoneField.setText(safeTextForEdit(currentCustomer.getPhone()));
-            emailField.setText(safeTextForEdit(currentCustomer.getEmail()));
+        fullNameValue.setText(safeText(currentCustomer.getFullName()));
+        phoneValue.setText(safeText(currentCustomer.getPhone()));
+        emailValue.setText(safeText(currentCustomer.getEmail()));
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Database error", "Could not load customer details.");
-        }
+        // Pre-fill edit fields
+        fullNameField.setText(safeTextForEdit(currentCustomer.getFullName()));
+        phoneField.setText(safeTextForEdit(currentCustomer.getPhone()));
+        emailField.setText(safeTextForEdit(currentCustomer.getEmail()));
     }
 
     /**
@@ -2,8 +2,15 @@ package dealership.controllers;
 
 import dealership.dao.CustomerDao;
 import dealership.model.SalesCustomerRow;
+import dealership.util.CsvImportDialog;
+import dealership.util.CustomerSearchIndex;
+import dealership.util.DbAsync;
+import dealership.util.ListDiff;
+import dealership.util.QueryScope;
+import dealership.util.RefreshableView;
 import dealership.util.SalesNavigation;
 import dealership.util.SelectedCustomerContext;
+import dealership.util.SessionContext;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -12,17 +19,17 @@ import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
-import java.util.List;
 
 /**
  * Controller for the Sales customers list screen.
  * <p>
  * This controller loads customers from the database and shows them in a table.
- * It also provides a simple search by name, and actions to view a customer
- * or create a new one.
+ * It also provides a search by name, DNI, email or phone (ignoring accents
+ * and case, see {@link CustomerSearchIndex}), and actions to view a customer,
+ * create a new one or import many from a CSV file.
  * </p>
  */
-public class SalesCustomersController {
+public class SalesCustomersController implements RefreshableView {
 
     @FXML private TextField searchField;
 
@@ -32,8 +39,16 @@ public class SalesCustomersController {
     @FXML private TableColumn<SalesCustomerRow, String> phoneCol;
     @FXML private TableColumn<SalesCustomerRow, SalesCustomerRow> actionCol;
 
+    @FXML private Button importButton;
+    @FXML private Button newCustomerButton;
+    @FXML private Label importStatusLabel;
+
     private final CustomerDao customerDao = new CustomerDao();
+    private QueryScope viewScope = SalesNavigation.currentScope();
     private final ObservableList<SalesCustomerRow> data = FXCollections.observableArrayList();
+    private final FilteredList<SalesCustomerRow> filtered = new FilteredList<>(data, v -> true);
+
+    private CustomerSearchIndex searchIndex;
 
     /**
      * Initializes the controller after the FXML has been loaded.
@@ -45,12 +60,31 @@ public class SalesCustomersController {
     @FXML
     private void initialize() {
         customersTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        if (SessionContext.isReadOnly()) {
+            importButton.setVisible(false);
+            importButton.setManaged(false);
+            newCustomerButton.setVisible(false);
+            newCustomerButton.setManaged(false);
+        }
 
         configureColumns();
         loadData();
         configureSearch();
     }
 
+    /**
+     * Called when the cached view is shown again.
+     * <p>
+     * It reloads the customers and merges them into the table, so the search
+     * text, sorting and selection are kept.
+     * </p>
+     */
+    @Override
+    public void refresh() {
+        viewScope = SalesNavigation.currentScope();
+        loadData();
+    }
+
     /**
      * Configures the table columns and the action column behavior.
      * <p>
@@ -97,40 +131,47 @@ public class SalesCustomersController {
     /**
      * Loads customers from the database and fills the table data list.
      * <p>
-     * If the load fails, an error dialog is shown and the table remains
-     * with whatever data it had before.
+     * The query runs in the background through {@link DbAsync} while the table
+     * shows a loading placeholder. If the load fails, an error dialog is shown
+     * and the table remains with whatever data it had before.
+     * </p>
+     * <p>
+     * The search index is built on the same background thread, right after the
+     * query, and the current search text is applied again with the new index.
      * </p>
      */
     private void loadData() {
-        try {
-            List<SalesCustomerRow> list = customerDao.findAllCustomersForSales();
-            data.setAll(list);
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Database error", "Could not load customers from database.");
-        }
+        customersTable.setPlaceholder(new Label("Loading customers..."));
+
+        DbAsync.load(
+                viewScope,
+                () -> CustomerSearchIndex.build(customerDao.findAllCustomersForSales()),
+                index -> {
+                    ListDiff.merge(data, index.getRows(), SalesCustomerRow::getId, SalesCustomerRow::updateFrom);
+                    searchIndex = index;
+                    filtered.setPredicate(index.matcher(searchField.getText()));
+                    customersTable.setPlaceholder(new Label("No customers found."));
+                },
+                e -> {
+                    e.printStackTrace();
+                    customersTable.setPlaceholder(new Label("Could not load customers."));
+                    showError("Database error", "Could not load customers from database.");
+                }
+        );
     }
 
     /**
-     * Configures the search field to filter the customers table by name.
+     * Configures the search field to filter the customers table.
      * <p>
      * Filtering is performed in memory using a {@link FilteredList} and a
-     * {@link SortedList} so table sorting still works.
+     * {@link SortedList} so table sorting still works. The matching customers
+     * are found with the {@link CustomerSearchIndex} of the last load; until
+     * the first load finishes, every customer is shown.
      * </p>
      */
     private void configureSearch() {
-        FilteredList<SalesCustomerRow> filtered = new FilteredList<>(data, v -> true);
-
-        searchField.textProperty().addListener((obs, oldValue, newValue) -> {
-            String queryText = (newValue == null) ? "" : newValue.trim().toLowerCase();
-
-            filtered.setPredicate(row -> {
-                if (queryText.isEmpty()) return true;
-
-                String nameText = (row.getFullName() != null) ? row.getFullName().toLowerCase() : "";
-                return nameText.contains(queryText);
-            });
-        });
+        searchField.textProperty().addListener((obs, oldValue, newValue) ->
+                filtered.setPredicate((searchIndex == null) ? row -> true : searchIndex.matcher(newValue)));
 
         SortedList<SalesCustomerRow> sorted = new SortedList<>(filtered);
         sorted.comparatorProperty().bind(customersTable.comparatorProperty());
@@ -162,6 +203,20 @@ public class SalesCustomersController {
         SalesNavigation.loadCenter("/views/sales-customer-new-view.fxml");
     }
 
+    /**
+     * Handles the "Import CSV" action.
+     * <p>
+     * The user picks a CSV file of customers (see {@link CustomerDao#importCustomers});
+     * the import runs in the background through {@link CsvImportDialog}, with its
+     * progress shown under the table; when it finishes, the list is reloaded.
+     * </p>
+     */
+    @FXML
+    private void handleImportCustomers() {
+        CsvImportDialog.start(customersTable.getScene().getWindow(), "Import customers", "customers",
+                importButton, importStatusLabel, customerDao::importCustomers, this::loadData);
+    }
+
     /**
      * Shows an error dialog with the given title and message.
      *
@@ -0,0 +1,369 @@
+package dealership.controllers;
+
+import dealership.dao.CustomerDao;
+import dealership.dao.ProposalDao;
+import dealership.dao.SaleDao;
+import dealership.dao.VehicleDao;
+import dealership.model.GlobalSearchResult;
+import dealership.model.IdentifierMatch;
+import dealership.model.SalesProposalRow;
+import dealership.model.SalesSaleRow;
+import dealership.model.SalesVehicleRow;
+import dealership.util.DbAsync;
+import dealership.util.GlobalSearch;
+import dealership.util.IdentifierIndex;
+import dealership.util.SalesNavigation;
+import dealership.util.SelectedCustomerContext;
+import dealership.util.SelectedProposalContext;
+import dealership.util.SelectedSaleContext;
+import dealership.util.SelectedVehicleContext;
+import dealership.util.SessionContext;
+import javafx.animation.PauseTransition;
+import javafx.fxml.FXML;
+import javafx.geometry.Side;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.SeparatorMenuItem;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Controller for the header shown at the top of every Sales screen.
+ * <p>
+ * Besides the logo, the header has a search box: the user types a name, plate,
+ * VIN, DNI or code and picks one of the suggestions (or presses Enter for the
+ * first one) to open the detail screen of that customer, vehicle, proposal or sale.
+ * </p>
+ * <p>
+ * Suggestions come from two places:
+ * - identifiers (plate, VIN, DNI) from the in-memory {@link IdentifierIndex}, shown
+ * on every keystroke without querying the database; the index is loaded in the
+ * background the first time the box gets the focus
+ * - a {@link GlobalSearch} over customers, vehicles, proposals and sales, started
+ * shortly after the user stops typing; its groups are added to the list as each
+ * source answers
+ * </p>
+ */
+public class SalesHeaderController {
+
+    /**
+     * Maximum number of suggestions shown under the box.
+     */
+    private static final int MAX_SUGGESTIONS = 8;
+
+    /**
+     * Maximum number of results of each entity type in the global search.
+     */
+    private static final int MAX_RESULTS_PER_TYPE = 8;
+
+    /**
+     * Minimum length of the text before the global search starts.
+     */
+    private static final int MIN_SEARCH_LENGTH = 2;
+
+    private static final long DEBOUNCE_MILLIS = 250L;
+
+    @FXML private TextField quickJumpField;
+
+    private final VehicleDao vehicleDao = new VehicleDao();
+    private final CustomerDao customerDao = new CustomerDao();
+    private final ProposalDao proposalDao = new ProposalDao();
+    private final SaleDao saleDao = new SaleDao();
+    private final ContextMenu suggestions = new ContextMenu();
+    private final PauseTransition debounce = new PauseTransition(Duration.millis(DEBOUNCE_MILLIS));
+
+    private List<IdentifierMatch> currentMatches = List.of();
+    private List<GlobalSearchResult> currentResults = List.of();
+    private String searchNote = "";
+    private GlobalSearch search;
+
+    /**
+     * Initializes the controller after the FXML has been loaded.
+     * <p>
+     * It loads the identifier index when the box is focused, updates the
+     * identifier suggestions when the text changes and starts the global search
+     * once the user stops typing.
+     * </p>
+     */
+    @FXML
+    private void initialize() {
+        quickJumpField.focusedProperty().addListener((obs, wasFocused, focused) -> {
+            if (focused) {
+                loadIndex();
+            } else {
+                suggestions.hide();
+            }
+        });
+
+        quickJumpField.textProperty().addListener((obs, oldValue, newValue) -> {
+            cancelSearch();
+            currentResults = List.of();
+            searchNote = "";
+            updateSuggestions(newValue);
+            debounce.playFromStart();
+        });
+
+        debounce.setOnFinished(e -> startSearch(quickJumpField.getText()));
+    }
+
+    /**
+     * Handles Enter in the search box: opens the first suggestion.
+     */
+    @FXML
+    private void handleQuickJump() {
+        if (!currentMatches.isEmpty()) {
+            open(currentMatches.get(0));
+        } else if (!currentResults.isEmpty()) {
+            open(currentResults.get(0));
+        }
+    }
+
+    /**
+     * Loads (or reloads, if expired) the identifier index in the background, with
+     * the vehicles of the dealership the lists are restricted to.
+     * <p>
+     * When the load finishes, the suggestions for the text already typed are shown.
+     * A failure is only reported on the console: the box then shows no suggestions.
+     * </p>
+     */
+    private void loadIndex() {
+        Integer dealershipId = SessionContext.getListDealershipId();
+
+        DbAsync.load(
+                () -> {
+                    IdentifierIndex.ensureLoaded(dealershipId, () -> {
+                        List<IdentifierMatch> entries = new ArrayList<>(vehicleDao.findVehicleIdentifiers(dealershipId));
+                        entries.addAll(customerDao.findCustomerIdentifiers());
+                        return entries;
+                    });
+                    return null;
+                },
+                ignored -> {
+                    if (quickJumpField.isFocused()) {
+                        updateSuggestions(quickJumpField.getText());
+                    }
+                },
+                e -> System.err.println("Could not load the identifier index: " + e.getMessage())
+        );
+    }
+
+    /**
+     * Looks up the typed text in the identifier index and refreshes the suggestions.
+     *
+     * @param text the text typed by the user
+     */
+    private void updateSuggestions(String text) {
+        currentMatches = IdentifierIndex.lookup(text, MAX_SUGGESTIONS);
+        showSuggestions();
+    }
+
+    /**
+     * Starts the global search for the typed text, replacing the one still running.
+     *
+     * @param text the text typed by the user
+     */
+    private void startSearch(String text) {
+        cancelSearch();
+
+        String query = (text == null) ? "" : text.trim();
+        if (query.length() < MIN_SEARCH_LENGTH) {
+            return;
+        }
+
+        Integer dealershipId = SessionContext.getListDealershipId();
+
+        List<GlobalSearch.Source> sources = List.of(
+                new GlobalSearch.Source(GlobalSearchResult.Type.CUSTOMER, () ->
+                        customerDao.findCustomersForComboByPrefix(query, MAX_RESULTS_PER_TYPE).stream()
+                                .map(c -> new GlobalSearchResult(GlobalSearchResult.Type.CUSTOMER, c.getId(), c.getName(), ""))
+                                .collect(Collectors.toList())),
+                new GlobalSearch.Source(GlobalSearchResult.Type.VEHICLE, () ->
+                        toVehicleResults(vehicleDao.searchVehiclesForSalesPage(dealershipId, query, null, MAX_RESULTS_PER_TYPE))),
+                new GlobalSearch.Source(GlobalSearchResult.Type.PROPOSAL, () ->
+                        toProposalResults(proposalDao.searchProposalsForSales(dealershipId, query, MAX_RESULTS_PER_TYPE))),
+                new GlobalSearch.Source(GlobalSearchResult.Type.SALE, () ->
+                        toSaleResults(saleDao.searchSalesForSales(dealershipId, query, MAX_RESULTS_PER_TYPE)))
+        );
+
+        search = GlobalSearch.start(query, sources,
+                results -> {
+                    currentResults = results;
+                    showSuggestions();
+                },
+                missing -> {
+                    if (!missing.isEmpty()) {
+                        searchNote = "No answer in time from: " + missing.stream()
+                                .map(GlobalSearchResult.Type::getLabel)
+                                .collect(Collectors.joining(", "));
+                        showSuggestions();
+                    }
+                });
+    }
+
+    /**
+     * Stops the pending and the running global search.
+     */
+    private void cancelSearch() {
+        debounce.stop();
+        if (search != null) {
+            search.cancel();
+            search = null;
+        }
+    }
+
+    /**
+     * Rebuilds the suggestion list: identifiers first, then the global search
+     * results grouped by entity type, then the note about missing sources.
+     */
+    private void showSuggestions() {
+        List<MenuItem> items = new ArrayList<>();
+
+        if (!currentMatches.isEmpty()) {
+            items.add(groupHeader("Go to"));
+            for (IdentifierMatch match : currentMatches) {
+                MenuItem item = new MenuItem(match.toString());
+                item.setOnAction(e -> open(match));
+                items.add(item);
+            }
+        }
+
+        GlobalSearchResult.Type group = null;
+        for (GlobalSearchResult result : currentResults) {
+            if (result.getType() != group) {
+                group = result.getType();
+                if (!items.isEmpty()) {
+                    items.add(new SeparatorMenuItem());
+                }
+                items.add(groupHeader(group.getLabel()));
+            }
+            MenuItem item = new MenuItem(result.toString());
+            item.setOnAction(e -> open(result));
+            items.add(item);
+        }
+
+        if (!searchNote.isEmpty()) {
+            items.add(groupHeader(searchNote));
+        }
+
+        if (items.isEmpty()) {
+            suggestions.hide();
+            return;
+        }
+
+        suggestions.getItems().setAll(items);
+
+        if (!suggestions.isShowing() && quickJumpField.getScene() != null && quickJumpField.isFocused()) {
+            suggestions.show(quickJumpField, Side.BOTTOM, 0, 0);
+        }
+    }
+
+    /**
+     * Creates a disabled menu item used as a group title or note.
+     *
+     * @param text the text to show
+     * @return the menu item
+     */
+    private static MenuItem groupHeader(String text) {
+        MenuItem header = new MenuItem(text);
+        header.setDisable(true);
+        return header;
+    }
+
+    /**
+     * Converts vehicle rows into search results.
+     *
+     * @param rows the vehicle rows
+     * @return the results
+     */
+    private static List<GlobalSearchResult> toVehicleResults(List<SalesVehicleRow> rows) {
+        List<GlobalSearchResult> list = new ArrayList<>(rows.size());
+        for (SalesVehicleRow row : rows) {
+            list.add(new GlobalSearchResult(GlobalSearchResult.Type.VEHICLE, row.getId(),
+                    (row.getPlate() == null) ? "" : row.getPlate(), row.getVehicle()));
+        }
+        return list;
+    }
+
+    /**
+     * Converts proposal rows into search results.
+     *
+     * @param rows the proposal rows
+     * @return the results
+     */
+    private static List<GlobalSearchResult> toProposalResults(List<SalesProposalRow> rows) {
+        List<GlobalSearchResult> list = new ArrayList<>(rows.size());
+        for (SalesProposalRow row : rows) {
+            list.add(new GlobalSearchResult(GlobalSearchResult.Type.PROPOSAL, row.getId(),
+                    row.getCustomer(), row.getProposalCode() + ", " + row.getVehicle() + " (" + row.getStatus() + ")"));
+        }
+        return list;
+    }
+
+    /**
+     * Converts sale rows into search results.
+     *
+     * @param rows the sale rows
+     * @return the results
+     */
+    private static List<GlobalSearchResult> toSaleResults(List<SalesSaleRow> rows) {
+        List<GlobalSearchResult> list = new ArrayList<>(rows.size());
+        for (SalesSaleRow row : rows) {
+            list.add(new GlobalSearchResult(GlobalSearchResult.Type.SALE, row.getId(),
+                    row.getCustomer(), row.getSaleCode() + ", " + row.getVehicle()));
+        }
+        return list;
+    }
+
+    /**
+     * Opens the detail screen of a global search result.
+     *
+     * @param result the chosen result
+     */
+    private void open(GlobalSearchResult result) {
+        cancelSearch();
+        suggestions.hide();
+        quickJumpField.clear();
+
+        switch (result.getType()) {
+            case CUSTOMER -> {
+                SelectedCustomerContext.setCustomerId(result.getId());
+                SalesNavigation.loadCenter("/views/sales-customer-detail-view.fxml");
+            }
+            case VEHICLE -> {
+                SelectedVehicleContext.setVehicleId(result.getId());
+                SalesNavigation.loadCenter("/views/sales-vehicle-detail-view.fxml");
+            }
+            case PROPOSAL -> {
+                SelectedProposalContext.setProposalId(result.getId());
+                SalesNavigation.loadCenter("/views/sales-proposal-detail-view.fxml");
+            }
+            case SALE -> {
+                SelectedSaleContext.setSaleId(result.getId());
+                SalesNavigation.loadCenter("/views/sales-sale-detail-view.fxml");
+            }
+        }
+    }
+
+    /**
+     * Opens the detail screen of the vehicle or customer of an identifier.
+     *
+     * @param match the chosen identifier
+     */
+    private void open(IdentifierMatch match) {
+        cancelSearch();
+        suggestions.hide();
+        quickJumpField.clear();
+
+        if (match.getKind().isVehicle()) {
+            SelectedVehicleContext.setVehicleId(match.getId());
+            SalesNavigation.loadCenter("/views/sales-vehicle-detail-view.fxml");
+        } else {
+            SelectedCustomerContext.setCustomerId(match.getId());
+            SalesNavigation.loadCenter("/views/sales-customer-detail-view.fxml");
+        }
+    }
+}
@@ -1,14 +1,15 @@
 package dealership.controllers;
 
 import dealership.util.SalesNavigation;
+import dealership.util.SceneLoader;
 import dealership.util.SessionContext;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 
@@ -40,11 +41,14 @@ public class SalesMainController {
     @FXML
     private Button logoutButton;
 
+    @FXML
+    private CheckBox allDealershipsCheck;
+
     /**
      * Called automatically when the view is loaded.
      * <p>
      * It registers the content holder for navigation and loads the default
-     * sales screen.
+     * sales screen. Owners also get the "All dealerships" toggle.
      * </p>
      */
     @FXML
@@ -52,6 +56,11 @@ public class SalesMainController {
         // Register holder for navigation
         SalesNavigation.setContentHolder(contentHolder);
 
+        boolean owner = SessionContext.isOwner();
+        allDealershipsCheck.setVisible(owner);
+        allDealershipsCheck.setManaged(owner);
+        allDealershipsCheck.setSelected(SessionContext.isAllDealerships());
+
         // Default screen
         SalesNavigation.loadCenter("/views/sales-vehicles-view.fxml");
     }
@@ -96,6 +105,21 @@ public class SalesMainController {
         SalesNavigation.loadCenter("/views/sales-sales-view.fxml");
     }
 
+    /**
+     * Handles the owner's "All dealerships" toggle.
+     * <p>
+     * It switches the list screens between the owner's dealership and every
+     * dealership, and reloads the current screen.
+     * </p>
+     *
+     * @param event the checkbox action event
+     */
+    @FXML
+    private void handleAllDealerships(ActionEvent event) {
+        SessionContext.setAllDealerships(allDealershipsCheck.isSelected());
+        SalesNavigation.reloadCurrent();
+    }
+
     /**
      * Handles logout action for the sales user.
      * <p>
@@ -109,6 +133,7 @@ public class SalesMainController {
     private void handleLogout(ActionEvent event) {
         try {
             SessionContext.clear();
+            SalesNavigation.clearViewCache();
 
             Stage stage = (Stage) ((Node) event.getSource())
                     .getScene()
@@ -117,16 +142,7 @@ public class SalesMainController {
             FXMLLoader loader = new FXMLLoader(
                     getClass().getResource("/views/login-view.fxml")
             );
-            Scene scene = new Scene(loader.load());
-
-            if (getClass().getResource("/styles/app.css") != null) {
-                scene.getStylesheets().add(
-                        getClass().getResource("/styles/app.css").toExternalForm()
-                );
-            }
-
-            stage.setScene(scene);
-            stage.show();
+            SceneLoader.show(stage, loader.load());
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -6,11 +6,11 @@ import dealership.dao.ProposalDao;
 import dealership.dao.VehicleDao;
 import dealership.util.SalesNavigation;
 import dealership.util.SessionContext;
+import dealership.util.TypeaheadSelector;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
 import java.math.BigDecimal;
-import java.util.List;
 
 /**
  * Controller for Sales -> New proposal screen.
@@ -31,35 +31,33 @@ public class SalesNewProposalController {
     private final VehicleDao vehicleDao = new VehicleDao();
     private final ProposalDao proposalDao = new ProposalDao();
 
+    private TypeaheadSelector<IdName> customerSelector;
+    private TypeaheadSelector<IdName> vehicleSelector;
+
     /**
      * Initializes the controller after the FXML has been loaded.
      * <p>
-     * It loads combo box data for customers and vehicles.
+     * It turns the customer and vehicle combo boxes into typeahead selectors.
      * </p>
      */
     @FXML
     private void initialize() {
-        loadCombos();
+        configureSelectors();
     }
 
     /**
-     * Loads the customers and vehicles into the combo boxes.
+     * Configures the customer and vehicle combo boxes as typeahead selectors.
      * <p>
-     * If something fails while reading from the database, an error dialog is shown.
+     * Instead of loading every customer and vehicle, each combo box queries the
+     * database by prefix as the user types and only holds a small window of
+     * matches (see {@link TypeaheadSelector}).
      * </p>
      */
-    private void loadCombos() {
-        try {
-            List<IdName> customers = customerDao.findAllCustomersForCombo();
-            customerCombo.getItems().setAll(customers);
-
-            List<IdName> vehicles = vehicleDao.findAllVehiclesForCombo();
-            vehicleCombo.getItems().setAll(vehicles);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Database error", "Could not load customers/vehicles.");
-        }
+    private void configureSelectors() {
+        customerSelector = TypeaheadSelector.attach(customerCombo,
+                "Type a name or DNI", customerDao::findCustomersForComboByPrefix, IdName::getSearchKeys);
+        vehicleSelector = TypeaheadSelector.attach(vehicleCombo,
+                "Type a plate, brand or model", vehicleDao::findVehiclesForComboByPrefix, IdName::getSearchKeys);
     }
 
     /**
@@ -67,6 +65,8 @@ public class SalesNewProposalController {
      */
     @FXML
     private void handleBack() {
+        customerSelector.cancel();
+        vehicleSelector.cancel();
         SalesNavigation.loadCenter("/views/sales-proposals-view.fxml");
     }
 
@@ -80,8 +80,8 @@ public class SalesNewProposalController {
      */
     @FXML
     private void handleCreateProposal() {
-        IdName customer = customerCombo.getValue();
-        IdName vehicle = vehicleCombo.getValue();
+        IdName customer = customerSelector.getSelected();
+        IdName vehicle = vehicleSelector.getSelected();
 
         if (customer == null) {
             showError("Validation", "Please select a customer.");
@@ -3,10 +3,17 @@ package dealership.controllers;
 import dealership.dao.ProposalDao;
 import dealership.dao.SaleDao;
 import dealership.model.ProposalDetail;
+import dealership.model.SaleClosing;
+import dealership.model.UpdateOutcome;
+import dealership.util.DbAsync;
+import dealership.util.QueryScope;
+import dealership.util.RefreshableView;
 import dealership.util.SalesNavigation;
 import dealership.util.SelectedProposalContext;
+import dealership.util.SessionContext;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -21,7 +28,7 @@ import java.time.LocalDate;
  * - Accept the proposal and register a sale
  * </p>
  */
-public class SalesProposalDetailController {
+public class SalesProposalDetailController implements RefreshableView {
 
     // Read-only display
     @FXML private Label customerValue;
@@ -37,9 +44,11 @@ public class SalesProposalDetailController {
     @FXML private Button saveButton;
     @FXML private Button deleteButton;
     @FXML private Button acceptButton;
+    @FXML private HBox actionsBox;
 
     private final ProposalDao proposalDao = new ProposalDao();
     private final SaleDao saleDao = new SaleDao();
+    private QueryScope viewScope = SalesNavigation.currentScope();
 
     private Integer proposalId;
     private ProposalDetail current;
@@ -53,6 +62,11 @@ public class SalesProposalDetailController {
      */
     @FXML
     private void initialize() {
+        if (SessionContext.isReadOnly()) {
+            actionsBox.setVisible(false);
+            actionsBox.setManaged(false);
+        }
+
         proposalId = SelectedProposalContext.getProposalId();
         if (proposalId == null) {
             showError("Navigation error", "No proposal selected.");
@@ -64,41 +78,75 @@ public class SalesProposalDetailController {
         loadProposal(proposalId);
     }
 
+    /**
+     * Called when the cached view is shown again.
+     * <p>
+     * The selected proposal may have changed since the view was last shown, so it
+     * runs the same steps as {@link #initialize()} with the id currently stored
+     * in {@link SelectedProposalContext}.
+     * </p>
+     */
+    @Override
+    public void refresh() {
+        viewScope = SalesNavigation.currentScope();
+        initialize();
+    }
+
     /**
      * Loads proposal data from the database and updates the UI.
      * <p>
-     * If the proposal is already accepted, editing is blocked and the accept action
-     * is disabled.
+     * The query runs in the background through {@link DbAsync}. While it runs,
+     * the customer label shows a loading text and the actions are disabled.
      * </p>
      *
      * @param id proposal identifier
      */
     private void loadProposal(int id) {
-        try {
-            current = proposalDao.findProposalDetailById(id);
-            if (current == null) {
-                showError("Not found", "Proposal not found (ID: " + id + ").");
-                SalesNavigation.loadCenter("/views/sales-proposals-view.fxml");
-                return;
-            }
-
-            customerValue.setText(safeText(current.getCustomerName()));
-            vehicleValue.setText(safeText(current.getVehicleText()));
-            priceField.setText(current.getPrice() != null ? current.getPrice().stripTrailingZeros().toPlainString() : "");
-            notesArea.setText(current.getNotes() == null ? "" : current.getNotes());
-            statusValue.setText(safeText(current.getStatus()));
-
-            // If already accepted -> block edits
-            boolean accepted = "ACCEPTED".equalsIgnoreCase(current.getStatus());
-            acceptButton.setDisable(accepted);
-            editButton.setDisable(accepted);
-            saveButton.setDisable(true);
-            setEditMode(false);
+        customerValue.setText("Loading...");
+        editButton.setDisable(true);
+        acceptButton.setDisable(true);
+
+        DbAsync.load(
+                viewScope,
+                () -> proposalDao.findProposalDetailById(id),
+                proposal -> showProposal(id, proposal),
+                e -> {
+                    e.printStackTrace();
+                    showError("Database error", "Could not load proposal details.");
+                }
+        );
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Database error", "Could not load proposal details.");
+    /**
+     * Shows the loaded proposal on screen.
+     * <p>
+     * Only ACTIVE proposals can be edited or accepted: for accepted and rejected
+     * ones both actions are disabled.
+     * </p>
+     *
+     * @param id the requested proposal identifier
+     * @param proposal the loaded proposal, or null if it does not exist
+     */
+    private void showProposal(int id, ProposalDetail proposal) {
+        current = proposal;
+        if (current == null) {
+            showError("Not found", "Proposal not found (ID: " + id + ").");
+            SalesNavigation.loadCenter("/views/sales-proposals-view.fxml");
+            return;
         }
+
+        customerValue.setText(safeText(current.getCustomerName()));
+        vehicleValue.setText(safeText(current.getVehicleText()));
+        priceField.setText(current.getPrice() != null ? current.getPrice().stripTrailingZeros().toPlainString() : "");
+        notesArea.setText(current.getNotes() == null ? "" : current.getNotes());
+        statusValue.setText(safeText(current.getStatus()));
+
+        // Accepted or rejected -> block edits
+        boolean active = "ACTIVE".equalsIgnoreCase(current.getStatus());
+        acceptButton.setDisable(!active);
+        editButton.setDisable(!active);
+        saveButton.setDisable(true);
+        setEditMode(false);
     }
 
     /**
@@ -132,10 +180,14 @@ public class SalesProposalDetailController {
      * It validates the price value, keeps the current status (default ACTIVE),
      * and updates the proposal through the DAO.
      * </p>
+     * <p>
+     * The update only applies if nobody changed the proposal since it was loaded.
+     * Otherwise the user is told and the proposal is reloaded with the other change.
+     * </p>
      */
     @FXML
     private void handleSave() {
-        if (proposalId == null) return;
+        if (proposalId == null || current == null) return;
 
         BigDecimal price;
         try {
@@ -155,13 +207,35 @@ public class SalesProposalDetailController {
 
         try {
             // keep status as ACTIVE unless you want other states
-            String status = (current != null && current.getStatus() != null) ? current.getStatus() : "ACTIVE";
-            proposalDao.updateProposal(proposalId, price, notes, status);
+            String status = (current.getStatus() != null) ? current.getStatus() : "ACTIVE";
+            UpdateOutcome outcome = proposalDao.updateProposal(proposalId, price, notes, status, current.getVersion());
+
+            if (outcome == UpdateOutcome.NOT_FOUND) {
+                showError("Proposal not found", "This proposal has been deleted.");
+                handleBack();
+                return;
+            }
 
-            showInfo("Success", "Proposal updated.");
             setEditMode(false);
             saveButton.setDisable(true);
             editButton.setDisable(false);
+
+            if (outcome == UpdateOutcome.NOT_ALLOWED) {
+                showError("Proposal closed",
+                        "This proposal is no longer active, so it cannot be edited. It has been reloaded.");
+                loadProposal(proposalId);
+                return;
+            }
+
+            if (outcome == UpdateOutcome.CONFLICT) {
+                showError("Proposal changed",
+                        "Someone else changed this proposal while you were editing it. Your changes were not saved; "
+                                + "the proposal has been reloaded so you can review it and edit it again.");
+                loadProposal(proposalId);
+                return;
+            }
+
+            showInfo("Success", "Proposal updated.");
             loadProposal(proposalId);
 
         } catch (Exception e) {
@@ -215,15 +289,17 @@ public class SalesProposalDetailController {
     /**
      * Accepts the current proposal and creates a sale from it.
      * <p>
-     * The process is:
-     * 1) Create a sale record linked to the proposal (proposal_id is unique).
-     * 2) Update proposal status to ACCEPTED.
+     * The sale is closed in one transaction (see {@link SaleDao#closeSaleFromProposal(int, LocalDate, int)}):
+     * the sale is created, the proposal accepted, the other active proposals for
+     * the same vehicle rejected and the vehicle marked as sold.
      * After success, the user is redirected to the sales screen.
+     * The sale is only closed if the proposal is unchanged since it was loaded, so the
+     * sale always has the price shown on screen.
      * </p>
      */
     @FXML
     private void handleAccept() {
-        if (proposalId == null) return;
+        if (proposalId == null || current == null) return;
 
         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
         confirm.setTitle("Confirm accept");
@@ -233,11 +309,13 @@ public class SalesProposalDetailController {
         if (confirm.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) return;
 
         try {
-            // 1) create sale (proposal_id unique)
-            saleDao.createSaleFromProposal(proposalId, LocalDate.now());
-
-            // 2) mark proposal accepted
-            proposalDao.setProposalStatus(proposalId, "ACCEPTED");
+            SaleClosing closing = saleDao.closeSaleFromProposal(proposalId, LocalDate.now(), current.getVersion());
+            if (closing == null) {
+                showError("Cannot accept proposal",
+                        "This proposal is no longer active or was changed by someone else. It has been reloaded.");
+                loadProposal(proposalId);
+                return;
+            }
 
             showInfo("Success", "Sale created from proposal.");
             SelectedProposalContext.clear();
@@ -2,8 +2,13 @@ package dealership.controllers;
 
 import dealership.dao.ProposalDao;
 import dealership.model.SalesProposalRow;
+import dealership.util.DbAsync;
+import dealership.util.ListDiff;
+import dealership.util.QueryScope;
+import dealership.util.RefreshableView;
 import dealership.util.SalesNavigation;
 import dealership.util.SelectedProposalContext;
+import dealership.util.SessionContext;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -12,8 +17,6 @@ import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
-import java.util.List;
-
 /**
  * Controller for Sales -> Proposals list screen.
  *
@@ -26,10 +29,11 @@ import java.util.List;
  * <p>This controller acts as the main entry point for managing and browsing
  * sales proposals within the Sales module.</p>
  */
-public class SalesProposalsController {
+public class SalesProposalsController implements RefreshableView {
 
     @FXML private TextField searchField;
     @FXML private TableView<SalesProposalRow> proposalsTable;
+    @FXML private Button newProposalButton;
 
     @FXML private TableColumn<SalesProposalRow, String> proposalIdCol;
     @FXML private TableColumn<SalesProposalRow, String> vehicleCol;
@@ -39,6 +43,7 @@ public class SalesProposalsController {
     @FXML private TableColumn<SalesProposalRow, SalesProposalRow> actionCol;
 
     private final ProposalDao proposalDao = new ProposalDao();
+    private QueryScope viewScope = SalesNavigation.currentScope();
     private final ObservableList<SalesProposalRow> data = FXCollections.observableArrayList();
 
     /**
@@ -51,12 +56,29 @@ public class SalesProposalsController {
     @FXML
     private void initialize() {
         proposalsTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        if (SessionContext.isReadOnly()) {
+            newProposalButton.setVisible(false);
+            newProposalButton.setManaged(false);
+        }
         configureColumns();
         configureRowHighlight();
         loadData();
         configureSearch();
     }
 
+    /**
+     * Called when the cached view is shown again.
+     * <p>
+     * It reloads the proposals and merges them into the table, so the search
+     * text, sorting and selection are kept.
+     * </p>
+     */
+    @Override
+    public void refresh() {
+        viewScope = SalesNavigation.currentScope();
+        loadData();
+    }
+
     /**
      * Configures all table columns, including value bindings and custom cell factories.
      *
@@ -142,17 +164,29 @@ public class SalesProposalsController {
     /**
      * Loads proposal data from the database into the table.
      *
-     * <p>This method retrieves all proposals available to the Sales module
-     * and updates the underlying observable list used by the table.</p>
+     * <p>This method retrieves the proposals of the user's dealership (or of every
+     * dealership in the owner's "all dealerships" mode, see
+     * {@link SessionContext#getListDealershipId()}) and updates the underlying
+     * observable list used by the table. The query
+     * runs in the background while the table shows a loading placeholder.</p>
      */
     private void loadData() {
-        try {
-            List<SalesProposalRow> list = proposalDao.findAllProposalsForSales();
-            data.setAll(list);
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Database error", "Could not load proposals.");
-        }
+        proposalsTable.setPlaceholder(new Label("Loading proposals..."));
+        Integer dealershipId = SessionContext.getListDealershipId();
+
+        DbAsync.load(
+                viewScope,
+                () -> proposalDao.findProposalsForSales(dealershipId),
+                list -> {
+                    ListDiff.merge(data, list, SalesProposalRow::getId, SalesProposalRow::updateFrom);
+                    proposalsTable.setPlaceholder(new Label("No proposals found."));
+                },
+                e -> {
+                    e.printStackTrace();
+                    proposalsTable.setPlaceholder(new Label("Could not load proposals."));
+                    showError("Database error", "Could not load proposals.");
+                }
+        );
     }
 
     /**
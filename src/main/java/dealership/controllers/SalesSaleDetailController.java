@@ -2,6 +2,9 @@ package dealership.controllers;
 
 import dealership.dao.SaleDao;
 import dealership.model.SaleDetail;
+import dealership.util.DbAsync;
+import dealership.util.QueryScope;
+import dealership.util.RefreshableView;
 import dealership.util.SalesNavigation;
 import dealership.util.SelectedSaleContext;
 import javafx.fxml.FXML;
@@ -18,7 +21,7 @@ import java.time.format.DateTimeFormatter;
  * from {@link SelectedSaleContext}.
  * </p>
  */
-public class SalesSaleDetailController {
+public class SalesSaleDetailController implements RefreshableView {
 
     @FXML private Label customerValue;
     @FXML private Label vehicleValue;
@@ -27,6 +30,7 @@ public class SalesSaleDetailController {
     @FXML private Label notesValue;
 
     private final SaleDao saleDao = new SaleDao();
+    private QueryScope viewScope = SalesNavigation.currentScope();
 
     /**
      * Initializes the controller after the FXML has been loaded.
@@ -47,39 +51,70 @@ public class SalesSaleDetailController {
         loadSale(saleId);
     }
 
+    /**
+     * Called when the cached view is shown again.
+     * <p>
+     * The selected sale may have changed since the view was last shown, so it
+     * runs the same steps as {@link #initialize()} with the id currently stored
+     * in {@link SelectedSaleContext}.
+     * </p>
+     */
+    @Override
+    public void refresh() {
+        viewScope = SalesNavigation.currentScope();
+        initialize();
+    }
+
     /**
      * Loads sale details from the database and updates the UI.
      * <p>
-     * If the sale does not exist, the user is redirected back to the sales list screen.
+     * The query runs in the background through {@link DbAsync}; the customer label
+     * shows a loading text until the result arrives.
      * </p>
      *
      * @param saleId the sale identifier
      */
     private void loadSale(int saleId) {
-        try {
-            SaleDetail s = saleDao.findSaleDetailById(saleId);
-            if (s == null) {
-                showError("Not found", "Sale not found (ID: " + saleId + ").");
-                SalesNavigation.loadCenter("/views/sales-sales-view.fxml");
-                return;
-            }
-
-            customerValue.setText(safeText(s.getCustomerName()));
-            vehicleValue.setText(safeText(s.getVehicleText()));
-            priceValue.setText(s.getPrice() != null ? s.getPrice().stripTrailingZeros().toPlainString() : "-");
-
-            if (s.getSaleDate() != null) {
-                saleDateValue.setText(s.getSaleDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
-            } else {
-                saleDateValue.setText("-");
-            }
-
-            notesValue.setText((s.getNotes() == null || s.getNotes().isBlank()) ? "-" : s.getNotes());
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Database error", "Could not load sale details.");
+        customerValue.setText("Loading...");
+
+        DbAsync.load(
+                viewScope,
+                () -> saleDao.findSaleDetailById(saleId),
+                s -> showSale(saleId, s),
+                e -> {
+                    e.printStackTrace();
+                    showError("Database error", "Could not load sale details.");
+                }
+        );
+    }
+
+    /**
+     * Shows the loaded sale on screen.
+     * <p>
+     * If the sale does not exist, the user is redirected back to the sales list screen.
+     * </p>
+     *
+     * @param saleId the requested sale identifier
+     * @param s the loaded sale, or null if it does not exist
+     */
+    private void showSale(int saleId, SaleDetail s) {
+        if (s == null) {
+            showError("Not found", "Sale not found (ID: " + saleId + ").");
+            SalesNavigation.loadCenter("/views/sales-sales-view.fxml");
+            return;
         }
+
+        customerValue.setText(safeText(s.getCustomerName()));
+        vehicleValue.setText(safeText(s.getVehicleText()));
+        priceValue.setText(s.getPrice() != null ? s.getPrice().stripTrailingZeros().toPlainString() : "-");
+
+        if (s.getSaleDate() != null) {
+            saleDateValue.setText(s.getSaleDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
+        } else {
+            saleDateValue.setText("-");
+        }
+
+        notesValue.setText((s.getNotes() == null || s.getNotes().isBlank()) ? "-" : s.getNotes());
     }
 
     /**
@@ -2,8 +2,13 @@ package dealership.controllers;
 
 import dealership.dao.SaleDao;
 import dealership.model.SalesSaleRow;
+import dealership.util.DbAsync;
+import dealership.util.ListDiff;
+import dealership.util.QueryScope;
+import dealership.util.RefreshableView;
 import dealership.util.SalesNavigation;
 import dealership.util.SelectedSaleContext;
+import dealership.util.SessionContext;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -14,7 +19,6 @@ import javafx.scene.control.*;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 /**
  * Controller for Sales -> Sales list screen.
@@ -22,7 +26,7 @@ import java.util.List;
  * <p>This controller loads completed sales from the database, displays them in a table,
  * and provides user interactions such as searching and opening a sale detail view.</p>
  */
-public class SalesSalesController {
+public class SalesSalesController implements RefreshableView {
 
     @FXML private TextField searchField;
     @FXML private TableView<SalesSaleRow> salesTable;
@@ -35,6 +39,7 @@ public class SalesSalesController {
     @FXML private TableColumn<SalesSaleRow, SalesSaleRow> actionCol;
 
     private final SaleDao saleDao = new SaleDao();
+    private QueryScope viewScope = SalesNavigation.currentScope();
     private final ObservableList<SalesSaleRow> data = FXCollections.observableArrayList();
 
     // Puedes cambiar el formato si el profe lo quiere en ES:
@@ -55,6 +60,19 @@ public class SalesSalesController {
         configureSearch();
     }
 
+    /**
+     * Called when the cached view is shown again.
+     * <p>
+     * It reloads the sales and merges them into the table, so the search
+     * text, sorting and selection are kept.
+     * </p>
+     */
+    @Override
+    public void refresh() {
+        viewScope = SalesNavigation.currentScope();
+        loadData();
+    }
+
     /**
      * Configures table columns, including value bindings, date formatting, and action buttons.
      *
@@ -108,18 +126,30 @@ public class SalesSalesController {
     /**
      * Loads all sales rows from the database and updates the table data source.
      *
-     * <p>This method retrieves the list of completed sales available to the Sales module
-     * and replaces the current observable list content. If the data cannot be loaded,
-     * an error dialog is shown.</p>
+     * <p>This method retrieves the completed sales of the user's dealership (or of every
+     * dealership in the owner's "all dealerships" mode, see
+     * {@link SessionContext#getListDealershipId()}) and merges them into the
+     * current observable list content. The query runs in the
+     * background while the table shows a loading placeholder. If the data cannot
+     * be loaded, an error dialog is shown.</p>
      */
     private void loadData() {
-        try {
-            List<SalesSaleRow> list = saleDao.findAllSalesForSales();
-            data.setAll(list);
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Database error", "Could not load sales.");
-        }
+        salesTable.setPlaceholder(new Label("Loading sales..."));
+        Integer dealershipId = SessionContext.getListDealershipId();
+
+        DbAsync.load(
+                viewScope,
+                () -> saleDao.findSalesForSales(dealershipId),
+                list -> {
+                    ListDiff.merge(data, list, SalesSaleRow::getId, SalesSaleRow::updateFrom);
+                    salesTable.setPlaceholder(new Label("No sales found."));
+                },
+                e -> {
+                    e.printStackTrace();
+                    salesTable.setPlaceholder(new Label("Could not load sales."));
+                    showError("Database error", "Could not load sales.");
+                }
+        );
     }
 
     /**
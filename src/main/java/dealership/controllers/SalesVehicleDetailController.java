@@ -2,6 +2,9 @@ package dealership.controllers;
 
 import dealership.dao.VehicleDao;
 import dealership.model.VehicleDetail;
+import dealership.util.DbAsync;
+import dealership.util.QueryScope;
+import dealership.util.RefreshableView;
 import dealership.util.SalesNavigation;
 import dealership.util.SelectedVehicleContext;
 import javafx.fxml.FXML;
@@ -22,7 +25,7 @@ import java.util.Locale;
  * displayed in the corresponding labels.
  * </p>
  */
-public class SalesVehicleDetailController {
+public class SalesVehicleDetailController implements RefreshableView {
 
 
     @FXML private Label plateValue;
@@ -43,6 +46,7 @@ public class SalesVehicleDetailController {
     @FXML private Label notesValue;
 
     private final VehicleDao vehicleDao = new VehicleDao();
+    private QueryScope viewScope = SalesNavigation.currentScope();
 
     /**
      * Initializes the controller after the FXML has been loaded.
@@ -64,47 +68,77 @@ public class SalesVehicleDetailController {
         loadVehicle(vehicleId);
     }
 
+    /**
+     * Called when the cached view is shown again.
+     * <p>
+     * The selected vehicle may have changed since the view was last shown, so it
+     * runs the same steps as {@link #initialize()} with the id currently stored
+     * in {@link SelectedVehicleContext}.
+     * </p>
+     */
+    @Override
+    public void refresh() {
+        viewScope = SalesNavigation.currentScope();
+        initialize();
+    }
+
     /**
      * Loads a vehicle detail from the database and updates the UI.
      * <p>
-     * If the vehicle is not found, the user is redirected to the vehicles list screen.
-     * Any database error will display an error dialog.
+     * The query runs in the background through {@link DbAsync}; the labels show a
+     * loading text until the result arrives. Any database error will display an
+     * error dialog.
      * </p>
      *
      * @param vehicleId the vehicle identifier to load
      */
     private void loadVehicle(int vehicleId) {
-        try {
-            VehicleDetail vehicle = vehicleDao.findVehicleDetailById(vehicleId);
-
-            if (vehicle == null) {
-                showError("Not found", "Vehicle not found (ID: " + vehicleId + ").");
-                SalesNavigation.loadCenter("/views/sales-vehicles-view.fxml");
-                return;
-            }
-
-            // Left
-            plateValue.setText(safeText(vehicle.getPlate()));
-            brandValue.setText(safeText(vehicle.getBrand()));
-            modelValue.setText(safeText(vehicle.getModel()));
-            yearValue.setText(vehicle.getYear() != null ? String.valueOf(vehicle.getYear()) : "-");
-            colorValue.setText(safeText(vehicle.getColor()));
-            mileageValue.setText(formatMileageKm(vehicle.getMileage()));
-
-            // Right
-            typeValue.setText(safeText(vehicle.getType()));
-            fuelValue.setText(safeText(vehicle.getFuel()));
-            transmissionValue.setText(safeText(vehicle.getTransmission()));
-            doorsValue.setText(vehicle.getDoors() != null ? String.valueOf(vehicle.getDoors()) : "-");
-            dateAddedValue.setText(formatDate(vehicle.getEntryDate()));
-
-            // Notes
-            notesValue.setText((vehicle.getNotes() == null || vehicle.getNotes().isBlank()) ? "-" : vehicle.getNotes());
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Database error", "Could not load vehicle details.");
+        plateValue.setText("Loading...");
+
+        DbAsync.load(
+                viewScope,
+                () -> vehicleDao.findVehicleDetailById(vehicleId),
+                vehicle -> showVehicle(vehicleId, vehicle),
+                e -> {
+                    e.printStackTrace();
+                    showError("Database error", "Could not load vehicle details.");
+                }
+        );
+    }
+
+    /**
+     * Fills the labels with the loaded vehicle.
+     * <p>
+     * If the vehicle is not found, the user is redirected to the vehicles list screen.
+     * </p>
+     *
+     * @param vehicleId the requested vehicle identifier
+     * @param vehicle the loaded vehicle, or null if it does not exist
+     */
+    private void showVehicle(int vehicleId, VehicleDetail vehicle) {
+        if (vehicle == null) {
+            showError("Not found", "Vehicle not found (ID: " + vehicleId + ").");
+            SalesNavigation.loadCenter("/views/sales-vehicles-view.fxml");
+            return;
         }
+
+        // Left
+        plateValue.setText(safeText(vehicle.getPlate()));
+        brandValue.setText(safeText(vehicle.getBrand()));
+        modelValue.setText(safeText(vehicle.getModel()));
+        yearValue.setText(vehicle.getYear() != null ? String.valueOf(vehicle.getYear()) : "-");
+        colorValue.setText(safeText(vehicle.getColor()));
+        mileageValue.setText(formatMileageKm(vehicle.getMileage()));
+
+        // Right
+        typeValue.setText(safeText(vehicle.getType()));
+        fuelValue.setText(safeText(vehicle.getFuel()));
+        transmissionValue.setText(safeText(vehicle.getTransmission()));
+        doorsValue.setText(vehicle.getDoors() != null ? String.valueOf(vehicle.getDoors()) : "-");
+        dateAddedValue.setText(formatDate(vehicle.getEntryDate()));
+
+        // Notes
+        notesValue.setText((vehicle.getNotes() == null || vehicle.getNotes().isBlank()) ? "-" : vehicle.getNotes());
     }
 
     /**
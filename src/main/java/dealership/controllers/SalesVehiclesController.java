@@ -1,30 +1,65 @@
 package dealership.controllers;
 
 import dealership.dao.VehicleDao;
+import dealership.dao.VehicleIntakeDao;
 import dealership.model.SalesVehicleRow;
+import dealership.util.CsvImportDialog;
+import dealership.util.DbAsync;
+import dealership.util.ListDiff;
+import dealership.util.QueryScope;
+import dealership.util.RefreshableView;
 import dealership.util.SalesNavigation;
 import dealership.util.SelectedVehicleContext;
+import dealership.util.SessionContext;
+import dealership.util.ViewPrewarm;
+import javafx.animation.PauseTransition;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.control.*;
+import javafx.util.Duration;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller for the Sales vehicles list screen.
  * <p>
  * This controller loads vehicles from the database and displays them in a table.
- * It supports searching by plate or vehicle text, and allows opening a detail
- * screen for a selected vehicle using a "View" button per row.
+ * It supports searching by plate, brand, model, color or year, and allows opening
+ * a detail screen for a selected vehicle using a "View" button per row.
+ * </p>
+ * <p>
+ * Vehicles are loaded in pages: the first page is shown right away and the
+ * following ones are fetched when the user scrolls near the end of the table.
+ * The search is done by the database and restarts the paging from the first page.
+ * </p>
+ * <p>
+ * New stock can be added in bulk from a supplier CSV file (see {@link VehicleIntakeDao}).
  * </p>
  */
-public class SalesVehiclesController {
+public class SalesVehiclesController implements RefreshableView {
+
+    /**
+     * Number of vehicles fetched per page.
+     */
+    static final int PAGE_SIZE = 100;
+
+    /**
+     * Scroll position (0..1) from which the next page is requested.
+     */
+    private static final double NEXT_PAGE_THRESHOLD = 0.9;
+
+    /**
+     * Time without typing after which the search is sent to the database.
+     */
+    private static final Duration SEARCH_DELAY = Duration.millis(300);
 
     @FXML
     private TextField searchField;
@@ -44,9 +79,22 @@ public class SalesVehiclesController {
     @FXML
     private TableColumn<SalesVehicleRow, SalesVehicleRow> actionCol;
 
+    @FXML
+    private Button intakeButton;
+
+    @FXML
+    private Label intakeStatusLabel;
+
     private final VehicleDao vehicleDao = new VehicleDao();
+    private final VehicleIntakeDao vehicleIntakeDao = new VehicleIntakeDao();
+    private QueryScope viewScope = SalesNavigation.currentScope();
     private final ObservableList<SalesVehicleRow> data = FXCollections.observableArrayList();
 
+    private String searchText = "";
+    private int searchGeneration;
+    private boolean pageLoading;
+    private boolean lastPageLoaded;
+
     /**
      * Initializes the controller after the FXML has been loaded.
      * <p>
@@ -57,10 +105,57 @@ public class SalesVehiclesController {
     @FXML
     private void initialize() {
         vehiclesTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        if (SessionContext.isReadOnly()) {
+            intakeButton.setVisible(false);
+            intakeButton.setManaged(false);
+        }
 
         configureColumns();
-        loadData();
         configureSearch();
+        configureScrollPaging();
+        loadNextPage();
+    }
+
+    /**
+     * Called when the cached view is shown again.
+     * <p>
+     * It reloads the first page of the current search and merges it into the
+     * table, so rows that did not change keep their identity. Pages loaded
+     * after the first one are dropped and fetched again when the user scrolls.
+     * A page that was still loading when the user left the view was cancelled
+     * with the old scope, so the paging state is reset as well.
+     * </p>
+     */
+    @Override
+    public void refresh() {
+        viewScope = SalesNavigation.currentScope();
+
+        searchGeneration++;
+        pageLoading = true;
+        lastPageLoaded = false;
+
+        String query = searchText;
+        int generation = searchGeneration;
+        Integer dealershipId = SessionContext.getListDealershipId();
+
+        DbAsync.load(
+                viewScope,
+                () -> vehicleDao.searchVehiclesForSalesPage(dealershipId, query, null, PAGE_SIZE),
+                page -> {
+                    if (generation != searchGeneration) return;
+                    pageLoading = false;
+                    lastPageLoaded = page.size() < PAGE_SIZE;
+                    ListDiff.merge(data, page, SalesVehicleRow::getId, SalesVehicleRow::updateFrom);
+                    vehiclesTable.setPlaceholder(new Label("No vehicles found."));
+                },
+                e -> {
+                    if (generation != searchGeneration) return;
+                    pageLoading = false;
+                    e.printStackTrace();
+                    vehiclesTable.setPlaceholder(new Label("Could not load vehicles."));
+                    showError("Database error", "Could not load vehicles from database.");
+                }
+        );
     }
 
     /**
@@ -123,47 +218,117 @@ public class SalesVehiclesController {
     }
 
     /**
-     * Loads vehicles from the database and fills the table data list.
+     * Loads the next page of vehicles and appends it to the table data list.
      * <p>
+     * The page starts right after the last loaded vehicle (keyset pagination,
+     * see {@link VehicleDao#searchVehiclesForSalesPage(Integer, String, SalesVehicleRow, int)})
+     * and is filtered by the current search text.
+     * The query runs in the background through {@link DbAsync}; only one page
+     * is requested at a time, and nothing is requested once the last page has
+     * been reached. Pages that belong to an older search are discarded.
+     * The very first page may already have been prefetched during login.
      * If the load fails, an error dialog is shown.
      * </p>
      */
-    private void loadData() {
-        try {
-            List<SalesVehicleRow> list = vehicleDao.findAllVehiclesForSales();
-            data.setAll(list);
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Database error", "Could not load vehicles from database.");
+    private void loadNextPage() {
+        if (pageLoading || lastPageLoaded) return;
+        pageLoading = true;
+
+        SalesVehicleRow after = data.isEmpty() ? null : data.get(data.size() - 1);
+        if (after == null) {
+            vehiclesTable.setPlaceholder(new Label("Loading vehicles..."));
         }
+
+        String query = searchText;
+        int generation = searchGeneration;
+        Integer dealershipId = SessionContext.getListDealershipId();
+
+        CompletableFuture<List<SalesVehicleRow>> prefetched = (after == null && query.isEmpty())
+                ? ViewPrewarm.takePrefetched(ViewPrewarm.SALES_VEHICLES_FIRST_PAGE)
+                : null;
+
+        DbAsync.load(
+                viewScope,
+                (prefetched != null)
+                        ? prefetched::get
+                        : () -> vehicleDao.searchVehiclesForSalesPage(dealershipId, query, after, PAGE_SIZE),
+                page -> {
+                    if (generation != searchGeneration) return;
+                    pageLoading = false;
+                    lastPageLoaded = page.size() < PAGE_SIZE;
+                    data.addAll(page);
+                    vehiclesTable.setPlaceholder(new Label("No vehicles found."));
+                },
+                e -> {
+                    if (generation != searchGeneration) return;
+                    pageLoading = false;
+                    e.printStackTrace();
+                    vehiclesTable.setPlaceholder(new Label("Could not load vehicles."));
+                    showError("Database error", "Could not load vehicles from database.");
+                }
+        );
     }
 
     /**
-     * Configures the search field to filter the vehicles table.
+     * Requests the next page when the table is scrolled close to its end.
      * <p>
-     * Filtering is performed by checking if the query appears in the vehicle
-     * text or the plate text. Sorting remains available through a {@link SortedList}.
+     * The vertical scroll bar is created by the table skin, so it is looked up
+     * once the skin is available.
+     * </p>
+     */
+    private void configureScrollPaging() {
+        vehiclesTable.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+            for (Node node : vehiclesTable.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                    bar.valueProperty().addListener((o, oldValue, newValue) -> {
+                        if (newValue.doubleValue() >= bar.getMax() * NEXT_PAGE_THRESHOLD) {
+                            loadNextPage();
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Configures the search field to search the vehicles table.
+     * <p>
+     * The search is debounced: it is sent to the database once the user stops
+     * typing for {@link #SEARCH_DELAY}, and only if the text actually changed.
+     * Sorting remains available through a {@link SortedList}.
      * </p>
      */
     private void configureSearch() {
-        FilteredList<SalesVehicleRow> filtered = new FilteredList<>(data, v -> true);
+        PauseTransition debounce = new PauseTransition(SEARCH_DELAY);
+        debounce.setOnFinished(e -> applySearch(searchField.getText()));
 
-        searchField.textProperty().addListener((obs, oldValue, newValue) -> {
-            String queryText = (newValue == null) ? "" : newValue.trim().toLowerCase();
+        searchField.textProperty().addListener((obs, oldValue, newValue) -> debounce.playFromStart());
 
-            filtered.setPredicate(row -> {
-                if (queryText.isEmpty()) return true;
+        SortedList<SalesVehicleRow> sorted = new SortedList<>(data);
+        sorted.comparatorProperty().bind(vehiclesTable.comparatorProperty());
+        vehiclesTable.setItems(sorted);
+    }
 
-                String vehicleText = (row.getVehicle() != null) ? row.getVehicle().toLowerCase() : "";
-                String plateText = (row.getPlate() != null) ? row.getPlate().toLowerCase() : "";
+    /**
+     * Restarts the vehicle list for a new search text.
+     * <p>
+     * The loaded rows are dropped and the first page of the new search is
+     * requested. Any page still loading for the previous search is ignored.
+     * </p>
+     *
+     * @param text the search text typed by the user
+     */
+    private void applySearch(String text) {
+        String queryText = (text == null) ? "" : text.trim();
+        if (queryText.equals(searchText)) return;
 
-                return vehicleText.contains(queryText) || plateText.contains(queryText);
-            });
-        });
+        searchText = queryText;
+        searchGeneration++;
+        pageLoading = false;
+        lastPageLoaded = false;
+        data.clear();
 
-        SortedList<SalesVehicleRow> sorted = new SortedList<>(filtered);
-        sorted.comparatorProperty().bind(vehiclesTable.comparatorProperty());
-        vehiclesTable.setItems(sorted);
+        loadNextPage();
     }
 
     /**
@@ -180,6 +345,31 @@ public class SalesVehiclesController {
         SalesNavigation.loadCenter("/views/sales-vehicle-detail-view.fxml");
     }
 
+    /**
+     * Handles the "Import stock CSV" action.
+     * <p>
+     * The user picks a supplier CSV file; its vehicles are added to the user's
+     * dealership with today's entry date. The intake runs in the background through
+     * {@link CsvImportDialog}, with its progress shown under the table; when it
+     * finishes, the list is reloaded.
+     * </p>
+     */
+    @FXML
+    private void handleStockIntake() {
+        Integer dealershipId = SessionContext.getDealershipId();
+        if (dealershipId == null) {
+            showError("Session", "Session expired. Please login again.");
+            return;
+        }
+
+        LocalDate entryDate = LocalDate.now();
+        CsvImportDialog.start(vehiclesTable.getScene().getWindow(), "Import vehicle stock", "vehicles",
+                intakeButton, intakeStatusLabel,
+                (source, rejectedFile, onProgress) ->
+                        vehicleIntakeDao.importVehicles(source, rejectedFile, dealershipId, entryDate, onProgress),
+                this::refresh);
+    }
+
     /**
      * Shows an error dialog with the given title and message.
      *
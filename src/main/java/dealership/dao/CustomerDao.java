@@ -2,86 +2,209 @@ package dealership.dao;
 
 import dealership.controllers.RegisterRepairController.IdName;
 import dealership.model.CustomerDetail;
+import dealership.model.IdentifierMatch;
+import dealership.model.ImportReport;
 import dealership.model.SalesCustomerRow;
+import dealership.util.CsvImport;
 import dealership.util.DbConnection;
+import dealership.util.DetailCache;
+import dealership.util.IdentifierIndex;
 
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object for customer-related queries.
  *
  * CRUD for Sales module:
- * - Create: insertCustomer(...)
- * - Read: findAllCustomersForSales(...), findCustomerDetailById(...)
+ * - Create: insertCustomer(...), importCustomers(...) for CSV files
+ * - Read: findAllCustomersForSales(...), forEachCustomerForSales(...), findCustomerDetailById(...)
+ * - Identifier quick-jump: findCustomerIdentifiers(...), kept in sync with {@link IdentifierIndex}
  * - Update: updateCustomer(...)
  * - Delete (soft): deleteCustomerById(...) => sets active = 0
  *
- * Repairs module combos:
- * - findAllCustomersForCombo(...)
+ * Repairs and Sales form combos:
+ * - findCustomersForComboByPrefix(...)
  */
 public class CustomerDao {
 
-    private static final String SQL_FIND_ALL_CUSTOMERS =
-            "SELECT c.id, CONCAT(c.first_name, ' ', c.last_name, ' (', c.dni, ')') AS customer_name " +
+    /**
+     * Cache in front of {@link #findCustomerDetailById(int)}.
+     */
+    static final DetailCache<CustomerDetail> DETAIL_CACHE = new DetailCache<>("customer");
+
+    // One condition group per typed word is appended at runtime
+    private static final String SQL_FIND_CUSTOMERS_FOR_COMBO_BY_PREFIX =
+            "SELECT c.id, CONCAT(c.first_name, ' ', c.last_name, ' (', c.dni, ')') AS customer_name, " +
+            "c.first_name, c.last_name, c.dni " +
             "FROM customer c " +
-            "WHERE c.active = 1 " +
-            "ORDER BY c.id";
+            "WHERE c.active = 1";
+
+    private static final String SQL_COMBO_TERM_CONDITION =
+            " AND (c.first_name LIKE ? OR c.last_name LIKE ? OR c.dni LIKE ?)";
 
-    private static final String SQL_FIND_ALL_CUSTOMERS_FOR_SALES =
-            "SELECT c.id, c.first_name, c.last_name, c.email, c.phone " +
+    // Global search order on the customer name; one word condition per typed word
+    // is appended between the start and the end at runtime
+    private static final String SQL_NAME_RANK_START =
+            " ORDER BY CASE WHEN CONCAT(c.first_name, ' ', c.last_name) = ? THEN 0 " +
+            "WHEN CONCAT(c.first_name, ' ', c.last_name) LIKE ? THEN 1 " +
+            "WHEN TRUE";
+
+    private static final String SQL_NAME_RANK_WORD =
+            " AND CONCAT(' ', c.first_name, ' ', c.last_name) LIKE ?";
+
+    private static final String SQL_NAME_RANK_END =
+            " THEN 2 ELSE 3 END";
+
+    private static final String SQL_FIND_ALL_CUSTOMERS_FOR_SALES = DbConnection.cacheable(
+            "SELECT c.id, c.first_name, c.last_name, c.email, c.phone, c.dni " +
             "FROM customer c " +
             "WHERE c.active = 1 " +
-            "ORDER BY c.last_name ASC, c.first_name ASC, c.id ASC";
+            "ORDER BY c.last_name ASC, c.first_name ASC, c.id ASC");
 
-    private static final String SQL_FIND_CUSTOMER_DETAIL_BY_ID =
+    private static final String SQL_FIND_CUSTOMER_IDENTIFIERS = DbConnection.cacheable(
+            "SELECT c.id, c.dni, c.first_name, c.last_name " +
+            "FROM customer c " +
+            "WHERE c.active = 1");
+
+    private static final String SQL_FIND_CUSTOMER_DETAIL_BY_ID = DbConnection.cacheable(
             "SELECT c.id, c.dni, c.first_name, c.last_name, c.phone, c.email, c.active " +
             "FROM customer c " +
-            "WHERE c.id = ?";
+            "WHERE c.id = ?");
 
-    private static final String SQL_INSERT_CUSTOMER =
+    private static final String SQL_INSERT_CUSTOMER = DbConnection.cacheable(
             "INSERT INTO customer (dni, first_name, last_name, phone, email, active) " +
-            "VALUES (?, ?, ?, ?, ?, 1)";
+            "VALUES (?, ?, ?, ?, ?, 1)");
 
-    private static final String SQL_UPDATE_CUSTOMER =
+    private static final String SQL_UPDATE_CUSTOMER = DbConnection.cacheable(
             "UPDATE customer " +
             "SET first_name = ?, last_name = ?, phone = ?, email = ? " +
-            "WHERE id = ?";
+            "WHERE id = ?");
 
     // Soft delete
-    private static final String SQL_SOFT_DELETE_CUSTOMER_BY_ID =
-            "UPDATE customer SET active = 0 WHERE id = ?";
+    private static final String SQL_SOFT_DELETE_CUSTOMER_BY_ID = DbConnection.cacheable(
+            "UPDATE customer SET active = 0 WHERE id = ?");
+
+    // Bulk import: the driver rewrites a batch of these into one multi-row INSERT
+    // (rewriteBatchedStatements), so a chunk is inserted whole or not at all
+    private static final String SQL_IMPORT_CUSTOMER = DbConnection.cacheable(
+            "INSERT INTO customer (dni, first_name, last_name, phone, email, active) " +
+            "VALUES (?, ?, ?, ?, ?, 1)");
+
+    // One "?" per DNI of the chunk is appended at runtime
+    private static final String SQL_FIND_EXISTING_DNIS =
+            "SELECT dni FROM customer WHERE dni IN (";
+
+    // Column sizes of the customer table
+    private static final int MAX_DNI_LENGTH = 20;
+    private static final int MAX_NAME_LENGTH = 80;
+    private static final int MAX_PHONE_LENGTH = 30;
+    private static final int MAX_EMAIL_LENGTH = 120;
+
+    private static final List<String> IMPORT_COLUMNS = List.of("dni", "first_name", "last_name", "phone", "email");
 
     /**
-     * Loads active customers in a compact id/name format for combo boxes.
+     * Loads a small window of active customers for a typeahead combo box.
      *
-     * <p>This method is used by the Repairs module when a screen needs to populate
-     * a customer selector. The returned items include a display-friendly text
-     * (typically name plus DNI) mapped into {@link IdName} objects.</p>
+     * <p>Every word of the prefix must match the start of the first name, last name
+     * or DNI (case and accent insensitive, through the column collation). Items are
+     * formatted as "First Last (DNI)" and carry those three columns as their search
+     * keys, so {@link dealership.util.TypeaheadSelector} can narrow a result in memory
+     * with the same rule.</p>
      *
-     * @return a list of customers formatted for combo box usage
+     * <p>The Sales header global search uses it too, so the best name matches come
+     * first (see {@link #appendNameRankOrder(StringBuilder, List, String[])}).</p>
+     *
+     * @param prefix the text typed by the user (an empty prefix returns the first customers)
+     * @param limit the maximum number of customers
+     * @return the matching customers: best name matches first, then by last name, first name and id
      * @throws Exception if a database access error occurs
      */
-    public List<IdName> findAllCustomersForCombo() throws Exception {
+    public List<IdName> findCustomersForComboByPrefix(String prefix, int limit) throws Exception {
+        String text = (prefix == null) ? "" : prefix.trim();
+
+        StringBuilder sql = new StringBuilder(SQL_FIND_CUSTOMERS_FOR_COMBO_BY_PREFIX);
+        List<Object> params = new ArrayList<>();
+
+        String[] words = text.isEmpty() ? new String[0] : text.split("\\s+");
+        for (String word : words) {
+            String like = VehicleDao.escapeLike(word) + "%";
+            sql.append(SQL_COMBO_TERM_CONDITION);
+            params.add(like);
+            params.add(like);
+            params.add(like);
+        }
+        if (words.length == 0) {
+            sql.append(" ORDER BY c.last_name, c.first_name, c.id LIMIT ?");
+        } else {
+            appendNameRankOrder(sql, params, words);
+            sql.append(", c.last_name, c.first_name, c.id LIMIT ?");
+        }
+
         List<IdName> list = new ArrayList<>();
 
         try (Connection conn = DbConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_ALL_CUSTOMERS);
-             ResultSet rs = ps.executeQuery()) {
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
 
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                String name = rs.getString("customer_name");
-                list.add(new IdName(id, name));
+            int index = 1;
+            for (Object param : params) {
+                ps.setObject(index++, param);
+            }
+            ps.setInt(index, limit);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new IdName(rs.getInt("id"), rs.getString("customer_name"),
+                            rs.getString("first_name"), rs.getString("last_name"), rs.getString("dni")));
+                }
             }
         }
 
         return list;
     }
 
+    /**
+     * Appends the start of an ORDER BY that ranks rows by how well the customer
+     * name matches a global search.
+     *
+     * <p>The levels are those of {@link dealership.util.GlobalSearch}, whose results
+     * for customers, proposals and sales are titled with the customer name: the name is the
+     * query, then the name starts with the query, then every word starts a word of
+     * the name, then the rest. Comparisons follow the column collation (case and
+     * accent insensitive). Ranking in the query keeps the best matches from being
+     * cut by the LIMIT; the caller appends its own tie-break order and the LIMIT.</p>
+     *
+     * <p>The query must join {@code customer c}.</p>
+     *
+     * @param sql the query being built
+     * @param params the query parameters, in placeholder order
+     * @param words the words typed by the user
+     */
+    static void appendNameRankOrder(StringBuilder sql, List<Object> params, String[] words) {
+        String query = String.join(" ", words);
+
+        sql.append(SQL_NAME_RANK_START);
+        params.add(query);
+        params.add(VehicleDao.escapeLike(query) + "%");
+
+        for (String word : words) {
+            sql.append(SQL_NAME_RANK_WORD);
+            params.add("% " + VehicleDao.escapeLike(word) + "%");
+        }
+        sql.append(SQL_NAME_RANK_END);
+    }
+
     /**
      * Loads all active customers formatted for the Sales module customers table.
      *
@@ -100,18 +223,91 @@ public class CustomerDao {
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
-                int id = rs.getInt("id");
-                String firstName = rs.getString("first_name");
-                String lastName = rs.getString("last_name");
-                String email = rs.getString("email");
-                String phone = rs.getString("phone");
+                list.add(mapSalesCustomerRow(rs));
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * Streams all active customers for the Sales module, one row at a time.
+     *
+     * <p>Same rows and order as {@link #findAllCustomersForSales()}, but the result set
+     * is streamed from MySQL (see {@link DbConnection#prepareStreaming(Connection, String)})
+     * and each row is handed to the consumer as soon as it is read, so nothing is
+     * kept in memory. Intended for exports and reports over the whole table.</p>
+     *
+     * <p>The consumer runs while the connection is busy reading, so it should not
+     * run other queries.</p>
+     *
+     * @param consumer the callback receiving each row
+     * @return the number of rows read
+     * @throws Exception if a database access error occurs
+     */
+    public int forEachCustomerForSales(Consumer<SalesCustomerRow> consumer) throws Exception {
+        int count = 0;
+
+        try (Connection conn = DbConnection.getConnection();
+             PreparedStatement ps = DbConnection.prepareStreaming(conn, SQL_FIND_ALL_CUSTOMERS_FOR_SALES);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                consumer.accept(mapSalesCustomerRow(rs));
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Maps the current row of a customers list query into a {@link SalesCustomerRow}.
+     *
+     * @param rs the result set positioned on a row
+     * @return the mapped row
+     * @throws SQLException if a column cannot be read
+     */
+    private SalesCustomerRow mapSalesCustomerRow(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        String firstName = rs.getString("first_name");
+        String lastName = rs.getString("last_name");
+        String email = rs.getString("email");
+        String phone = rs.getString("phone");
+        String dni = rs.getString("dni");
+
+        String fullName = buildFullName(firstName, lastName);
+        return new SalesCustomerRow(
+                id,
+                fullName,
+                safeText(email),
+                safeText(phone),
+                safeText(dni)
+        );
+    }
 
-                String fullName = buildFullName(firstName, lastName);
-                list.add(new SalesCustomerRow(
-                        id,
-                        fullName,
-                        safeText(email),
-                        safeText(phone)
+    /**
+     * Loads the DNI of every active customer for the identifier quick-jump index.
+     *
+     * <p>Each customer gives one {@link IdentifierMatch} of kind DNI, described by
+     * the customer's full name. The index itself is kept by {@link IdentifierIndex}.</p>
+     *
+     * @return the DNI entries
+     * @throws Exception if a database access error occurs
+     */
+    public List<IdentifierMatch> findCustomerIdentifiers() throws Exception {
+        List<IdentifierMatch> list = new ArrayList<>();
+
+        try (Connection conn = DbConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL_FIND_CUSTOMER_IDENTIFIERS);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                list.add(new IdentifierMatch(
+                        IdentifierMatch.Kind.DNI,
+                        rs.getInt("id"),
+                        rs.getString("dni"),
+                        buildFullName(rs.getString("first_name"), rs.getString("last_name"))
                 ));
             }
         }
@@ -131,6 +327,17 @@ public class CustomerDao {
      * @throws Exception if a database access error occurs
      */
     public CustomerDetail findCustomerDetailById(int customerId) throws Exception {
+        return DETAIL_CACHE.get(customerId, () -> loadCustomerDetailById(customerId));
+    }
+
+    /**
+     * Loads a customer detail from the database (bypassing {@link #DETAIL_CACHE}).
+     *
+     * @param customerId the customer id
+     * @return the detail, or null if not found
+     * @throws Exception if a database access error occurs
+     */
+    private CustomerDetail loadCustomerDetailById(int customerId) throws Exception {
         try (Connection conn = DbConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_FIND_CUSTOMER_DETAIL_BY_ID)) {
 
@@ -168,7 +375,7 @@ public class CustomerDao {
      */
     public void insertCustomer(String dni, String firstName, String lastName, String phone, String email) throws Exception {
         try (Connection conn = DbConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_INSERT_CUSTOMER)) {
+             PreparedStatement ps = conn.prepareStatement(SQL_INSERT_CUSTOMER, Statement.RETURN_GENERATED_KEYS)) {
 
             ps.setString(1, dni);
             ps.setString(2, firstName);
@@ -177,6 +384,13 @@ public class CustomerDao {
             ps.setString(5, email);
 
             ps.executeUpdate();
+
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) {
+                    IdentifierIndex.put(new IdentifierMatch(
+                            IdentifierMatch.Kind.DNI, keys.getInt(1), dni, buildFullName(firstName, lastName)));
+                }
+            }
         }
     }
 
@@ -204,7 +418,15 @@ public class CustomerDao {
             ps.setString(4, email);
             ps.setInt(5, customerId);
 
-            return ps.executeUpdate() > 0;
+            boolean updated = ps.executeUpdate() > 0;
+            if (updated) {
+                DETAIL_CACHE.invalidate(customerId);
+                IdentifierIndex.updateDescription(IdentifierMatch.Kind.DNI, customerId, buildFullName(firstName, lastName));
+                // Proposal and sale details show the customer name.
+                ProposalDao.DETAIL_CACHE.invalidateAll();
+                SaleDao.DETAIL_CACHE.invalidateAll();
+            }
+            return updated;
         }
     }
 
@@ -219,10 +441,105 @@ public class CustomerDao {
              PreparedStatement ps = conn.prepareStatement(SQL_SOFT_DELETE_CUSTOMER_BY_ID)) {
 
             ps.setInt(1, customerId);
-            return ps.executeUpdate() > 0;
+
+            boolean updated = ps.executeUpdate() > 0;
+            if (updated) {
+                DETAIL_CACHE.invalidate(customerId);
+                IdentifierIndex.remove(IdentifierMatch.Kind.DNI, customerId);
+            }
+            return updated;
         }
     }
 
+    /**
+     * Imports customers from a CSV file.
+     * <p>
+     * The file has the columns {@code dni, first_name, last_name, phone, email}, in
+     * that order, separated by {@code ,} or {@code ;}; a header line is optional.
+     * It is read as a stream: besides one chunk of rows, only the DNIs read so far
+     * are kept in memory (to catch repeats inside the file), so memory grows with
+     * the number of rows by roughly a hundred bytes per row, not with the file size.
+     * </p>
+     * <p>
+     * The file is read by {@link CsvImport}; rows are processed in chunks of
+     * {@link CsvImport#CHUNK_SIZE}, all on one connection:
+     * 1) the DNIs of the chunk that already exist are looked up with one query
+     * 2) the new rows are sent as one JDBC batch, which the driver rewrites into a
+     * multi-row INSERT (one round trip instead of one per row)
+     * 3) the chunk is committed, and the progress is reported
+     * If another user inserts one of the DNIs between 1) and 2), the INSERT fails
+     * as a whole; the chunk is rolled back and sent again from 1), so the imported
+     * count is always the number of rows actually inserted. Any other failure only
+     * rolls back the chunk in progress; the chunks already committed stay.
+     * </p>
+     * <p>
+     * Rows that are not imported (duplicate DNI, in the database or earlier in the
+     * file, or invalid fields) are written to {@code rejectedFile} with the reason.
+     * </p>
+     *
+     * @param source the CSV file to import
+     * @param rejectedFile the file where rejected rows are written (only created if a row is rejected)
+     * @param onProgress receives a report after each chunk (called on the importing thread)
+     * @return the final report
+     * @throws Exception if the files cannot be read or written, or a database access error occurs
+     */
+    public ImportReport importCustomers(Path source, Path rejectedFile, Consumer<ImportReport> onProgress) throws Exception {
+        return CsvImport.run(source, rejectedFile, IMPORT_COLUMNS, new CustomerImporter(), onProgress);
+    }
+
+    /**
+     * Looks up which DNIs of a chunk already exist, with one query.
+     *
+     * @param conn the import connection
+     * @param chunk the rows, with uppercase DNIs
+     * @return the existing DNIs, uppercase
+     * @throws Exception if a database access error occurs
+     */
+    private Set<String> findExistingDnis(Connection conn, List<List<String>> chunk) throws Exception {
+        StringBuilder sql = new StringBuilder(SQL_FIND_EXISTING_DNIS);
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+
+        Set<String> existing = new HashSet<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < chunk.size(); i++) {
+                ps.setString(i + 1, chunk.get(i).get(0));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString(1).toUpperCase(Locale.ROOT));
+                }
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Checks the fields of an import row.
+     *
+     * @param fields the parsed fields
+     * @return the reason the row is invalid, or null if it can be imported
+     */
+    private String validateImportRow(List<String> fields) {
+        if (fields.size() > IMPORT_COLUMNS.size()) return "Too many columns";
+
+        String dni = fields.get(0);
+        String firstName = (fields.size() > 1) ? fields.get(1) : "";
+        String lastName = (fields.size() > 2) ? fields.get(2) : "";
+        String phone = (fields.size() > 3) ? fields.get(3) : "";
+        String email = (fields.size() > 4) ? fields.get(4) : "";
+
+        if (dni.length() < 8 || dni.length() > MAX_DNI_LENGTH) return "Invalid DNI";
+        if (firstName.isEmpty()) return "Missing first name";
+        if (firstName.length() > MAX_NAME_LENGTH || lastName.length() > MAX_NAME_LENGTH) return "Name too long";
+        if (phone.length() > MAX_PHONE_LENGTH) return "Phone too long";
+        if (!email.isEmpty() && (!email.contains("@") || !email.contains("."))) return "Invalid email";
+        if (email.length() > MAX_EMAIL_LENGTH) return "Email too long";
+        return null;
+    }
+
     /**
      * Builds a readable full name from first and last name.
      * <p>
@@ -252,4 +569,76 @@ public class CustomerDao {
     private String safeText(String value) {
         return (value == null || value.isBlank()) ? "-" : value;
     }
+
+    /**
+     * The customer part of {@link #importCustomers(Path, Path, Consumer)}. A row is
+     * kept as its list of fields, with the DNI in uppercase.
+     */
+    private final class CustomerImporter implements CsvImport.Importer<List<String>> {
+
+        private final Set<String> seenDnis = new HashSet<>();
+
+        @Override
+        public List<String> parse(List<String> fields, CsvImport.Rejector rejector) {
+            String problem = validateImportRow(fields);
+            if (problem != null) {
+                rejector.reject(CsvImport.Rejection.INVALID, problem);
+                return null;
+            }
+
+            String dni = fields.get(0).toUpperCase(Locale.ROOT);
+            fields.set(0, dni);
+            if (!seenDnis.add(dni)) {
+                rejector.reject(CsvImport.Rejection.DUPLICATE, "Duplicate DNI in file");
+                return null;
+            }
+            return fields;
+        }
+
+        /**
+         * Inserts one chunk of valid rows.
+         * <p>
+         * Rows whose DNI already exists in the database are skipped instead of being
+         * sent. If one of the DNIs is inserted by someone else after that lookup, the
+         * whole INSERT fails on the unique key: the chunk is rolled back and tried
+         * again with a new lookup, up to {@link CsvImport#CHUNK_ATTEMPTS} times.
+         * </p>
+         */
+        @Override
+        public int insert(Connection conn, List<List<String>> chunk,
+                          BiConsumer<List<String>, String> skipped) throws Exception {
+            for (int attempt = 1; ; attempt++) {
+                Set<String> existing = findExistingDnis(conn, chunk);
+
+                int inserted = 0;
+                try (PreparedStatement ps = conn.prepareStatement(SQL_IMPORT_CUSTOMER)) {
+                    for (List<String> fields : chunk) {
+                        if (existing.contains(fields.get(0))) continue;
+
+                        for (int i = 0; i < IMPORT_COLUMNS.size(); i++) {
+                            String value = (i < fields.size()) ? fields.get(i) : "";
+                            ps.setString(i + 1, value.isEmpty() ? null : value);
+                        }
+                        ps.addBatch();
+                        inserted++;
+                    }
+                    if (inserted > 0) {
+                        ps.executeBatch();
+                    }
+
+                } catch (SQLException e) {
+                    conn.rollback();
+                    if (!CsvImport.isDuplicateKey(e) || attempt == CsvImport.CHUNK_ATTEMPTS) throw e;
+                    continue;
+                }
+
+                for (List<String> fields : chunk) {
+                    if (existing.contains(fields.get(0))) {
+                        skipped.accept(fields, "DNI already exists");
+                    }
+                }
+                return inserted;
+            }
+        }
+    }
 }
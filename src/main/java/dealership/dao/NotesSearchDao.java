@@ -0,0 +1,203 @@
+package dealership.dao;
+
+import dealership.model.NotesSearchRow;
+import dealership.util.DbConnection;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object for the free-text search over repair and vehicle notes.
+ * <p>
+ * {@code repair_order.notes} and {@code vehicle.notes} have FULLTEXT indexes
+ * ({@code ft_repair_order_notes}, {@code ft_vehicle_notes}), so a search is a
+ * {@code MATCH ... AGAINST} lookup instead of a {@code LIKE '%word%'} scan of
+ * every row. Results are ordered by relevance, most relevant first.
+ * </p>
+ * <p>
+ * The text typed by the user is turned into a boolean-mode query where every
+ * word is required and matched as a prefix ("brake" finds "brakes"); see
+ * {@link #toBooleanQuery(String)}. The comparison follows the column collation,
+ * so it ignores case and accents.
+ * </p>
+ * <p>
+ * Results are paged with LIMIT / OFFSET: relevance scores are not unique and
+ * not stable enough for a keyset, and the FULLTEXT condition already keeps the
+ * matched set small.
+ * </p>
+ */
+public class NotesSearchDao {
+
+    /**
+     * Start of the repair notes search; filters and paging are appended at runtime.
+     * The relevance parameter comes first, the WHERE parameter second.
+     */
+    private static final String SQL_SEARCH_REPAIR_NOTES =
+            "SELECT ro.id, CONCAT_WS(' ', v.plate, v.brand, v.model) AS vehicle, ro.status, " +
+            "       DATE(COALESCE(ro.end_at, ro.start_at)) AS activity_date, ro.notes, " +
+            "       MATCH(ro.notes) AGAINST (? IN BOOLEAN MODE) AS relevance " +
+            "FROM repair_order ro " +
+            "JOIN vehicle v ON v.id = ro.vehicle_id " +
+            "WHERE MATCH(ro.notes) AGAINST (? IN BOOLEAN MODE) " +
+            "  AND ro.created_by_boss_id = ?";
+
+    /**
+     * Start of the vehicle notes search; filters and paging are appended at runtime.
+     */
+    private static final String SQL_SEARCH_VEHICLE_NOTES =
+            "SELECT v.id, CONCAT_WS(' ', v.plate, v.brand, v.model) AS vehicle, v.status, " +
+            "       v.entry_date AS activity_date, v.notes, " +
+            "       MATCH(v.notes) AGAINST (? IN BOOLEAN MODE) AS relevance " +
+            "FROM vehicle v " +
+            "WHERE MATCH(v.notes) AGAINST (? IN BOOLEAN MODE)";
+
+    /**
+     * Shortest word kept in a search; shorter words are not indexed by InnoDB
+     * ({@code innodb_ft_min_token_size} defaults to 3).
+     */
+    private static final int MIN_WORD_LENGTH = 3;
+
+    /**
+     * Searches the notes of the repair orders created by a boss.
+     *
+     * @param bossId the boss user id
+     * @param text the words typed by the user
+     * @param from first activity date to include (end date, or start date if not finished), or null
+     * @param to last activity date to include, or null
+     * @param offset number of results to skip (results already shown)
+     * @param limit maximum number of results to return
+     * @return the matching repair orders, most relevant first (empty if no word is long enough)
+     * @throws Exception if a database access error occurs
+     */
+    public List<NotesSearchRow> searchRepairNotes(int bossId, String text, LocalDate from, LocalDate to,
+                                                  int offset, int limit) throws Exception {
+        String query = toBooleanQuery(text);
+        if (query == null) {
+            return new ArrayList<>();
+        }
+
+        List<Object> params = new ArrayList<>(List.of(query, query, bossId));
+        StringBuilder sql = new StringBuilder(SQL_SEARCH_REPAIR_NOTES);
+
+        if (from != null) {
+            sql.append(" AND COALESCE(ro.end_at, ro.start_at) >= ?");
+            params.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND COALESCE(ro.end_at, ro.start_at) < ?");
+            params.add(Date.valueOf(to.plusDays(1)));
+        }
+        sql.append(" ORDER BY relevance DESC, ro.id DESC LIMIT ? OFFSET ?");
+
+        return runSearch(sql.toString(), params, offset, limit);
+    }
+
+    /**
+     * Searches the notes of the vehicles.
+     *
+     * @param dealershipId the dealership whose vehicles are searched, or null for every dealership
+     * @param text the words typed by the user
+     * @param from first entry date to include, or null
+     * @param to last entry date to include, or null
+     * @param offset number of results to skip (results already shown)
+     * @param limit maximum number of results to return
+     * @return the matching vehicles, most relevant first (empty if no word is long enough)
+     * @throws Exception if a database access error occurs
+     */
+    public List<NotesSearchRow> searchVehicleNotes(Integer dealershipId, String text, LocalDate from, LocalDate to,
+                                                   int offset, int limit) throws Exception {
+        String query = toBooleanQuery(text);
+        if (query == null) {
+            return new ArrayList<>();
+        }
+
+        List<Object> params = new ArrayList<>(List.of(query, query));
+        StringBuilder sql = new StringBuilder(SQL_SEARCH_VEHICLE_NOTES);
+
+        if (dealershipId != null) {
+            sql.append(" AND v.current_dealership_id = ?");
+            params.add(dealershipId);
+        }
+        if (from != null) {
+            sql.append(" AND v.entry_date >= ?");
+            params.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND v.entry_date <= ?");
+            params.add(Date.valueOf(to));
+        }
+        sql.append(" ORDER BY relevance DESC, v.id DESC LIMIT ? OFFSET ?");
+
+        return runSearch(sql.toString(), params, offset, limit);
+    }
+
+    /**
+     * Turns the text typed by the user into a boolean-mode FULLTEXT query.
+     * <p>
+     * Every word of at least {@link #MIN_WORD_LENGTH} characters becomes a
+     * required prefix term ({@code +word*}). Anything that is not a letter or a
+     * digit separates words, so boolean operators typed by the user are ignored.
+     * </p>
+     *
+     * @param text the text typed by the user (can be null)
+     * @return the boolean query, or null if no word is long enough
+     */
+    private static String toBooleanQuery(String text) {
+        if (text == null) return null;
+
+        StringBuilder query = new StringBuilder();
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() < MIN_WORD_LENGTH) continue;
+
+            if (query.length() > 0) query.append(' ');
+            query.append('+').append(word).append('*');
+        }
+        return (query.length() == 0) ? null : query.toString();
+    }
+
+    /**
+     * Executes one search query and maps its rows.
+     *
+     * @param sql the full SQL, ending with the LIMIT and OFFSET placeholders
+     * @param params the parameters before LIMIT and OFFSET
+     * @param offset number of results to skip
+     * @param limit maximum number of results to return
+     * @return the mapped results
+     * @throws Exception if a database access error occurs
+     */
+    private List<NotesSearchRow> runSearch(String sql, List<Object> params, int offset, int limit) throws Exception {
+        List<NotesSearchRow> list = new ArrayList<>();
+
+        try (Connection conn = DbConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            for (Object param : params) {
+                ps.setObject(index++, param);
+            }
+            ps.setInt(index++, limit);
+            ps.setInt(index, offset);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Date date = rs.getDate("activity_date");
+                    list.add(new NotesSearchRow(
+                            rs.getInt("id"),
+                            rs.getString("vehicle"),
+                            rs.getString("status"),
+                            (date != null) ? date.toLocalDate() : null,
+                            rs.getString("notes"),
+                            rs.getDouble("relevance")
+                    ));
+                }
+            }
+        }
+
+        return list;
+    }
+}
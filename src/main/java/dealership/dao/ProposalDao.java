@@ -2,12 +2,15 @@ package dealership.dao;
 
 import dealership.model.ProposalDetail;
 import dealership.model.SalesProposalRow;
+import dealership.model.UpdateOutcome;
 import dealership.util.DbConnection;
+import dealership.util.DetailCache;
 
 import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object (DAO) for sales proposals in the dealership application.
@@ -21,7 +24,13 @@ import java.util.List;
  */
 public class ProposalDao {
 
-    private static final String SQL_FIND_ALL_PROPOSALS =
+    /**
+     * Cache in front of {@link #findProposalDetailById(int)}. Package-private so
+     * {@link SaleDao} and {@link CustomerDao} can invalidate it after their writes.
+     */
+    static final DetailCache<ProposalDetail> DETAIL_CACHE = new DetailCache<>("proposal");
+
+    private static final String SQL_FIND_ALL_PROPOSALS = DbConnection.cacheable(
             "SELECT sp.id, " +
             "       CONCAT(v.brand, ' ', v.model, ' ', v.color, ' ', v.year) AS vehicle_text, " +
             "       CONCAT(c.first_name, ' ', c.last_name) AS customer_name, " +
@@ -30,34 +39,76 @@ public class ProposalDao {
             "FROM sale_proposal sp " +
             "JOIN customer c ON sp.customer_id = c.id " +
             "JOIN vehicle v ON sp.vehicle_id = v.id " +
-            "ORDER BY sp.id DESC";
+            "ORDER BY sp.id DESC");
 
-    private static final String SQL_FIND_PROPOSAL_DETAIL =
-            "SELECT sp.id, sp.customer_id, sp.vehicle_id, sp.price, sp.notes, sp.status, " +
+    /**
+     * Same as {@link #SQL_FIND_ALL_PROPOSALS}, restricted to one dealership.
+     * <p>
+     * {@code idx_sale_proposal_dealership} also contains the primary key, so
+     * MySQL reads only the dealership's rows, already in id order.
+     * </p>
+     */
+    private static final String SQL_FIND_PROPOSALS_BY_DEALERSHIP = DbConnection.cacheable(
+            "SELECT sp.id, " +
+            "       CONCAT(v.brand, ' ', v.model, ' ', v.color, ' ', v.year) AS vehicle_text, " +
+            "       CONCAT(c.first_name, ' ', c.last_name) AS customer_name, " +
+            "       sp.price, " +
+            "       sp.status " +
+            "FROM sale_proposal sp " +
+            "JOIN customer c ON sp.customer_id = c.id " +
+            "JOIN vehicle v ON sp.vehicle_id = v.id " +
+            "WHERE sp.dealership_id = ? " +
+            "ORDER BY sp.id DESC");
+
+    /**
+     * Start of the global search query; filters are appended at runtime,
+     * see {@link #searchProposalsForSales(Integer, String, int)}.
+     */
+    private static final String SQL_SEARCH_PROPOSALS =
+            "SELECT sp.id, " +
+            "       CONCAT(v.brand, ' ', v.model, ' ', v.color, ' ', v.year) AS vehicle_text, " +
+            "       CONCAT(c.first_name, ' ', c.last_name) AS customer_name, " +
+            "       sp.price, " +
+            "       sp.status " +
+            "FROM sale_proposal sp " +
+            "JOIN customer c ON sp.customer_id = c.id " +
+            "JOIN vehicle v ON sp.vehicle_id = v.id " +
+            "WHERE TRUE";
+
+    /**
+     * Search condition applied to every word of a global search (prefix match on
+     * the customer and vehicle columns); the closing parenthesis is appended at runtime.
+     */
+    private static final String SQL_SEARCH_TERM_CONDITION =
+            " AND (c.first_name LIKE ? OR c.last_name LIKE ? OR c.dni LIKE ? " +
+            "OR v.plate LIKE ? OR v.brand LIKE ? OR v.model LIKE ?";
+
+    private static final String SQL_FIND_PROPOSAL_DETAIL = DbConnection.cacheable(
+            "SELECT sp.id, sp.customer_id, sp.vehicle_id, sp.price, sp.notes, sp.status, sp.version, " +
             "       CONCAT(c.first_name, ' ', c.last_name) AS customer_name, " +
             "       CONCAT(v.brand, ' ', v.model, ' ', v.color, ' ', v.year) AS vehicle_text " +
             "FROM sale_proposal sp " +
             "JOIN customer c ON sp.customer_id = c.id " +
             "JOIN vehicle v ON sp.vehicle_id = v.id " +
-            "WHERE sp.id = ?";
+            "WHERE sp.id = ?");
 
-    private static final String SQL_INSERT_PROPOSAL =
+    private static final String SQL_INSERT_PROPOSAL = DbConnection.cacheable(
             "INSERT INTO sale_proposal (customer_id, vehicle_id, seller_user_id, dealership_id, price, notes, status) " +
-            "VALUES (?, ?, ?, ?, ?, ?, 'ACTIVE')";
+            "VALUES (?, ?, ?, ?, ?, ?, 'ACTIVE')");
 
-    private static final String SQL_UPDATE_PROPOSAL =
+    private static final String SQL_UPDATE_PROPOSAL = DbConnection.cacheable(
             "UPDATE sale_proposal " +
-            "SET price = ?, notes = ?, status = ? " +
-            "WHERE id = ?";
+            "SET price = ?, notes = ?, status = ?, version = version + 1 " +
+            "WHERE id = ? AND version = ? AND status = 'ACTIVE'");
 
-    private static final String SQL_DELETE_PROPOSAL =
-            "DELETE FROM sale_proposal WHERE id = ?";
+    private static final String SQL_FIND_PROPOSAL_VERSION = DbConnection.cacheable(
+            "SELECT version FROM sale_proposal WHERE id = ?");
 
-    private static final String SQL_SET_STATUS =
-            "UPDATE sale_proposal SET status = ? WHERE id = ?";
+    private static final String SQL_DELETE_PROPOSAL = DbConnection.cacheable(
+            "DELETE FROM sale_proposal WHERE id = ?");
 
-    private static final String SQL_EXISTS_SALE_BY_PROPOSAL =
-            "SELECT 1 FROM sale s WHERE s.proposal_id = ? LIMIT 1";
+    private static final String SQL_EXISTS_SALE_BY_PROPOSAL = DbConnection.cacheable(
+            "SELECT 1 FROM sale s WHERE s.proposal_id = ? LIMIT 1");
 
     /**
      * Retrieves all sales proposals in a table-friendly format for the Sales module.
@@ -73,34 +124,184 @@ public class ProposalDao {
      * @throws Exception if a database access error occurs
      */
     public List<SalesProposalRow> findAllProposalsForSales() throws Exception {
+        return findProposalsForSales(null);
+    }
+
+    /**
+     * Retrieves the sales proposals of one dealership for the Sales module.
+     *
+     * <p>Same rows and order as {@link #findAllProposalsForSales()}, restricted to the
+     * proposals made at the given dealership. The list screens pass
+     * {@link dealership.util.SessionContext#getListDealershipId()}, so a salesperson
+     * only reads the proposals of their own site.</p>
+     *
+     * @param dealershipId the dealership to read, or null for every dealership
+     * @return a list of proposal rows for display in the Sales proposals list screen
+     * @throws Exception if a database access error occurs
+     */
+    public List<SalesProposalRow> findProposalsForSales(Integer dealershipId) throws Exception {
         List<SalesProposalRow> list = new ArrayList<>();
 
         try (Connection conn = DbConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_ALL_PROPOSALS);
-             ResultSet rs = ps.executeQuery()) {
+             PreparedStatement ps = conn.prepareStatement(
+                     (dealershipId == null) ? SQL_FIND_ALL_PROPOSALS : SQL_FIND_PROPOSALS_BY_DEALERSHIP)) {
 
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                String code = String.format("%05d", id);
-                String vehicle = rs.getString("vehicle_text");
-                String customer = rs.getString("customer_name");
-                BigDecimal price = rs.getBigDecimal("price");
-                String status = rs.getString("status");
+            if (dealershipId != null) {
+                ps.setInt(1, dealershipId);
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapSalesProposalRow(rs));
+                }
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * Searches the proposals of one dealership for the Sales header global search.
+     *
+     * <p>Every word of the query must match the start of the customer's first name,
+     * last name or DNI, or of the vehicle's plate, brand or model (case insensitive,
+     * through the column collation). A numeric word also matches the proposal code.
+     * At most {@code limit} rows are returned: the best customer name matches first
+     * (see {@link CustomerDao#appendNameRankOrder(StringBuilder, List, String[])}),
+     * then newest first.</p>
+     *
+     * @param dealershipId the dealership to read, or null for every dealership
+     * @param query the text typed by the user
+     * @param limit maximum number of rows to return
+     * @return the matching proposals (empty for a blank query)
+     * @throws Exception if a database access error occurs
+     */
+    public List<SalesProposalRow> searchProposalsForSales(Integer dealershipId, String query, int limit) throws Exception {
+        String text = (query == null) ? "" : query.trim();
+        List<SalesProposalRow> list = new ArrayList<>();
+        if (text.isEmpty()) {
+            return list;
+        }
+
+        StringBuilder sql = new StringBuilder(SQL_SEARCH_PROPOSALS);
+        List<Object> params = new ArrayList<>();
+
+        if (dealershipId != null) {
+            sql.append(" AND sp.dealership_id = ?");
+            params.add(dealershipId);
+        }
+
+        String[] words = text.split("\\s+");
+        for (String word : words) {
+            String like = VehicleDao.escapeLike(word) + "%";
+            sql.append(SQL_SEARCH_TERM_CONDITION);
+            for (int i = 0; i < 6; i++) {
+                params.add(like);
+            }
+            if (word.matches("\\d{1,9}")) {
+                sql.append(" OR sp.id = ?");
+                params.add(Integer.parseInt(word));
+            }
+            sql.append(")");
+        }
+        CustomerDao.appendNameRankOrder(sql, params, words);
+        sql.append(", sp.id DESC LIMIT ?");
+        params.add(limit);
+
+        try (Connection conn = DbConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
 
-                list.add(new SalesProposalRow(
-                        id,
-                        code,
-                        safeText(vehicle),
-                        safeText(customer),
-                        formatPrice(price),
-                        safeText(status)
-                ));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapSalesProposalRow(rs));
+                }
             }
         }
 
         return list;
     }
 
+    /**
+     * Streams all sales proposals for the Sales module, one row at a time.
+     *
+     * <p>Same rows and order as {@link #findAllProposalsForSales()}, but the result set
+     * is streamed from MySQL (see {@link DbConnection#prepareStreaming(Connection, String)})
+     * and each row is handed to the consumer as soon as it is read, so nothing is
+     * kept in memory. Intended for exports and reports over the whole table.</p>
+     *
+     * <p>The consumer runs while the connection is busy reading, so it should not
+     * run other queries.</p>
+     *
+     * @param consumer the callback receiving each row
+     * @return the number of rows read
+     * @throws Exception if a database access error occurs
+     */
+    public int forEachProposalForSales(Consumer<SalesProposalRow> consumer) throws Exception {
+        return forEachProposalForSales(null, consumer);
+    }
+
+    /**
+     * Streams the sales proposals of one dealership, one row at a time.
+     *
+     * <p>Same rows and order as {@link #findProposalsForSales(Integer)}, streamed
+     * like {@link #forEachProposalForSales(Consumer)}.</p>
+     *
+     * @param dealershipId the dealership to read, or null for every dealership
+     * @param consumer the callback receiving each row
+     * @return the number of rows read
+     * @throws Exception if a database access error occurs
+     */
+    public int forEachProposalForSales(Integer dealershipId, Consumer<SalesProposalRow> consumer) throws Exception {
+        int count = 0;
+
+        try (Connection conn = DbConnection.getConnection();
+             PreparedStatement ps = DbConnection.prepareStreaming(conn,
+                     (dealershipId == null) ? SQL_FIND_ALL_PROPOSALS : SQL_FIND_PROPOSALS_BY_DEALERSHIP)) {
+
+            if (dealershipId != null) {
+                ps.setInt(1, dealershipId);
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapSalesProposalRow(rs));
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Maps the current row of a proposals list query into a {@link SalesProposalRow}.
+     *
+     * @param rs the result set positioned on a row
+     * @return the mapped row
+     * @throws SQLException if a column cannot be read
+     */
+    private SalesProposalRow mapSalesProposalRow(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        String code = String.format("%05d", id);
+        String vehicle = rs.getString("vehicle_text");
+        String customer = rs.getString("customer_name");
+        BigDecimal price = rs.getBigDecimal("price");
+        String status = rs.getString("status");
+
+        return new SalesProposalRow(
+                id,
+                code,
+                safeText(vehicle),
+                safeText(customer),
+                formatPrice(price),
+                safeText(status)
+        );
+    }
+
     /**
      * Loads a single proposal in detail by its identifier.
      *
@@ -113,6 +314,17 @@ public class ProposalDao {
      * @throws Exception if a database access error occurs
      */
     public ProposalDetail findProposalDetailById(int proposalId) throws Exception {
+        return DETAIL_CACHE.get(proposalId, () -> loadProposalDetailById(proposalId));
+    }
+
+    /**
+     * Loads a proposal detail from the database (bypassing {@link #DETAIL_CACHE}).
+     *
+     * @param proposalId the proposal id
+     * @return the detail, or null if not found
+     * @throws Exception if a database access error occurs
+     */
+    private ProposalDetail loadProposalDetailById(int proposalId) throws Exception {
         try (Connection conn = DbConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_FIND_PROPOSAL_DETAIL)) {
 
@@ -128,6 +340,7 @@ public class ProposalDao {
                 BigDecimal price = rs.getBigDecimal("price");
                 String notes = rs.getString("notes");
                 String status = rs.getString("status");
+                int version = rs.getInt("version");
 
                 String customerName = rs.getString("customer_name");
                 String vehicleText = rs.getString("vehicle_text");
@@ -138,7 +351,8 @@ public class ProposalDao {
                         safeText(vehicleText),
                         price,
                         notes,
-                        safeText(status)
+                        safeText(status),
+                        version
                 );
             }
         }
@@ -181,44 +395,58 @@ public class ProposalDao {
      * <p>This method supports the proposal detail/edit flow in the Sales module,
      * allowing the application to persist user changes back to the database.</p>
      *
+     * <p>The update is a compare-and-set on the row version: it only applies if the
+     * proposal still has the version that was shown to the user. Otherwise another
+     * seller changed it in the meantime, and {@link UpdateOutcome#CONFLICT} is returned
+     * instead of overwriting their change. No lock is held while the screen is open.</p>
+     *
+     * <p>Only ACTIVE proposals can be edited: accepted and rejected ones keep the
+     * price they were closed with.</p>
+     *
      * @param proposalId the proposal identifier to update
      * @param price the new proposal price
      * @param notes the updated notes (stored as null when blank)
      * @param status the new proposal status
+     * @param expectedVersion the version of the proposal shown to the user
+     * @return UPDATED, CONFLICT if the proposal changed meanwhile, NOT_ALLOWED if it is
+     *         no longer ACTIVE, or NOT_FOUND if it was deleted
      * @throws Exception if a database access error occurs
      */
-    public void updateProposal(int proposalId, BigDecimal price, String notes, String status) throws Exception {
-        try (Connection conn = DbConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_PROPOSAL)) {
-
-            ps.setBigDecimal(1, price);
-            ps.setString(2, emptyToNull(notes));
-            ps.setString(3, status);
-            ps.setInt(4, proposalId);
+    public UpdateOutcome updateProposal(int proposalId, BigDecimal price, String notes, String status,
+                                        int expectedVersion) throws Exception {
+        UpdateOutcome outcome;
+
+        try (Connection conn = DbConnection.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_PROPOSAL)) {
+                ps.setBigDecimal(1, price);
+                ps.setString(2, emptyToNull(notes));
+                ps.setString(3, status);
+                ps.setInt(4, proposalId);
+                ps.setInt(5, expectedVersion);
+
+                outcome = (ps.executeUpdate() > 0) ? UpdateOutcome.UPDATED : null;
+            }
 
-            ps.executeUpdate();
+            if (outcome == null) {
+                try (PreparedStatement ps = conn.prepareStatement(SQL_FIND_PROPOSAL_VERSION)) {
+                    ps.setInt(1, proposalId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (!rs.next()) {
+                            outcome = UpdateOutcome.NOT_FOUND;
+                        } else {
+                            // Same version: the status guard failed
+                            outcome = (rs.getInt("version") != expectedVersion)
+                                    ? UpdateOutcome.CONFLICT
+                                    : UpdateOutcome.NOT_ALLOWED;
+                        }
+                    }
+                }
+            }
         }
-    }
 
-    /**
-     * Updates only the status of a proposal.
-     *
-     * <p>This is used when the Sales module needs to quickly toggle or set
-     * the proposal state without modifying price or notes.</p>
-     *
-     * @param proposalId the proposal identifier to update
-     * @param status the status value to store
-     * @throws Exception if a database access error occurs
-     */
-    public void setProposalStatus(int proposalId, String status) throws Exception {
-        try (Connection conn = DbConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_SET_STATUS)) {
-
-            ps.setString(1, status);
-            ps.setInt(2, proposalId);
-
-            ps.executeUpdate();
-        }
+        // Also on conflict: the cached detail is stale and must not be shown on reload.
+        DETAIL_CACHE.invalidate(proposalId);
+        return outcome;
     }
 
     /**
@@ -258,7 +486,10 @@ public class ProposalDao {
              PreparedStatement ps = conn.prepareStatement(SQL_DELETE_PROPOSAL)) {
 
             ps.setInt(1, proposalId);
-            return ps.executeUpdate() > 0;
+
+            boolean deleted = ps.executeUpdate() > 0;
+            DETAIL_CACHE.invalidate(proposalId);
+            return deleted;
         }
     }
 
@@ -26,7 +26,7 @@ public class RepairHistoryDao {
      * and returns only repairs with FINISHED status, ordered by completion date.
      * </p>
      */
-    private static final String SQL_HISTORY_BY_MECHANIC =
+    private static final String SQL_HISTORY_BY_MECHANIC = DbConnection.cacheable(
             "SELECT " +
             "  ro.id AS repair_id, " +
             "  CONCAT(v.brand, ' ', v.model, ' ', YEAR(v.entry_date)) AS vehicle, " +
@@ -36,7 +36,7 @@ public class RepairHistoryDao {
             "JOIN vehicle v ON v.id = ro.vehicle_id " +
             "WHERE ro.assigned_mechanic_id = ? " +
             "  AND ro.status = 'FINISHED' " +
-            "ORDER BY ro.end_at DESC, ro.id DESC";
+            "ORDER BY ro.end_at DESC, ro.id DESC");
 
     /**
      * Retrieves the repair history for a specific mechanic.
@@ -2,21 +2,35 @@ package dealership.dao;
 
 import dealership.model.BossRepairEditDetails;
 import dealership.model.RepairDetails;
+import dealership.model.RepairReassignResult;
 import dealership.model.RepairTaskRow;
+import dealership.model.UpdateOutcome;
 import dealership.util.DbConnection;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object for repair orders.
  * <p>
  * This DAO centralizes database operations related to repair orders for both
  * mechanic and boss workflows: listing tasks, loading details, assigning/unassigning
- * mechanics, updating notes, and changing repair status (start/finish).
+ * mechanics (one repair or many at once), updating notes, and changing repair
+ * status (start/finish).
+ * </p>
+ * <p>
+ * Single-repair updates use optimistic concurrency: every update increments the
+ * {@code version} column, and the boss and mechanic screens send back the version
+ * they read. If the repair changed in between, nothing is overwritten and
+ * {@link UpdateOutcome#CONFLICT} is returned, so the screen can reload it. Nobody
+ * holds locks while a screen is open, so staff never block each other.
  * </p>
  */
 public class RepairOrderDao {
@@ -24,7 +38,7 @@ public class RepairOrderDao {
     /**
      * SQL query to retrieve repair tasks assigned to a specific mechanic.
      */
-    private static final String SQL_FIND_TASKS_BY_MECHANIC =
+    private static final String SQL_FIND_TASKS_BY_MECHANIC = DbConnection.cacheable(
             "SELECT " +
             "   ro.id AS repair_id, " +
             "   CONCAT(v.brand, ' ', v.model) AS vehicle, " +
@@ -32,12 +46,12 @@ public class RepairOrderDao {
             "FROM repair_order ro " +
             "JOIN vehicle v ON v.id = ro.vehicle_id " +
             "WHERE ro.assigned_mechanic_id = ? " +
-            "ORDER BY ro.id ASC";
+            "ORDER BY ro.id ASC");
 
     /**
      * SQL query to retrieve repairs created by a specific boss.
      */
-    private static final String SQL_FIND_REPAIRS_BY_BOSS =
+    private static final String SQL_FIND_REPAIRS_BY_BOSS = DbConnection.cacheable(
             "SELECT " +
             "   ro.id AS repair_id, " +
             "   CONCAT(v.brand, ' ', v.model) AS vehicle, " +
@@ -45,7 +59,7 @@ public class RepairOrderDao {
             "FROM repair_order ro " +
             "JOIN vehicle v ON v.id = ro.vehicle_id " +
             "WHERE ro.created_by_boss_id = ? " +
-            "ORDER BY ro.id ASC";
+            "ORDER BY ro.id ASC");
 
     /**
      * SQL query to retrieve repair edit details for the boss edit screen.
@@ -53,57 +67,102 @@ public class RepairOrderDao {
      * It verifies ownership by boss ID and includes optional mechanic data.
      * </p>
      */
-    private static final String SQL_FIND_BOSS_EDIT_DETAILS_BY_ID =
+    private static final String SQL_FIND_BOSS_EDIT_DETAILS_BY_ID = DbConnection.cacheable(
             "SELECT " +
             "   ro.id AS repair_id, " +
             "   ro.status AS status, " +
             "   ro.notes AS notes, " +
+            "   ro.version AS version, " +
             "   CONCAT(v.brand, ' ', v.model) AS vehicle_text, " +
             "   ro.assigned_mechanic_id AS mechanic_id, " +
             "   u.full_name AS mechanic_name " +
             "FROM repair_order ro " +
             "JOIN vehicle v ON v.id = ro.vehicle_id " +
             "LEFT JOIN `user` u ON u.id = ro.assigned_mechanic_id " +
-            "WHERE ro.id = ? AND ro.created_by_boss_id = ?";
+            "WHERE ro.id = ? AND ro.created_by_boss_id = ?");
 
     /**
      * SQL query to assign a mechanic, set status to ASSIGNED, and update notes.
      * <p>
-     * It only applies when the current status is PENDING or ASSIGNED.
+     * It only applies when the current status is PENDING or ASSIGNED and the row
+     * still has the version read by the boss.
      * </p>
      */
-    private static final String SQL_ASSIGN_MECHANIC_AND_UPDATE_NOTES =
+    private static final String SQL_ASSIGN_MECHANIC_AND_UPDATE_NOTES = DbConnection.cacheable(
             "UPDATE repair_order " +
             "SET assigned_mechanic_id = ?, " +
             "    status = 'ASSIGNED', " +
-            "    notes = ? " +
+            "    notes = ?, " +
+            "    version = version + 1 " +
             "WHERE id = ? " +
             "  AND created_by_boss_id = ? " +
-            "  AND UPPER(TRIM(status)) IN ('PENDING','ASSIGNED')";
+            "  AND version = ? " +
+            "  AND UPPER(TRIM(status)) IN ('PENDING','ASSIGNED')");
 
     /**
      * SQL query to unassign the mechanic, set status to PENDING, and update notes.
      * <p>
-     * It only applies when the current status is PENDING or ASSIGNED.
+     * It only applies when the current status is PENDING or ASSIGNED and the row
+     * still has the version read by the boss.
      * </p>
      */
-    private static final String SQL_UNASSIGN_MECHANIC_AND_UPDATE_NOTES =
+    private static final String SQL_UNASSIGN_MECHANIC_AND_UPDATE_NOTES = DbConnection.cacheable(
             "UPDATE repair_order " +
             "SET assigned_mechanic_id = NULL, " +
             "    status = 'PENDING', " +
-            "    notes = ? " +
+            "    notes = ?, " +
+            "    version = version + 1 " +
+            "WHERE id = ? " +
+            "  AND created_by_boss_id = ? " +
+            "  AND version = ? " +
+            "  AND UPPER(TRIM(status)) IN ('PENDING','ASSIGNED')");
+
+    /**
+     * SQL query to read the current version of a repair after a versioned update
+     * did not apply, to tell a conflict from a status that does not allow the change.
+     */
+    private static final String SQL_FIND_VERSION_BY_ID = DbConnection.cacheable(
+            "SELECT version FROM repair_order WHERE id = ?");
+
+    /**
+     * Same as {@link #SQL_FIND_VERSION_BY_ID}, restricted to the repairs of a boss.
+     */
+    private static final String SQL_FIND_VERSION_BY_ID_AND_BOSS = DbConnection.cacheable(
+            "SELECT version FROM repair_order WHERE id = ? AND created_by_boss_id = ?");
+
+    /**
+     * SQL query to assign (mechanic id and 'ASSIGNED') or unassign (NULL and 'PENDING')
+     * one repair of a bulk operation, keeping its notes.
+     * <p>
+     * It has the same guards as the single-repair updates: the repair must belong to
+     * the boss and be PENDING or ASSIGNED.
+     * </p>
+     */
+    private static final String SQL_BULK_SET_MECHANIC = DbConnection.cacheable(
+            "UPDATE repair_order " +
+            "SET assigned_mechanic_id = ?, " +
+            "    status = ?, " +
+            "    version = version + 1 " +
             "WHERE id = ? " +
             "  AND created_by_boss_id = ? " +
-            "  AND UPPER(TRIM(status)) IN ('PENDING','ASSIGNED')";
+            "  AND UPPER(TRIM(status)) IN ('PENDING','ASSIGNED')");
+
+    /**
+     * Start of the query that reads the status of the repairs a bulk operation did
+     * not update; one "?" per repair is appended at runtime.
+     */
+    private static final String SQL_FIND_STATUS_BY_BOSS_AND_IDS =
+            "SELECT id, status FROM repair_order WHERE created_by_boss_id = ? AND id IN (";
 
     /**
      * SQL query to retrieve full repair details including customer and vehicle data.
      */
-    private static final String SQL_FIND_REPAIR_DETAILS_BY_ID =
+    private static final String SQL_FIND_REPAIR_DETAILS_BY_ID = DbConnection.cacheable(
             "SELECT " +
             "   ro.id AS repair_id, " +
             "   ro.status AS status, " +
             "   ro.notes AS notes, " +
+            "   ro.version AS version, " +
             "   c.id AS customer_id, " +
             "   CONCAT(IFNULL(c.first_name,''), ' ', IFNULL(c.last_name,'')) AS customer_name, " +
             "   c.dni AS customer_dni, " +
@@ -113,26 +172,28 @@ public class RepairOrderDao {
             "FROM repair_order ro " +
             "JOIN vehicle v ON v.id = ro.vehicle_id " +
             "JOIN customer c ON c.id = ro.customer_id " +
-            "WHERE ro.id = ?";
+            "WHERE ro.id = ?");
 
     /**
-     * SQL query to start a repair (ASSIGNED -> IN_PROGRESS).
+     * SQL query to start a repair (ASSIGNED -> IN_PROGRESS), if it still has the
+     * version read by the mechanic.
      * <p>
      * The start timestamp is set only if it was not already set.
      * </p>
      */
-    private static final String SQL_START_REPAIR =
+    private static final String SQL_START_REPAIR = DbConnection.cacheable(
             "UPDATE repair_order " +
-            "SET status = 'IN_PROGRESS', start_at = COALESCE(start_at, NOW()) " +
-            "WHERE id = ? AND UPPER(TRIM(status)) = 'ASSIGNED'";
+            "SET status = 'IN_PROGRESS', start_at = COALESCE(start_at, NOW()), version = version + 1 " +
+            "WHERE id = ? AND version = ? AND UPPER(TRIM(status)) = 'ASSIGNED'");
 
     /**
-     * SQL query to finish a repair (IN_PROGRESS -> FINISHED).
+     * SQL query to finish a repair (IN_PROGRESS -> FINISHED), if it still has the
+     * version read by the mechanic.
      */
-    private static final String SQL_FINISH_REPAIR =
+    private static final String SQL_FINISH_REPAIR = DbConnection.cacheable(
             "UPDATE repair_order " +
-            "SET status = 'FINISHED', end_at = NOW() " +
-            "WHERE id = ? AND UPPER(TRIM(status)) = 'IN_PROGRESS'";
+            "SET status = 'FINISHED', end_at = NOW(), version = version + 1 " +
+            "WHERE id = ? AND version = ? AND UPPER(TRIM(status)) = 'IN_PROGRESS'");
 
     /**
      * Retrieves the list of tasks assigned to a given mechanic.
@@ -217,6 +278,7 @@ public class RepairOrderDao {
                     String status = rs.getString("status");
                     String notes = rs.getString("notes");
                     String vehicleText = rs.getString("vehicle_text");
+                    int version = rs.getInt("version");
 
                     int mechanicId = rs.getInt("mechanic_id");
                     Integer mechanicIdObj = rs.wasNull() ? null : mechanicId;
@@ -228,7 +290,8 @@ public class RepairOrderDao {
                             status != null ? status.trim() : "",
                             notes != null ? notes.trim() : "",
                             mechanicIdObj,
-                            mechanicName != null ? mechanicName.trim() : ""
+                            mechanicName != null ? mechanicName.trim() : "",
+                            version
                     );
                 }
             }
@@ -242,26 +305,32 @@ public class RepairOrderDao {
      * <p>
      * This only updates repairs owned by the boss and with an editable status
      * (PENDING or ASSIGNED). The status is forced to ASSIGNED when saving.
+     * The update is a compare-and-set on the version read by the boss.
      * </p>
      *
      * @param repairId the repair order ID
      * @param bossId the boss user ID
      * @param mechanicId the mechanic user ID to assign
      * @param notes the notes to store
-     * @return true if at least one row was updated, false otherwise
+     * @param expectedVersion the version of the repair shown to the boss
+     * @return UPDATED, CONFLICT if the repair changed meanwhile, NOT_ALLOWED if its
+     *         status is not editable, or NOT_FOUND
      * @throws Exception if a database access error occurs
      */
-    public boolean assignMechanicAndUpdateNotes(int repairId, int bossId, int mechanicId, String notes) throws Exception {
-
-        try (Connection conn = DbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(SQL_ASSIGN_MECHANIC_AND_UPDATE_NOTES)) {
-
-            stmt.setInt(1, mechanicId);
-            stmt.setString(2, notes);
-            stmt.setInt(3, repairId);
-            stmt.setInt(4, bossId);
-
-            return stmt.executeUpdate() > 0;
+    public UpdateOutcome assignMechanicAndUpdateNotes(int repairId, int bossId, int mechanicId, String notes,
+                                                      int expectedVersion) throws Exception {
+
+        try (Connection conn = DbConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(SQL_ASSIGN_MECHANIC_AND_UPDATE_NOTES)) {
+                stmt.setInt(1, mechanicId);
+                stmt.setString(2, notes);
+                stmt.setInt(3, repairId);
+                stmt.setInt(4, bossId);
+                stmt.setInt(5, expectedVersion);
+
+                if (stmt.executeUpdate() > 0) return UpdateOutcome.UPDATED;
+            }
+            return explainNotUpdated(conn, repairId, bossId, expectedVersion);
         }
     }
 
@@ -276,20 +345,166 @@ public class RepairOrderDao {
      * @param repairId the repair order ID
      * @param bossId the boss user ID
      * @param notes the notes to store
-     * @return true if at least one row was updated, false otherwise
+     * @param expectedVersion the version of the repair shown to the boss
+     * @return UPDATED, CONFLICT if the repair changed meanwhile, NOT_ALLOWED if its
+     *         status is not editable, or NOT_FOUND
      * @throws Exception if a database access error occurs
      */
-    public boolean unassignMechanicAndUpdateNotes(int repairId, int bossId, String notes) throws Exception {
+    public UpdateOutcome unassignMechanicAndUpdateNotes(int repairId, int bossId, String notes,
+                                                        int expectedVersion) throws Exception {
 
-        try (Connection conn = DbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(SQL_UNASSIGN_MECHANIC_AND_UPDATE_NOTES)) {
+        try (Connection conn = DbConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(SQL_UNASSIGN_MECHANIC_AND_UPDATE_NOTES)) {
+                stmt.setString(1, notes);
+                stmt.setInt(2, repairId);
+                stmt.setInt(3, bossId);
+                stmt.setInt(4, expectedVersion);
 
-            stmt.setString(1, notes);
-            stmt.setInt(2, repairId);
-            stmt.setInt(3, bossId);
+                if (stmt.executeUpdate() > 0) return UpdateOutcome.UPDATED;
+            }
+            return explainNotUpdated(conn, repairId, bossId, expectedVersion);
+        }
+    }
+
+    /**
+     * Tells why a versioned update of a repair did not apply.
+     *
+     * @param conn the connection used for the update
+     * @param repairId the repair order ID
+     * @param bossId the boss user ID, or null to look the repair up without owner check
+     * @param expectedVersion the version the update expected
+     * @return CONFLICT if the version changed, NOT_ALLOWED if it did not (so the status
+     *         guard failed), or NOT_FOUND
+     * @throws Exception if a database access error occurs
+     */
+    private UpdateOutcome explainNotUpdated(Connection conn, int repairId, Integer bossId, int expectedVersion) throws Exception {
+        String sql = (bossId == null) ? SQL_FIND_VERSION_BY_ID : SQL_FIND_VERSION_BY_ID_AND_BOSS;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, repairId);
+            if (bossId != null) {
+                stmt.setInt(2, bossId);
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) return UpdateOutcome.NOT_FOUND;
+                return (rs.getInt("version") != expectedVersion) ? UpdateOutcome.CONFLICT : UpdateOutcome.NOT_ALLOWED;
+            }
+        }
+    }
+
+    /**
+     * Assigns a mechanic to several repairs at once, or unassigns them (boss flow).
+     * <p>
+     * Used when a mechanic is absent and the boss moves their work to someone
+     * else. All repairs are updated on one connection, in one transaction, with a
+     * single prepared UPDATE sent as one JDBC batch (one entry per repair). Each
+     * entry has the same guards as {@link #assignMechanicAndUpdateNotes}: the repair
+     * must belong to the boss and be PENDING or ASSIGNED; notes are not changed.
+     * </p>
+     * <p>
+     * The update count of each batch entry tells whether that repair was updated.
+     * For the ones that were not, their status is read in the same transaction to
+     * report why (not editable, or not found for this boss).
+     * </p>
+     *
+     * @param repairIds the repair order IDs (duplicates are ignored)
+     * @param bossId the boss user ID
+     * @param mechanicId the mechanic to assign, or null to unassign (status back to PENDING)
+     * @return one result per repair, in the order of {@code repairIds}
+     * @throws Exception if a database access error occurs (nothing is updated)
+     */
+    public List<RepairReassignResult> reassignRepairs(List<Integer> repairIds, int bossId, Integer mechanicId) throws Exception {
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(repairIds));
+        List<RepairReassignResult> results = new ArrayList<>(ids.size());
+        if (ids.isEmpty()) return results;
+
+        String newStatus = (mechanicId == null) ? "PENDING" : "ASSIGNED";
+
+        try (Connection conn = DbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int[] counts;
+                try (PreparedStatement stmt = conn.prepareStatement(SQL_BULK_SET_MECHANIC)) {
+                    for (int repairId : ids) {
+                        if (mechanicId == null) {
+                            stmt.setNull(1, Types.INTEGER);
+                        } else {
+                            stmt.setInt(1, mechanicId);
+                        }
+                        stmt.setString(2, newStatus);
+                        stmt.setInt(3, repairId);
+                        stmt.setInt(4, bossId);
+                        stmt.addBatch();
+                    }
+                    counts = stmt.executeBatch();
+                }
+
+                List<Integer> skipped = new ArrayList<>();
+                for (int i = 0; i < ids.size(); i++) {
+                    if (counts[i] == 0) skipped.add(ids.get(i));
+                }
 
-            return stmt.executeUpdate() > 0;
+                Map<Integer, String> skippedStatus = skipped.isEmpty()
+                        ? Map.of()
+                        : findStatusByIds(conn, bossId, skipped);
+
+                conn.commit();
+
+                for (int i = 0; i < ids.size(); i++) {
+                    int repairId = ids.get(i);
+                    if (counts[i] != 0) {
+                        results.add(new RepairReassignResult(repairId, RepairReassignResult.Outcome.UPDATED, newStatus));
+                    } else if (skippedStatus.containsKey(repairId)) {
+                        results.add(new RepairReassignResult(repairId, RepairReassignResult.Outcome.NOT_EDITABLE,
+                                skippedStatus.get(repairId)));
+                    } else {
+                        results.add(new RepairReassignResult(repairId, RepairReassignResult.Outcome.NOT_FOUND, null));
+                    }
+                }
+
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         }
+
+        return results;
+    }
+
+    /**
+     * Reads the status of some repairs of a boss.
+     *
+     * @param conn the connection of the current transaction
+     * @param bossId the boss user ID
+     * @param repairIds the repair order IDs
+     * @return the status by repair ID (repairs not found for the boss are missing)
+     * @throws Exception if a database access error occurs
+     */
+    private Map<Integer, String> findStatusByIds(Connection conn, int bossId, List<Integer> repairIds) throws Exception {
+        StringBuilder sql = new StringBuilder(SQL_FIND_STATUS_BY_BOSS_AND_IDS);
+        for (int i = 0; i < repairIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+
+        Map<Integer, String> statuses = new HashMap<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            stmt.setInt(1, bossId);
+            for (int i = 0; i < repairIds.size(); i++) {
+                stmt.setInt(i + 2, repairIds.get(i));
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    statuses.put(rs.getInt("id"), rs.getString("status"));
+                }
+            }
+        }
+        return statuses;
     }
 
     /**
@@ -315,6 +530,7 @@ public class RepairOrderDao {
 
                     String status = rs.getString("status");
                     String notes = rs.getString("notes");
+                    int version = rs.getInt("version");
 
                     int customerId = rs.getInt("customer_id");
                     String customerName = rs.getString("customer_name");
@@ -333,7 +549,8 @@ public class RepairOrderDao {
                             customerDni != null ? customerDni.trim() : "",
                             customerPhone != null ? customerPhone.trim() : "",
                             customerEmail != null ? customerEmail.trim() : "",
-                            vehicleText != null ? vehicleText.trim() : ""
+                            vehicleText != null ? vehicleText.trim() : "",
+                            version
                     );
                 }
             }
@@ -346,35 +563,47 @@ public class RepairOrderDao {
      * Starts a repair by changing its status from ASSIGNED to IN_PROGRESS.
      *
      * @param repairId the repair order ID
-     * @return true if the status was updated, false otherwise
+     * @param expectedVersion the version of the repair shown to the mechanic
+     * @return UPDATED, CONFLICT if the repair changed meanwhile (for example the boss
+     *         reassigned it), NOT_ALLOWED if it is not ASSIGNED, or NOT_FOUND
      * @throws Exception if a database access error occurs
      */
-    public boolean startRepair(int repairId) throws Exception {
-
-        try (Connection conn = DbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(SQL_START_REPAIR)) {
-
-            stmt.setInt(1, repairId);
-            int updated = stmt.executeUpdate();
-            return updated > 0;
-        }
+    public UpdateOutcome startRepair(int repairId, int expectedVersion) throws Exception {
+        return changeStatus(SQL_START_REPAIR, repairId, expectedVersion);
     }
 
     /**
      * Finishes a repair by changing its status from IN_PROGRESS to FINISHED.
      *
      * @param repairId the repair order ID
-     * @return true if the status was updated, false otherwise
+     * @param expectedVersion the version of the repair shown to the mechanic
+     * @return UPDATED, CONFLICT if the repair changed meanwhile, NOT_ALLOWED if it
+     *         is not IN_PROGRESS, or NOT_FOUND
      * @throws Exception if a database access error occurs
      */
-    public boolean finishRepair(int repairId) throws Exception {
+    public UpdateOutcome finishRepair(int repairId, int expectedVersion) throws Exception {
+        return changeStatus(SQL_FINISH_REPAIR, repairId, expectedVersion);
+    }
 
-        try (Connection conn = DbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(SQL_FINISH_REPAIR)) {
+    /**
+     * Runs a versioned status change of the mechanic flow.
+     *
+     * @param sql the update, with the repair ID and expected version as parameters
+     * @param repairId the repair order ID
+     * @param expectedVersion the version the mechanic read
+     * @return the outcome of the update
+     * @throws Exception if a database access error occurs
+     */
+    private UpdateOutcome changeStatus(String sql, int repairId, int expectedVersion) throws Exception {
 
-            stmt.setInt(1, repairId);
-            int updated = stmt.executeUpdate();
-            return updated > 0;
+        try (Connection conn = DbConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, repairId);
+                stmt.setInt(2, expectedVersion);
+
+                if (stmt.executeUpdate() > 0) return UpdateOutcome.UPDATED;
+            }
+            return explainNotUpdated(conn, repairId, null, expectedVersion);
         }
     }
 
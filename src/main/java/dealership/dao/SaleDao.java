@@ -1,14 +1,17 @@
 package dealership.dao;
 
+import dealership.model.SaleClosing;
 import dealership.model.SaleDetail;
 import dealership.model.SalesSaleRow;
 import dealership.util.DbConnection;
+import dealership.util.DetailCache;
 
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object for sales-related queries.
@@ -16,7 +19,7 @@ import java.util.List;
  * This DAO is used by the Sales module to:
  * - List all sales in the Sales -> Sales table.
  * - Load sale detail for the Sales -> Sale detail screen.
- * - Create a sale from an accepted proposal.
+ * - Close a sale in one transaction (see {@link #closeSaleFromProposal(int, LocalDate, int)}).
  * </p>
  *
  * <p>
@@ -26,11 +29,17 @@ import java.util.List;
  */
 public class SaleDao {
 
+    /**
+     * Cache in front of {@link #findSaleDetailById(int)}. Package-private because
+     * sale details show the customer name, so {@link CustomerDao} invalidates it too.
+     */
+    static final DetailCache<SaleDetail> DETAIL_CACHE = new DetailCache<>("sale");
+
     /**
      * SQL query used to retrieve all sales for the Sales -> Sales list table.
      * We include sale_date and sort by date desc (and id desc as tie-breaker).
      */
-    private static final String SQL_FIND_ALL_SALES =
+    private static final String SQL_FIND_ALL_SALES = DbConnection.cacheable(
             "SELECT s.id, " +
             "       CONCAT(v.brand, ' ', v.model, ' ', v.color, ' ', v.year) AS vehicle_text, " +
             "       CONCAT(c.first_name, ' ', c.last_name) AS customer_name, " +
@@ -39,29 +48,91 @@ public class SaleDao {
             "FROM sale s " +
             "JOIN customer c ON s.customer_id = c.id " +
             "JOIN vehicle v ON s.vehicle_id = v.id " +
-            "ORDER BY s.sale_date DESC, s.id DESC";
+            "ORDER BY s.sale_date DESC, s.id DESC");
+
+    /**
+     * Same as {@link #SQL_FIND_ALL_SALES}, restricted to one dealership.
+     * The {@code idx_sale_dealership_date} index covers the filter and the order.
+     */
+    private static final String SQL_FIND_SALES_BY_DEALERSHIP = DbConnection.cacheable(
+            "SELECT s.id, " +
+            "       CONCAT(v.brand, ' ', v.model, ' ', v.color, ' ', v.year) AS vehicle_text, " +
+            "       CONCAT(c.first_name, ' ', c.last_name) AS customer_name, " +
+            "       s.price, " +
+            "       s.sale_date " +
+            "FROM sale s " +
+            "JOIN customer c ON s.customer_id = c.id " +
+            "JOIN vehicle v ON s.vehicle_id = v.id " +
+            "WHERE s.dealership_id = ? " +
+            "ORDER BY s.sale_date DESC, s.id DESC");
+
+    /**
+     * Start of the global search query; filters are appended at runtime,
+     * see {@link #searchSalesForSales(Integer, String, int)}.
+     */
+    private static final String SQL_SEARCH_SALES =
+            "SELECT s.id, " +
+            "       CONCAT(v.brand, ' ', v.model, ' ', v.color, ' ', v.year) AS vehicle_text, " +
+            "       CONCAT(c.first_name, ' ', c.last_name) AS customer_name, " +
+            "       s.price, " +
+            "       s.sale_date " +
+            "FROM sale s " +
+            "JOIN customer c ON s.customer_id = c.id " +
+            "JOIN vehicle v ON s.vehicle_id = v.id " +
+            "WHERE TRUE";
+
+    /**
+     * Search condition applied to every word of a global search (prefix match on
+     * the customer and vehicle columns); the closing parenthesis is appended at runtime.
+     */
+    private static final String SQL_SEARCH_TERM_CONDITION =
+            " AND (c.first_name LIKE ? OR c.last_name LIKE ? OR c.dni LIKE ? " +
+            "OR v.plate LIKE ? OR v.brand LIKE ? OR v.model LIKE ?";
 
     /**
      * SQL query used to retrieve full sale information by id.
      */
-    private static final String SQL_FIND_SALE_DETAIL =
+    private static final String SQL_FIND_SALE_DETAIL = DbConnection.cacheable(
             "SELECT s.id, s.price, s.sale_date, s.notes, " +
             "       CONCAT(c.first_name, ' ', c.last_name) AS customer_name, " +
             "       CONCAT(v.brand, ' ', v.model, ' ', v.color, ' ', v.year) AS vehicle_text " +
             "FROM sale s " +
             "JOIN customer c ON s.customer_id = c.id " +
             "JOIN vehicle v ON s.vehicle_id = v.id " +
-            "WHERE s.id = ?";
+            "WHERE s.id = ?");
+
+    /**
+     * Reads the vehicle of an active proposal, before the closing transaction starts,
+     * if the proposal still has the version shown to the seller.
+     */
+    private static final String SQL_FIND_ACTIVE_PROPOSAL_VEHICLE = DbConnection.cacheable(
+            "SELECT vehicle_id FROM sale_proposal WHERE id = ? AND status = 'ACTIVE' AND version = ?");
 
     /**
-     * SQL insert statement that creates a sale from an existing proposal.
-     * It copies customer, vehicle, seller user, dealership, price and notes from sale_proposal.
+     * Creates the sale by copying customer, vehicle, seller user, dealership, price and
+     * notes from the proposal, but only while the proposal is still active, unchanged
+     * (same version) and for the vehicle read before the transaction.
      */
-    private static final String SQL_CREATE_SALE_FROM_PROPOSAL =
+    private static final String SQL_CLOSE_INSERT_SALE = DbConnection.cacheable(
             "INSERT INTO sale (proposal_id, customer_id, vehicle_id, seller_user_id, dealership_id, price, sale_date, notes) " +
             "SELECT sp.id, sp.customer_id, sp.vehicle_id, sp.seller_user_id, sp.dealership_id, sp.price, ?, sp.notes " +
             "FROM sale_proposal sp " +
-            "WHERE sp.id = ?";
+            "WHERE sp.id = ? AND sp.status = 'ACTIVE' AND sp.version = ? AND sp.vehicle_id = ?");
+
+    /**
+     * Accepts the closed proposal and rejects the other active proposals for the
+     * same vehicle, in a single statement ({@code idx_sale_proposal_vehicle}).
+     */
+    private static final String SQL_CLOSE_SET_PROPOSAL_STATUSES = DbConnection.cacheable(
+            "UPDATE sale_proposal " +
+            "SET status = CASE WHEN id = ? THEN 'ACCEPTED' ELSE 'REJECTED' END, version = version + 1 " +
+            "WHERE vehicle_id = ? AND status = 'ACTIVE'");
+
+    /**
+     * Marks the sold vehicle.
+     */
+    private static final String SQL_CLOSE_MARK_VEHICLE_SOLD = DbConnection.cacheable(
+            "UPDATE vehicle SET status = 'SOLD', sold_at = NOW() WHERE id = ?");
 
     /**
      * Loads all sales for the Sales module table.
@@ -77,36 +148,186 @@ public class SaleDao {
      * @throws Exception if a database access error occurs
      */
     public List<SalesSaleRow> findAllSalesForSales() throws Exception {
+        return findSalesForSales(null);
+    }
+
+    /**
+     * Retrieves the sales of one dealership for the Sales module list screen.
+     *
+     * <p>Same rows and order as {@link #findAllSalesForSales()}, restricted to the
+     * sales made at the given dealership. The list screens pass
+     * {@link dealership.util.SessionContext#getListDealershipId()}, so a salesperson
+     * only reads the sales of their own site.</p>
+     *
+     * @param dealershipId the dealership to read, or null for every dealership
+     * @return list of sales formatted for the Sales -> Sales table
+     * @throws Exception if a database access error occurs
+     */
+    public List<SalesSaleRow> findSalesForSales(Integer dealershipId) throws Exception {
         List<SalesSaleRow> list = new ArrayList<>();
 
         try (Connection conn = DbConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_ALL_SALES);
-             ResultSet rs = ps.executeQuery()) {
+             PreparedStatement ps = conn.prepareStatement(
+                     (dealershipId == null) ? SQL_FIND_ALL_SALES : SQL_FIND_SALES_BY_DEALERSHIP)) {
 
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                String code = String.format("%05d", id);
-                String vehicle = rs.getString("vehicle_text");
-                String customer = rs.getString("customer_name");
-                BigDecimal price = rs.getBigDecimal("price");
+            if (dealershipId != null) {
+                ps.setInt(1, dealershipId);
+            }
 
-                Date saleDateSql = rs.getDate("sale_date");
-                LocalDate saleDate = (saleDateSql != null) ? saleDateSql.toLocalDate() : null;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapSalesSaleRow(rs));
+                }
+            }
+        }
 
-                list.add(new SalesSaleRow(
-                        id,
-                        code,
-                        safeText(vehicle),
-                        safeText(customer),
-                        formatPrice(price),
-                        saleDate
-                ));
+        return list;
+    }
+
+    /**
+     * Searches the sales of one dealership for the Sales header global search.
+     *
+     * <p>Every word of the query must match the start of the customer's first name,
+     * last name or DNI, or of the vehicle's plate, brand or model (case insensitive,
+     * through the column collation). A numeric word also matches the sale code.
+     * At most {@code limit} rows are returned: the best customer name matches first
+     * (see {@link CustomerDao#appendNameRankOrder(StringBuilder, List, String[])}),
+     * then by sale date, newest first.</p>
+     *
+     * @param dealershipId the dealership to read, or null for every dealership
+     * @param query the text typed by the user
+     * @param limit maximum number of rows to return
+     * @return the matching sales (empty for a blank query)
+     * @throws Exception if a database access error occurs
+     */
+    public List<SalesSaleRow> searchSalesForSales(Integer dealershipId, String query, int limit) throws Exception {
+        String text = (query == null) ? "" : query.trim();
+        List<SalesSaleRow> list = new ArrayList<>();
+        if (text.isEmpty()) {
+            return list;
+        }
+
+        StringBuilder sql = new StringBuilder(SQL_SEARCH_SALES);
+        List<Object> params = new ArrayList<>();
+
+        if (dealershipId != null) {
+            sql.append(" AND s.dealership_id = ?");
+            params.add(dealershipId);
+        }
+
+        String[] words = text.split("\\s+");
+        for (String word : words) {
+            String like = VehicleDao.escapeLike(word) + "%";
+            sql.append(SQL_SEARCH_TERM_CONDITION);
+            for (int i = 0; i < 6; i++) {
+                params.add(like);
+            }
+            if (word.matches("\\d{1,9}")) {
+                sql.append(" OR s.id = ?");
+                params.add(Integer.parseInt(word));
+            }
+            sql.append(")");
+        }
+        CustomerDao.appendNameRankOrder(sql, params, words);
+        sql.append(", s.sale_date DESC, s.id DESC LIMIT ?");
+        params.add(limit);
+
+        try (Connection conn = DbConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapSalesSaleRow(rs));
+                }
             }
         }
 
         return list;
     }
 
+    /**
+     * Streams all sales for the Sales module, one row at a time.
+     *
+     * <p>Same rows and order as {@link #findAllSalesForSales()}, but the result set
+     * is streamed from MySQL (see {@link DbConnection#prepareStreaming(Connection, String)})
+     * and each row is handed to the consumer as soon as it is read, so nothing is
+     * kept in memory. Intended for exports and reports over the whole table.</p>
+     *
+     * <p>The consumer runs while the connection is busy reading, so it should not
+     * run other queries.</p>
+     *
+     * @param consumer the callback receiving each row
+     * @return the number of rows read
+     * @throws Exception if a database access error occurs
+     */
+    public int forEachSaleForSales(Consumer<SalesSaleRow> consumer) throws Exception {
+        return forEachSaleForSales(null, consumer);
+    }
+
+    /**
+     * Streams the sales of one dealership, one row at a time.
+     *
+     * <p>Same rows and order as {@link #findSalesForSales(Integer)}, streamed
+     * like {@link #forEachSaleForSales(Consumer)}.</p>
+     *
+     * @param dealershipId the dealership to read, or null for every dealership
+     * @param consumer the callback receiving each row
+     * @return the number of rows read
+     * @throws Exception if a database access error occurs
+     */
+    public int forEachSaleForSales(Integer dealershipId, Consumer<SalesSaleRow> consumer) throws Exception {
+        int count = 0;
+
+        try (Connection conn = DbConnection.getConnection();
+             PreparedStatement ps = DbConnection.prepareStreaming(conn,
+                     (dealershipId == null) ? SQL_FIND_ALL_SALES : SQL_FIND_SALES_BY_DEALERSHIP)) {
+
+            if (dealershipId != null) {
+                ps.setInt(1, dealershipId);
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapSalesSaleRow(rs));
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Maps the current row of a sales list query into a {@link SalesSaleRow}.
+     *
+     * @param rs the result set positioned on a row
+     * @return the mapped row
+     * @throws SQLException if a column cannot be read
+     */
+    private SalesSaleRow mapSalesSaleRow(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        String code = String.format("%05d", id);
+        String vehicle = rs.getString("vehicle_text");
+        String customer = rs.getString("customer_name");
+        BigDecimal price = rs.getBigDecimal("price");
+
+        Date saleDateSql = rs.getDate("sale_date");
+        LocalDate saleDate = (saleDateSql != null) ? saleDateSql.toLocalDate() : null;
+
+        return new SalesSaleRow(
+                id,
+                code,
+                safeText(vehicle),
+                safeText(customer),
+                formatPrice(price),
+                saleDate
+        );
+    }
+
     /**
      * Loads full details for a single sale by its id.
      *
@@ -119,6 +340,17 @@ public class SaleDao {
      * @throws Exception if a database access error occurs
      */
     public SaleDetail findSaleDetailById(int saleId) throws Exception {
+        return DETAIL_CACHE.get(saleId, () -> loadSaleDetailById(saleId));
+    }
+
+    /**
+     * Loads a sale detail from the database (bypassing {@link #DETAIL_CACHE}).
+     *
+     * @param saleId the sale id
+     * @return the detail, or null if not found
+     * @throws Exception if a database access error occurs
+     */
+    private SaleDetail loadSaleDetailById(int saleId) throws Exception {
         try (Connection conn = DbConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_FIND_SALE_DETAIL)) {
 
@@ -149,25 +381,113 @@ public class SaleDao {
     }
 
     /**
-     * Creates a sale from a proposal (proposal_id must be unique in sale).
-     *
-     * <p>This method is typically called after a proposal has been accepted.
-     * It inserts a new row into the {@code sale} table by copying fields
-     * from {@code sale_proposal} and applying the provided sale date.</p>
+     * Closes a sale from a proposal in a single transaction.
+     * <p>
+     * On one connection and in one transaction, it:
+     * 1) inserts the sale, copying the proposal fields
+     * 2) accepts the proposal and rejects every other ACTIVE proposal for the same vehicle
+     * 3) marks the vehicle SOLD and sets its {@code sold_at}
+     * Either all of it is stored or none of it.
+     * </p>
+     * <p>
+     * Row locks are held from the first write until the commit, so that window is
+     * kept as short as possible:
+     * - the vehicle of the proposal is read before the transaction starts, with a
+     * plain (non-locking) read
+     * - inside the transaction there are only three guarded writes, sent back to
+     * back with no reads or other work between them; accepting and rejecting the
+     * proposals is one statement
+     * - the caches are invalidated after the commit
+     * If the proposal stopped being active (or changed vehicle) after the first read,
+     * the guarded insert stores nothing and the transaction is rolled back.
+     * </p>
+     * <p>
+     * Both reads are also guarded on the proposal version, so a sale is never closed
+     * with a price or notes other than the ones the seller saw.
+     * </p>
      *
-     * @param proposalId the proposal identifier to convert into a sale
+     * @param proposalId the proposal to close
      * @param saleDate the date to store as the sale date
-     * @throws Exception if a database access error occurs
+     * @param expectedVersion the version of the proposal shown to the seller
+     * @return the outcome with its timings, or null if the proposal does not exist, is no
+     *         longer active or was changed by someone else
+     * @throws Exception if a database access error occurs (the transaction is rolled back)
      */
-    public void createSaleFromProposal(int proposalId, LocalDate saleDate) throws Exception {
-        try (Connection conn = DbConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_CREATE_SALE_FROM_PROPOSAL)) {
+    public SaleClosing closeSaleFromProposal(int proposalId, LocalDate saleDate, int expectedVersion) throws Exception {
+        SaleClosing closing;
+
+        try (Connection conn = DbConnection.getConnection()) {
+
+            int vehicleId;
+            try (PreparedStatement ps = conn.prepareStatement(SQL_FIND_ACTIVE_PROPOSAL_VEHICLE)) {
+                ps.setInt(1, proposalId);
+                ps.setInt(2, expectedVersion);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        // The cached detail may be the stale version the seller saw.
+                        ProposalDao.DETAIL_CACHE.invalidate(proposalId);
+                        return null;
+                    }
+                    vehicleId = rs.getInt(1);
+                }
+            }
+
+            conn.setAutoCommit(false);
+            try {
+                long lockStart = System.nanoTime();
 
-            ps.setDate(1, Date.valueOf(saleDate));
-            ps.setInt(2, proposalId);
+                int saleId;
+                try (PreparedStatement ps = conn.prepareStatement(SQL_CLOSE_INSERT_SALE, Statement.RETURN_GENERATED_KEYS)) {
+                    ps.setDate(1, Date.valueOf(saleDate));
+                    ps.setInt(2, proposalId);
+                    ps.setInt(3, expectedVersion);
+                    ps.setInt(4, vehicleId);
+
+                    if (ps.executeUpdate() == 0) {
+                        conn.rollback();
+                        ProposalDao.DETAIL_CACHE.invalidate(proposalId);
+                        return null;
+                    }
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        keys.next();
+                        saleId = keys.getInt(1);
+                    }
+                }
+
+                int updatedProposals;
+                try (PreparedStatement ps = conn.prepareStatement(SQL_CLOSE_SET_PROPOSAL_STATUSES)) {
+                    ps.setInt(1, proposalId);
+                    ps.setInt(2, vehicleId);
+                    updatedProposals = ps.executeUpdate();
+                }
+
+                try (PreparedStatement ps = conn.prepareStatement(SQL_CLOSE_MARK_VEHICLE_SOLD)) {
+                    ps.setInt(1, vehicleId);
+                    ps.executeUpdate();
+                }
+
+                long commitStart = System.nanoTime();
+                conn.commit();
+                long end = System.nanoTime();
+
+                closing = new SaleClosing(saleId, vehicleId, updatedProposals - 1,
+                        (end - lockStart) / 1_000_000.0, (end - commitStart) / 1_000_000.0);
+
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
 
-            ps.executeUpdate();
+        if (closing.getRejectedProposals() > 0) {
+            ProposalDao.DETAIL_CACHE.invalidateAll();
+        } else {
+            ProposalDao.DETAIL_CACHE.invalidate(proposalId);
         }
+        VehicleDao.DETAIL_CACHE.invalidate(closing.getVehicleId());
+        return closing;
     }
 
     /**
@@ -4,6 +4,7 @@ import dealership.controllers.RegisterRepairController.IdName;
 import dealership.model.AuthUser;
 import dealership.model.MechanicSkillRow;
 import dealership.util.DbConnection;
+import dealership.util.ReferenceDataCache;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -29,24 +30,24 @@ public class UserDao {
      * and password hash.
      * </p>
      */
-    private static final String SQL_LOGIN =
+    private static final String SQL_LOGIN = DbConnection.cacheable(
             "SELECT u.id, u.dealership_id, r.name AS role_name " +
             "FROM `user` u " +
             "JOIN role r ON r.id = u.role_id " +
             "WHERE u.username = ? " +
             "  AND u.password_hash = ? " +
-            "  AND u.is_active = 1";
+            "  AND u.is_active = 1");
 
     /**
      * SQL query used to retrieve active mechanics for combo boxes.
      */
-    private static final String SQL_ACTIVE_MECHANICS =
+    private static final String SQL_ACTIVE_MECHANICS = DbConnection.cacheable(
             "SELECT u.id, u.full_name " +
             "FROM `user` u " +
             "JOIN role r ON r.id = u.role_id " +
             "WHERE u.is_active = 1 " +
             "  AND UPPER(r.name) = 'MECHANIC' " +
-            "ORDER BY u.full_name ASC";
+            "ORDER BY u.full_name ASC");
 
     /**
      * Authenticates a user by username and password.
@@ -95,10 +96,24 @@ public class UserDao {
      * - name = mechanic full name (fallback: "Mechanic #id")
      * </p>
      *
-     * @return list of active mechanics as IdName
+     * <p>
+     * The list is served from {@link ReferenceDataCache} when possible.
+     * </p>
+     *
+     * @return unmodifiable list of active mechanics as IdName
      * @throws Exception if a database access error occurs
      */
     public List<IdName> findActiveMechanicsForCombo() throws Exception {
+        return ReferenceDataCache.get(ReferenceDataCache.MECHANICS, this::loadActiveMechanicsForCombo);
+    }
+
+    /**
+     * Loads all active mechanics for combo boxes from the database.
+     *
+     * @return list of active mechanics as IdName
+     * @throws Exception if a database access error occurs
+     */
+    private List<IdName> loadActiveMechanicsForCombo() throws Exception {
 
         List<IdName> mechanics = new ArrayList<>();
 
@@ -230,7 +245,11 @@ public class UserDao {
             stmt.setString(2, skills);
             stmt.setInt(3, mechanicId);
 
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            if (updated) {
+                ReferenceDataCache.invalidate(ReferenceDataCache.MECHANICS);
+            }
+            return updated;
         }
     }
 }
@@ -1,9 +1,11 @@
 package dealership.dao;
 
 import dealership.controllers.RegisterRepairController.IdName;
+import dealership.model.IdentifierMatch;
 import dealership.model.SalesVehicleRow;
 import dealership.model.VehicleDetail;
 import dealership.util.DbConnection;
+import dealership.util.DetailCache;
 
 import java.sql.Connection;
 import java.sql.Date;
@@ -17,56 +19,197 @@ import java.util.List;
  * <p>
  * This DAO is used to retrieve vehicle data from the database.
  * It is shared between modules:
- * - Repairs module: load vehicles for combo boxes.
+ * - Repairs and Sales forms: load vehicles for typeahead combo boxes, by prefix.
  * - Sales module: list vehicles and view full vehicle detail.
+ * - Sales header: plates and VINs for the identifier quick-jump index.
  * </p>
  */
 public class VehicleDao {
 
     /**
-     * SQL query used to retrieve all vehicles for combos (repairs module).
+     * Cache in front of {@link #findVehicleDetailById(int)}.
      */
-    private static final String SQL_FIND_ALL_VEHICLES =
-            "SELECT v.id, CONCAT(v.brand, ' ', v.model) AS vehicle_name " +
+    static final DetailCache<VehicleDetail> DETAIL_CACHE = new DetailCache<>("vehicle");
+
+    /**
+     * Start of the combo prefix query; one condition group per typed word is appended at runtime.
+     */
+    private static final String SQL_FIND_VEHICLES_FOR_COMBO_BY_PREFIX =
+            "SELECT v.id, CONCAT(CONCAT_WS(' ', v.brand, v.model), ' (', IFNULL(v.plate, v.vin), ')') AS vehicle_name, " +
+            "v.plate, v.brand, v.model " +
+            "FROM vehicle v " +
+            "WHERE TRUE";
+
+    /**
+     * Combo prefix condition applied to every typed word.
+     */
+    private static final String SQL_COMBO_TERM_CONDITION =
+            " AND (v.plate LIKE ? OR v.brand LIKE ? OR v.model LIKE ?)";
+
+    /**
+     * SQL query used to retrieve every plate and VIN for the identifier quick-jump index.
+     */
+    private static final String SQL_FIND_VEHICLE_IDENTIFIERS = DbConnection.cacheable(
+            "SELECT v.id, v.plate, v.vin, CONCAT_WS(' ', v.brand, v.model) AS vehicle_name " +
+            "FROM vehicle v");
+
+    /**
+     * Same as {@link #SQL_FIND_VEHICLE_IDENTIFIERS}, restricted to the vehicles
+     * currently at one dealership.
+     */
+    private static final String SQL_FIND_VEHICLE_IDENTIFIERS_BY_DEALERSHIP = DbConnection.cacheable(
+            "SELECT v.id, v.plate, v.vin, CONCAT_WS(' ', v.brand, v.model) AS vehicle_name " +
             "FROM vehicle v " +
-            "ORDER BY v.id";
+            "WHERE v.current_dealership_id = ?");
 
     /**
-     * SQL query used to retrieve vehicles for Sales -> Vehicles list.
+     * SQL query used to retrieve the first page of the Sales -> Vehicles list.
+     * <p>
+     * Vehicles are listed newest first. Vehicles without entry date go last
+     * (MySQL sorts NULL values after the others in descending order).
+     * </p>
+     */
+    private static final String SQL_FIND_VEHICLES_FOR_SALES_FIRST_PAGE = DbConnection.cacheable(
+            "SELECT v.id, v.plate, v.brand, v.model, v.year, v.color, v.entry_date " +
+            "FROM vehicle v " +
+            "ORDER BY v.entry_date DESC, v.id DESC " +
+            "LIMIT ?");
+
+    /**
+     * SQL query used to retrieve the next page of dated vehicles after a given (entry_date, id).
+     * <p>
+     * The condition is written so MySQL can use a range scan on {@code idx_vehicle_entry_date}
+     * (InnoDB secondary indexes also contain the primary key, so the index is ordered
+     * by entry_date and id).
+     * </p>
      */
-    private static final String SQL_FIND_ALL_VEHICLES_FOR_SALES =
+    private static final String SQL_FIND_VEHICLES_FOR_SALES_AFTER_DATED = DbConnection.cacheable(
             "SELECT v.id, v.plate, v.brand, v.model, v.year, v.color, v.entry_date " +
             "FROM vehicle v " +
-            "ORDER BY v.entry_date DESC, v.id DESC";
+            "WHERE v.entry_date <= ? AND (v.entry_date < ? OR v.id < ?) " +
+            "ORDER BY v.entry_date DESC, v.id DESC " +
+            "LIMIT ?");
+
+    /**
+     * SQL query used to retrieve the next page of vehicles without entry date after a given id.
+     */
+    private static final String SQL_FIND_VEHICLES_FOR_SALES_AFTER_UNDATED = DbConnection.cacheable(
+            "SELECT v.id, v.plate, v.brand, v.model, v.year, v.color, v.entry_date " +
+            "FROM vehicle v " +
+            "WHERE v.entry_date IS NULL AND v.id < ? " +
+            "ORDER BY v.id DESC " +
+            "LIMIT ?");
+
+    /**
+     * Same as {@link #SQL_FIND_VEHICLES_FOR_SALES_FIRST_PAGE}, restricted to the vehicles
+     * currently at one dealership ({@code idx_vehicle_dealership_entry_date}).
+     */
+    private static final String SQL_FIND_VEHICLES_FOR_SALES_BY_DEALERSHIP_FIRST_PAGE = DbConnection.cacheable(
+            "SELECT v.id, v.plate, v.brand, v.model, v.year, v.color, v.entry_date " +
+            "FROM vehicle v " +
+            "WHERE v.current_dealership_id = ? " +
+            "ORDER BY v.entry_date DESC, v.id DESC " +
+            "LIMIT ?");
+
+    /**
+     * Same as {@link #SQL_FIND_VEHICLES_FOR_SALES_AFTER_DATED}, restricted to one dealership.
+     */
+    private static final String SQL_FIND_VEHICLES_FOR_SALES_BY_DEALERSHIP_AFTER_DATED = DbConnection.cacheable(
+            "SELECT v.id, v.plate, v.brand, v.model, v.year, v.color, v.entry_date " +
+            "FROM vehicle v " +
+            "WHERE v.current_dealership_id = ? " +
+            "  AND v.entry_date <= ? AND (v.entry_date < ? OR v.id < ?) " +
+            "ORDER BY v.entry_date DESC, v.id DESC " +
+            "LIMIT ?");
+
+    /**
+     * Same as {@link #SQL_FIND_VEHICLES_FOR_SALES_AFTER_UNDATED}, restricted to one dealership.
+     */
+    private static final String SQL_FIND_VEHICLES_FOR_SALES_BY_DEALERSHIP_AFTER_UNDATED = DbConnection.cacheable(
+            "SELECT v.id, v.plate, v.brand, v.model, v.year, v.color, v.entry_date " +
+            "FROM vehicle v " +
+            "WHERE v.current_dealership_id = ? " +
+            "  AND v.entry_date IS NULL AND v.id < ? " +
+            "ORDER BY v.id DESC " +
+            "LIMIT ?");
+
+    /**
+     * Start of the Sales -> Vehicles search query.
+     * <p>
+     * The WHERE conditions are appended at runtime (dealership, then one group per
+     * search term), see {@link #searchVehiclesForSalesPage(Integer, String, SalesVehicleRow, int)}.
+     * </p>
+     */
+    private static final String SQL_SEARCH_VEHICLES_FOR_SALES =
+            "SELECT v.id, v.plate, v.brand, v.model, v.year, v.color, v.entry_date " +
+            "FROM vehicle v " +
+            "WHERE ";
+
+    /**
+     * Search condition applied to every search term (prefix match on each column).
+     */
+    private static final String SQL_SEARCH_TERM_CONDITION =
+            "(v.plate LIKE ? OR v.brand LIKE ? OR v.model LIKE ? OR v.color LIKE ?";
 
     /**
      * SQL query used to retrieve vehicle detail for Sales -> Vehicle detail view.
      */
-    private static final String SQL_FIND_VEHICLE_DETAIL_BY_ID =
+    private static final String SQL_FIND_VEHICLE_DETAIL_BY_ID = DbConnection.cacheable(
             "SELECT v.id, v.plate, v.brand, v.model, v.year, v.color, v.mileage, v.notes, " +
             "       v.fuel, v.transmission, v.doors, v.entry_date, " +
             "       vc.name AS type_name " +
             "FROM vehicle v " +
             "LEFT JOIN vehicle_category vc ON v.category_id = vc.id " +
-            "WHERE v.id = ?";
+            "WHERE v.id = ?");
 
     /**
-     * Retrieves all vehicles from the database for use in combo boxes.
+     * Retrieves a small window of vehicles for a typeahead combo box.
+     * <p>
+     * Every word of the prefix must match the start of the plate, brand or model
+     * (case and accent insensitive, through the column collation); the
+     * {@code ux_vehicle_plate} and {@code idx_vehicle_brand_model} indexes serve
+     * the prefix conditions. Items are formatted as "Brand Model (plate)" and carry
+     * the plate, brand and model as their search keys, so
+     * {@link dealership.util.TypeaheadSelector} can narrow a result in memory with
+     * the same rule.
+     * </p>
      *
-     * @return a list of vehicles formatted as {@link IdName} objects
+     * @param prefix the text typed by the user (an empty prefix returns the first vehicles)
+     * @param limit the maximum number of vehicles
+     * @return the matching vehicles, by brand, model and id
      * @throws Exception if a database access error occurs
      */
-    public List<IdName> findAllVehiclesForCombo() throws Exception {
+    public List<IdName> findVehiclesForComboByPrefix(String prefix, int limit) throws Exception {
+        String text = (prefix == null) ? "" : prefix.trim();
+
+        StringBuilder sql = new StringBuilder(SQL_FIND_VEHICLES_FOR_COMBO_BY_PREFIX);
+        List<String> params = new ArrayList<>();
+
+        for (String word : text.isEmpty() ? new String[0] : text.split("\\s+")) {
+            String like = escapeLike(word) + "%";
+            sql.append(SQL_COMBO_TERM_CONDITION);
+            params.add(like);
+            params.add(like);
+            params.add(like);
+        }
+        sql.append(" ORDER BY v.brand, v.model, v.id LIMIT ?");
+
         List<IdName> list = new ArrayList<>();
 
         try (Connection conn = DbConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_ALL_VEHICLES);
-             ResultSet rs = ps.executeQuery()) {
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
 
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                String name = rs.getString("vehicle_name");
-                list.add(new IdName(id, name));
+            int index = 1;
+            for (String param : params) {
+                ps.setString(index++, param);
+            }
+            ps.setInt(index, limit);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new IdName(rs.getInt("id"), rs.getString("vehicle_name"),
+                            rs.getString("plate"), rs.getString("brand"), rs.getString("model")));
+                }
             }
         }
 
@@ -74,19 +217,262 @@ public class VehicleDao {
     }
 
     /**
-     * Retrieves all vehicles for the Sales -> Vehicles table.
-     * This returns a lightweight row model ready to be used in a TableView.
+     * Retrieves the plate and VIN of the vehicles for the identifier quick-jump index.
+     * <p>
+     * Each vehicle gives one {@link IdentifierMatch} per identifier (vehicles without
+     * plate only give their VIN), described by brand and model. The index itself is
+     * kept by {@link dealership.util.IdentifierIndex}.
+     * </p>
      *
-     * @return list of sales vehicle rows
+     * @param dealershipId the dealership to read, or null for every dealership
+     * @return the plate and VIN entries
      * @throws Exception if a database access error occurs
      */
-    public List<SalesVehicleRow> findAllVehiclesForSales() throws Exception {
-        List<SalesVehicleRow> list = new ArrayList<>();
+    public List<IdentifierMatch> findVehicleIdentifiers(Integer dealershipId) throws Exception {
+        List<IdentifierMatch> list = new ArrayList<>();
+
+        boolean byDealership = dealershipId != null;
 
         try (Connection conn = DbConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_FIND_ALL_VEHICLES_FOR_SALES);
-             ResultSet rs = ps.executeQuery()) {
+             PreparedStatement ps = conn.prepareStatement(byDealership
+                     ? SQL_FIND_VEHICLE_IDENTIFIERS_BY_DEALERSHIP
+                     : SQL_FIND_VEHICLE_IDENTIFIERS)) {
+
+            if (byDealership) ps.setInt(1, dealershipId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt("id");
+                    String plate = rs.getString("plate");
+                    String name = rs.getString("vehicle_name");
+
+                    if (plate != null && !plate.isBlank()) {
+                        list.add(new IdentifierMatch(IdentifierMatch.Kind.PLATE, id, plate, name));
+                    }
+                    list.add(new IdentifierMatch(IdentifierMatch.Kind.VIN, id, rs.getString("vin"), name));
+                }
+            }
+        }
 
+        return list;
+    }
+
+    /**
+     * Retrieves one page of vehicles for the Sales -> Vehicles table.
+     * <p>
+     * Pagination uses a keyset (seek) on {@code (entry_date, id)} instead of an
+     * offset: the next page starts right after the last row already shown, so
+     * every page costs the same no matter how deep the user has scrolled.
+     * Vehicles are ordered by entry date (newest first) and then by id; vehicles
+     * without entry date come last.
+     * </p>
+     * <p>
+     * With a dealership id, only the vehicles currently at that dealership are
+     * returned (through the {@code idx_vehicle_dealership_entry_date} index).
+     * Each case has its own constant query, so the statements stay in the
+     * statement cache.
+     * </p>
+     *
+     * @param dealershipId the dealership to read, or null for every dealership
+     * @param after the last row of the previous page, or null for the first page
+     * @param limit maximum number of rows to return
+     * @return list of sales vehicle rows (fewer than {@code limit} on the last page)
+     * @throws Exception if a database access error occurs
+     */
+    public List<SalesVehicleRow> findVehiclesForSalesPage(Integer dealershipId, SalesVehicleRow after, int limit) throws Exception {
+        boolean byDealership = dealershipId != null;
+        List<SalesVehicleRow> list = new ArrayList<>();
+
+        try (Connection conn = DbConnection.getConnection()) {
+
+            if (after == null) {
+                try (PreparedStatement ps = conn.prepareStatement(byDealership
+                        ? SQL_FIND_VEHICLES_FOR_SALES_BY_DEALERSHIP_FIRST_PAGE
+                        : SQL_FIND_VEHICLES_FOR_SALES_FIRST_PAGE)) {
+                    int index = 1;
+                    if (byDealership) ps.setInt(index++, dealershipId);
+                    ps.setInt(index, limit);
+                    readSalesVehicleRows(ps, list);
+                }
+                return list;
+            }
+
+            int afterUndatedId = after.getId();
+
+            if (after.getDateAdded() != null) {
+                Date afterDate = Date.valueOf(after.getDateAdded());
+
+                try (PreparedStatement ps = conn.prepareStatement(byDealership
+                        ? SQL_FIND_VEHICLES_FOR_SALES_BY_DEALERSHIP_AFTER_DATED
+                        : SQL_FIND_VEHICLES_FOR_SALES_AFTER_DATED)) {
+                    int index = 1;
+                    if (byDealership) ps.setInt(index++, dealershipId);
+                    ps.setDate(index++, afterDate);
+                    ps.setDate(index++, afterDate);
+                    ps.setInt(index++, after.getId());
+                    ps.setInt(index, limit);
+                    readSalesVehicleRows(ps, list);
+                }
+
+                if (list.size() == limit) {
+                    return list;
+                }
+
+                // Dated vehicles are exhausted: continue with the undated ones from the top.
+                afterUndatedId = Integer.MAX_VALUE;
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(byDealership
+                    ? SQL_FIND_VEHICLES_FOR_SALES_BY_DEALERSHIP_AFTER_UNDATED
+                    : SQL_FIND_VEHICLES_FOR_SALES_AFTER_UNDATED)) {
+                int index = 1;
+                if (byDealership) ps.setInt(index++, dealershipId);
+                ps.setInt(index++, afterUndatedId);
+                ps.setInt(index, limit - list.size());
+                readSalesVehicleRows(ps, list);
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * Searches vehicles for the Sales -> Vehicles table, one page at a time.
+     * <p>
+     * The query is split into words and every word must match the start of the
+     * plate, brand, model or color of the vehicle (or its year, for 4-digit words).
+     * Prefix matches ({@code LIKE 'word%'}) let MySQL use the {@code ux_vehicle_plate}
+     * and {@code idx_vehicle_brand_model} indexes, and the comparison follows the
+     * column collation, so it is case-insensitive.
+     * </p>
+     * <p>
+     * Results use the same order, keyset pagination and dealership restriction as
+     * {@link #findVehiclesForSalesPage(Integer, SalesVehicleRow, int)}. A blank query
+     * returns the unfiltered page.
+     * </p>
+     *
+     * @param dealershipId the dealership to read, or null for every dealership
+     * @param query the text typed by the user
+     * @param after the last row of the previous page, or null for the first page
+     * @param limit maximum number of rows to return
+     * @return list of matching sales vehicle rows (fewer than {@code limit} on the last page)
+     * @throws Exception if a database access error occurs
+     */
+    public List<SalesVehicleRow> searchVehiclesForSalesPage(Integer dealershipId, String query,
+                                                            SalesVehicleRow after, int limit) throws Exception {
+        String text = (query == null) ? "" : query.trim();
+        if (text.isEmpty()) {
+            return findVehiclesForSalesPage(dealershipId, after, limit);
+        }
+
+        StringBuilder filter = new StringBuilder();
+        List<Object> filterParams = new ArrayList<>();
+
+        if (dealershipId != null) {
+            filter.append(" AND v.current_dealership_id = ?");
+            filterParams.add(dealershipId);
+        }
+
+        for (String term : text.isEmpty() ? new String[0] : text.split("\\s+")) {
+            String prefix = escapeLike(term) + "%";
+
+            filter.append(" AND ").append(SQL_SEARCH_TERM_CONDITION);
+            for (int i = 0; i < 4; i++) {
+                filterParams.add(prefix);
+            }
+            if (term.matches("\\d{4}")) {
+                filter.append(" OR v.year = ?");
+                filterParams.add(Integer.parseInt(term));
+            }
+            filter.append(")");
+        }
+
+        List<SalesVehicleRow> list = new ArrayList<>();
+
+        try (Connection conn = DbConnection.getConnection()) {
+
+            if (after == null) {
+                runSalesVehicleSearch(conn, "TRUE", List.of(), filter, filterParams,
+                        "v.entry_date DESC, v.id DESC", limit, list);
+                return list;
+            }
+
+            int afterUndatedId = after.getId();
+
+            if (after.getDateAdded() != null) {
+                Date afterDate = Date.valueOf(after.getDateAdded());
+
+                runSalesVehicleSearch(conn, "v.entry_date <= ? AND (v.entry_date < ? OR v.id < ?)",
+                        List.of(afterDate, afterDate, after.getId()), filter, filterParams,
+                        "v.entry_date DESC, v.id DESC", limit, list);
+
+                if (list.size() == limit) {
+                    return list;
+                }
+
+                // Dated matches are exhausted: continue with the undated ones from the top.
+                afterUndatedId = Integer.MAX_VALUE;
+            }
+
+            runSalesVehicleSearch(conn, "v.entry_date IS NULL AND v.id < ?",
+                    List.of(afterUndatedId), filter, filterParams,
+                    "v.id DESC", limit - list.size(), list);
+        }
+
+        return list;
+    }
+
+    /**
+     * Builds and executes one Sales -> Vehicles search query.
+     *
+     * @param conn the connection to use
+     * @param seek the keyset condition
+     * @param seekParams parameters of the keyset condition
+     * @param filter the search conditions (each one starting with " AND ")
+     * @param filterParams parameters of the search conditions
+     * @param orderBy the ORDER BY expression
+     * @param limit maximum number of rows to read
+     * @param list the list receiving the rows
+     * @throws Exception if a database access error occurs
+     */
+    private void runSalesVehicleSearch(Connection conn, String seek, List<Object> seekParams,
+                                       CharSequence filter, List<Object> filterParams,
+                                       String orderBy, int limit, List<SalesVehicleRow> list) throws Exception {
+        String sql = SQL_SEARCH_VEHICLES_FOR_SALES + seek + filter + " ORDER BY " + orderBy + " LIMIT ?";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (Object param : seekParams) {
+                ps.setObject(index++, param);
+            }
+            for (Object param : filterParams) {
+                ps.setObject(index++, param);
+            }
+            ps.setInt(index, limit);
+
+            readSalesVehicleRows(ps, list);
+        }
+    }
+
+    /**
+     * Escapes the LIKE wildcard characters of a search term.
+     *
+     * @param term the raw search term
+     * @return the term with {@code \}, {@code %} and {@code _} escaped
+     */
+    static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Executes a Sales -> Vehicles query and appends the resulting rows to a list.
+     *
+     * @param ps the prepared statement with all parameters set
+     * @param list the list receiving the rows
+     * @throws Exception if a database access error occurs
+     */
+    private void readSalesVehicleRows(PreparedStatement ps, List<SalesVehicleRow> list) throws Exception {
+        try (ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 int id = rs.getInt("id");
                 String plate = rs.getString("plate");
@@ -103,8 +489,6 @@ public class VehicleDao {
                 list.add(new SalesVehicleRow(id, plate, vehicleText, entryDate));
             }
         }
-
-        return list;
     }
 
     /**
@@ -138,6 +522,17 @@ public class VehicleDao {
      * @throws Exception if a database access error occurs
      */
     public VehicleDetail findVehicleDetailById(int vehicleId) throws Exception {
+        return DETAIL_CACHE.get(vehicleId, () -> loadVehicleDetailById(vehicleId));
+    }
+
+    /**
+     * Loads a vehicle detail from the database (bypassing {@link #DETAIL_CACHE}).
+     *
+     * @param vehicleId the vehicle id
+     * @return the detail, or null if not found
+     * @throws Exception if a database access error occurs
+     */
+    private VehicleDetail loadVehicleDetailById(int vehicleId) throws Exception {
         try (Connection conn = DbConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_FIND_VEHICLE_DETAIL_BY_ID)) {
 
@@ -0,0 +1,443 @@
+package dealership.dao;
+
+import dealership.model.ImportReport;
+import dealership.util.CsvImport;
+import dealership.util.DbConnection;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Data Access Object for the bulk intake of vehicle stock from supplier CSV files.
+ * <p>
+ * New stock arrives in lots (for example from auctions). Instead of entering each
+ * car by hand, the lot file is imported in one go: every valid row becomes an
+ * AVAILABLE vehicle of the user's dealership, with the given entry date.
+ * </p>
+ * <p>
+ * The whole intake runs on one connection:
+ * - the existing VINs and plates, and the vehicle categories, are loaded once
+ * into memory, so checking a row costs a hash lookup instead of a query
+ * - the file is read by {@link CsvImport}, like the customer import
+ * ({@link CustomerDao#importCustomers(Path, Path, Consumer)}): valid rows are
+ * inserted in chunks of {@link CsvImport#CHUNK_SIZE}, each one a JDBC batch
+ * (rewritten by the driver into multi-row INSERTs) committed in its own transaction,
+ * and rows that are not imported are written to a rejected-rows file with the reason
+ * </p>
+ */
+public class VehicleIntakeDao {
+
+    private static final String SQL_FIND_VEHICLE_KEYS = DbConnection.cacheable(
+            "SELECT vin, plate FROM vehicle");
+
+    private static final String SQL_FIND_CATEGORIES = DbConnection.cacheable(
+            "SELECT id, name FROM vehicle_category");
+
+    private static final String SQL_INSERT_VEHICLE = DbConnection.cacheable(
+            "INSERT INTO vehicle (vin, plate, brand, model, year, color, mileage, fuel, transmission, doors, " +
+            "category_id, notes, entry_date, current_dealership_id, status) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'AVAILABLE')");
+
+    /**
+     * Columns of the CSV file, in order. Only vin, brand and model are required.
+     */
+    private static final List<String> COLUMNS = List.of(
+            "vin", "plate", "brand", "model", "year", "color", "mileage",
+            "fuel", "transmission", "doors", "category", "notes");
+
+    private static final String DEFAULT_FUEL = "Petrol";
+    private static final String DEFAULT_TRANSMISSION = "Manual";
+    private static final int DEFAULT_DOORS = 5;
+
+    // Column sizes of the vehicle table
+    private static final int MAX_VIN_LENGTH = 50;
+    private static final int MAX_PLATE_LENGTH = 15;
+    private static final int MAX_NAME_LENGTH = 80;
+    private static final int MAX_COLOR_LENGTH = 40;
+    private static final int MAX_TYPE_LENGTH = 30;
+
+    // A whole number written with dots between thousands, such as "123.456"
+    private static final Pattern THOUSANDS = Pattern.compile("\\d{1,3}(\\.\\d{3})+");
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Imports a lot of vehicles from a CSV file.
+     * <p>
+     * The file has the columns {@code vin, plate, brand, model, year, color, mileage,
+     * fuel, transmission, doors, category, notes}, separated by {@code ,} or {@code ;};
+     * a header line is optional and trailing empty columns can be left out. The
+     * category is given by name (case and accents are ignored). Empty fuel,
+     * transmission and doors take the table defaults. The mileage may use dots
+     * between thousands ("123.456"); other numbers must be whole numbers.
+     * </p>
+     * <p>
+     * VINs and plates are compared without case, spaces or dashes, but stored as
+     * written in the file, like the vehicles entered by hand.
+     * </p>
+     * <p>
+     * A row is rejected if its VIN or plate already exists (in the database or
+     * earlier in the file) or if a field is invalid. A failure while inserting only
+     * rolls back the chunk in progress; the chunks already committed stay.
+     * </p>
+     *
+     * @param source the CSV file to import
+     * @param rejectedFile the file where rejected rows are written (only created if a row is rejected)
+     * @param dealershipId the dealership that receives the stock
+     * @param entryDate the entry date stored on every vehicle
+     * @param onProgress receives a report after each chunk (called on the importing thread)
+     * @return the final report
+     * @throws Exception if the files cannot be read or written, or a database access error occurs
+     */
+    public ImportReport importVehicles(Path source, Path rejectedFile, int dealershipId, LocalDate entryDate,
+                                       Consumer<ImportReport> onProgress) throws Exception {
+        return CsvImport.run(source, rejectedFile, COLUMNS, new VehicleImporter(dealershipId, entryDate), onProgress);
+    }
+
+    /**
+     * Loads every VIN and plate of the vehicle table (streamed, normalized).
+     *
+     * @param conn the intake connection
+     * @param vins receives the VINs
+     * @param plates receives the plates
+     * @throws Exception if a database access error occurs
+     */
+    private void loadVehicleKeys(Connection conn, Set<String> vins, Set<String> plates) throws Exception {
+        try (PreparedStatement ps = DbConnection.prepareStreaming(conn, SQL_FIND_VEHICLE_KEYS);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                vins.add(normalizeKey(rs.getString("vin")));
+                String plate = rs.getString("plate");
+                if (plate != null && !plate.isBlank()) {
+                    plates.add(normalizeKey(plate));
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the vehicle categories, keyed by normalized name.
+     *
+     * @param conn the intake connection
+     * @return the category ids by name
+     * @throws Exception if a database access error occurs
+     */
+    private Map<String, Integer> loadCategories(Connection conn) throws Exception {
+        Map<String, Integer> categories = new HashMap<>();
+
+        try (PreparedStatement ps = conn.prepareStatement(SQL_FIND_CATEGORIES);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                categories.put(normalizeCategory(rs.getString("name")), rs.getInt("id"));
+            }
+        }
+        return categories;
+    }
+
+    /**
+     * Parses and checks the fields of a CSV row.
+     *
+     * @param fields the parsed fields
+     * @param categories the category ids by normalized name
+     * @param row receives the parsed values
+     * @return the reason the row is invalid, or null if it can be imported
+     */
+    private String parseRow(List<String> fields, Map<String, Integer> categories, IntakeRow row) {
+        if (fields.size() > COLUMNS.size()) return "Too many columns";
+
+        row.vin = field(fields, 0);
+        row.plate = emptyToNull(field(fields, 1));
+        row.vinKey = normalizeKey(row.vin);
+        row.plateKey = normalizeKey(row.plate);
+        row.brand = field(fields, 2);
+        row.model = field(fields, 3);
+        row.color = emptyToNull(field(fields, 5));
+        row.fuel = field(fields, 7).isEmpty() ? DEFAULT_FUEL : field(fields, 7);
+        row.transmission = field(fields, 8).isEmpty() ? DEFAULT_TRANSMISSION : field(fields, 8);
+        row.notes = emptyToNull(field(fields, 11));
+
+        if (row.vinKey.isEmpty() || row.vin.length() > MAX_VIN_LENGTH) return "Invalid VIN";
+        if (row.plate != null && (row.plateKey.isEmpty() || row.plate.length() > MAX_PLATE_LENGTH)) {
+            return "Invalid plate";
+        }
+        if (row.brand.isEmpty() || row.model.isEmpty()) return "Missing brand or model";
+        if (row.brand.length() > MAX_NAME_LENGTH || row.model.length() > MAX_NAME_LENGTH) return "Brand or model too long";
+        if (row.color != null && row.color.length() > MAX_COLOR_LENGTH) return "Color too long";
+        if (row.fuel.length() > MAX_TYPE_LENGTH || row.transmission.length() > MAX_TYPE_LENGTH) {
+            return "Fuel or transmission too long";
+        }
+
+        try {
+            row.year = parseOptionalInt(field(fields, 4));
+            row.mileage = parseOptionalMileage(field(fields, 6));
+            Integer doors = parseOptionalInt(field(fields, 9));
+            row.doors = (doors == null) ? DEFAULT_DOORS : doors;
+        } catch (NumberFormatException e) {
+            return "Year, mileage or doors is not a number";
+        }
+
+        int maxYear = LocalDate.now().getYear() + 1;
+        if (row.year != null && (row.year < 1900 || row.year > maxYear)) return "Invalid year";
+        if (row.mileage != null && row.mileage < 0) return "Invalid mileage";
+        if (row.doors < 1 || row.doors > 9) return "Invalid doors";
+
+        String category = field(fields, 10);
+        if (!category.isEmpty()) {
+            row.categoryId = categories.get(normalizeCategory(category));
+            if (row.categoryId == null) return "Unknown category";
+        }
+        return null;
+    }
+
+    /**
+     * Returns a field of the row, or an empty string if the row is shorter.
+     *
+     * @param fields the parsed fields
+     * @param index the column index
+     * @return the field value
+     */
+    private String field(List<String> fields, int index) {
+        return (index < fields.size()) ? fields.get(index) : "";
+    }
+
+    /**
+     * Normalizes a VIN or plate for comparison: uppercase, without spaces or
+     * dashes ("1234-abc" and "1234 ABC" are the same plate). The vehicle table
+     * keeps the values as they were entered, so only the comparison uses this form.
+     *
+     * @param value the raw value
+     * @return the normalized value (empty if null)
+     */
+    private static String normalizeKey(String value) {
+        if (value == null) return "";
+        return value.replace(" ", "").replace("-", "").toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Normalizes a category name for comparison: lowercase, without accents.
+     *
+     * @param name the category name (can be null)
+     * @return the normalized name (empty if null)
+     */
+    private static String normalizeCategory(String name) {
+        if (name == null) return "";
+        String decomposed = Normalizer.normalize(name.trim(), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Parses an optional integer field.
+     *
+     * @param value the field value
+     * @return the number, or null if the field is empty
+     * @throws NumberFormatException if the field is not a whole number
+     */
+    private Integer parseOptionalInt(String value) {
+        if (value.isEmpty()) return null;
+        return Integer.valueOf(value);
+    }
+
+    /**
+     * Parses the optional mileage field.
+     * <p>
+     * Supplier files often write mileages with dots between thousands
+     * ("123.456"). Those dots are removed only when every group after the first
+     * has three digits. Anything else with a dot, such as "12345.6", is rejected
+     * instead of being read as a different number.
+     * </p>
+     *
+     * @param value the field value
+     * @return the mileage, or null if the field is empty
+     * @throws NumberFormatException if the field is not a whole number
+     */
+    private Integer parseOptionalMileage(String value) {
+        if (THOUSANDS.matcher(value).matches()) {
+            value = value.replace(".", "");
+        }
+        return parseOptionalInt(value);
+    }
+
+    /**
+     * Sets an integer parameter, or SQL NULL.
+     *
+     * @param ps the statement
+     * @param index the parameter index
+     * @param value the value (can be null)
+     * @throws Exception if the parameter cannot be set
+     */
+    private void setNullableInt(PreparedStatement ps, int index, Integer value) throws Exception {
+        if (value == null) {
+            ps.setNull(index, Types.INTEGER);
+        } else {
+            ps.setInt(index, value);
+        }
+    }
+
+    /**
+     * Returns null for an empty string.
+     *
+     * @param value the value
+     * @return the value, or null if it is empty
+     */
+    private String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Checks the VIN and plate of a row against known keys.
+     *
+     * @param row the parsed row
+     * @param vins the known VINs, normalized
+     * @param plates the known plates, normalized
+     * @return the rejection reason, or null if neither key is known
+     */
+    private static String findDuplicate(IntakeRow row, Set<String> vins, Set<String> plates) {
+        if (vins.contains(row.vinKey)) return "VIN already exists";
+        if (row.plate != null && plates.contains(row.plateKey)) return "Plate already exists";
+        return null;
+    }
+
+    /**
+     * The parsed values of one CSV row. The VIN and plate are kept as written
+     * (trimmed); their normalized keys are only used to find duplicates.
+     */
+    private static final class IntakeRow {
+        private String vin;
+        private String plate;
+        private String vinKey;
+        private String plateKey;
+        private String brand;
+        private String model;
+        private Integer year;
+        private String color;
+        private Integer mileage;
+        private String fuel;
+        private String transmission;
+        private int doors;
+        private Integer categoryId;
+        private String notes;
+    }
+
+    /**
+     * The vehicle part of {@link #importVehicles(Path, Path, int, LocalDate, Consumer)}.
+     */
+    private final class VehicleImporter implements CsvImport.Importer<IntakeRow> {
+
+        private final int dealershipId;
+        private final LocalDate entryDate;
+
+        private final Set<String> vins = new HashSet<>();
+        private final Set<String> plates = new HashSet<>();
+        private Map<String, Integer> categories;
+
+        private VehicleImporter(int dealershipId, LocalDate entryDate) {
+            this.dealershipId = dealershipId;
+            this.entryDate = entryDate;
+        }
+
+        @Override
+        public void prepare(Connection conn) throws Exception {
+            loadVehicleKeys(conn, vins, plates);
+            categories = loadCategories(conn);
+        }
+
+        @Override
+        public IntakeRow parse(List<String> fields, CsvImport.Rejector rejector) {
+            IntakeRow row = new IntakeRow();
+            String problem = parseRow(fields, categories, row);
+            if (problem != null) {
+                rejector.reject(CsvImport.Rejection.INVALID, problem);
+                return null;
+            }
+
+            String duplicate = findDuplicate(row, vins, plates);
+            if (duplicate != null) {
+                rejector.reject(CsvImport.Rejection.DUPLICATE, duplicate);
+                return null;
+            }
+            vins.add(row.vinKey);
+            if (row.plate != null) plates.add(row.plateKey);
+            return row;
+        }
+
+        /**
+         * Inserts one chunk of valid rows as a batch.
+         * <p>
+         * The keys were checked against the ones loaded by {@link #prepare(Connection)}.
+         * If someone else inserts one of the VINs or plates meanwhile, the batch fails
+         * on the unique key: the chunk is rolled back, checked against the keys now in
+         * the table, and sent again without the duplicates, up to
+         * {@link CsvImport#CHUNK_ATTEMPTS} times.
+         * </p>
+         */
+        @Override
+        public int insert(Connection conn, List<IntakeRow> chunk, BiConsumer<IntakeRow, String> skipped) throws Exception {
+            Map<IntakeRow, String> duplicates = new IdentityHashMap<>();
+
+            for (int attempt = 1; ; attempt++) {
+                int inserted = 0;
+                try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT_VEHICLE)) {
+                    for (IntakeRow row : chunk) {
+                        if (duplicates.containsKey(row)) continue;
+
+                        ps.setString(1, row.vin);
+                        ps.setString(2, row.plate);
+                        ps.setString(3, row.brand);
+                        ps.setString(4, row.model);
+                        setNullableInt(ps, 5, row.year);
+                        ps.setString(6, row.color);
+                        setNullableInt(ps, 7, row.mileage);
+                        ps.setString(8, row.fuel);
+                        ps.setString(9, row.transmission);
+                        ps.setInt(10, row.doors);
+                        setNullableInt(ps, 11, row.categoryId);
+                        ps.setString(12, row.notes);
+                        ps.setDate(13, Date.valueOf(entryDate));
+                        ps.setInt(14, dealershipId);
+                        ps.addBatch();
+                        inserted++;
+                    }
+                    if (inserted > 0) {
+                        ps.executeBatch();
+                    }
+
+                } catch (SQLException e) {
+                    conn.rollback();
+                    if (!CsvImport.isDuplicateKey(e) || attempt == CsvImport.CHUNK_ATTEMPTS) throw e;
+
+                    // Rare: reread the keys of the table (not the ones of this file)
+                    Set<String> tableVins = new HashSet<>();
+                    Set<String> tablePlates = new HashSet<>();
+                    loadVehicleKeys(conn, tableVins, tablePlates);
+                    for (IntakeRow row : chunk) {
+                        String duplicate = findDuplicate(row, tableVins, tablePlates);
+                        if (duplicate != null) duplicates.put(row, duplicate);
+                    }
+                    continue;
+                }
+
+                duplicates.forEach(skipped);
+                return inserted;
+            }
+        }
+    }
+}
@@ -17,6 +17,7 @@ public class BossRepairEditDetails {
 
     private final Integer assignedMechanicId;
     private final String assignedMechanicName;
+    private final int version;
 
     /**
      * Creates a new instance containing all editable repair details for the boss.
@@ -27,19 +28,22 @@ public class BossRepairEditDetails {
      * @param notes repair notes
      * @param assignedMechanicId the assigned mechanic ID, or null if none
      * @param assignedMechanicName the assigned mechanic name, or empty if none
+     * @param version the row version read with the repair
      */
     public BossRepairEditDetails(int repairId,
                                 String vehicleText,
                                 String status,
                                 String notes,
                                 Integer assignedMechanicId,
-                                String assignedMechanicName) {
+                                String assignedMechanicName,
+                                int version) {
         this.repairId = repairId;
         this.vehicleText = vehicleText;
         this.status = status;
         this.notes = notes;
         this.assignedMechanicId = assignedMechanicId;
         this.assignedMechanicName = assignedMechanicName;
+        this.version = version;
     }
 
     /**
@@ -95,5 +99,14 @@ public class BossRepairEditDetails {
     public String getAssignedMechanicName() {
         return assignedMechanicName;
     }
-}
 
+    /**
+     * Returns the row version of the repair when it was read; updates send it back
+     * to detect concurrent changes.
+     *
+     * @return the repair version
+     */
+    public int getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,103 @@
+package dealership.model;
+
+/**
+ * One result of the Sales header global search.
+ * <p>
+ * Results of every entity type share this small, read-only shape so they can
+ * be merged into a single suggestion list.
+ * </p>
+ */
+public class GlobalSearchResult {
+
+    /**
+     * Entity type of a result. The declaration order is the order of the groups
+     * in the merged result list.
+     */
+    public enum Type {
+        CUSTOMER("Customers"),
+        VEHICLE("Vehicles"),
+        PROPOSAL("Proposals"),
+        SALE("Sales");
+
+        private final String label;
+
+        Type(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Returns the group title shown in the result list.
+         *
+         * @return the label
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final Type type;
+    private final int id;
+    private final String title;
+    private final String detail;
+
+    /**
+     * Creates a new result.
+     *
+     * @param type the entity type
+     * @param id the entity id
+     * @param title the main text (name, plate or code)
+     * @param detail a secondary text (can be empty)
+     */
+    public GlobalSearchResult(Type type, int id, String title, String detail) {
+        this.type = type;
+        this.id = id;
+        this.title = title;
+        this.detail = detail;
+    }
+
+    /**
+     * Returns the entity type.
+     *
+     * @return the type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the entity id.
+     *
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the main text.
+     *
+     * @return the title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Returns the secondary text.
+     *
+     * @return the detail (can be empty)
+     */
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * Returns the text shown in the result list.
+     *
+     * @return the title, followed by the detail if any
+     */
+    @Override
+    public String toString() {
+        return (detail == null || detail.isBlank()) ? title : title + " - " + detail;
+    }
+}
@@ -0,0 +1,115 @@
+package dealership.model;
+
+/**
+ * One entry of the identifier quick-jump index: a plate, VIN or DNI
+ * and the vehicle or customer it belongs to.
+ * <p>
+ * Entries are immutable and shared between the index and the suggestion list
+ * of the Sales header.
+ * </p>
+ */
+public class IdentifierMatch {
+
+    /**
+     * Kind of identifier, which also tells the kind of record it points to.
+     */
+    public enum Kind {
+        PLATE("Plate", true),
+        VIN("VIN", true),
+        DNI("DNI", false);
+
+        private final String label;
+        private final boolean vehicle;
+
+        Kind(String label, boolean vehicle) {
+            this.label = label;
+            this.vehicle = vehicle;
+        }
+
+        /**
+         * Returns the name shown in the suggestion list.
+         *
+         * @return the label
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Tells whether identifiers of this kind point to a vehicle (otherwise, to a customer).
+         *
+         * @return true for plates and VINs
+         */
+        public boolean isVehicle() {
+            return vehicle;
+        }
+    }
+
+    private final Kind kind;
+    private final int id;
+    private final String identifier;
+    private final String description;
+
+    /**
+     * Creates a new index entry.
+     *
+     * @param kind the kind of identifier
+     * @param id the vehicle or customer id
+     * @param identifier the identifier, as stored in the database
+     * @param description a short text for the record (vehicle or customer name)
+     */
+    public IdentifierMatch(Kind kind, int id, String identifier, String description) {
+        this.kind = kind;
+        this.id = id;
+        this.identifier = identifier;
+        this.description = description;
+    }
+
+    /**
+     * Returns the kind of identifier.
+     *
+     * @return the kind
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the id of the vehicle or customer.
+     *
+     * @return the record id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the identifier, as stored in the database.
+     *
+     * @return the plate, VIN or DNI
+     */
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * Returns the short description of the record.
+     *
+     * @return the vehicle or customer name (can be empty)
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the text shown in the quick-jump suggestions, for example
+     * {@code "Plate 1234ABC - Seat Ibiza"}.
+     *
+     * @return the display text
+     */
+    @Override
+    public String toString() {
+        String text = kind.getLabel() + " " + identifier;
+        return (description == null || description.isBlank()) ? text : text + " - " + description;
+    }
+}
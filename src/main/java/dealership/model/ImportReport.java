@@ -0,0 +1,126 @@
+package dealership.model;
+
+import java.nio.file.Path;
+
+/**
+ * Progress (or final outcome) of a bulk CSV import.
+ * <p>
+ * Every data row of the file ends up in exactly one group:
+ * - imported: inserted into the database
+ * - duplicates: skipped because its key (for example the DNI) already exists,
+ * in the database or earlier in the same file
+ * - invalid: skipped because a field is missing or does not fit its column
+ * Skipped rows are written to the rejected-rows file with the reason.
+ * </p>
+ */
+public class ImportReport {
+
+    private final int rowsRead;
+    private final int imported;
+    private final int duplicates;
+    private final int invalid;
+    private final long elapsedMillis;
+    private final Path rejectedFile;
+
+    /**
+     * Creates a new report.
+     *
+     * @param rowsRead the data rows read so far (header excluded)
+     * @param imported the rows inserted
+     * @param duplicates the rows skipped as duplicates
+     * @param invalid the rows skipped as invalid
+     * @param elapsedMillis the time since the import started
+     * @param rejectedFile the file where skipped rows are written
+     */
+    public ImportReport(int rowsRead, int imported, int duplicates, int invalid, long elapsedMillis, Path rejectedFile) {
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.duplicates = duplicates;
+        this.invalid = invalid;
+        this.elapsedMillis = elapsedMillis;
+        this.rejectedFile = rejectedFile;
+    }
+
+    /**
+     * Returns the number of data rows read.
+     *
+     * @return rows read
+     */
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Returns the number of rows inserted.
+     *
+     * @return rows imported
+     */
+    public int getImported() {
+        return imported;
+    }
+
+    /**
+     * Returns the number of rows skipped as duplicates.
+     *
+     * @return duplicate rows
+     */
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Returns the number of rows skipped as invalid.
+     *
+     * @return invalid rows
+     */
+    public int getInvalid() {
+        return invalid;
+    }
+
+    /**
+     * Returns the number of rows written to the rejected-rows file.
+     *
+     * @return rejected rows
+     */
+    public int getRejected() {
+        return duplicates + invalid;
+    }
+
+    /**
+     * Returns the time since the import started.
+     *
+     * @return elapsed time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Returns the import throughput.
+     *
+     * @return rows read per second
+     */
+    public double getRowsPerSecond() {
+        return (elapsedMillis == 0) ? rowsRead : rowsRead * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * Returns the rejected-rows file.
+     *
+     * @return the file path
+     */
+    public Path getRejectedFile() {
+        return rejectedFile;
+    }
+
+    /**
+     * Returns a one-line summary, shown while the import runs.
+     *
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+        return String.format("%d rows read: %d imported, %d duplicates, %d invalid (%.0f rows/s)",
+                rowsRead, imported, duplicates, invalid, getRowsPerSecond());
+    }
+}
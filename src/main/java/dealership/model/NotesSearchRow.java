@@ -0,0 +1,93 @@
+package dealership.model;
+
+import java.time.LocalDate;
+
+/**
+ * One result of the boss notes search.
+ * <p>
+ * A result is either a repair order or a vehicle whose notes match the search
+ * words. Results are read-only: the search screen only lists them.
+ * </p>
+ */
+public class NotesSearchRow {
+
+    private final int id;
+    private final String vehicle;
+    private final String status;
+    private final LocalDate date;
+    private final String notes;
+    private final double relevance;
+
+    /**
+     * Creates a new search result.
+     *
+     * @param id the repair order or vehicle id
+     * @param vehicle the formatted vehicle description (plate, brand and model)
+     * @param status the repair or vehicle status
+     * @param date the repair activity date or the vehicle entry date (can be null)
+     * @param notes the full notes text
+     * @param relevance the MySQL FULLTEXT relevance score
+     */
+    public NotesSearchRow(int id, String vehicle, String status, LocalDate date, String notes, double relevance) {
+        this.id = id;
+        this.vehicle = vehicle;
+        this.status = status;
+        this.date = date;
+        this.notes = notes;
+        this.relevance = relevance;
+    }
+
+    /**
+     * Returns the repair order or vehicle id.
+     *
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the vehicle description.
+     *
+     * @return vehicle text
+     */
+    public String getVehicle() {
+        return vehicle;
+    }
+
+    /**
+     * Returns the repair or vehicle status.
+     *
+     * @return status text
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the repair activity date (end, or start if not finished) or the vehicle entry date.
+     *
+     * @return the date, or null if unknown
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * Returns the notes text.
+     *
+     * @return notes
+     */
+    public String getNotes() {
+        return notes;
+    }
+
+    /**
+     * Returns the FULLTEXT relevance score (higher is more relevant).
+     *
+     * @return relevance
+     */
+    public double getRelevance() {
+        return relevance;
+    }
+}
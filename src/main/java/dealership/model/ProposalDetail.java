@@ -25,6 +25,7 @@ public class ProposalDetail {
     private final BigDecimal price;
     private final String notes;
     private final String status;
+    private final int version;
 
     /**
      * Creates a new {@code ProposalDetail} instance with all proposal-related information.
@@ -41,6 +42,7 @@ public class ProposalDetail {
      * @param price the proposed sale price for the vehicle
      * @param notes optional notes or comments associated with the proposal
      * @param status the current status of the proposal (e.g. pending, accepted, rejected)
+     * @param version the row version read with the proposal (see {@link #getVersion()})
      */
     public ProposalDetail(int id,
                           int customerId,
@@ -49,7 +51,8 @@ public class ProposalDetail {
                           String vehicleText,
                           BigDecimal price,
                           String notes,
-                          String status) {
+                          String status,
+                          int version) {
         this.id = id;
         this.customerId = customerId;
         this.vehicleId = vehicleId;
@@ -58,6 +61,7 @@ public class ProposalDetail {
         this.price = price;
         this.notes = notes;
         this.status = status;
+        this.version = version;
     }
 
     /**
@@ -137,5 +141,14 @@ public class ProposalDetail {
      * @return the proposal status
      */
     public String getStatus() { return status; }
-}
 
+    /**
+     * Returns the row version of the proposal when it was read.
+     *
+     * <p>Updates send this value back so the database can detect that someone
+     * else changed the proposal in the meantime (optimistic concurrency).</p>
+     *
+     * @return the proposal version
+     */
+    public int getVersion() { return version; }
+}
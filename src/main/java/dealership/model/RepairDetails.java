@@ -21,6 +21,7 @@ public class RepairDetails {
     private final String customerEmail;
 
     private final String vehicleText;
+    private final int version;
 
     /**
      * Creates a new repair details instance.
@@ -34,6 +35,7 @@ public class RepairDetails {
      * @param customerPhone the customer phone number
      * @param customerEmail the customer email address
      * @param vehicleText the formatted vehicle description
+     * @param version the row version read with the repair
      */
     public RepairDetails(int repairId,
                          String status,
@@ -43,7 +45,8 @@ public class RepairDetails {
                          String customerDni,
                          String customerPhone,
                          String customerEmail,
-                         String vehicleText) {
+                         String vehicleText,
+                         int version) {
         this.repairId = repairId;
         this.status = status;
         this.notes = notes;
@@ -53,6 +56,7 @@ public class RepairDetails {
         this.customerPhone = customerPhone;
         this.customerEmail = customerEmail;
         this.vehicleText = vehicleText;
+        this.version = version;
     }
 
     /**
@@ -135,5 +139,14 @@ public class RepairDetails {
     public String getVehicleText() {
         return vehicleText;
     }
-}
 
+    /**
+     * Returns the row version of the repair when it was read; updates send it back
+     * to detect concurrent changes.
+     *
+     * @return the repair version
+     */
+    public int getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,67 @@
+package dealership.model;
+
+/**
+ * Outcome of a bulk reassign/unassign for one repair order.
+ * <p>
+ * The bulk operation applies the same guards as the single-repair edit screen,
+ * so each selected order is either updated or skipped for a known reason.
+ * </p>
+ */
+public class RepairReassignResult {
+
+    /**
+     * What happened to one repair order.
+     */
+    public enum Outcome {
+        /** The mechanic was assigned or removed. */
+        UPDATED,
+        /** The order exists but its status is not PENDING or ASSIGNED. */
+        NOT_EDITABLE,
+        /** The order does not exist or was not created by this boss. */
+        NOT_FOUND
+    }
+
+    private final int repairId;
+    private final Outcome outcome;
+    private final String status;
+
+    /**
+     * Creates a new result.
+     *
+     * @param repairId the repair order id
+     * @param outcome what happened to the order
+     * @param status the status of the order after the operation (null if not found)
+     */
+    public RepairReassignResult(int repairId, Outcome outcome, String status) {
+        this.repairId = repairId;
+        this.outcome = outcome;
+        this.status = status;
+    }
+
+    /**
+     * Returns the repair order id.
+     *
+     * @return the repair id
+     */
+    public int getRepairId() {
+        return repairId;
+    }
+
+    /**
+     * Returns what happened to the order.
+     *
+     * @return the outcome
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Returns the status of the order after the operation.
+     *
+     * @return the status, or null if the order was not found
+     */
+    public String getStatus() {
+        return status;
+    }
+}
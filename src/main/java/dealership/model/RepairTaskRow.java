@@ -5,6 +5,8 @@ import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
+import java.util.Objects;
+
 /**
  * Model representing a repair task row.
  * <p>
@@ -86,4 +88,18 @@ public class RepairTaskRow {
     public StringProperty statusProperty() {
         return status;
     }
+
+    /**
+     * Copies the displayed values of another row (with the same id) into this one.
+     * <p>
+     * Only the properties whose value actually changed are set, so a refresh
+     * that brings the same data does not fire any change event.
+     * </p>
+     *
+     * @param other a freshly loaded row for the same record
+     */
+    public void updateFrom(RepairTaskRow other) {
+        if (!Objects.equals(getVehicle(), other.getVehicle())) vehicle.set(other.getVehicle());
+        if (!Objects.equals(getStatus(), other.getStatus())) status.set(other.getStatus());
+    }
 }
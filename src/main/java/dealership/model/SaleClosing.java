@@ -0,0 +1,92 @@
+package dealership.model;
+
+/**
+ * Outcome of closing a sale from a proposal.
+ * <p>
+ * Besides the new sale, it reports what the transaction changed and how long it
+ * took, so slow closings (for example, waiting for row locks) can be noticed:
+ * - lock time: from the first write (when row locks start being taken) to the end of the commit
+ * - commit time: the commit call alone
+ * </p>
+ */
+public class SaleClosing {
+
+    private final int saleId;
+    private final int vehicleId;
+    private final int rejectedProposals;
+    private final double lockMillis;
+    private final double commitMillis;
+
+    /**
+     * Creates a new closing outcome.
+     *
+     * @param saleId the id of the new sale
+     * @param vehicleId the id of the vehicle marked as sold
+     * @param rejectedProposals the number of other active proposals rejected
+     * @param lockMillis the time row locks were held, in milliseconds
+     * @param commitMillis the duration of the commit, in milliseconds
+     */
+    public SaleClosing(int saleId, int vehicleId, int rejectedProposals, double lockMillis, double commitMillis) {
+        this.saleId = saleId;
+        this.vehicleId = vehicleId;
+        this.rejectedProposals = rejectedProposals;
+        this.lockMillis = lockMillis;
+        this.commitMillis = commitMillis;
+    }
+
+    /**
+     * Returns the id of the new sale.
+     *
+     * @return the sale id
+     */
+    public int getSaleId() {
+        return saleId;
+    }
+
+    /**
+     * Returns the id of the sold vehicle.
+     *
+     * @return the vehicle id
+     */
+    public int getVehicleId() {
+        return vehicleId;
+    }
+
+    /**
+     * Returns how many competing proposals were rejected.
+     *
+     * @return the number of rejected proposals
+     */
+    public int getRejectedProposals() {
+        return rejectedProposals;
+    }
+
+    /**
+     * Returns the time row locks were held.
+     *
+     * @return the lock time in milliseconds
+     */
+    public double getLockMillis() {
+        return lockMillis;
+    }
+
+    /**
+     * Returns the duration of the commit.
+     *
+     * @return the commit time in milliseconds
+     */
+    public double getCommitMillis() {
+        return commitMillis;
+    }
+
+    /**
+     * Returns a one-line summary, used for logging.
+     *
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+        return String.format("sale %d, vehicle %d, %d proposals rejected, locks %.1f ms, commit %.1f ms",
+                saleId, vehicleId, rejectedProposals, lockMillis, commitMillis);
+    }
+}
@@ -3,6 +3,8 @@ package dealership.model;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 
+import java.util.Objects;
+
 /**
  * Lightweight row model used in the Sales -> Customers table.
  * <p>
@@ -17,6 +19,7 @@ public class SalesCustomerRow {
     private final SimpleStringProperty fullName;
     private final SimpleStringProperty email;
     private final SimpleStringProperty phone;
+    private final SimpleStringProperty dni;
 
     /**
      * Creates a new row instance for the Sales customers table.
@@ -25,12 +28,14 @@ public class SalesCustomerRow {
      * @param fullName the full name of the customer
      * @param email the customer's email address
      * @param phone the customer's phone number
+     * @param dni the customer's DNI (used by the search, not shown as a column)
      */
-    public SalesCustomerRow(int id, String fullName, String email, String phone) {
+    public SalesCustomerRow(int id, String fullName, String email, String phone, String dni) {
         this.id = new SimpleIntegerProperty(id);
         this.fullName = new SimpleStringProperty(fullName);
         this.email = new SimpleStringProperty(email);
         this.phone = new SimpleStringProperty(phone);
+        this.dni = new SimpleStringProperty(dni);
     }
 
     /**
@@ -104,4 +109,38 @@ public class SalesCustomerRow {
     public SimpleStringProperty phoneProperty() {
         return phone;
     }
+
+    /**
+     * Returns the customer's DNI.
+     *
+     * @return the DNI
+     */
+    public String getDni() {
+        return dni.get();
+    }
+
+    /**
+     * Property accessor for the customer's DNI.
+     *
+     * @return the DNI property
+     */
+    public SimpleStringProperty dniProperty() {
+        return dni;
+    }
+
+    /**
+     * Copies the displayed values of another row (with the same id) into this one.
+     * <p>
+     * Only the properties whose value actually changed are set, so a refresh
+     * that brings the same data does not fire any change event.
+     * </p>
+     *
+     * @param other a freshly loaded row for the same record
+     */
+    public void updateFrom(SalesCustomerRow other) {
+        if (!Objects.equals(getFullName(), other.getFullName())) fullName.set(other.getFullName());
+        if (!Objects.equals(getEmail(), other.getEmail())) email.set(other.getEmail());
+        if (!Objects.equals(getPhone(), other.getPhone())) phone.set(other.getPhone());
+        if (!Objects.equals(getDni(), other.getDni())) dni.set(other.getDni());
+    }
 }
@@ -2,6 +2,8 @@ package dealership.model;
 
 import javafx.beans.property.*;
 
+import java.util.Objects;
+
 /**
  * Represents a single row of data displayed in the sales proposals table
  * within the JavaFX user interface.
@@ -134,6 +136,21 @@ public class SalesProposalRow {
      * @return the status property
      */
     public StringProperty statusProperty() { return status; }
-}
-
 
+    /**
+     * Copies the displayed values of another row (with the same id) into this one.
+     * <p>
+     * Only the properties whose value actually changed are set, so a refresh
+     * that brings the same data does not fire any change event.
+     * </p>
+     *
+     * @param other a freshly loaded row for the same record
+     */
+    public void updateFrom(SalesProposalRow other) {
+        if (!Objects.equals(getProposalCode(), other.getProposalCode())) proposalCode.set(other.getProposalCode());
+        if (!Objects.equals(getVehicle(), other.getVehicle())) vehicle.set(other.getVehicle());
+        if (!Objects.equals(getCustomer(), other.getCustomer())) customer.set(other.getCustomer());
+        if (!Objects.equals(getPrice(), other.getPrice())) price.set(other.getPrice());
+        if (!Objects.equals(getStatus(), other.getStatus())) status.set(other.getStatus());
+    }
+}
@@ -3,6 +3,7 @@ package dealership.model;
 import javafx.beans.property.*;
 
 import java.time.LocalDate;
+import java.util.Objects;
 
 /**
  * Represents a single row displayed in the sales table
@@ -135,5 +136,21 @@ public class SalesSaleRow {
      * @return the sale date property
      */
     public ObjectProperty<LocalDate> saleDateProperty() { return saleDate; }
-}
 
+    /**
+     * Copies the displayed values of another row (with the same id) into this one.
+     * <p>
+     * Only the properties whose value actually changed are set, so a refresh
+     * that brings the same data does not fire any change event.
+     * </p>
+     *
+     * @param other a freshly loaded row for the same record
+     */
+    public void updateFrom(SalesSaleRow other) {
+        if (!Objects.equals(getSaleCode(), other.getSaleCode())) saleCode.set(other.getSaleCode());
+        if (!Objects.equals(getVehicle(), other.getVehicle())) vehicle.set(other.getVehicle());
+        if (!Objects.equals(getCustomer(), other.getCustomer())) customer.set(other.getCustomer());
+        if (!Objects.equals(getPrice(), other.getPrice())) price.set(other.getPrice());
+        if (!Objects.equals(getSaleDate(), other.getSaleDate())) saleDate.set(other.getSaleDate());
+    }
+}
@@ -2,6 +2,7 @@ package dealership.model;
 
 import javafx.beans.property.*;
 import java.time.LocalDate;
+import java.util.Objects;
 
 /**
  * Simple row model used in the Sales -> Vehicles table.
@@ -104,4 +105,19 @@ public class SalesVehicleRow {
     public ObjectProperty<LocalDate> dateAddedProperty() {
         return dateAdded;
     }
+
+    /**
+     * Copies the displayed values of another row (with the same id) into this one.
+     * <p>
+     * Only the properties whose value actually changed are set, so a refresh
+     * that brings the same data does not fire any change event.
+     * </p>
+     *
+     * @param other a freshly loaded row for the same record
+     */
+    public void updateFrom(SalesVehicleRow other) {
+        if (!Objects.equals(getPlate(), other.getPlate())) plate.set(other.getPlate());
+        if (!Objects.equals(getVehicle(), other.getVehicle())) vehicle.set(other.getVehicle());
+        if (!Objects.equals(getDateAdded(), other.getDateAdded())) dateAdded.set(other.getDateAdded());
+    }
 }
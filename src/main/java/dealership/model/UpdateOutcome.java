@@ -0,0 +1,25 @@
+package dealership.model;
+
+/**
+ * Result of a versioned (compare-and-set) update.
+ * <p>
+ * Proposals and repair orders have a {@code version} column. An update only
+ * applies if the row still has the version the user read; otherwise someone else
+ * changed it in the meantime, and the screen reloads it instead of silently
+ * overwriting the other change.
+ * </p>
+ */
+public enum UpdateOutcome {
+
+    /** The row was updated (and its version incremented). */
+    UPDATED,
+
+    /** The row was changed by someone else since it was read. */
+    CONFLICT,
+
+    /** The row has the expected version, but its state does not allow this change. */
+    NOT_ALLOWED,
+
+    /** The row does not exist (or is not visible to this user). */
+    NOT_FOUND
+}
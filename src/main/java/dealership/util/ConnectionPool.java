@@ -0,0 +1,457 @@
+package dealership.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small bounded JDBC connection pool used by {@link DbConnection}.
+ * <p>
+ * Physical connections are opened through {@link DriverManager} and kept alive
+ * between DAO calls. Callers receive a lightweight handle whose {@code close()}
+ * returns the physical connection to the pool instead of closing it, so the
+ * existing try-with-resources blocks in the DAOs keep working unchanged.
+ * </p>
+ * <p>
+ * The pool supports:
+ * - min/max sizing (a minimum of idle connections is kept warm, the total is capped)
+ * - idle eviction (connections unused for too long are closed by a housekeeper thread)
+ * - validation on borrow ({@link Connection#isValid(int)} before handing a connection out)
+ * - leak detection (a warning when a connection is held too long; the stack trace of
+ *   the borrow is only captured with {@code -Ddealership.trace=pool}, see {@link Trace})
+ * - a per-connection prepared statement cache (see {@link StatementCache})
+ * - a default query timeout on every statement, and cancellation of the statements
+ *   created inside a cancelled {@link QueryScope}
+ * </p>
+ */
+public class ConnectionPool {
+
+    private static final long HOUSEKEEPING_PERIOD_MILLIS = 30_000L;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private final int minIdle;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+    private final long leakDetectionMillis;
+    private final boolean captureBorrowSite;
+    private final int statementCacheSize;
+    private final int queryTimeoutSeconds;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a new pool and starts its housekeeping thread.
+     * <p>
+     * No connection is opened here; the first housekeeping run (or the first
+     * borrow) fills the pool up to {@code minIdle}.
+     * </p>
+     *
+     * @param url the JDBC URL
+     * @param user the database user
+     * @param password the database password
+     * @param minIdle minimum number of idle connections to keep open
+     * @param maxSize maximum number of connections that can be borrowed at the same time
+     * @param idleTimeoutMillis time after which an idle connection above {@code minIdle} is closed
+     * @param borrowTimeoutMillis maximum time to wait for a free connection
+     * @param leakDetectionMillis time after which a borrowed connection is reported as a leak (0 disables it)
+     * @param statementCacheSize maximum number of prepared statements cached per connection (0 disables it)
+     * @param queryTimeoutSeconds query timeout applied to every statement (0 disables it)
+     */
+    public ConnectionPool(String url, String user, String password,
+                          int minIdle, int maxSize,
+                          long idleTimeoutMillis, long borrowTimeoutMillis, long leakDetectionMillis,
+                          int statementCacheSize, int queryTimeoutSeconds) {
+        if (maxSize <= 0 || minIdle < 0 || minIdle > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size (min=" + minIdle + ", max=" + maxSize + ")");
+        }
+
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minIdle = minIdle;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.leakDetectionMillis = leakDetectionMillis;
+        this.captureBorrowSite = leakDetectionMillis > 0 && Trace.isEnabled("pool");
+        this.statementCacheSize = statementCacheSize;
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        this.housekeeper.scheduleWithFixedDelay(this::housekeep, 0, HOUSEKEEPING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool.
+     * <p>
+     * The most recently returned idle connection is reused first. It is validated
+     * before being handed out; broken connections are discarded and replaced.
+     * If every connection is in use, the caller waits up to the borrow timeout.
+     * </p>
+     *
+     * @return a pooled connection handle (closing it returns it to the pool)
+     * @throws SQLException if the pool is closed, the wait times out or a new connection cannot be opened
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out waiting for a database connection (" + borrowTimeoutMillis + " ms).");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+
+        try {
+            PooledConnection pc = takeValidIdle();
+            if (pc == null) {
+                pc = open();
+            }
+
+            pc.markBorrowed(captureBorrowSite);
+            borrowed.add(pc);
+            return pc.newHandle();
+
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of connections currently borrowed.
+     *
+     * @return borrowed connection count
+     */
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    /**
+     * Returns the number of open connections currently waiting in the pool.
+     *
+     * @return idle connection count
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Returns how many times a prepared statement was served from the statement cache.
+     *
+     * @return statement cache hit count
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    /**
+     * Returns how many times a constant SQL statement had to be prepared again.
+     *
+     * @return statement cache miss count
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    /**
+     * Closes the pool.
+     * <p>
+     * Idle connections are closed immediately. Borrowed connections are closed
+     * when their handles are closed by the caller.
+     * </p>
+     */
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            pc.closePhysical();
+        }
+    }
+
+    /**
+     * Takes the first idle connection that passes validation.
+     *
+     * @return a valid idle connection, or null if there is none
+     */
+    private PooledConnection takeValidIdle() {
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            if (pc.isValid()) {
+                return pc;
+            }
+            pc.closePhysical();
+        }
+        return null;
+    }
+
+    /**
+     * Opens a new physical connection.
+     *
+     * @return the new pooled connection wrapper
+     * @throws SQLException if the connection cannot be established
+     */
+    private PooledConnection open() throws SQLException {
+        return new PooledConnection(DriverManager.getConnection(url, user, password));
+    }
+
+    /**
+     * Gives a borrowed connection back to the pool.
+     * <p>
+     * The connection is reset to auto-commit mode (rolling back any unfinished
+     * transaction). If the reset fails or the pool has been closed, the
+     * physical connection is closed instead.
+     * </p>
+     *
+     * @param pc the connection being returned
+     */
+    private void release(PooledConnection pc) {
+        borrowed.remove(pc);
+
+        try {
+            if (closed || !pc.reset()) {
+                pc.closePhysical();
+            } else {
+                pc.lastUsedAt = System.currentTimeMillis();
+                idle.offerFirst(pc);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Periodic maintenance task.
+     * <p>
+     * It closes connections idle for longer than the idle timeout (keeping at
+     * least {@code minIdle}), tops the pool back up to {@code minIdle} and
+     * reports borrowed connections held longer than the leak threshold.
+     * </p>
+     */
+    private void housekeep() {
+        if (closed) return;
+
+        long now = System.currentTimeMillis();
+
+        // Evict from the tail: the least recently used connections live there.
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext() && idle.size() > minIdle) {
+            PooledConnection pc = it.next();
+            if (now - pc.lastUsedAt > idleTimeoutMillis && idle.remove(pc)) {
+                pc.closePhysical();
+            }
+        }
+
+        try {
+            while (!closed && idle.size() < minIdle && idle.size() + borrowed.size() < maxSize) {
+                PooledConnection pc = open();
+                pc.lastUsedAt = now;
+                idle.offerLast(pc);
+            }
+        } catch (SQLException e) {
+            // Database not reachable right now; borrowers will get the error.
+        }
+
+        if (leakDetectionMillis > 0) {
+            for (PooledConnection pc : borrowed) {
+                if (!pc.leakReported && now - pc.borrowedAt > leakDetectionMillis) {
+                    pc.leakReported = true;
+                    System.err.println("[db-pool] Possible connection leak: connection borrowed "
+                            + (now - pc.borrowedAt) + " ms ago and not returned.");
+                    if (pc.borrowSite != null) {
+                        pc.borrowSite.printStackTrace();
+                    } else {
+                        System.err.println("[db-pool] Run with -Ddealership.trace=pool to see where it was borrowed.");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Physical connection tracked by the pool, plus its bookkeeping data.
+     */
+    private final class PooledConnection {
+
+        private final Connection physical;
+        private final StatementCache statements;
+
+        private volatile long lastUsedAt;
+        private volatile long borrowedAt;
+        private volatile boolean leakReported;
+        private volatile Exception borrowSite;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = new StatementCache(physical, statementCacheSize, statementCacheHits, statementCacheMisses);
+        }
+
+        private void markBorrowed(boolean captureSite) {
+            borrowedAt = System.currentTimeMillis();
+            leakReported = false;
+            borrowSite = captureSite ? new Exception("Connection borrowed here") : null;
+        }
+
+        private boolean isValid() {
+            try {
+                return physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private boolean reset() {
+            try {
+                if (physical.isClosed()) return false;
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                statements.releaseAll();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private void closePhysical() {
+            statements.closeAll();
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // Nothing else to do: the connection is being discarded.
+            }
+        }
+
+        /**
+         * Creates the handle given to a borrower.
+         * <p>
+         * Each borrow gets its own handle, so a late {@code close()} on an old
+         * handle can never return a connection that someone else is using.
+         * </p>
+         * <p>
+         * Statements created through the handle get the default query timeout and,
+         * when the connection was borrowed inside a {@link QueryScope}, are registered
+         * in it until the handle is closed.
+         * </p>
+         *
+         * @return a proxy implementing {@link Connection}
+         */
+        private Connection newHandle() {
+            QueryScope scope = QueryScope.current();
+
+            InvocationHandler handler = new InvocationHandler() {
+                private volatile boolean handleClosed;
+                private final List<Statement> scoped = new ArrayList<>();
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    String name = method.getName();
+
+                    if ("close".equals(name)) {
+                        if (!handleClosed) {
+                            handleClosed = true;
+                            if (scope != null) {
+                                scope.unregister(scoped);
+                            }
+                            release(PooledConnection.this);
+                        }
+                        return null;
+                    }
+                    if ("isClosed".equals(name)) {
+                        return handleClosed || physical.isClosed();
+                    }
+                    if ("equals".equals(name)) {
+                        return proxy == args[0];
+                    }
+                    if ("hashCode".equals(name)) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if ("toString".equals(name)) {
+                        return "PooledConnection[" + physical + "]";
+                    }
+                    if (handleClosed) {
+                        throw new SQLException("Connection is closed.");
+                    }
+
+                    Object result;
+                    if ("prepareStatement".equals(name) && args.length == 1) {
+                        result = statements.prepare((String) args[0], (Connection) proxy);
+                    } else {
+                        try {
+                            result = method.invoke(physical, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+
+                    if (result instanceof Statement) {
+                        prepareForExecution((Statement) result);
+                    }
+                    return result;
+                }
+
+                private void prepareForExecution(Statement statement) throws SQLException {
+                    statement.setQueryTimeout(queryTimeoutSeconds);
+                    if (scope != null) {
+                        try {
+                            scope.register(statement);
+                        } catch (SQLException e) {
+                            statement.close();
+                            throw e;
+                        }
+                        scoped.add(statement);
+                    }
+                }
+            };
+
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    handler
+            );
+        }
+    }
+}
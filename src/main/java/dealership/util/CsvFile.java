@@ -0,0 +1,188 @@
+package dealership.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal CSV helpers for the bulk import screens.
+ * <p>
+ * Files are read line by line (so they are never loaded whole into memory), which
+ * means a quoted field cannot span several lines. Both {@code ,} and {@code ;}
+ * separators are accepted, since spreadsheets exported with a Spanish locale use
+ * {@code ;}. Quoted fields may contain separators and doubled quotes ({@code ""}).
+ * </p>
+ * <p>
+ * Rows an import cannot take are written with {@link RejectedRows}.
+ * </p>
+ */
+public class CsvFile {
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its static methods.
+     * </p>
+     */
+    private CsvFile() {
+    }
+
+    /**
+     * Guesses the separator of a file from one of its lines (normally the header).
+     *
+     * @param line a line of the file
+     * @return {@code ;} if the line has more semicolons than commas, otherwise {@code ,}
+     */
+    public static char detectSeparator(String line) {
+        int commas = 0;
+        int semicolons = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == ',') commas++;
+            else if (c == ';') semicolons++;
+        }
+        return (semicolons > commas) ? ';' : ',';
+    }
+
+    /**
+     * Splits a line into its fields, removing quotes and surrounding spaces.
+     *
+     * @param line the line
+     * @param separator the field separator
+     * @return the fields (at least one, possibly empty)
+     */
+    public static List<String> parseLine(String line, char separator) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /**
+     * Joins fields into a line, quoting the ones that need it.
+     *
+     * @param fields the fields
+     * @param separator the field separator
+     * @return the line (without line break)
+     */
+    public static String formatLine(List<String> fields, char separator) {
+        StringBuilder line = new StringBuilder();
+
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) line.append(separator);
+
+            String field = (fields.get(i) == null) ? "" : fields.get(i);
+            if (field.indexOf(separator) >= 0 || field.indexOf('"') >= 0) {
+                line.append('"').append(field.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(field);
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * Rejected-rows file of an import: the rows that were not imported, each with
+     * the reason in an extra {@code reason} column, so the file can be fixed and
+     * imported again.
+     * <p>
+     * The file is only created when the first row is rejected, so an import with
+     * no rejected rows leaves no file behind. An older file with the same name is
+     * deleted when the writer is opened, so it never shows rows of an earlier import.
+     * </p>
+     */
+    public static final class RejectedRows implements Closeable {
+
+        private final Path file;
+        private final List<String> columns;
+        private char separator = ',';
+        private BufferedWriter writer;
+
+        /**
+         * Opens a rejected-rows file.
+         *
+         * @param file the file to write (deleted now if it exists, created on the first rejected row)
+         * @param columns the column names of the imported file, written as the header
+         * @throws IOException if an older file cannot be deleted
+         */
+        public RejectedRows(Path file, List<String> columns) throws IOException {
+            this.file = file;
+            this.columns = columns;
+            Files.deleteIfExists(file);
+        }
+
+        /**
+         * Sets the separator of the imported file, used for the rejected rows as well.
+         *
+         * @param separator the field separator
+         */
+        public void setSeparator(char separator) {
+            this.separator = separator;
+        }
+
+        /**
+         * Writes a rejected row, creating the file with its header first if needed.
+         *
+         * @param fields the row fields, as read from the imported file
+         * @param reason why the row was not imported
+         * @throws IOException if the file cannot be written
+         */
+        public void write(List<String> fields, String reason) throws IOException {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                writeLine(columns, "reason");
+            }
+            writeLine(fields, reason);
+        }
+
+        /**
+         * Closes the file, if it was created.
+         *
+         * @throws IOException if the file cannot be written
+         */
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+
+        private void writeLine(List<String> fields, String reason) throws IOException {
+            List<String> row = new ArrayList<>(fields);
+            row.add(reason);
+            writer.write(formatLine(row, separator));
+            writer.newLine();
+        }
+    }
+}
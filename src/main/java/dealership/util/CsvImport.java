@@ -0,0 +1,275 @@
+package dealership.util;
+
+import dealership.model.ImportReport;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Shared driver of the bulk CSV imports (customers, vehicle stock).
+ * <p>
+ * It does everything that does not depend on the imported table:
+ * - reads the file as a stream, skipping blank lines and a UTF-8 byte order mark
+ * - detects the separator and skips the optional header line
+ * - groups the rows to insert in chunks of {@link #CHUNK_SIZE}; each chunk is
+ * inserted and committed in its own transaction, all on one connection
+ * - writes the rejected rows (see {@link CsvFile.RejectedRows}), counts every row
+ * and reports the progress after each chunk
+ * A failure only rolls back the chunk in progress; the chunks already committed stay.
+ * </p>
+ * <p>
+ * The DAO supplies an {@link Importer}: how to check and convert one row, and how
+ * to insert one chunk. Both imported tables feed {@link IdentifierIndex}, so the
+ * index is invalidated once rows have been committed.
+ * </p>
+ */
+public class CsvImport {
+
+    /**
+     * Rows per batch and per transaction.
+     */
+    public static final int CHUNK_SIZE = 1000;
+
+    /**
+     * Times an {@link Importer} sends a chunk when other users keep inserting some
+     * of its keys meanwhile (see {@link #isDuplicateKey(SQLException)}).
+     */
+    public static final int CHUNK_ATTEMPTS = 3;
+
+    // MySQL error code of a duplicate key (ER_DUP_ENTRY)
+    private static final int ERROR_DUPLICATE_KEY = 1062;
+
+    /**
+     * Why a row is not imported; see {@link ImportReport}.
+     */
+    public enum Rejection {
+        DUPLICATE,
+        INVALID
+    }
+
+    /**
+     * Receives the rejection of the row being checked.
+     */
+    @FunctionalInterface
+    public interface Rejector {
+
+        /**
+         * Rejects the row being checked.
+         *
+         * @param rejection the kind of rejection
+         * @param reason the reason written to the rejected-rows file
+         */
+        void reject(Rejection rejection, String reason);
+    }
+
+    /**
+     * The table-specific part of an import.
+     *
+     * @param <R> the type of a row ready to insert
+     */
+    public interface Importer<R> {
+
+        /**
+         * Called once on the import connection, before the file is read (for
+         * example to load the existing keys).
+         *
+         * @param conn the import connection
+         * @throws Exception if a database access error occurs
+         */
+        default void prepare(Connection conn) throws Exception {
+        }
+
+        /**
+         * Checks and converts one data row.
+         *
+         * @param fields the parsed fields; changes made to them show in the rejected-rows file
+         * @param rejector to call if the row cannot be imported
+         * @return the row to insert, or null if it was rejected
+         */
+        R parse(List<String> fields, Rejector rejector);
+
+        /**
+         * Inserts one chunk. The driver commits afterwards, or rolls back on failure.
+         *
+         * @param conn the import connection (autocommit off)
+         * @param chunk the rows to insert
+         * @param skipped receives the rows that were not inserted because their key
+         *                already exists, with the reason; they count as duplicates
+         * @return the number of rows inserted
+         * @throws Exception if a database access error occurs
+         */
+        int insert(Connection conn, List<R> chunk, BiConsumer<R, String> skipped) throws Exception;
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its static methods.
+     * </p>
+     */
+    private CsvImport() {
+    }
+
+    /**
+     * Imports a CSV file.
+     *
+     * @param source the CSV file to import
+     * @param rejectedFile the file where rejected rows are written (only created if a row is rejected)
+     * @param columns the column names, in file order; a first line starting with the
+     *                first name is taken as the header
+     * @param importer the table-specific part
+     * @param onProgress receives a report after each chunk (called on the importing thread)
+     * @param <R> the type of a row ready to insert
+     * @return the final report
+     * @throws Exception if the files cannot be read or written, or a database access error occurs
+     */
+    public static <R> ImportReport run(Path source, Path rejectedFile, List<String> columns,
+                                       Importer<R> importer, Consumer<ImportReport> onProgress) throws Exception {
+        long start = System.currentTimeMillis();
+        int rowsRead = 0;
+        int imported = 0;
+        int duplicates = 0;
+        int invalid = 0;
+
+        List<R> chunk = new ArrayList<>(CHUNK_SIZE);
+        Map<R, List<String>> chunkFields = new IdentityHashMap<>();
+        RowRejector rejector = new RowRejector();
+
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8);
+             CsvFile.RejectedRows rejected = new CsvFile.RejectedRows(rejectedFile, columns);
+             Connection conn = DbConnection.getConnection()) {
+
+            importer.prepare(conn);
+
+            char separator = ',';
+            boolean first = true;
+            String line;
+
+            conn.setAutoCommit(false);
+            try {
+                while ((line = reader.readLine()) != null) {
+                    // Before the header, so leading blank lines cannot take its place
+                    if (line.isBlank()) continue;
+
+                    if (first) {
+                        line = line.replace("\uFEFF", "");
+                        separator = CsvFile.detectSeparator(line);
+                        rejected.setSeparator(separator);
+                    }
+
+                    List<String> fields = CsvFile.parseLine(line, separator);
+                    if (first) {
+                        first = false;
+                        if (fields.get(0).equalsIgnoreCase(columns.get(0))) continue;
+                    }
+                    rowsRead++;
+
+                    rejector.rejection = null;
+                    R row = importer.parse(fields, rejector);
+                    if (rejector.rejection != null) {
+                        rejected.write(fields, rejector.reason);
+                        if (rejector.rejection == Rejection.DUPLICATE) duplicates++;
+                        else invalid++;
+                        continue;
+                    }
+
+                    chunk.add(row);
+                    chunkFields.put(row, fields);
+                    if (chunk.size() == CHUNK_SIZE) {
+                        int inserted = insertChunk(conn, importer, chunk, chunkFields, rejected);
+                        imported += inserted;
+                        duplicates += chunk.size() - inserted;
+                        chunk.clear();
+                        chunkFields.clear();
+                        onProgress.accept(new ImportReport(rowsRead, imported, duplicates, invalid,
+                                System.currentTimeMillis() - start, rejectedFile));
+                    }
+                }
+
+                if (!chunk.isEmpty()) {
+                    int inserted = insertChunk(conn, importer, chunk, chunkFields, rejected);
+                    imported += inserted;
+                    duplicates += chunk.size() - inserted;
+                }
+
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+                if (imported > 0) {
+                    IdentifierIndex.invalidate();
+                }
+            }
+        }
+
+        ImportReport report = new ImportReport(rowsRead, imported, duplicates, invalid,
+                System.currentTimeMillis() - start, rejectedFile);
+        onProgress.accept(report);
+        return report;
+    }
+
+    /**
+     * Checks whether a failed statement (or batch) broke a unique key.
+     *
+     * @param e the failure
+     * @return true for a duplicate key error
+     */
+    public static boolean isDuplicateKey(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && ((SQLException) cause).getErrorCode() == ERROR_DUPLICATE_KEY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Inserts and commits one chunk, then writes the rows the importer skipped.
+     *
+     * @param conn the import connection (autocommit off)
+     * @param importer the table-specific part
+     * @param chunk the rows to insert
+     * @param chunkFields the file fields of each row of the chunk
+     * @param rejected the rejected-rows file
+     * @param <R> the type of a row ready to insert
+     * @return the number of rows inserted
+     * @throws Exception if a database access error occurs or the file cannot be written
+     */
+    private static <R> int insertChunk(Connection conn, Importer<R> importer, List<R> chunk,
+                                       Map<R, List<String>> chunkFields, CsvFile.RejectedRows rejected) throws Exception {
+        Map<R, String> skipped = new IdentityHashMap<>();
+        int inserted = importer.insert(conn, chunk, skipped::put);
+        conn.commit();
+
+        for (Map.Entry<R, String> entry : skipped.entrySet()) {
+            rejected.write(chunkFields.get(entry.getKey()), entry.getValue());
+        }
+        return inserted;
+    }
+
+    /**
+     * Records the rejection of the row being checked.
+     */
+    private static final class RowRejector implements Rejector {
+
+        private Rejection rejection;
+        private String reason;
+
+        @Override
+        public void reject(Rejection rejection, String reason) {
+            this.rejection = rejection;
+            this.reason = reason;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package dealership.util;
+
+import dealership.model.ImportReport;
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * The UI side of a CSV import (see {@link CsvImport}), shared by the Sales lists.
+ * <p>
+ * {@link #start(Window, String, String, Button, Label, ImportCall, Runnable)}:
+ * - lets the user pick the CSV file; rows that cannot be imported are written
+ * next to it, to {@code <name>-rejected.csv}
+ * - runs the import in the background, with the button disabled and the progress
+ * shown in the status label
+ * - shows the final report (or the error) and reloads the list
+ * </p>
+ */
+public class CsvImportDialog {
+
+    /**
+     * A DAO import of one CSV file.
+     */
+    @FunctionalInterface
+    public interface ImportCall {
+
+        /**
+         * Runs the import.
+         *
+         * @param source the CSV file to import
+         * @param rejectedFile the file where rejected rows are written
+         * @param onProgress receives a report after each chunk (called on the importing thread)
+         * @return the final report
+         * @throws Exception if the import fails
+         */
+        ImportReport run(Path source, Path rejectedFile, Consumer<ImportReport> onProgress) throws Exception;
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its static methods.
+     * </p>
+     */
+    private CsvImportDialog() {
+    }
+
+    /**
+     * Asks for a CSV file and imports it in the background.
+     *
+     * @param owner the window that owns the dialogs
+     * @param title the file chooser title
+     * @param items what the rows are, in plural ("customers", "vehicles")
+     * @param button the button that started the import (disabled while it runs)
+     * @param statusLabel the label that shows the progress
+     * @param importCall the DAO import
+     * @param reload reloads the list once the import has finished or failed
+     */
+    public static void start(Window owner, String title, String items, Button button, Label statusLabel,
+                             ImportCall importCall, Runnable reload) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+
+        File file = chooser.showOpenDialog(owner);
+        if (file == null) return;
+
+        Path source = file.toPath();
+        String name = file.getName().replaceFirst("(?i)\\.csv$", "");
+        Path rejectedFile = source.resolveSibling(name + "-rejected.csv");
+
+        button.setDisable(true);
+        statusLabel.setText("Importing " + file.getName() + "...");
+
+        DbAsync.load(
+                () -> importCall.run(source, rejectedFile,
+                        progress -> Platform.runLater(() -> statusLabel.setText(progress.toString()))),
+                report -> {
+                    button.setDisable(false);
+                    statusLabel.setText(report.toString());
+                    showReport(report, items);
+                    reload.run();
+                },
+                e -> {
+                    e.printStackTrace();
+                    button.setDisable(false);
+                    statusLabel.setText("");
+                    show(Alert.AlertType.ERROR, "Import error", "Could not import " + items + ": " + e.getMessage()
+                            + "\nChunks already committed before the error were kept.");
+                    reload.run();
+                }
+        );
+    }
+
+    /**
+     * Shows the final report of an import.
+     *
+     * @param report the import report
+     * @param items what the rows are, in plural
+     */
+    private static void showReport(ImportReport report, String items) {
+        String message = String.format("Imported %d of %d %s in %.1f s (%.0f rows/s).",
+                report.getImported(), report.getRowsRead(), items,
+                report.getElapsedMillis() / 1000.0, report.getRowsPerSecond());
+        if (report.getRejected() > 0) {
+            message += String.format("%n%d duplicates and %d invalid rows were written to:%n%s",
+                    report.getDuplicates(), report.getInvalid(), report.getRejectedFile());
+        }
+
+        show(Alert.AlertType.INFORMATION, "Import finished", message);
+    }
+
+    /**
+     * Shows a dialog with the given title and message.
+     *
+     * @param type the alert type
+     * @param title the dialog title
+     * @param message the message to display
+     */
+    private static void show(Alert.AlertType type, String title, String message) {
+        Alert alert = new Alert(type);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+}
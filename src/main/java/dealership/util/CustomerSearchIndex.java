@@ -0,0 +1,316 @@
+package dealership.util;
+
+import dealership.model.SalesCustomerRow;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory search index for the Sales -> Customers list.
+ * <p>
+ * Customer names are mostly Spanish ("Pérez Gómez", "Martín López"), and users
+ * often type them without accents. The index keeps, for every customer, one
+ * normalized text made of the name, DNI, email and phone: accents removed
+ * (NFD decomposition without the combining marks), lowercase, whitespace collapsed.
+ * "perez" therefore matches "Pérez".
+ * </p>
+ * <p>
+ * On top of those texts it keeps a trigram index (every 3-character substring
+ * points to the customers containing it). A search:
+ * - splits the query into words; every word must appear somewhere in the customer text
+ * - for words of 3 or more characters, intersects the trigram lists of the word,
+ * starting with the shortest one, and only checks those candidates
+ * - for shorter words, checks every customer text (still a plain {@code contains})
+ * - when the query extends the previous one (the user kept typing), only checks
+ * the previous matches
+ * </p>
+ * <p>
+ * The index is immutable and built off the JavaFX thread when the customer list
+ * is loaded; searches run on the JavaFX thread. Results are customer ids, so
+ * they stay valid for the row objects kept by {@link ListDiff}.
+ * </p>
+ */
+public class CustomerSearchIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Separates the fields in a customer text, so a word cannot match across two fields.
+     */
+    private static final char FIELD_SEPARATOR = '\u0001';
+
+    private final List<SalesCustomerRow> rows;
+    private final int[] ids;
+    private final String[] texts;
+    private final Map<Long, int[]> trigrams;
+
+    private String lastQuery;
+    private int[] lastMatches;
+
+    /**
+     * Creates an index; see {@link #build(List)}.
+     *
+     * @param rows the indexed rows
+     * @param ids the customer id of each position
+     * @param texts the normalized text of each position
+     * @param trigrams the positions containing each trigram, in ascending order
+     */
+    private CustomerSearchIndex(List<SalesCustomerRow> rows, int[] ids, String[] texts, Map<Long, int[]> trigrams) {
+        this.rows = rows;
+        this.ids = ids;
+        this.texts = texts;
+        this.trigrams = trigrams;
+    }
+
+    /**
+     * Builds the index for a freshly loaded customer list.
+     *
+     * @param rows the customer rows, as returned by the DAO
+     * @return the index
+     */
+    public static CustomerSearchIndex build(List<SalesCustomerRow> rows) {
+        int size = rows.size();
+        int[] ids = new int[size];
+        String[] texts = new String[size];
+        Map<Long, Postings> postings = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            SalesCustomerRow row = rows.get(i);
+            ids[i] = row.getId();
+            texts[i] = normalize(row.getFullName()) + FIELD_SEPARATOR
+                    + normalize(row.getDni()) + FIELD_SEPARATOR
+                    + normalize(row.getEmail()) + FIELD_SEPARATOR
+                    + normalize(row.getPhone());
+
+            String text = texts[i];
+            for (int j = 0; j + 3 <= text.length(); j++) {
+                postings.computeIfAbsent(trigram(text, j), k -> new Postings()).add(i);
+            }
+        }
+
+        Map<Long, int[]> trigrams = new HashMap<>(postings.size() * 2);
+        postings.forEach((key, list) -> trigrams.put(key, list.toArray()));
+
+        return new CustomerSearchIndex(List.copyOf(rows), ids, texts, trigrams);
+    }
+
+    /**
+     * Normalizes a text for searching: no accents, lowercase, single spaces.
+     *
+     * @param text the text to normalize (can be null)
+     * @return the normalized text (empty if null)
+     */
+    public static String normalize(String text) {
+        if (text == null) return "";
+
+        String source = isAscii(text)
+                ? text
+                : COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+
+        StringBuilder sb = new StringBuilder(source.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Checks whether a text only has ASCII characters (and so has no accents to remove).
+     *
+     * @param text the text to check
+     * @return true if every character is ASCII
+     */
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the rows this index was built from.
+     *
+     * @return an unmodifiable list of rows
+     */
+    public List<SalesCustomerRow> getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns a filter accepting the customers that match a query.
+     * <p>
+     * A blank query matches every customer.
+     * </p>
+     *
+     * @param query the text typed by the user
+     * @return a predicate for the customers table
+     */
+    public Predicate<SalesCustomerRow> matcher(String query) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return row -> true;
+        }
+
+        int[] matches = search(normalized);
+
+        BitSet matchingIds = new BitSet();
+        for (int position : matches) {
+            matchingIds.set(ids[position]);
+        }
+        return row -> matchingIds.get(row.getId());
+    }
+
+    /**
+     * Finds the positions of the customers whose text contains every word of a query.
+     *
+     * @param normalized the normalized, non-empty query
+     * @return the matching positions, in ascending order
+     */
+    private int[] search(String normalized) {
+        String[] words = normalized.split(" ");
+
+        int[] candidates;
+        if (lastQuery != null && normalized.startsWith(lastQuery)) {
+            candidates = lastMatches;
+        } else {
+            candidates = trigramCandidates(words);
+        }
+
+        int[] matches = new int[(candidates != null) ? candidates.length : texts.length];
+        int count = 0;
+
+        int total = (candidates != null) ? candidates.length : texts.length;
+        for (int i = 0; i < total; i++) {
+            int position = (candidates != null) ? candidates[i] : i;
+            if (containsAll(texts[position], words)) {
+                matches[count++] = position;
+            }
+        }
+
+        lastQuery = normalized;
+        lastMatches = Arrays.copyOf(matches, count);
+        return lastMatches;
+    }
+
+    /**
+     * Intersects the trigram lists of every word of 3 or more characters.
+     *
+     * @param words the normalized query words
+     * @return the candidate positions in ascending order, or null if no word is long enough
+     */
+    private int[] trigramCandidates(String[] words) {
+        List<int[]> lists = new ArrayList<>();
+
+        for (String word : words) {
+            for (int j = 0; j + 3 <= word.length(); j++) {
+                int[] list = trigrams.get(trigram(word, j));
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+        }
+
+        if (lists.isEmpty()) {
+            return null;
+        }
+
+        lists.sort(Comparator.comparingInt(list -> list.length));
+
+        int[] candidates = lists.get(0);
+        for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists.get(i));
+        }
+        return candidates;
+    }
+
+    /**
+     * Checks that a customer text contains every query word.
+     *
+     * @param text the normalized customer text
+     * @param words the normalized query words
+     * @return true if all words are found
+     */
+    private static boolean containsAll(String text, String[] words) {
+        for (String word : words) {
+            if (!text.contains(word)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Intersects two ascending position lists.
+     *
+     * @param a the first list
+     * @param b the second list
+     * @return the positions present in both lists, in ascending order
+     */
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, count = 0;
+
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Packs the 3 characters starting at an index into a single key.
+     *
+     * @param text the text
+     * @param start the index of the first character
+     * @return the trigram key
+     */
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    /**
+     * Growable, duplicate-free list of positions, filled in ascending order.
+     */
+    private static final class Postings {
+
+        private int[] positions = new int[4];
+        private int size;
+
+        private void add(int position) {
+            if (size > 0 && positions[size - 1] == position) return;
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(positions, size);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package dealership.util;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous facade used by controllers to call the DAOs off the JavaFX thread.
+ * <p>
+ * DAO calls are executed on a small pool of background daemon threads and
+ * exposed as {@link CompletableFuture}s. The {@link #load(DbCall, Consumer, Consumer)}
+ * helper also marshals the result (or the error) back to the JavaFX Application
+ * Thread with {@link Platform#runLater(Runnable)}, so callbacks can touch the UI.
+ * </p>
+ * <p>
+ * The pool is sized like the database connection pool: more threads would only
+ * wait for a free connection.
+ * </p>
+ * <p>
+ * Calls can be submitted inside a {@link QueryScope}; cancelling the scope aborts
+ * them and suppresses their callbacks.
+ * </p>
+ */
+public class DbAsync {
+
+    private static final int MAX_THREADS = 10;
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    /**
+     * A DAO call that returns a value and may throw a checked exception.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface DbCall<T> {
+
+        /**
+         * Executes the call.
+         *
+         * @return the call result
+         * @throws Exception if the DAO call fails
+         */
+        T call() throws Exception;
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its static methods.
+     * </p>
+     */
+    private DbAsync() {
+    }
+
+    /**
+     * Runs a DAO call on a background thread.
+     * <p>
+     * The returned future is completed on the background thread, so it must not
+     * be used to update the UI directly.
+     * </p>
+     *
+     * @param call the DAO call to execute
+     * @param <T> the result type
+     * @return a future completed with the call result or its exception
+     */
+    public static <T> CompletableFuture<T> supply(DbCall<T> call) {
+        return supply(null, call);
+    }
+
+    /**
+     * Runs a DAO call on a background thread inside a cancellation scope.
+     * <p>
+     * If the scope is cancelled before the call starts, the call is skipped and
+     * the future is cancelled. If it is cancelled while the call runs, its SQL
+     * statements are cancelled and the future completes exceptionally.
+     * </p>
+     *
+     * @param scope the cancellation scope, or null for none
+     * @param call the DAO call to execute
+     * @param <T> the result type
+     * @return a future completed with the call result or its exception
+     */
+    public static <T> CompletableFuture<T> supply(QueryScope scope, DbCall<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        if (scope != null) {
+            scope.track(future);
+        }
+
+        EXECUTOR.execute(() -> {
+            if (future.isDone()) return;
+            if (scope != null) {
+                if (scope.isCancelled()) {
+                    future.completeExceptionally(new CancellationException("Query scope cancelled."));
+                    return;
+                }
+                scope.enter();
+            }
+            try {
+                future.complete(call.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                if (scope != null) {
+                    scope.exit();
+                }
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Runs a DAO call on a background thread and delivers the outcome on the JavaFX thread.
+     * <p>
+     * Exactly one of the callbacks is invoked, always on the JavaFX Application Thread.
+     * The error callback receives the original exception thrown by the DAO.
+     * </p>
+     *
+     * @param call the DAO call to execute
+     * @param onSuccess callback receiving the result
+     * @param onError callback receiving the error
+     * @param <T> the result type
+     * @return the underlying future
+     */
+    public static <T> CompletableFuture<T> load(DbCall<T> call, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        return load(null, call, onSuccess, onError);
+    }
+
+    /**
+     * Runs a DAO call inside a cancellation scope and delivers the outcome on the JavaFX thread.
+     * <p>
+     * Same as {@link #load(DbCall, Consumer, Consumer)}, except that no callback
+     * is invoked once the scope has been cancelled: the screen that asked for
+     * the data is gone.
+     * </p>
+     *
+     * @param scope the cancellation scope, or null for none
+     * @param call the DAO call to execute
+     * @param onSuccess callback receiving the result
+     * @param onError callback receiving the error
+     * @param <T> the result type
+     * @return the underlying future
+     */
+    public static <T> CompletableFuture<T> load(QueryScope scope, DbCall<T> call,
+                                                Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        CompletableFuture<T> future = supply(scope, call);
+
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (scope != null && scope.isCancelled()) return;
+            if (error == null) {
+                onSuccess.accept(result);
+            } else {
+                onError.accept(unwrap(error));
+            }
+        }));
+
+        return future;
+    }
+
+    /**
+     * Stops the background threads.
+     * <p>
+     * This should be called when the application exits.
+     * </p>
+     */
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+
+    /**
+     * Returns the original cause of a wrapped future exception.
+     *
+     * @param error the exception reported by the future
+     * @return the unwrapped exception
+     */
+    private static Throwable unwrap(Throwable error) {
+        Throwable t = error;
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    /**
+     * Creates the bounded executor used for DAO calls.
+     * <p>
+     * Threads are daemon threads so they never keep the JVM alive, and idle
+     * threads are released after a short time.
+     * </p>
+     *
+     * @return the executor
+     */
+    private static ThreadPoolExecutor createExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                MAX_THREADS, MAX_THREADS,
+                30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "db-async-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -1,7 +1,8 @@
 package dealership.util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 
 /**
@@ -11,13 +12,36 @@ import java.sql.SQLException;
  * to the application database. It is used by DAO classes to obtain a
  * {@link Connection} when executing SQL queries.
  * </p>
+ * <p>
+ * Connections are handed out from a bounded {@link ConnectionPool}, so a DAO
+ * call does not pay a full TCP connect and MySQL handshake every time. Closing
+ * the returned connection (for example at the end of a try-with-resources block)
+ * gives it back to the pool.
+ * </p>
  */
 public class DbConnection {
 
-    private static final String URL = "jdbc:mysql://localhost:3306/concesionario?serverTimezone=UTC";
+    /**
+     * JDBC URL. {@code useServerPrepStmts} makes MySQL parse each prepared statement
+     * once on the server; the pool keeps those statements open between calls.
+     * {@code rewriteBatchedStatements} lets the driver send a batch of INSERTs as
+     * multi-row INSERTs (used by the bulk imports).
+     */
+    private static final String URL = "jdbc:mysql://localhost:3306/concesionario?serverTimezone=UTC"
+            + "&useServerPrepStmts=true&rewriteBatchedStatements=true";
     private static final String USER = "root";
     private static final String PASSWORD = "root";
 
+    private static final int POOL_MIN_IDLE = 2;
+    private static final int POOL_MAX_SIZE = 10;
+    private static final long POOL_IDLE_TIMEOUT_MILLIS = 10 * 60_000L;
+    private static final long POOL_BORROW_TIMEOUT_MILLIS = 5_000L;
+    private static final long POOL_LEAK_DETECTION_MILLIS = 60_000L;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+    private static final int QUERY_TIMEOUT_SECONDS = 30;
+
+    private static ConnectionPool pool;
+
     /**
      * Private constructor to prevent instantiation.
      * <p>
@@ -28,16 +52,107 @@ public class DbConnection {
     }
 
     /**
-     * Creates and returns a new database connection.
+     * Returns a database connection from the shared pool.
      * <p>
-     * Each call returns a fresh {@link Connection} instance using the
-     * configured JDBC URL, username and password.
+     * The pool is created lazily on first use. The returned {@link Connection}
+     * must be closed by the caller; closing it returns it to the pool instead
+     * of closing the physical connection.
      * </p>
      *
-     * @return a new {@link Connection} to the database
-     * @throws SQLException if the connection cannot be established
+     * @return a pooled {@link Connection} to the database
+     * @throws SQLException if no connection can be obtained
      */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return getPool().borrow();
+    }
+
+    /**
+     * Marks a SQL constant as cacheable by the per-connection statement cache.
+     * <p>
+     * DAOs wrap their fixed statements with it, for example
+     * {@code private static final String SQL_X = DbConnection.cacheable("SELECT ...");}.
+     * Only that exact instance is cached; SQL assembled at runtime is always
+     * prepared normally and closed after use.
+     * </p>
+     *
+     * @param sql the SQL constant
+     * @return the same SQL constant
+     */
+    public static String cacheable(String sql) {
+        return StatementCache.register(sql);
+    }
+
+    /**
+     * Prepares a statement whose result set is streamed instead of fully loaded.
+     * <p>
+     * By default MySQL Connector/J reads the whole result set into memory when the
+     * query is executed. With a forward-only, read-only statement and a fetch size
+     * of {@link Integer#MIN_VALUE}, rows are read from the socket one at a time
+     * while the caller iterates, so memory stays flat whatever the result size.
+     * </p>
+     * <p>
+     * While a streamed result set is open, no other statement can run on the same
+     * connection, so the caller must read it to the end (or close it) first.
+     * The statement is not taken from the statement cache, so its fetch size never
+     * leaks into other queries.
+     * </p>
+     *
+     * @param conn the connection to prepare the statement on
+     * @param sql the SQL query
+     * @return a prepared statement configured for streaming
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public static PreparedStatement prepareStreaming(Connection conn, String sql) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(Integer.MIN_VALUE);
+        return ps;
+    }
+
+    /**
+     * Returns how many prepared statements were reused from the statement cache.
+     *
+     * @return statement cache hit count since startup
+     */
+    public static long getStatementCacheHits() {
+        return getPool().getStatementCacheHits();
+    }
+
+    /**
+     * Returns how many constant SQL statements had to be prepared (cache misses).
+     *
+     * @return statement cache miss count since startup
+     */
+    public static long getStatementCacheMisses() {
+        return getPool().getStatementCacheMisses();
+    }
+
+    /**
+     * Closes the shared pool and all its idle connections.
+     * <p>
+     * This should be called when the application exits.
+     * </p>
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Returns the shared pool, creating it if needed.
+     *
+     * @return the shared connection pool
+     */
+    private static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            pool = new ConnectionPool(
+                    URL, USER, PASSWORD,
+                    POOL_MIN_IDLE, POOL_MAX_SIZE,
+                    POOL_IDLE_TIMEOUT_MILLIS, POOL_BORROW_TIMEOUT_MILLIS, POOL_LEAK_DETECTION_MILLIS,
+                    STATEMENT_CACHE_SIZE, QUERY_TIMEOUT_SECONDS
+            );
+        }
+        return pool;
     }
 }
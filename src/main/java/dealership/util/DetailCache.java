@@ -0,0 +1,223 @@
+package dealership.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, id-keyed LRU cache for the detail models shown in detail screens.
+ * <p>
+ * Going list -> detail -> back -> detail loads the same record again and again.
+ * The DAOs put one {@code DetailCache} in front of each {@code find*DetailById}
+ * method so a record that was seen recently is served from memory.
+ * </p>
+ * <p>
+ * Entries are:
+ * - evicted least recently used first once {@code maxEntries} is reached
+ * - expired after {@code ttlMillis}, so changes made by other users show up eventually
+ * - invalidated by the DAO write methods (write-through invalidation)
+ * </p>
+ * <p>
+ * Only found records are cached (a {@code null} result is always looked up again).
+ * The cached models must be immutable. Every cache registers itself so its hit
+ * statistics can be listed with {@link #all()}.
+ * </p>
+ *
+ * @param <T> the detail model type
+ */
+public class DetailCache<T> {
+
+    /**
+     * Default maximum number of cached records per cache.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 200;
+
+    /**
+     * Default time after which a cached record is loaded again.
+     */
+    public static final long DEFAULT_TTL_MILLIS = 2 * 60_000L;
+
+    private static final List<DetailCache<?>> ALL = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    private final Map<Integer, Entry<T>> entries;
+
+    /**
+     * Incremented on every invalidation. A load that started before an
+     * invalidation must not store its (possibly stale) result.
+     */
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a new cache with the default size and TTL and registers it.
+     *
+     * @param name a short name used in statistics (for example "vehicle")
+     */
+    public DetailCache(String name) {
+        this(name, DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * Creates a new cache and registers it.
+     *
+     * @param name a short name used in statistics (for example "vehicle")
+     * @param maxEntries maximum number of cached records
+     * @param ttlMillis time after which a cached record is loaded again
+     */
+    public DetailCache(String name, int maxEntries, long ttlMillis) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry<T>> eldest) {
+                return size() > DetailCache.this.maxEntries;
+            }
+        };
+        ALL.add(this);
+    }
+
+    /**
+     * Returns every cache created so far.
+     *
+     * @return an unmodifiable list of caches
+     */
+    public static List<DetailCache<?>> all() {
+        return Collections.unmodifiableList(new ArrayList<>(ALL));
+    }
+
+    /**
+     * Returns the cached record for an id, loading it if it is missing or expired.
+     * <p>
+     * The loader runs outside the cache lock, so a slow query never blocks
+     * lookups of other records.
+     * </p>
+     *
+     * @param id the record id
+     * @param loader the DAO call that loads the record from the database
+     * @return the record, or null if it does not exist
+     * @throws Exception if the loader fails
+     */
+    public T get(int id, DbAsync.DbCall<T> loader) throws Exception {
+        long loadGeneration;
+
+        synchronized (this) {
+            Entry<T> entry = entries.get(id);
+            if (entry != null && System.currentTimeMillis() - entry.loadedAt < ttlMillis) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+            loadGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        T value = loader.call();
+
+        if (value != null) {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    entries.put(id, new Entry<>(value, System.currentTimeMillis()));
+                }
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Drops the cached record for an id.
+     *
+     * @param id the record id
+     */
+    public synchronized void invalidate(int id) {
+        entries.remove(id);
+        generation++;
+    }
+
+    /**
+     * Drops every cached record.
+     * <p>
+     * Used when a write can affect many records (for example a customer rename,
+     * which changes the customer name shown in proposal and sale details).
+     * </p>
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        generation++;
+    }
+
+    /**
+     * Returns the short name of this cache.
+     *
+     * @return the cache name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns how many lookups were served from memory.
+     *
+     * @return hit count
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns how many lookups had to query the database.
+     *
+     * @return miss count
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the fraction of lookups served from memory.
+     *
+     * @return hit rate between 0 and 1 (0 if there was no lookup yet)
+     */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return (total == 0) ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * Returns a one-line summary of the cache statistics.
+     *
+     * @return the statistics text
+     */
+    @Override
+    public String toString() {
+        return String.format("%s detail cache: %d hits, %d misses (%.1f%% hit rate)",
+                name, getHitCount(), getMissCount(), getHitRate() * 100);
+    }
+
+    /**
+     * A cached record plus its load time.
+     *
+     * @param <T> the detail model type
+     */
+    private static final class Entry<T> {
+
+        private final T value;
+        private final long loadedAt;
+
+        private Entry(T value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
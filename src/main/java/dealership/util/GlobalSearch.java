@@ -0,0 +1,311 @@
+package dealership.util;
+
+import dealership.model.GlobalSearchResult;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * One global search over several sources (customers, vehicles, proposals, sales).
+ * <p>
+ * Every source is a DAO call. They all start at once, in parallel, on the
+ * {@link DbAsync} pool (each one borrows its own pooled connection), so the
+ * search takes as long as the slowest source instead of the sum of all of them.
+ * </p>
+ * <p>
+ * Results are delivered progressively: each time a source answers, the listener
+ * receives the merged list so far. The merged list is grouped by entity type, in
+ * the order of {@link GlobalSearchResult.Type}; inside a group, results are
+ * ranked by how well they match the query (see {@link #rank(GlobalSearchResult, String[])}).
+ * Sources return a limited number of rows, so their queries must put the best
+ * matches first before the limit; this ranking only orders what they returned.
+ * </p>
+ * <p>
+ * Latency is bounded in two ways:
+ * - every source has its own timeout; a source that does not answer in time is
+ * cancelled (its SQL statement too) and reported as missing
+ * - the whole search has a latency budget; when it runs out, the sources still
+ * running are cancelled and the search finishes with what it has
+ * </p>
+ * <p>
+ * Searches are started and observed on the JavaFX Application Thread.
+ * With {@code -Ddealership.trace=search}, the latency of every source is printed (see {@link Trace}).
+ * </p>
+ */
+public class GlobalSearch {
+
+    /**
+     * Default time a single source may take.
+     */
+    public static final long SOURCE_TIMEOUT_MILLIS = 1_000L;
+
+    /**
+     * Default latency budget of a whole search.
+     */
+    public static final long BUDGET_MILLIS = 1_500L;
+
+    /**
+     * One searchable source: an entity type and the DAO call that searches it.
+     */
+    public static final class Source {
+
+        private final GlobalSearchResult.Type type;
+        private final DbAsync.DbCall<List<GlobalSearchResult>> call;
+
+        /**
+         * Creates a source.
+         *
+         * @param type the entity type of its results
+         * @param call the DAO call returning the results of the query
+         */
+        public Source(GlobalSearchResult.Type type, DbAsync.DbCall<List<GlobalSearchResult>> call) {
+            this.type = type;
+            this.call = call;
+        }
+    }
+
+    private final String[] words;
+    private final Consumer<List<GlobalSearchResult>> onUpdate;
+    private final Consumer<Set<GlobalSearchResult.Type>> onFinished;
+
+    private final Map<GlobalSearchResult.Type, List<GlobalSearchResult>> results =
+            new EnumMap<>(GlobalSearchResult.Type.class);
+    private final Set<GlobalSearchResult.Type> pending = EnumSet.noneOf(GlobalSearchResult.Type.class);
+    private final Set<GlobalSearchResult.Type> missing = EnumSet.noneOf(GlobalSearchResult.Type.class);
+    private final List<QueryScope> scopes = new ArrayList<>();
+    private final PauseTransition budgetTimer;
+
+    private boolean finished;
+
+    /**
+     * Creates a search; see {@link #start(String, List, Consumer, Consumer)}.
+     *
+     * @param query the text typed by the user
+     * @param budgetMillis the latency budget of the whole search
+     * @param onUpdate receives the merged results each time a source answers
+     * @param onFinished receives the types that did not answer (timed out or failed)
+     */
+    private GlobalSearch(String query, long budgetMillis, Consumer<List<GlobalSearchResult>> onUpdate,
+                         Consumer<Set<GlobalSearchResult.Type>> onFinished) {
+        String normalized = CustomerSearchIndex.normalize(query);
+        this.words = normalized.isEmpty() ? new String[0] : normalized.split(" ");
+        this.onUpdate = onUpdate;
+        this.onFinished = onFinished;
+        this.budgetTimer = new PauseTransition(Duration.millis(budgetMillis));
+    }
+
+    /**
+     * Starts a search with the default timeouts.
+     *
+     * @param query the text typed by the user
+     * @param sources the sources to search
+     * @param onUpdate receives the merged results so far, each time a source answers
+     * @param onFinished called once at the end with the types that did not answer
+     * @return the running search, which can be cancelled
+     */
+    public static GlobalSearch start(String query, List<Source> sources,
+                                     Consumer<List<GlobalSearchResult>> onUpdate,
+                                     Consumer<Set<GlobalSearchResult.Type>> onFinished) {
+        return start(query, sources, SOURCE_TIMEOUT_MILLIS, BUDGET_MILLIS, onUpdate, onFinished);
+    }
+
+    /**
+     * Starts a search.
+     *
+     * @param query the text typed by the user
+     * @param sources the sources to search
+     * @param sourceTimeoutMillis the time a single source may take
+     * @param budgetMillis the latency budget of the whole search
+     * @param onUpdate receives the merged results so far, each time a source answers
+     * @param onFinished called once at the end with the types that did not answer
+     * @return the running search, which can be cancelled
+     */
+    public static GlobalSearch start(String query, List<Source> sources, long sourceTimeoutMillis, long budgetMillis,
+                                     Consumer<List<GlobalSearchResult>> onUpdate,
+                                     Consumer<Set<GlobalSearchResult.Type>> onFinished) {
+        GlobalSearch search = new GlobalSearch(query, budgetMillis, onUpdate, onFinished);
+        search.run(sources, sourceTimeoutMillis);
+        return search;
+    }
+
+    /**
+     * Cancels the search: running sources are aborted and no callback is called anymore.
+     */
+    public void cancel() {
+        finished = true;
+        budgetTimer.stop();
+        scopes.forEach(QueryScope::cancel);
+    }
+
+    /**
+     * Starts every source and the budget timer.
+     *
+     * @param sources the sources to search
+     * @param sourceTimeoutMillis the time a single source may take
+     */
+    private void run(List<Source> sources, long sourceTimeoutMillis) {
+        if (sources.isEmpty()) {
+            finish();
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        for (Source source : sources) {
+            QueryScope scope = new QueryScope();
+            scopes.add(scope);
+            pending.add(source.type);
+
+            DbAsync.supply(scope, source.call)
+                    .orTimeout(sourceTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .whenComplete((items, error) -> Platform.runLater(() -> {
+                        if (Trace.isEnabled("search")) {
+                            Trace.log("search", "%s %s in %.1f ms", source.type,
+                                    (error == null) ? items.size() + " results" : "failed (" + unwrap(error) + ")",
+                                    (System.nanoTime() - start) / 1_000_000.0);
+                        }
+                        sourceDone(source.type, scope, items, error);
+                    }));
+        }
+
+        budgetTimer.setOnFinished(e -> finish());
+        budgetTimer.play();
+    }
+
+    /**
+     * Records the outcome of one source and publishes the merged results.
+     *
+     * @param type the type of the source
+     * @param scope the scope of the source
+     * @param items the results, if the source answered
+     * @param error the failure, if it did not
+     */
+    private void sourceDone(GlobalSearchResult.Type type, QueryScope scope,
+                            List<GlobalSearchResult> items, Throwable error) {
+        if (finished) return;
+
+        pending.remove(type);
+
+        if (error != null) {
+            if (unwrap(error) instanceof TimeoutException) {
+                scope.cancel();
+            } else {
+                error.printStackTrace();
+            }
+            missing.add(type);
+        } else {
+            results.put(type, ranked(items));
+            onUpdate.accept(merged());
+        }
+
+        if (pending.isEmpty()) {
+            finish();
+        }
+    }
+
+    /**
+     * Ends the search: cancels the sources still running and reports the missing ones.
+     */
+    private void finish() {
+        if (finished) return;
+        finished = true;
+        budgetTimer.stop();
+
+        for (QueryScope scope : scopes) {
+            scope.cancel();
+        }
+        missing.addAll(pending);
+
+        onFinished.accept(missing);
+    }
+
+    /**
+     * Builds the merged list: groups in type order, each group already ranked.
+     *
+     * @return the merged results
+     */
+    private List<GlobalSearchResult> merged() {
+        List<GlobalSearchResult> list = new ArrayList<>();
+        for (List<GlobalSearchResult> group : results.values()) {
+            list.addAll(group);
+        }
+        return list;
+    }
+
+    /**
+     * Sorts the results of one source by rank, keeping the source order for equal ranks.
+     *
+     * @param items the results of a source
+     * @return the ranked results
+     */
+    private List<GlobalSearchResult> ranked(List<GlobalSearchResult> items) {
+        List<GlobalSearchResult> list = new ArrayList<>(items);
+        list.sort(Comparator.comparingInt(result -> rank(result, words)));
+        return list;
+    }
+
+    /**
+     * Scores how well a result matches the query (lower is better).
+     * <p>
+     * - 0: the title is exactly the query (for example a full plate or DNI)
+     * - 1: the title starts with the query
+     * - 2: every query word starts a word of the title
+     * - 3: anything else (the words matched columns not shown in the title)
+     * </p>
+     *
+     * @param result the result
+     * @param words the normalized query words
+     * @return the rank
+     */
+    private static int rank(GlobalSearchResult result, String[] words) {
+        String title = CustomerSearchIndex.normalize(result.getTitle());
+        String query = String.join(" ", words);
+
+        if (title.equals(query)) return 0;
+        if (title.startsWith(query)) return 1;
+
+        for (String word : words) {
+            if (!startsWord(title, word)) return 3;
+        }
+        return 2;
+    }
+
+    /**
+     * Checks whether a word of a text (a run of letters and digits) starts with a prefix.
+     *
+     * @param text the normalized text
+     * @param prefix the normalized prefix word
+     * @return true if some word of the text starts with the prefix
+     */
+    private static boolean startsWord(String text, String prefix) {
+        int from = 0;
+        while (true) {
+            int index = text.indexOf(prefix, from);
+            if (index < 0) return false;
+            if (index == 0 || !Character.isLetterOrDigit(text.charAt(index - 1))) return true;
+            from = index + 1;
+        }
+    }
+
+    /**
+     * Returns the real cause of a failed future.
+     *
+     * @param error the error passed to a completion callback
+     * @return the underlying exception
+     */
+    private static Throwable unwrap(Throwable error) {
+        return (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+    }
+}
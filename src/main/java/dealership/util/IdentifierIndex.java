@@ -0,0 +1,238 @@
+package dealership.util;
+
+import dealership.model.IdentifierMatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Application-wide prefix index over vehicle plates, VINs and customer DNIs.
+ * <p>
+ * Counter staff usually know only part of a plate, VIN or DNI. The Sales header
+ * quick-jump box looks them up after every keystroke, so the identifiers are
+ * kept in memory in a {@link PrefixTrie} instead of sending a LIKE query per key.
+ * </p>
+ * <p>
+ * Keys are normalized with {@link #normalizeKey(String)}: uppercase, letters and
+ * digits only, so "1234 abc", "1234-ABC" and "1234ABC" are the same plate.
+ * </p>
+ * <p>
+ * Vehicles are only indexed for the dealership the Sales lists are restricted
+ * to ({@link SessionContext#getListDealershipId()}), so the quick-jump box cannot
+ * open another site's vehicles. The index remembers the dealership it was loaded
+ * for and is dropped on logout and when the owner's "all dealerships" mode changes.
+ * </p>
+ * <p>
+ * The index is:
+ * - loaded in one go by {@link #ensureLoaded(Integer, DbAsync.DbCall)} (two small queries)
+ * - reloaded after {@link #TTL_MILLIS}, so records added by other users show up eventually
+ * - updated in place by the DAO write methods ({@link #put(IdentifierMatch)},
+ * {@link #remove(IdentifierMatch.Kind, int)}, {@link #updateDescription(IdentifierMatch.Kind, int, String)}),
+ * so changes made in this application show up at once
+ * </p>
+ */
+public class IdentifierIndex {
+
+    private static final long TTL_MILLIS = 5 * 60_000L;
+
+    private static PrefixTrie<IdentifierMatch> trie;
+
+    /**
+     * Entries of each record, so they can be removed without scanning the trie.
+     * Vehicle ids are stored as is, customer ids negated and shifted by one.
+     */
+    private static Map<Integer, List<IdentifierMatch>> byRecord = new HashMap<>();
+
+    private static long loadedAt;
+
+    /**
+     * Dealership whose vehicles the index holds (null for every dealership).
+     */
+    private static Integer loadedFor;
+
+    /**
+     * Change counter. A load that started before a change must not replace the
+     * index with its (possibly stale) result.
+     */
+    private static long generation;
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its static methods.
+     * </p>
+     */
+    private IdentifierIndex() {
+    }
+
+    /**
+     * Loads the index if it is missing, expired or loaded for another dealership.
+     * <p>
+     * The loader runs outside the index lock, on the calling thread; it should be
+     * called through {@link DbAsync}. While it runs, lookups keep using the previous
+     * index (if any).
+     * </p>
+     *
+     * @param dealershipId the dealership the vehicles are restricted to, or null for every dealership
+     * @param loader the DAO calls returning the plate and VIN entries of that scope, and every DNI entry
+     * @throws Exception if the loader fails
+     */
+    public static void ensureLoaded(Integer dealershipId, DbAsync.DbCall<List<IdentifierMatch>> loader) throws Exception {
+        long startGeneration;
+
+        synchronized (IdentifierIndex.class) {
+            if (trie != null && Objects.equals(loadedFor, dealershipId)
+                    && System.currentTimeMillis() - loadedAt < TTL_MILLIS) {
+                return;
+            }
+            startGeneration = generation;
+        }
+
+        List<IdentifierMatch> entries = loader.call();
+
+        PrefixTrie<IdentifierMatch> newTrie = new PrefixTrie<>();
+        Map<Integer, List<IdentifierMatch>> newByRecord = new HashMap<>(entries.size() * 2);
+        for (IdentifierMatch entry : entries) {
+            add(newTrie, newByRecord, entry);
+        }
+
+        synchronized (IdentifierIndex.class) {
+            if (generation == startGeneration) {
+                trie = newTrie;
+                byRecord = newByRecord;
+                loadedAt = System.currentTimeMillis();
+                loadedFor = dealershipId;
+            }
+        }
+    }
+
+    /**
+     * Returns the entries whose identifier starts with the given text.
+     * <p>
+     * Exact matches come first, then the other entries in identifier order.
+     * Until the index is loaded, nothing is found.
+     * </p>
+     *
+     * @param text the text typed by the user
+     * @param limit the maximum number of entries
+     * @return the matching entries
+     */
+    public static synchronized List<IdentifierMatch> lookup(String text, int limit) {
+        String prefix = normalizeKey(text);
+        if (trie == null || prefix.isEmpty()) {
+            return List.of();
+        }
+        return trie.findByPrefix(prefix, limit);
+    }
+
+    /**
+     * Adds an entry, after its record was created in the database.
+     * <p>
+     * Does nothing if the index is not loaded: the next load will include it.
+     * </p>
+     *
+     * @param entry the new entry
+     */
+    public static synchronized void put(IdentifierMatch entry) {
+        generation++;
+        if (trie != null && normalizeKey(entry.getIdentifier()).length() > 0) {
+            add(trie, byRecord, entry);
+        }
+    }
+
+    /**
+     * Removes the entries of a record, after it was deleted (or deactivated) in the database.
+     *
+     * @param kind any identifier kind of the record (tells whether it is a vehicle or a customer)
+     * @param id the vehicle or customer id
+     */
+    public static synchronized void remove(IdentifierMatch.Kind kind, int id) {
+        generation++;
+        if (trie == null) return;
+
+        List<IdentifierMatch> entries = byRecord.remove(recordKey(kind, id));
+        if (entries == null) return;
+
+        for (IdentifierMatch entry : entries) {
+            trie.remove(normalizeKey(entry.getIdentifier()), entry);
+        }
+    }
+
+    /**
+     * Changes the description of the entries of a record, after its name changed.
+     *
+     * @param kind any identifier kind of the record
+     * @param id the vehicle or customer id
+     * @param description the new description
+     */
+    public static synchronized void updateDescription(IdentifierMatch.Kind kind, int id, String description) {
+        generation++;
+        if (trie == null) return;
+
+        List<IdentifierMatch> entries = byRecord.remove(recordKey(kind, id));
+        if (entries == null) return;
+
+        for (IdentifierMatch entry : entries) {
+            trie.remove(normalizeKey(entry.getIdentifier()), entry);
+            add(trie, byRecord, new IdentifierMatch(entry.getKind(), id, entry.getIdentifier(), description));
+        }
+    }
+
+    /**
+     * Drops the index; the next {@link #ensureLoaded(Integer, DbAsync.DbCall)} loads it again.
+     */
+    public static synchronized void invalidate() {
+        generation++;
+        trie = null;
+        byRecord = new HashMap<>();
+    }
+
+    /**
+     * Normalizes an identifier for the index: uppercase letters and digits only.
+     *
+     * @param text the identifier or typed text (can be null)
+     * @return the normalized key (empty if null)
+     */
+    public static String normalizeKey(String text) {
+        if (text == null) return "";
+
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toUpperCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Adds an entry to a trie and to the per-record map.
+     *
+     * @param target the trie
+     * @param records the per-record map
+     * @param entry the entry
+     */
+    private static void add(PrefixTrie<IdentifierMatch> target, Map<Integer, List<IdentifierMatch>> records,
+                            IdentifierMatch entry) {
+        String key = normalizeKey(entry.getIdentifier());
+        if (key.isEmpty()) return;
+
+        target.put(key, entry);
+        records.computeIfAbsent(recordKey(entry.getKind(), entry.getId()), k -> new ArrayList<>(2)).add(entry);
+    }
+
+    /**
+     * Builds the per-record map key, keeping vehicle and customer ids apart.
+     *
+     * @param kind any identifier kind of the record
+     * @param id the record id
+     * @return the map key
+     */
+    private static int recordKey(IdentifierMatch.Kind kind, int id) {
+        return kind.isVehicle() ? id : -id - 1;
+    }
+}
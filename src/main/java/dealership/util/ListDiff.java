@@ -0,0 +1,194 @@
+package dealership.util;
+
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Id-keyed diff merge for the observable lists behind the tables.
+ * <p>
+ * Refreshing a table with {@code setAll(newRows)} replaces every row object:
+ * the table, and any {@code FilteredList}/{@code SortedList} on top of it,
+ * rebuild everything and the selection is lost. {@link #merge} compares the
+ * current rows with the freshly loaded ones by id instead, and only applies:
+ * - removals of rows that are no longer present
+ * - insertions of new rows
+ * - moves of rows whose position changed
+ * - property updates of rows that are still present (through an update callback)
+ * </p>
+ * <p>
+ * Moves are kept to the minimum: the rows that keep their relative order (a
+ * longest increasing subsequence of their new positions) stay where they are,
+ * and only the others are taken out and put back. All removals are one list
+ * change, and insertions are grouped into one change per run of consecutive
+ * positions. If a refresh would still need more than {@link #MAX_INSERT_RUNS}
+ * runs, the new order is applied with a single {@code setAll} of the same row
+ * objects instead.
+ * </p>
+ * <p>
+ * Existing row objects are kept, so a refresh that brings the same data causes
+ * no list change at all.
+ * </p>
+ */
+public class ListDiff {
+
+    /**
+     * Runs of insertions applied one by one; above this, the whole order is set at once.
+     */
+    static final int MAX_INSERT_RUNS = 16;
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its static methods.
+     * </p>
+     */
+    private ListDiff() {
+    }
+
+    /**
+     * Merges freshly loaded rows into an observable list.
+     * <p>
+     * After the call, {@code target} contains the same records as {@code fresh},
+     * in the same order. Rows present in both lists keep their object identity and
+     * receive the new values through {@code update}. Keys must be unique in each list.
+     * </p>
+     *
+     * @param target the list bound to the UI
+     * @param fresh the rows just loaded from the database
+     * @param keyOf returns the id of a row
+     * @param update copies the values of a fresh row into the existing row with the same id
+     * @param <T> the row type
+     * @param <K> the key type
+     */
+    public static <T, K> void merge(ObservableList<T> target, List<T> fresh,
+                                    Function<T, K> keyOf, BiConsumer<T, T> update) {
+        if (target.isEmpty()) {
+            if (!fresh.isEmpty()) {
+                target.setAll(fresh);
+            }
+            return;
+        }
+
+        Map<K, Integer> freshIndex = new HashMap<>(fresh.size() * 2);
+        for (int i = 0; i < fresh.size(); i++) {
+            freshIndex.put(keyOf.apply(fresh.get(i)), i);
+        }
+
+        // The row object each fresh position ends up with: the existing one if any
+        List<T> result = new ArrayList<>(fresh);
+        Set<T> toRemove = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<T> kept = new ArrayList<>(target.size());
+        int[] keptPositions = new int[target.size()];
+
+        for (T row : target) {
+            Integer position = freshIndex.get(keyOf.apply(row));
+            if (position == null) {
+                toRemove.add(row);
+            } else {
+                update.accept(row, fresh.get(position));
+                result.set(position, row);
+                keptPositions[kept.size()] = position;
+                kept.add(row);
+            }
+        }
+
+        // Kept rows outside the increasing subsequence are moved: removed, then inserted again
+        boolean[] stays = longestIncreasing(keptPositions, kept.size());
+        for (int i = 0; i < kept.size(); i++) {
+            if (!stays[i]) toRemove.add(kept.get(i));
+        }
+
+        Set<T> staying = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < kept.size(); i++) {
+            if (stays[i]) staying.add(kept.get(i));
+        }
+
+        if (countInsertRuns(result, staying) > MAX_INSERT_RUNS) {
+            target.setAll(result);
+            return;
+        }
+
+        if (!toRemove.isEmpty()) {
+            target.removeAll(toRemove);
+        }
+
+        // The staying rows are now in fresh order; insert every other row at its position
+        int i = 0;
+        while (i < result.size()) {
+            if (staying.contains(result.get(i))) {
+                i++;
+                continue;
+            }
+            int end = i + 1;
+            while (end < result.size() && !staying.contains(result.get(end))) {
+                end++;
+            }
+            target.addAll(i, result.subList(i, end));
+            i = end;
+        }
+    }
+
+    /**
+     * Counts the runs of consecutive positions that have to be inserted.
+     *
+     * @param result the final rows
+     * @param staying the rows that are not removed
+     * @param <T> the row type
+     * @return the number of runs
+     */
+    private static <T> int countInsertRuns(List<T> result, Set<T> staying) {
+        int runs = 0;
+        boolean inRun = false;
+        for (T row : result) {
+            boolean inserted = !staying.contains(row);
+            if (inserted && !inRun) runs++;
+            inRun = inserted;
+        }
+        return runs;
+    }
+
+    /**
+     * Finds a longest strictly increasing subsequence, in O(n log n).
+     *
+     * @param values the values (distinct)
+     * @param length the number of values to use
+     * @return for each value, whether it belongs to the subsequence
+     */
+    static boolean[] longestIncreasing(int[] values, int length) {
+        // tails[k]: index of the smallest last value of an increasing run of length k + 1
+        int[] tails = new int[length];
+        int[] previous = new int[length];
+        int size = 0;
+
+        for (int i = 0; i < length; i++) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[tails[middle]] < values[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[i] = (low > 0) ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == size) size++;
+        }
+
+        boolean[] in = new boolean[length];
+        for (int i = (size > 0) ? tails[size - 1] : -1; i >= 0; i = previous[i]) {
+            in[i] = true;
+        }
+        return in;
+    }
+}
@@ -0,0 +1,170 @@
+package dealership.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Minimal prefix tree mapping string keys to values.
+ * <p>
+ * Used by {@link IdentifierIndex} to find plates, VINs and DNIs from their
+ * first characters. A lookup walks down one node per prefix character and then
+ * collects the values below that node, so its cost depends on the prefix length
+ * and the number of results, not on the number of keys.
+ * </p>
+ * <p>
+ * Children are kept in small arrays sorted by character (identifiers only use
+ * digits and uppercase letters), which is much lighter than a map per node.
+ * Results come out in key order, so an exact match is always listed first.
+ * </p>
+ * <p>
+ * This class is not thread-safe; callers synchronize access.
+ * </p>
+ *
+ * @param <V> the value type
+ */
+public class PrefixTrie<V> {
+
+    private final Node<V> root = new Node<>();
+    private int size;
+
+    /**
+     * Adds a value under a key. A key can hold several values.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public void put(String key, V value) {
+        Node<V> node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+        }
+        if (node.values == null) {
+            node.values = new ArrayList<>(1);
+        }
+        node.values.add(value);
+        size++;
+    }
+
+    /**
+     * Removes one value from a key. Empty branches are left in place; they are
+     * dropped the next time the trie is rebuilt.
+     *
+     * @param key the key
+     * @param value the value to remove
+     * @return true if the value was found
+     */
+    public boolean remove(String key, V value) {
+        Node<V> node = find(key);
+        if (node == null || node.values == null || !node.values.remove(value)) {
+            return false;
+        }
+        if (node.values.isEmpty()) {
+            node.values = null;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the values whose key starts with a prefix, in key order.
+     *
+     * @param prefix the prefix (an empty prefix matches every key)
+     * @param limit the maximum number of values returned
+     * @return the matching values
+     */
+    public List<V> findByPrefix(String prefix, int limit) {
+        List<V> result = new ArrayList<>(Math.min(limit, 16));
+        Node<V> node = find(prefix);
+        if (node != null) {
+            collect(node, result, limit);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of values in the trie.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Walks down to the node of a key.
+     *
+     * @param key the key
+     * @return the node, or null if no key starts with it
+     */
+    private Node<V> find(String key) {
+        Node<V> node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Adds the values of a node and its descendants, depth first.
+     *
+     * @param node the node
+     * @param result the list to fill
+     * @param limit the maximum size of the list
+     */
+    private static <V> void collect(Node<V> node, List<V> result, int limit) {
+        if (node.values != null) {
+            for (V value : node.values) {
+                if (result.size() >= limit) return;
+                result.add(value);
+            }
+        }
+        for (int i = 0; i < node.childCount && result.size() < limit; i++) {
+            collect(node.children[i], result, limit);
+        }
+    }
+
+    /**
+     * A trie node: sorted child characters, their nodes, and the values ending here.
+     */
+    private static final class Node<V> {
+
+        private char[] keys;
+        private Node<V>[] children;
+        private int childCount;
+        private List<V> values;
+
+        private Node<V> child(char c) {
+            if (childCount == 0) return null;
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            return (index >= 0) ? children[index] : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Node<V> childOrCreate(char c) {
+            if (childCount == 0) {
+                keys = new char[2];
+                children = (Node<V>[]) new Node<?>[2];
+            }
+
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            if (index >= 0) {
+                return children[index];
+            }
+
+            int insertAt = -index - 1;
+            if (childCount == keys.length) {
+                keys = Arrays.copyOf(keys, childCount * 2);
+                children = Arrays.copyOf(children, childCount * 2);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, childCount - insertAt);
+            System.arraycopy(children, insertAt, children, insertAt + 1, childCount - insertAt);
+
+            Node<V> node = new Node<>();
+            keys[insertAt] = c;
+            children[insertAt] = node;
+            childCount++;
+            return node;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package dealership.util;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cancellation scope for the database work started by one screen.
+ * <p>
+ * A scope groups the background DAO calls submitted through
+ * {@link DbAsync#load(QueryScope, DbAsync.DbCall, java.util.function.Consumer, java.util.function.Consumer)}.
+ * While such a call runs, every statement it creates on a pooled connection is
+ * registered in the scope. Calling {@link #cancel()} then:
+ * - drops the calls that are still waiting for a thread
+ * - aborts the statements that are running, using {@link Statement#cancel()}
+ * - rejects any new statement created afterwards by the same calls
+ * - suppresses the UI callbacks of every call in the scope
+ * </p>
+ * <p>
+ * {@link SalesNavigation} opens a new scope for each view it loads and cancels
+ * the previous one, so leaving a screen frees its connections right away.
+ * </p>
+ */
+public class QueryScope {
+
+    private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * {@link Statement#cancel()} opens a separate connection to send the kill
+     * request, so it is never done on the JavaFX thread.
+     */
+    private static final ExecutorService CANCELLER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "db-cancel");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Set<Statement> running = new HashSet<>();
+    private final Set<CompletableFuture<?>> calls = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean cancelled;
+
+    /**
+     * Returns the scope bound to the current thread.
+     *
+     * @return the scope of the DAO call running on this thread, or null if none
+     */
+    static QueryScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns whether this scope has been cancelled.
+     *
+     * @return true if {@link #cancel()} was called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Cancels every pending and running DAO call of this scope.
+     * <p>
+     * This method returns immediately; running statements are cancelled on a
+     * background thread. Calling it more than once has no further effect.
+     * </p>
+     */
+    public void cancel() {
+        if (cancelled) return;
+        cancelled = true;
+
+        for (CompletableFuture<?> call : calls) {
+            call.cancel(false);
+        }
+        calls.clear();
+
+        CANCELLER.execute(this::cancelRunning);
+    }
+
+    /**
+     * Binds this scope to the current (worker) thread.
+     */
+    void enter() {
+        CURRENT.set(this);
+    }
+
+    /**
+     * Unbinds this scope from the current (worker) thread.
+     */
+    void exit() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Tracks a submitted call so it can be dropped if the scope is cancelled.
+     *
+     * @param call the future of the submitted call
+     */
+    void track(CompletableFuture<?> call) {
+        calls.add(call);
+        call.whenComplete((result, error) -> calls.remove(call));
+        if (cancelled) {
+            call.cancel(false);
+        }
+    }
+
+    /**
+     * Registers a statement created inside this scope.
+     *
+     * @param statement the statement about to be executed
+     * @throws SQLException if the scope has already been cancelled
+     */
+    synchronized void register(Statement statement) throws SQLException {
+        if (cancelled) {
+            throw new SQLException("Query cancelled: the screen that requested it was closed.", "70100");
+        }
+        running.add(statement);
+    }
+
+    /**
+     * Forgets statements whose connection is going back to the pool.
+     * <p>
+     * This runs under the same lock as the cancellation, so a statement is never
+     * cancelled once its connection may already be serving another caller.
+     * </p>
+     *
+     * @param statements the statements created on the released connection
+     */
+    synchronized void unregister(Collection<Statement> statements) {
+        running.removeAll(statements);
+    }
+
+    /**
+     * Sends a cancel request for every registered statement.
+     */
+    private synchronized void cancelRunning() {
+        List<Statement> snapshot = new ArrayList<>(running);
+        running.clear();
+
+        for (Statement statement : snapshot) {
+            try {
+                statement.cancel();
+            } catch (SQLException ignored) {
+                // The statement already finished or was closed.
+            }
+        }
+    }
+}
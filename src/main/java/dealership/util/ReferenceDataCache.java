@@ -0,0 +1,120 @@
+package dealership.util;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Application-wide cache for the small reference lists shown in combo boxes.
+ * <p>
+ * Forms such as Register repair or Edit repair load the same mechanic list
+ * every time they are opened. This cache keeps each list in memory so repeated
+ * opens do not hit the database. Vehicles and customers are too many for a full
+ * list; their combo boxes query by prefix instead (see {@link TypeaheadSelector}).
+ * </p>
+ * <p>
+ * Entries are:
+ * - expired after {@link #TTL_MILLIS}, so changes made by other users show up eventually
+ * - bounded to {@link #MAX_ENTRIES} lists (least recently used first out)
+ * - invalidated explicitly by the DAO write methods that change a cached list
+ * </p>
+ * <p>
+ * Cached lists are unmodifiable; callers copy them into their own UI collections.
+ * </p>
+ */
+public class ReferenceDataCache {
+
+    /**
+     * Key of the active mechanics combo list.
+     */
+    public static final String MECHANICS = "mechanics";
+
+    private static final long TTL_MILLIS = 5 * 60_000L;
+    private static final int MAX_ENTRIES = 16;
+
+    private static final Map<String, Entry> ENTRIES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Invalidation counter per key. A load that started before an invalidation
+     * must not store its (possibly stale) result.
+     */
+    private static final Map<String, Long> GENERATIONS = new HashMap<>();
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its static methods.
+     * </p>
+     */
+    private ReferenceDataCache() {
+    }
+
+    /**
+     * Returns the cached list for a key, loading it if it is missing or expired.
+     * <p>
+     * The loader runs outside the cache lock, so a slow query never blocks other keys.
+     * Two threads missing the same key at the same time may both load it.
+     * </p>
+     *
+     * @param key the cache key (see the constants of this class)
+     * @param loader the DAO call that loads the list from the database
+     * @param <T> the list item type
+     * @return an unmodifiable list
+     * @throws Exception if the loader fails
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> get(String key, DbAsync.DbCall<List<T>> loader) throws Exception {
+        long generation;
+
+        synchronized (ReferenceDataCache.class) {
+            Entry entry = ENTRIES.get(key);
+            if (entry != null && System.currentTimeMillis() - entry.loadedAt < TTL_MILLIS) {
+                return (List<T>) entry.items;
+            }
+            generation = GENERATIONS.computeIfAbsent(key, k -> 0L);
+        }
+
+        List<T> items = List.copyOf(loader.call());
+
+        synchronized (ReferenceDataCache.class) {
+            if (GENERATIONS.getOrDefault(key, 0L) == generation) {
+                ENTRIES.put(key, new Entry(items, System.currentTimeMillis()));
+            }
+        }
+
+        return items;
+    }
+
+    /**
+     * Drops the cached list for a key.
+     * <p>
+     * Called by the DAO methods that modify the data behind the list.
+     * </p>
+     *
+     * @param key the cache key to invalidate
+     */
+    public static synchronized void invalidate(String key) {
+        ENTRIES.remove(key);
+        GENERATIONS.merge(key, 1L, Long::sum);
+    }
+
+    /**
+     * A cached list plus its load time.
+     */
+    private static final class Entry {
+
+        private final List<?> items;
+        private final long loadedAt;
+
+        private Entry(List<?> items, long loadedAt) {
+            this.items = items;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package dealership.util;
+
+/**
+ * Implemented by Sales controllers whose view can be kept in the
+ * {@link SalesNavigation} view cache.
+ * <p>
+ * A cached view is not loaded again from its FXML file when the user navigates
+ * back to it. Instead, the navigator shows the existing node and calls
+ * {@link #refresh()} so the controller can reload its data.
+ * </p>
+ * <p>
+ * Controllers that do not implement this interface (for example forms that must
+ * start empty) are loaded from their FXML file every time they are shown.
+ * </p>
+ */
+public interface RefreshableView {
+
+    /**
+     * Called on the JavaFX Application Thread each time a cached view is shown again.
+     * <p>
+     * A new {@link QueryScope} has already been opened for the view at this
+     * point; implementations should read it with {@link SalesNavigation#currentScope()}
+     * before starting their queries.
+     * </p>
+     */
+    void refresh();
+}
@@ -7,6 +7,11 @@ import javafx.scene.control.Alert;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Simple navigator utility for the Sales module.
  * <p>
@@ -20,11 +25,65 @@ import javafx.stage.Stage;
  * The class is implemented as a static utility and maintains a reference
  * to a shared content holder used across the Sales section of the application.
  * </p>
+ *
+ * <p>
+ * Each loaded view gets its own {@link QueryScope}. Controllers read it with
+ * {@link #currentScope()} while they are being created and pass it to
+ * {@link DbAsync}; when the user navigates away, the scope is cancelled so the
+ * queries of the old view stop running.
+ * </p>
+ *
+ * <p>
+ * Views whose controller implements {@link RefreshableView} are cached by FXML
+ * path: going back to them reuses the loaded node and controller and only calls
+ * {@link RefreshableView#refresh()}, instead of parsing the FXML file and
+ * building the controls again. The cache follows these rules:
+ * - the main list views ({@link #PINNED_VIEWS}) are never evicted
+ * - other views (detail screens) are kept up to {@link #MAX_DETAIL_VIEWS}, least recently shown first out
+ * - detail views not shown for {@link #DETAIL_VIEW_IDLE_MILLIS} are dropped
+ * - the whole cache is cleared when a new Sales main view is registered or on logout
+ * </p>
+ *
+ * <p>
+ * Start the application with {@code -Ddealership.trace=navigation} to print
+ * the time of every view switch and whether the view was cached (see {@link Trace}).
+ * {@code dealership.bench.ViewCacheBenchmark} (test sources) compares switches with
+ * and without the cache.
+ * </p>
  */
 public class SalesNavigation {
 
+    /**
+     * Main list views, kept in the cache for the whole session.
+     */
+    private static final Set<String> PINNED_VIEWS = Set.of(
+            "/views/sales-vehicles-view.fxml",
+            "/views/sales-customers-view.fxml",
+            "/views/sales-proposals-view.fxml",
+            "/views/sales-sales-view.fxml"
+    );
+
+    /**
+     * Maximum number of cached views that are not pinned.
+     */
+    private static final int MAX_DETAIL_VIEWS = 3;
+
+    /**
+     * Time after which a detail view that was not shown is dropped from the cache.
+     */
+    private static final long DETAIL_VIEW_IDLE_MILLIS = 5 * 60_000L;
+
+    /**
+     * Cached views by FXML path, in access order (least recently shown first).
+     */
+    private static final Map<String, CachedView> VIEW_CACHE = new LinkedHashMap<>(16, 0.75f, true);
+
     private static StackPane contentHolder;
 
+    private static String currentPath;
+
+    private static QueryScope viewScope = new QueryScope();
+
     /**
      * Private constructor to prevent instantiation.
      *
@@ -45,16 +104,47 @@ public class SalesNavigation {
      * @param holder the {@code StackPane} used as content holder
      */
     public static void setContentHolder(StackPane holder) {
+        clearViewCache();
         contentHolder = holder;
     }
 
+    /**
+     * Drops every cached view.
+     *
+     * <p>Must be called when the Sales session ends, so the next user does
+     * not see views (and data) loaded for the previous one.</p>
+     */
+    public static void clearViewCache() {
+        VIEW_CACHE.clear();
+    }
+
+    /**
+     * Returns the cancellation scope of the view currently being shown (or loaded).
+     *
+     * <p>Controllers should capture it during their creation and again in
+     * {@link RefreshableView#refresh()}, because it is replaced as soon as
+     * another view is shown.</p>
+     *
+     * @return the current view scope
+     */
+    public static QueryScope currentScope() {
+        return viewScope;
+    }
+
     /**
      * Loads an FXML view into the registered center content holder.
      *
      * <p>The current content of the {@link StackPane} is replaced entirely
-     * by the newly loaded view. This method is intended for internal
+     * by the requested view. This method is intended for internal
      * navigation within the Sales area.</p>
      *
+     * <p>If the view is in the cache, its node is shown again and its controller
+     * is refreshed. Otherwise the FXML file is loaded, and the view is cached
+     * if its controller implements {@link RefreshableView}.</p>
+     *
+     * <p>Before the new view is loaded, the scope of the previous view is
+     * cancelled, aborting its pending queries.</p>
+     *
      * <p>If the content holder has not been registered or the FXML resource
      * cannot be found, an error dialog is shown to the user.</p>
      *
@@ -72,9 +162,31 @@ public class SalesNavigation {
                 return;
             }
 
-            FXMLLoader loader = new FXMLLoader(SalesNavigation.class.getResource(fxmlPath));
-            Node view = loader.load();
-            contentHolder.getChildren().setAll(view);
+            long start = System.nanoTime();
+            renewScope();
+            evictIdleViews();
+
+            currentPath = fxmlPath;
+
+            CachedView cached = VIEW_CACHE.get(fxmlPath);
+            if (cached != null) {
+                cached.lastShown = System.currentTimeMillis();
+                contentHolder.getChildren().setAll(cached.view);
+                cached.controller.refresh();
+            } else {
+                FXMLLoader loader = new FXMLLoader(SalesNavigation.class.getResource(fxmlPath));
+                Node view = loader.load();
+                contentHolder.getChildren().setAll(view);
+
+                if (loader.getController() instanceof RefreshableView controller) {
+                    VIEW_CACHE.put(fxmlPath, new CachedView(view, controller));
+                    evictExtraDetailViews();
+                }
+            }
+
+            Trace.log("navigation", "%s %s in %.1f ms",
+                    (cached != null) ? "reused" : "loaded", fxmlPath,
+                    (System.nanoTime() - start) / 1_000_000.0);
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -83,7 +195,20 @@ public class SalesNavigation {
     }
 
     /**
-     * Sends the user to the login screen by replacing the entire {@link javafx.scene.Scene}.
+     * Shows the current view again.
+     *
+     * <p>A cached view is refreshed in place (see {@link RefreshableView});
+     * other views are loaded again. Used when a session setting that affects
+     * the loaded data changes, such as the owner's "all dealerships" mode.</p>
+     */
+    public static void reloadCurrent() {
+        if (currentPath != null) {
+            loadCenter(currentPath);
+        }
+    }
+
+    /**
+     * Sends the user to the login screen by replacing the root of the window's {@link javafx.scene.Scene}.
      * <p>
      * IMPORTANT: Do not use {@link #loadCenter(String)} for the login view,
      * otherwise the login screen would appear inside the Sales content area
@@ -91,7 +216,7 @@ public class SalesNavigation {
      * </p>
      *
      * <p>This method resolves the current {@link Stage} from any node belonging
-     * to the active window and loads the login view as a fresh scene.</p>
+     * to the active window and shows the login view with {@link SceneLoader#show(Stage, Parent)}.</p>
      *
      * @param anyNode any node belonging to the current window (used to resolve the {@link Stage})
      */
@@ -109,19 +234,13 @@ public class SalesNavigation {
                 return;
             }
 
+            renewScope();
+            clearViewCache();
+
             FXMLLoader loader = new FXMLLoader(SalesNavigation.class.getResource("/views/login-view.fxml"));
             Parent root = loader.load();
 
-            var scene = new javafx.scene.Scene(root);
-
-            if (SalesNavigation.class.getResource("/styles/app.css") != null) {
-                scene.getStylesheets().add(
-                        SalesNavigation.class.getResource("/styles/app.css").toExternalForm()
-                );
-            }
-
-            stage.setScene(scene);
-            stage.show();
+            SceneLoader.show(stage, root);
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -129,6 +248,40 @@ public class SalesNavigation {
         }
     }
 
+    /**
+     * Cancels the scope of the current view and opens a new one.
+     */
+    private static void renewScope() {
+        viewScope.cancel();
+        viewScope = new QueryScope();
+    }
+
+    /**
+     * Drops the detail views that were not shown for {@link #DETAIL_VIEW_IDLE_MILLIS}.
+     */
+    private static void evictIdleViews() {
+        long now = System.currentTimeMillis();
+        VIEW_CACHE.entrySet().removeIf(entry -> !PINNED_VIEWS.contains(entry.getKey())
+                && now - entry.getValue().lastShown > DETAIL_VIEW_IDLE_MILLIS);
+    }
+
+    /**
+     * Drops the least recently shown detail views above {@link #MAX_DETAIL_VIEWS}.
+     */
+    private static void evictExtraDetailViews() {
+        long detailViews = VIEW_CACHE.keySet().stream()
+                .filter(path -> !PINNED_VIEWS.contains(path))
+                .count();
+
+        Iterator<String> paths = VIEW_CACHE.keySet().iterator();
+        while (detailViews > MAX_DETAIL_VIEWS && paths.hasNext()) {
+            if (!PINNED_VIEWS.contains(paths.next())) {
+                paths.remove();
+                detailViews--;
+            }
+        }
+    }
+
     /**
      * Displays a modal error dialog to the user.
      *
@@ -146,5 +299,20 @@ public class SalesNavigation {
         alert.setContentText(message);
         alert.showAndWait();
     }
-}
 
+    /**
+     * A loaded view kept in the cache, with its controller and the time it was last shown.
+     */
+    private static final class CachedView {
+
+        private final Node view;
+        private final RefreshableView controller;
+        private long lastShown;
+
+        private CachedView(Node view, RefreshableView controller) {
+            this.view = view;
+            this.controller = controller;
+            this.lastShown = System.currentTimeMillis();
+        }
+    }
+}
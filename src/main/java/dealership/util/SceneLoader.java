@@ -12,14 +12,40 @@ import javafx.stage.Stage;
  * apply the main application stylesheet and display it on a given stage.
  * It helps reduce duplicated navigation code across controllers.
  * </p>
+ * <p>
+ * Each stage keeps a single, long-lived {@link Scene}: navigating swaps its
+ * root instead of creating a new scene. The application stylesheet is added
+ * once, when the scene is created, so it is not added (and applied to a new
+ * scene graph) again on every navigation.
+ * </p>
+ * <p>
+ * Two system properties help measure the effect:
+ * - {@code -Ddealership.trace=scene} prints the CSS pass and layout time of every switch (see {@link Trace})
+ * - {@code -Ddealership.scene.reuse=false} restores the old behaviour (a new scene per switch);
+ * {@code dealership.bench.SceneSwitchBenchmark} (test sources) compares both
+ * </p>
  */
 public class SceneLoader {
 
+    private static final String STYLESHEET = "/styles/app.css";
+
+    private static final boolean REUSE_SCENE =
+            Boolean.parseBoolean(System.getProperty("dealership.scene.reuse", "true"));
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its static methods.
+     * </p>
+     */
+    private SceneLoader() {
+    }
+
     /**
      * Loads an FXML view into the given stage and displays it.
      * <p>
-     * The method creates a new {@link Scene} from the provided FXML path,
-     * applies the global stylesheet, sets the window title and shows
+     * The method loads the provided FXML path, shows it with
+     * {@link #show(Stage, Parent)}, sets the window title and shows
      * the stage.
      * </p>
      *
@@ -30,10 +56,63 @@ public class SceneLoader {
      */
     public static void load(Stage stage, String fxmlPath, String title) throws Exception {
         Parent root = FXMLLoader.load(SceneLoader.class.getResource(fxmlPath));
-        Scene scene = new Scene(root);
-        scene.getStylesheets().add(SceneLoader.class.getResource("/styles/app.css").toExternalForm());
         stage.setTitle(title);
-        stage.setScene(scene);
+        show(stage, root);
+    }
+
+    /**
+     * Displays a root node on the given stage.
+     * <p>
+     * If the stage already has a scene, its root is replaced; otherwise a scene
+     * is created with the application stylesheet. The previous root is detached
+     * from the scene, so it can be shown again later (for example by a Back button).
+     * </p>
+     *
+     * @param stage the stage where the root will be displayed
+     * @param root the root node of the view
+     */
+    public static void show(Stage stage, Parent root) {
+        long start = System.nanoTime();
+
+        Scene scene = stage.getScene();
+        if (scene == null || !REUSE_SCENE) {
+            scene = new Scene(root);
+            if (SceneLoader.class.getResource(STYLESHEET) != null) {
+                scene.getStylesheets().add(SceneLoader.class.getResource(STYLESHEET).toExternalForm());
+            }
+            stage.setScene(scene);
+        } else if (scene.getRoot() != root) {
+            scene.setRoot(root);
+        }
+
+        if (Trace.isEnabled("scene")) {
+            trace(root, start);
+        }
+
         stage.show();
     }
+
+    /**
+     * Runs the CSS and layout passes of a newly shown root right away and prints their duration.
+     * <p>
+     * Normally both passes run on the next pulse; forcing them here makes them
+     * measurable without changing what is finally displayed.
+     * </p>
+     *
+     * @param root the root that was just shown
+     * @param start the time the switch started, from {@link System#nanoTime()}
+     */
+    private static void trace(Parent root, long start) {
+        long cssStart = System.nanoTime();
+        root.applyCss();
+        long layoutStart = System.nanoTime();
+        root.layout();
+        long end = System.nanoTime();
+
+        Trace.log("scene", "%s switch: css %.1f ms, layout %.1f ms, total %.1f ms",
+                REUSE_SCENE ? "root" : "scene",
+                (layoutStart - cssStart) / 1_000_000.0,
+                (end - layoutStart) / 1_000_000.0,
+                (end - start) / 1_000_000.0);
+    }
 }
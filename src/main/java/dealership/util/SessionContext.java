@@ -7,12 +7,18 @@ package dealership.util;
  * the user ID, dealership ID and role name in memory. It is accessed statically from
  * different controllers to determine permissions and navigation flow.
  * </p>
+ * <p>
+ * List screens only read the data of the user's dealership (see
+ * {@link #getListDealershipId()}). Owners can switch to an "all dealerships"
+ * mode with {@link #setAllDealerships(boolean)}.
+ * </p>
  */
 public class SessionContext {
 
     private static Integer userId;
     private static Integer dealershipId;
     private static String roleName;
+    private static boolean allDealerships;
 
     private SessionContext() {
         // Utility class
@@ -72,17 +78,83 @@ public class SessionContext {
         SessionContext.roleName = roleName;
     }
 
+    /**
+     * Returns whether the current user has the OWNER role.
+     *
+     * @return true for owners, false otherwise (or if no session is active)
+     */
+    public static boolean isOwner() {
+        return roleName != null && "OWNER".equals(roleName.trim().toUpperCase());
+    }
+
+    /**
+     * Returns whether the current user may only browse the Sales screens.
+     * <p>
+     * Owners open the Sales screens to look at the lists, possibly of every
+     * dealership (see {@link #setAllDealerships(boolean)}). Creating, editing and
+     * deleting records, the CSV imports and accepting proposals stay with the
+     * salespeople, so the screens hide those actions for owners.
+     * </p>
+     *
+     * @return true for owners, false otherwise
+     */
+    public static boolean isReadOnly() {
+        return isOwner();
+    }
+
+    /**
+     * Returns whether the "all dealerships" mode is enabled.
+     *
+     * @return true if list screens show the data of every dealership
+     */
+    public static boolean isAllDealerships() {
+        return allDealerships;
+    }
+
+    /**
+     * Enables or disables the "all dealerships" mode.
+     * <p>
+     * Only owners can enable it; for other roles the call is ignored. A change
+     * drops the {@link IdentifierIndex}, which holds the vehicles of one scope.
+     * </p>
+     *
+     * @param enabled true to show the data of every dealership in list screens
+     */
+    public static void setAllDealerships(boolean enabled) {
+        boolean value = enabled && isOwner();
+        if (value != allDealerships) {
+            allDealerships = value;
+            IdentifierIndex.invalidate();
+        }
+    }
+
+    /**
+     * Returns the dealership the list screens must be restricted to.
+     * <p>
+     * This is the user's own dealership, except for an owner in
+     * "all dealerships" mode, where it is null (no restriction).
+     * </p>
+     *
+     * @return the dealership ID to filter on, or null for every dealership
+     */
+    public static Integer getListDealershipId() {
+        return (allDealerships && isOwner()) ? null : dealershipId;
+    }
+
     /**
      * Clears all session data.
      * <p>
      * After calling this method, the application will behave as if
-     * no user is logged in.
+     * no user is logged in. The {@link IdentifierIndex} is dropped too, so the
+     * next user does not see the previous user's vehicles.
      * </p>
      */
     public static void clear() {
         userId = null;
         dealershipId = null;
         roleName = null;
+        allDealerships = false;
+        IdentifierIndex.invalidate();
     }
 }
 
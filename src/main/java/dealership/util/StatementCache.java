@@ -0,0 +1,236 @@
+package dealership.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-connection cache of prepared statements used by {@link ConnectionPool}.
+ * <p>
+ * The DAOs prepare the same constant SQL strings on every call. This cache keeps
+ * the parsed {@link PreparedStatement} open on its physical connection and hands
+ * it out again the next time the same SQL is prepared, so MySQL does not have to
+ * parse it again (combined with server-side prepared statements in the JDBC URL).
+ * </p>
+ * <p>
+ * Only SQL constants registered with {@link #register(String)} (through
+ * {@link DbConnection#cacheable(String)}) are cached. The registry compares by
+ * identity, so SQL built at runtime (for example with one condition per search
+ * word, or an IN list per batch) is never cached and costs nothing to look up,
+ * even when its text happens to be equal to a registered constant.
+ * </p>
+ * <p>
+ * Closing a cached statement returned by {@link #prepare(String, Connection)} only
+ * gives it back to the cache. The cache is bounded (least recently used statements
+ * are closed first) and is closed together with its physical connection.
+ * </p>
+ */
+class StatementCache {
+
+    /**
+     * SQL constants whose statements may be cached, compared by identity.
+     */
+    private static final Set<String> CACHEABLE =
+            Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    private final Connection physical;
+    private final int capacity;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    private final LinkedHashMap<String, CachedStatement> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Creates a statement cache bound to a physical connection.
+     *
+     * @param physical the physical connection that owns the statements
+     * @param capacity maximum number of cached statements
+     * @param hits shared counter incremented on every cache hit
+     * @param misses shared counter incremented on every cache miss
+     */
+    StatementCache(Connection physical, int capacity, AtomicLong hits, AtomicLong misses) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * Registers a SQL constant as cacheable.
+     *
+     * @param sql the SQL text; the same instance must be passed to {@code prepareStatement}
+     * @return the same SQL text
+     */
+    static String register(String sql) {
+        CACHEABLE.add(sql);
+        return sql;
+    }
+
+    /**
+     * Returns a prepared statement for the given SQL, reusing a cached one if possible.
+     * <p>
+     * If the SQL is not a registered constant, or the cached statement for it is still in use
+     * in the same borrow, a regular uncached statement is returned.
+     * </p>
+     *
+     * @param sql the SQL text
+     * @param owner the connection handle that {@code getConnection()} must report
+     * @return a prepared statement ready to receive parameters
+     * @throws SQLException if the statement cannot be prepared
+     */
+    synchronized PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+        if (capacity <= 0 || !CACHEABLE.contains(sql)) {
+            return physical.prepareStatement(sql);
+        }
+
+        CachedStatement cached = entries.get(sql);
+        if (cached != null && !cached.inUse && !cached.statement.isClosed()) {
+            hits.incrementAndGet();
+            cached.statement.clearParameters();
+            cached.inUse = true;
+            return cached.newHandle(owner);
+        }
+
+        misses.incrementAndGet();
+
+        if (cached != null && cached.inUse) {
+            return physical.prepareStatement(sql);
+        }
+
+        PreparedStatement statement = physical.prepareStatement(sql);
+        CachedStatement entry = new CachedStatement(statement);
+        entry.inUse = true;
+        entries.put(sql, entry);
+        evictOverflow();
+        return entry.newHandle(owner);
+    }
+
+    /**
+     * Marks every statement as free again.
+     * <p>
+     * Called when the connection is returned to the pool, in case a caller
+     * forgot to close a statement.
+     * </p>
+     */
+    synchronized void releaseAll() {
+        for (CachedStatement entry : entries.values()) {
+            entry.inUse = false;
+        }
+    }
+
+    /**
+     * Closes every cached statement and empties the cache.
+     */
+    synchronized void closeAll() {
+        for (CachedStatement entry : entries.values()) {
+            entry.closeQuietly();
+        }
+        entries.clear();
+    }
+
+    /**
+     * Closes the least recently used free statements while the cache is over capacity.
+     */
+    private void evictOverflow() {
+        Iterator<CachedStatement> it = entries.values().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            CachedStatement eldest = it.next();
+            if (!eldest.inUse) {
+                it.remove();
+                eldest.closeQuietly();
+            }
+        }
+    }
+
+    /**
+     * A cached physical statement plus its in-use flag.
+     */
+    private final class CachedStatement {
+
+        private final PreparedStatement statement;
+        private boolean inUse;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // The statement is being discarded anyway.
+            }
+        }
+
+        /**
+         * Creates the statement handle given to a DAO.
+         * <p>
+         * Its {@code close()} gives the statement back to the cache; every other
+         * call is forwarded to the physical statement.
+         * </p>
+         *
+         * @param owner the connection handle reported by {@code getConnection()}
+         * @return a proxy implementing {@link PreparedStatement}
+         */
+        private PreparedStatement newHandle(Connection owner) {
+            InvocationHandler handler = new InvocationHandler() {
+                private volatile boolean handleClosed;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    String name = method.getName();
+
+                    if ("close".equals(name)) {
+                        if (!handleClosed) {
+                            handleClosed = true;
+                            synchronized (StatementCache.this) {
+                                inUse = false;
+                            }
+                        }
+                        return null;
+                    }
+                    if ("isClosed".equals(name)) {
+                        return handleClosed || statement.isClosed();
+                    }
+                    if ("getConnection".equals(name)) {
+                        return owner;
+                    }
+                    if ("equals".equals(name)) {
+                        return proxy == args[0];
+                    }
+                    if ("hashCode".equals(name)) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if ("toString".equals(name)) {
+                        return "CachedStatement[" + statement + "]";
+                    }
+                    if (handleClosed) {
+                        throw new SQLException("Statement is closed.");
+                    }
+
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            };
+
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    handler
+            );
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package dealership.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Optional timing output, used to check the latency of a few hot paths on a real machine.
+ * <p>
+ * Tracing is off by default. It is enabled per area with one system property,
+ * a comma-separated list of areas (or {@code all}):
+ * </p>
+ * <pre>
+ * -Ddealership.trace=navigation,search
+ * </pre>
+ * <p>
+ * Areas in use:
+ * - {@code navigation}: every Sales view switch and whether the view was cached
+ * - {@code pool}: the stack trace of every connection borrow, shown in leak warnings
+ * - {@code prewarm}: the duration of the start-up pre-warm stage
+ * - {@code scene}: the CSS and layout passes of every scene switch
+ * - {@code search}: the latency of every global search source
+ * Lines are printed to standard output, prefixed with the area name.
+ * </p>
+ */
+public class Trace {
+
+    private static final Set<String> AREAS = Arrays.stream(System.getProperty("dealership.trace", "").split(","))
+            .map(area -> area.trim().toLowerCase(Locale.ROOT))
+            .filter(area -> !area.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its static methods.
+     * </p>
+     */
+    private Trace() {
+    }
+
+    /**
+     * Returns whether an area is traced. Callers check it before building costly output.
+     *
+     * @param area the area name
+     * @return true if the area (or {@code all}) was given in {@code dealership.trace}
+     */
+    public static boolean isEnabled(String area) {
+        return !AREAS.isEmpty() && (AREAS.contains(area) || AREAS.contains("all"));
+    }
+
+    /**
+     * Prints one trace line if the area is traced.
+     *
+     * @param area the area name
+     * @param format the line format (see {@link String#format(String, Object...)}), without line end
+     * @param args the format arguments
+     */
+    public static void log(String area, String format, Object... args) {
+        if (isEnabled(area)) {
+            System.out.println("[" + area + "] " + String.format(format, args));
+        }
+    }
+}
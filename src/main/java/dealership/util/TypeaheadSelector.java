@@ -0,0 +1,325 @@
+package dealership.util;
+
+import javafx.animation.PauseTransition;
+import javafx.scene.control.ComboBox;
+import javafx.util.Duration;
+import javafx.util.StringConverter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Turns a {@link ComboBox} into a typeahead selector backed by a prefix query.
+ * <p>
+ * Filling a combo box with every vehicle or customer does not scale: with
+ * thousands of entries the list is slow to load and impossible to browse. With
+ * this selector the combo box is editable; as the user types, the matching items
+ * are queried from the database and only a small window of them (at most
+ * {@link #WINDOW_SIZE}) is kept in the control.
+ * </p>
+ * <p>
+ * To keep the number of queries low:
+ * - typing is debounced: the query starts {@link #DEBOUNCE_MILLIS} after the last keystroke
+ * - a new query cancels the previous one (through a {@link QueryScope})
+ * - recent results are cached per prefix for {@link #CACHE_TTL_MILLIS}
+ * - when a shorter prefix returned a complete result (less than a full window),
+ * longer prefixes are filtered from it in memory
+ * </p>
+ * <p>
+ * The in-memory filter must agree with the query. Each item carries the column
+ * values the query compared the typed words with (its search keys); an item is
+ * kept when every word of the prefix starts one of its keys, ignoring case and
+ * accents. That is the {@code column LIKE 'word%'} rule of the DAO prefix queries
+ * of the combo lists, evaluated on the same columns.
+ * </p>
+ * <p>
+ * The selector is used from the JavaFX Application Thread only.
+ * </p>
+ *
+ * @param <T> the item type
+ */
+public class TypeaheadSelector<T> {
+
+    /**
+     * Maximum number of items held by the combo box.
+     */
+    public static final int WINDOW_SIZE = 20;
+
+    private static final long DEBOUNCE_MILLIS = 250L;
+    private static final long CACHE_TTL_MILLIS = 60_000L;
+    private static final int CACHE_ENTRIES = 32;
+
+    /**
+     * A DAO prefix query.
+     *
+     * @param <T> the item type
+     */
+    @FunctionalInterface
+    public interface PrefixQuery<T> {
+
+        /**
+         * Returns the items matching a prefix.
+         *
+         * @param prefix the text typed by the user (can be empty)
+         * @param limit the maximum number of items
+         * @return the matching items, in display order
+         * @throws Exception if the DAO call fails
+         */
+        List<T> find(String prefix, int limit) throws Exception;
+    }
+
+    private final ComboBox<T> combo;
+    private final PrefixQuery<T> query;
+    private final Function<T, List<String>> searchKeys;
+    private final String promptText;
+    private final PauseTransition debounce = new PauseTransition(Duration.millis(DEBOUNCE_MILLIS));
+
+    private final Map<String, CachedResult<T>> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResult<T>> eldest) {
+            return size() > CACHE_ENTRIES;
+        }
+    };
+
+    private QueryScope scope = new QueryScope();
+    private String pendingPrefix = "";
+    private boolean updatingEditor;
+
+    /**
+     * Creates a selector; see {@link #attach(ComboBox, String, PrefixQuery, Function)}.
+     *
+     * @param combo the combo box
+     * @param promptText the prompt shown when nothing is typed
+     * @param query the DAO prefix query
+     * @param searchKeys the column values of an item compared by the query
+     */
+    private TypeaheadSelector(ComboBox<T> combo, String promptText, PrefixQuery<T> query,
+                              Function<T, List<String>> searchKeys) {
+        this.combo = combo;
+        this.query = query;
+        this.searchKeys = searchKeys;
+        this.promptText = promptText;
+    }
+
+    /**
+     * Makes a combo box editable and wires it to a prefix query.
+     * <p>
+     * The first window (empty prefix) is loaded right away, so the drop-down is
+     * not empty when the user opens it without typing.
+     * </p>
+     *
+     * @param combo the combo box from the FXML view
+     * @param promptText the prompt shown when nothing is typed
+     * @param query the DAO prefix query
+     * @param searchKeys the column values of an item compared by the query
+     * @param <T> the item type
+     * @return the selector, to read the selection with {@link #getSelected()}
+     */
+    public static <T> TypeaheadSelector<T> attach(ComboBox<T> combo, String promptText, PrefixQuery<T> query,
+                                                  Function<T, List<String>> searchKeys) {
+        TypeaheadSelector<T> selector = new TypeaheadSelector<>(combo, promptText, query, searchKeys);
+        selector.install();
+        return selector;
+    }
+
+    /**
+     * Returns the selected item, if the editor still shows it.
+     * <p>
+     * If the user picked an item and then edited the text, nothing is selected.
+     * </p>
+     *
+     * @return the selected item, or null
+     */
+    public T getSelected() {
+        T value = combo.getValue();
+        if (value == null) return null;
+
+        String text = combo.getEditor().getText();
+        return value.toString().equals(text) ? value : null;
+    }
+
+    /**
+     * Cancels a running query. Called when the screen is left.
+     */
+    public void cancel() {
+        debounce.stop();
+        scope.cancel();
+    }
+
+    /**
+     * Configures the combo box and its listeners.
+     */
+    private void install() {
+        combo.setEditable(true);
+        combo.setPromptText("Loading...");
+        combo.setVisibleRowCount(10);
+
+        combo.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(T item) {
+                return (item == null) ? "" : item.toString();
+            }
+
+            @Override
+            public T fromString(String text) {
+                for (T item : combo.getItems()) {
+                    if (item.toString().equals(text)) return item;
+                }
+                return null;
+            }
+        });
+
+        combo.getEditor().textProperty().addListener((obs, oldValue, newValue) -> {
+            if (updatingEditor) return;
+
+            T value = combo.getValue();
+            if (value != null && value.toString().equals(newValue)) {
+                return; // Text set by choosing an item, not typed.
+            }
+
+            pendingPrefix = (newValue == null) ? "" : newValue.trim();
+            debounce.playFromStart();
+        });
+
+        debounce.setOnFinished(e -> search(pendingPrefix));
+
+        search("");
+    }
+
+    /**
+     * Shows the items matching a prefix, from the cache or from the database.
+     *
+     * @param prefix the typed prefix
+     */
+    private void search(String prefix) {
+        String key = CustomerSearchIndex.normalize(prefix);
+
+        List<T> cached = fromCache(key);
+        if (cached != null) {
+            scope.cancel();
+            showItems(prefix, cached);
+            return;
+        }
+
+        scope.cancel();
+        scope = new QueryScope();
+
+        DbAsync.load(
+                scope,
+                () -> query.find(prefix, WINDOW_SIZE),
+                items -> {
+                    cache.put(key, new CachedResult<>(List.copyOf(items), System.currentTimeMillis()));
+                    showItems(prefix, items);
+                },
+                ex -> {
+                    ex.printStackTrace();
+                    combo.setPromptText("Could not load the list");
+                }
+        );
+    }
+
+    /**
+     * Looks for a usable cached result: the same prefix, or a shorter prefix
+     * whose result was complete.
+     *
+     * @param key the normalized prefix
+     * @return the matching items, or null if the database must be queried
+     */
+    private List<T> fromCache(String key) {
+        long now = System.currentTimeMillis();
+
+        for (int length = key.length(); length >= 0; length--) {
+            CachedResult<T> result = cache.get(key.substring(0, length));
+            if (result == null || now - result.loadedAt > CACHE_TTL_MILLIS) continue;
+
+            if (length == key.length()) {
+                return result.items;
+            }
+            if (result.items.size() < WINDOW_SIZE) {
+                return filter(result.items, key);
+            }
+            return null;
+        }
+        return null;
+    }
+
+    /**
+     * Keeps the items that have, for every word of the prefix, a search key starting with it.
+     *
+     * @param items a complete result for a shorter prefix
+     * @param key the normalized prefix
+     * @return the matching items
+     */
+    private List<T> filter(List<T> items, String key) {
+        String[] words = key.split(" ");
+        List<T> matches = new ArrayList<>();
+
+        for (T item : items) {
+            List<String> keys = new ArrayList<>();
+            for (String value : searchKeys.apply(item)) {
+                keys.add(CustomerSearchIndex.normalize(value));
+            }
+
+            boolean all = true;
+            for (String word : words) {
+                if (keys.stream().noneMatch(k -> k.startsWith(word))) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all) matches.add(item);
+        }
+        return matches;
+    }
+
+    /**
+     * Replaces the combo box items, keeping the text typed by the user.
+     *
+     * @param prefix the prefix the items were found for
+     * @param items the matching items
+     */
+    private void showItems(String prefix, List<T> items) {
+        String text = combo.getEditor().getText();
+        int caret = combo.getEditor().getCaretPosition();
+
+        updatingEditor = true;
+        try {
+            T value = combo.getValue();
+            combo.getItems().setAll(items);
+            if (value != null && !items.contains(value)) {
+                combo.getItems().add(0, value);
+            }
+            combo.getEditor().setText(text);
+            combo.getEditor().positionCaret(caret);
+        } finally {
+            updatingEditor = false;
+        }
+
+        combo.setPromptText(promptText);
+
+        if (!prefix.isEmpty() && combo.getEditor().isFocused()) {
+            // Hiding first makes the popup resize to the new number of rows.
+            combo.hide();
+            if (!items.isEmpty()) {
+                combo.show();
+            }
+        }
+    }
+
+    /**
+     * A cached query result plus its load time.
+     */
+    private static final class CachedResult<T> {
+
+        private final List<T> items;
+        private final long loadedAt;
+
+        private CachedResult(List<T> items, long loadedAt) {
+            this.items = items;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package dealership.util;
+
+import javafx.fxml.FXMLLoader;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Background pre-warming of the post-login views, and prefetching of their first data.
+ * <p>
+ * The first time a role view (sales main view, boss menu, mechanic tasks) is
+ * opened, the JVM loads and links the controller, control and FXML parser
+ * classes, decodes the images and opens the first database connections. While
+ * the login screen is shown, {@link #start()} does that work on a background
+ * thread, so the view opened after authentication loads warm.
+ * </p>
+ * <p>
+ * The views cannot be built for real before login: their controllers query the
+ * database in {@code initialize()} using the {@link SessionContext}, which is
+ * empty at that point. Each view is therefore parsed from a copy of its FXML
+ * without {@code fx:controller} and without event handler attributes, and the
+ * resulting node graph is thrown away. Included files ({@code fx:include}, such
+ * as the Sales header) are cut out of the copy and warmed the same way on their
+ * own, so no controller of an included view is created either: the whole parse
+ * stays free of UI logic and can run off the JavaFX thread. The controller
+ * classes are loaded and initialized separately. The application stylesheet
+ * needs no warm-up: it is already used by the login scene, and JavaFX shares
+ * parsed stylesheets by URL.
+ * </p>
+ * <p>
+ * After authentication, {@link #prefetch(String, DbAsync.DbCall)} starts the
+ * first query of the role screen in parallel with the scene switch; the screen
+ * picks up the running query with {@link #takePrefetched(String)} instead of
+ * sending it again.
+ * </p>
+ * <p>
+ * Start the application with {@code -Ddealership.trace=prewarm} to print
+ * how long the pre-warm stage took (see {@link Trace}).
+ * </p>
+ */
+public class ViewPrewarm {
+
+    /**
+     * Prefetch key of the first page of the Sales vehicles list.
+     */
+    public static final String SALES_VEHICLES_FIRST_PAGE = "sales-vehicles-first-page";
+
+    /**
+     * Prefetch key of the task list of the logged-in mechanic.
+     */
+    public static final String MECHANIC_TASKS = "mechanic-tasks";
+
+    /**
+     * Views opened right after login, plus the first screen they load.
+     */
+    private static final List<String> POST_LOGIN_VIEWS = List.of(
+            "/views/sales-main-view.fxml",
+            "/views/sales-vehicles-view.fxml",
+            "/views/boss-menu-view.fxml",
+            "/views/mechanic-tasks-view.fxml"
+    );
+
+    /**
+     * Time after which an unused prefetched result is considered stale.
+     */
+    private static final long PREFETCH_MAX_AGE_MILLIS = 10_000L;
+
+    private static final Pattern CONTROLLER_ATTRIBUTE = Pattern.compile("\\sfx:controller=\"([^\"]*)\"");
+    private static final Pattern HANDLER_ATTRIBUTE = Pattern.compile("\\son[A-Z][A-Za-z]*=\"#[^\"]*\"");
+    private static final Pattern INCLUDE_ELEMENT = Pattern.compile("<fx:include\\s[^>]*source=\"([^\"]*)\"[^>]*/>");
+
+    private static final Map<String, Prefetch> PREFETCHED = new HashMap<>();
+
+    private static boolean started;
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its static methods.
+     * </p>
+     */
+    private ViewPrewarm() {
+    }
+
+    /**
+     * Starts the pre-warm stage on a background daemon thread.
+     * <p>
+     * It should be called once the login screen is shown. Calling it again has
+     * no effect. Failures are only reported on the console: the views are loaded
+     * normally after login in any case.
+     * </p>
+     */
+    public static synchronized void start() {
+        if (started) return;
+        started = true;
+
+        Thread thread = new Thread(ViewPrewarm::warmUp, "view-prewarm");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Starts a query for a role screen in the background, before the screen exists.
+     * <p>
+     * A previous prefetch with the same key is replaced.
+     * </p>
+     *
+     * @param key the prefetch key (see the constants of this class)
+     * @param call the DAO call the screen would run first
+     * @param <T> the result type
+     */
+    public static <T> void prefetch(String key, DbAsync.DbCall<T> call) {
+        CompletableFuture<T> future = DbAsync.supply(call);
+        synchronized (PREFETCHED) {
+            PREFETCHED.put(key, new Prefetch(future, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Returns and forgets the prefetched query for a key.
+     * <p>
+     * A prefetched result can be used only once; later loads of the screen
+     * query the database again. Results older than {@link #PREFETCH_MAX_AGE_MILLIS}
+     * are ignored.
+     * </p>
+     *
+     * @param key the prefetch key
+     * @param <T> the result type
+     * @return the running or completed query, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompletableFuture<T> takePrefetched(String key) {
+        Prefetch prefetch;
+        synchronized (PREFETCHED) {
+            prefetch = PREFETCHED.remove(key);
+        }
+
+        if (prefetch == null || System.currentTimeMillis() - prefetch.startedAt > PREFETCH_MAX_AGE_MILLIS) {
+            return null;
+        }
+        return (CompletableFuture<T>) prefetch.future;
+    }
+
+    /**
+     * Runs the pre-warm stage: opens the connection pool and parses every post-login view.
+     */
+    private static void warmUp() {
+        long start = System.nanoTime();
+
+        try {
+            // Borrowing once creates the pool and its idle connections.
+            DbConnection.getConnection().close();
+        } catch (Exception e) {
+            System.err.println("View pre-warm: could not open the connection pool: " + e.getMessage());
+        }
+
+        Set<String> warmed = new HashSet<>();
+        for (String fxmlPath : POST_LOGIN_VIEWS) {
+            warmView(fxmlPath, warmed);
+        }
+
+        Trace.log("prewarm", "%d views parsed in %d ms", warmed.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Parses one view without its controller and loads the controller class,
+     * then does the same for the files it includes.
+     * <p>
+     * Failures are reported on the console and do not stop the other views.
+     * </p>
+     *
+     * @param fxmlPath the path of the FXML file
+     * @param warmed the paths already handled, so a file shared by several views is parsed once
+     */
+    private static void warmView(String fxmlPath, Set<String> warmed) {
+        if (!warmed.add(fxmlPath)) return;
+
+        List<String> includes;
+        try {
+            includes = parseDetached(fxmlPath);
+        } catch (Exception e) {
+            System.err.println("View pre-warm: could not parse " + fxmlPath + ": " + e.getMessage());
+            return;
+        }
+
+        for (String include : includes) {
+            warmView(include, warmed);
+        }
+    }
+
+    /**
+     * Parses a copy of one view without controller, event handlers and included
+     * files, and loads its controller class.
+     *
+     * @param fxmlPath the path of the FXML file
+     * @return the paths of the files it includes (not parsed yet)
+     * @throws Exception if the file cannot be read or parsed
+     */
+    private static List<String> parseDetached(String fxmlPath) throws Exception {
+        URL url = ViewPrewarm.class.getResource(fxmlPath);
+        if (url == null) return List.of();
+
+        String fxml;
+        try (InputStream in = url.openStream()) {
+            fxml = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        Matcher controller = CONTROLLER_ATTRIBUTE.matcher(fxml);
+        if (controller.find()) {
+            Class.forName(controller.group(1), true, ViewPrewarm.class.getClassLoader());
+        }
+
+        String detached = HANDLER_ATTRIBUTE.matcher(controller.replaceAll("")).replaceAll("");
+
+        List<String> includes = new ArrayList<>();
+        Matcher include = INCLUDE_ELEMENT.matcher(detached);
+        while (include.find()) {
+            String source = include.group(1);
+            includes.add(source.startsWith("/") ? source : fxmlPath.substring(0, fxmlPath.lastIndexOf('/') + 1) + source);
+        }
+        detached = include.replaceAll("");
+
+        FXMLLoader loader = new FXMLLoader(url);
+        loader.load(new ByteArrayInputStream(detached.getBytes(StandardCharsets.UTF_8)));
+        return includes;
+    }
+
+    /**
+     * A prefetched query plus the time it was started.
+     */
+    private static final class Prefetch {
+
+        private final CompletableFuture<?> future;
+        private final long startedAt;
+
+        private Prefetch(CompletableFuture<?> future, long startedAt) {
+            this.future = future;
+            this.startedAt = startedAt;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package dealership.bench;
+
+import dealership.model.SalesCustomerRow;
+import dealership.util.CustomerSearchIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Search benchmark for the {@link CustomerSearchIndex} of the Sales customers list.
+ * <p>
+ * It builds the index over synthetic customers with Spanish names (accents
+ * included), DNIs, emails and phones, and then, for several kinds of query, times:
+ * - search: {@code matcher(query)}, the index lookup done when the search text changes
+ * - filter: applying the returned predicate to every row, as the table's
+ * {@code FilteredList} does
+ * Before every timed query the index is given an unrelated query, so it never
+ * reuses the previous matches: these are the times of a query typed from scratch.
+ * The "typing" line is the other case: one query per keystroke while a surname
+ * is typed, each one narrowing the previous matches.
+ * </p>
+ * <p>
+ * It needs no database. Run it from the project root after {@code mvn test-compile}:
+ * </p>
+ * <pre>
+ * mvn -q dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) dealership.bench.CustomerSearchBenchmark [customers]
+ * </pre>
+ * <p>
+ * The default is 100000 customers. The data uses a fixed seed, so runs are comparable.
+ * </p>
+ */
+public class CustomerSearchBenchmark {
+
+    private static final int WARMUP = 300;
+    private static final int SAMPLES = 1_000;
+
+    private static final String[] FIRST_NAMES = {
+            "María", "José", "Antonio", "Lucía", "Martín", "Sofía", "Álvaro", "Inés",
+            "Jesús", "Begoña", "Raúl", "Ángela", "Iñaki", "Nuria", "Óscar", "Carmen"
+    };
+
+    private static final String[] SURNAMES = {
+            "Pérez", "Gómez", "Martín", "López", "García", "Fernández", "Sánchez", "Díaz",
+            "Muñoz", "Álvarez", "Jiménez", "Ruiz", "Hernández", "Moreno", "Núñez", "Ortíz",
+            "Castaño", "Ibáñez", "Peña", "Domínguez", "Vázquez", "Suárez", "Gutiérrez", "Rubio"
+    };
+
+    private static final String DNI_LETTERS = "TRWAGMYFPDXBNJZSQVHLCKE";
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its main method.
+     * </p>
+     */
+    private CustomerSearchBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of customers (default 100000)
+     */
+    public static void main(String[] args) {
+        int count = (args.length > 0) ? Integer.parseInt(args[0]) : 100_000;
+        Random random = new Random(42);
+
+        List<SalesCustomerRow> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String first = pick(random, FIRST_NAMES);
+            String surname1 = pick(random, SURNAMES);
+            String surname2 = pick(random, SURNAMES);
+
+            String dni = String.format("%08d", random.nextInt(100_000_000))
+                    + DNI_LETTERS.charAt(random.nextInt(DNI_LETTERS.length()));
+            String email = CustomerSearchIndex.normalize(first + "." + surname1) + i + "@example.com";
+            String phone = "6" + String.format("%08d", random.nextInt(100_000_000));
+
+            rows.add(new SalesCustomerRow(i + 1, first + " " + surname1 + " " + surname2, email, phone, dni));
+        }
+
+        long start = System.nanoTime();
+        CustomerSearchIndex index = CustomerSearchIndex.build(rows);
+        System.out.printf("Built %d customers in %d ms%n%n", rows.size(), (System.nanoTime() - start) / 1_000_000);
+
+        System.out.printf("%-22s %8s %18s %18s%n", "Query", "Matches", "Search med / p99", "Filter med / p99");
+
+        measure(index, random, "DNI", row -> row.getDni());
+        measure(index, random, "phone, 6 digits", row -> row.getPhone().substring(0, 6));
+        measure(index, random, "full name, no accents", row -> CustomerSearchIndex.normalize(row.getFullName()));
+        measure(index, random, "surname", row -> row.getFullName().split(" ")[1]);
+        measure(index, random, "2 letters", row -> row.getFullName().substring(0, 2));
+        measure(index, random, "1 letter", row -> row.getFullName().substring(0, 1));
+
+        typing(index, random);
+    }
+
+    /**
+     * Times queries typed from scratch and prints their statistics.
+     *
+     * @param index the index
+     * @param random the random source used to pick the customers
+     * @param label the query kind
+     * @param query turns a picked customer into the typed query
+     */
+    private static void measure(CustomerSearchIndex index, Random random, String label,
+                                Function<SalesCustomerRow, String> query) {
+        List<SalesCustomerRow> rows = index.getRows();
+
+        long matches = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            index.matcher("#");
+            matches += count(rows, index.matcher(query.apply(rows.get(random.nextInt(rows.size())))));
+        }
+
+        long[] searchTimes = new long[SAMPLES];
+        long[] filterTimes = new long[SAMPLES];
+        matches = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            String text = query.apply(rows.get(random.nextInt(rows.size())));
+            index.matcher("#");
+
+            long start = System.nanoTime();
+            Predicate<SalesCustomerRow> matcher = index.matcher(text);
+            long searched = System.nanoTime();
+            matches += count(rows, matcher);
+            long filtered = System.nanoTime();
+
+            searchTimes[i] = searched - start;
+            filterTimes[i] = filtered - searched;
+        }
+
+        print(label, (double) matches / SAMPLES, searchTimes, filterTimes);
+    }
+
+    /**
+     * Times the queries of a surname typed one character at a time.
+     *
+     * @param index the index
+     * @param random the random source used to pick the surnames
+     */
+    private static void typing(CustomerSearchIndex index, Random random) {
+        List<SalesCustomerRow> rows = index.getRows();
+        List<Long> searchTimes = new ArrayList<>();
+        List<Long> filterTimes = new ArrayList<>();
+        long matches = 0;
+
+        for (int i = 0; i < WARMUP + SAMPLES / 10; i++) {
+            String surname = CustomerSearchIndex.normalize(pick(random, SURNAMES));
+            index.matcher("#");
+
+            for (int length = 1; length <= surname.length(); length++) {
+                long start = System.nanoTime();
+                Predicate<SalesCustomerRow> matcher = index.matcher(surname.substring(0, length));
+                long searched = System.nanoTime();
+                int found = count(rows, matcher);
+                long filtered = System.nanoTime();
+
+                if (i >= WARMUP) {
+                    searchTimes.add(searched - start);
+                    filterTimes.add(filtered - searched);
+                    matches += found;
+                }
+            }
+        }
+
+        print("typing, per key", (double) matches / searchTimes.size(),
+                searchTimes.stream().mapToLong(Long::longValue).toArray(),
+                filterTimes.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    private static int count(List<SalesCustomerRow> rows, Predicate<SalesCustomerRow> matcher) {
+        int count = 0;
+        for (SalesCustomerRow row : rows) {
+            if (matcher.test(row)) count++;
+        }
+        return count;
+    }
+
+    private static void print(String label, double matches, long[] searchTimes, long[] filterTimes) {
+        Arrays.sort(searchTimes);
+        Arrays.sort(filterTimes);
+
+        System.out.printf("%-22s %8.0f %8.3f / %6.3f ms %8.3f / %6.3f ms%n", label, matches,
+                searchTimes[searchTimes.length / 2] / 1e6, searchTimes[searchTimes.length * 99 / 100] / 1e6,
+                filterTimes[filterTimes.length / 2] / 1e6, filterTimes[filterTimes.length * 99 / 100] / 1e6);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
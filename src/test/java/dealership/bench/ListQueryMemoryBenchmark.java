@@ -0,0 +1,154 @@
+package dealership.bench;
+
+import dealership.dao.CustomerDao;
+import dealership.dao.ProposalDao;
+import dealership.dao.SaleDao;
+import dealership.model.SalesCustomerRow;
+import dealership.model.SalesProposalRow;
+import dealership.model.SalesSaleRow;
+import dealership.util.DbConnection;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Memory benchmark for the Sales list queries.
+ * <p>
+ * For each list (sales, proposals, customers) it exports every row as CSV twice:
+ * - materialized: the current path, {@code findAll...ForSales()} into a list, then written
+ * - streaming: {@code forEach...ForSales(consumer)}, writing each row as it is read
+ * and prints the peak heap used by each run. The CSV goes to a discarding writer,
+ * so only the query and mapping cost is measured.
+ * </p>
+ * <p>
+ * It needs the database configured in {@link DbConnection}. Run it from the project
+ * root after {@code mvn test-compile}, with a small heap so the difference is visible:
+ * </p>
+ * <pre>
+ * mvn -q dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -Xmx256m -cp target/test-classes:target/classes:$(cat cp.txt) dealership.bench.ListQueryMemoryBenchmark [rounds]
+ * </pre>
+ * <p>
+ * The peak is the sum of the peak usage of every heap memory pool since the last
+ * reset, taken after a full GC. It is an approximation, but the same for both paths.
+ * </p>
+ */
+public class ListQueryMemoryBenchmark {
+
+    /**
+     * A benchmarked export.
+     */
+    @FunctionalInterface
+    private interface Export {
+
+        /**
+         * Writes every row to the given writer.
+         *
+         * @param out the CSV writer
+         * @return the number of rows written
+         * @throws Exception if the export fails
+         */
+        int run(PrintWriter out) throws Exception;
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its main method.
+     * </p>
+     */
+    private ListQueryMemoryBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of rounds per export (default 3)
+     * @throws Exception if a database access error occurs
+     */
+    public static void main(String[] args) throws Exception {
+        int rounds = (args.length > 0) ? Integer.parseInt(args[0]) : 3;
+
+        SaleDao saleDao = new SaleDao();
+        ProposalDao proposalDao = new ProposalDao();
+        CustomerDao customerDao = new CustomerDao();
+
+        System.out.printf("%-10s %-13s %8s %12s %10s%n", "List", "Mode", "Rows", "Peak heap", "Time");
+
+        try {
+            for (int i = 0; i < rounds; i++) {
+                measure("sales", "materialized", out -> {
+                    List<SalesSaleRow> rows = saleDao.findAllSalesForSales();
+                    rows.forEach(row -> writeSale(out, row));
+                    return rows.size();
+                });
+                measure("sales", "streaming", out -> saleDao.forEachSaleForSales(row -> writeSale(out, row)));
+
+                measure("proposals", "materialized", out -> {
+                    List<SalesProposalRow> rows = proposalDao.findAllProposalsForSales();
+                    rows.forEach(row -> writeProposal(out, row));
+                    return rows.size();
+                });
+                measure("proposals", "streaming", out -> proposalDao.forEachProposalForSales(row -> writeProposal(out, row)));
+
+                measure("customers", "materialized", out -> {
+                    List<SalesCustomerRow> rows = customerDao.findAllCustomersForSales();
+                    rows.forEach(row -> writeCustomer(out, row));
+                    return rows.size();
+                });
+                measure("customers", "streaming", out -> customerDao.forEachCustomerForSales(row -> writeCustomer(out, row)));
+            }
+        } finally {
+            DbConnection.shutdown();
+        }
+    }
+
+    /**
+     * Runs one export and prints its row count, peak heap and duration.
+     *
+     * @param list the list name
+     * @param mode the export mode
+     * @param export the export to run
+     * @throws Exception if the export fails
+     */
+    private static void measure(String list, String mode, Export export) throws Exception {
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long baseline = heapPools.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+
+        long start = System.nanoTime();
+        int rows;
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8))) {
+            rows = export.run(out);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        long peak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+        System.out.printf("%-10s %-13s %8d %9d KB %7d ms%n",
+                list, mode, rows, Math.max(0, peak - baseline) / 1024, elapsedMillis);
+    }
+
+    private static void writeSale(PrintWriter out, SalesSaleRow row) {
+        out.println(row.getSaleCode() + ";" + row.getVehicle() + ";" + row.getCustomer() + ";" + row.getPrice());
+    }
+
+    private static void writeProposal(PrintWriter out, SalesProposalRow row) {
+        out.println(row.getProposalCode() + ";" + row.getVehicle() + ";" + row.getCustomer() + ";"
+                + row.getPrice() + ";" + row.getStatus());
+    }
+
+    private static void writeCustomer(PrintWriter out, SalesCustomerRow row) {
+        out.println(row.getFullName() + ";" + row.getEmail() + ";" + row.getPhone());
+    }
+}
@@ -0,0 +1,139 @@
+package dealership.bench;
+
+import dealership.util.IdentifierIndex;
+import dealership.util.PrefixTrie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Lookup benchmark for the {@link PrefixTrie} behind the quick-jump box.
+ * <p>
+ * It fills a trie with synthetic identifiers, in the same key format as
+ * {@link IdentifierIndex}:
+ * - plates: 4 digits and 3 consonants ({@code 1234BCD})
+ * - VINs: 17 letters and digits
+ * - DNIs: 8 digits and a letter
+ * and then times single {@code findByPrefix} calls with the limit used by the
+ * Sales header, for several kinds of typed text. It prints the median, p99 and
+ * maximum time of each kind, in microseconds.
+ * </p>
+ * <p>
+ * It needs no database. Run it from the project root after {@code mvn test-compile}:
+ * </p>
+ * <pre>
+ * java -cp target/test-classes:target/classes dealership.bench.PrefixTrieBenchmark [identifiers]
+ * </pre>
+ * <p>
+ * The default is 200000 identifiers: half plates, a quarter VINs, a quarter DNIs.
+ * The data uses a fixed seed, so runs are comparable.
+ * </p>
+ */
+public class PrefixTrieBenchmark {
+
+    private static final int LIMIT = 8;
+    private static final int WARMUP = 20_000;
+    private static final int SAMPLES = 5_000;
+
+    private static final String CONSONANTS = "BCDFGHJKLMNPRSTVWXYZ";
+    private static final String VIN_CHARS = "ABCDEFGHJKLMNPRSTUVWXYZ0123456789";
+    private static final String DNI_LETTERS = "TRWAGMYFPDXBNJZSQVHLCKE";
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its main method.
+     * </p>
+     */
+    private PrefixTrieBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of identifiers (default 200000)
+     */
+    public static void main(String[] args) {
+        int count = (args.length > 0) ? Integer.parseInt(args[0]) : 200_000;
+        Random random = new Random(42);
+
+        List<String> plates = new ArrayList<>();
+        List<String> vins = new ArrayList<>();
+        List<String> dnis = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) {
+                plates.add(digits(random, 4) + chars(random, CONSONANTS, 3));
+            } else if (i % 4 == 1) {
+                vins.add(chars(random, VIN_CHARS, 17));
+            } else {
+                dnis.add(digits(random, 8) + chars(random, DNI_LETTERS, 1));
+            }
+        }
+
+        long start = System.nanoTime();
+        PrefixTrie<Integer> trie = new PrefixTrie<>();
+        int id = 0;
+        for (List<String> keys : List.of(plates, vins, dnis)) {
+            for (String key : keys) {
+                trie.put(key, id++);
+            }
+        }
+        System.out.printf("Built %d identifiers in %d ms%n%n", trie.size(), (System.nanoTime() - start) / 1_000_000);
+
+        System.out.printf("%-22s %8s %10s %10s %10s%n", "Query", "Results", "Median", "p99", "Max");
+
+        measure(trie, random, "full plate", plates, key -> key);
+        measure(trie, random, "plate, 4 characters", plates, key -> key.substring(0, 4));
+        measure(trie, random, "plate, 2 characters", plates, key -> key.substring(0, 2));
+        measure(trie, random, "full VIN", vins, key -> key);
+        measure(trie, random, "VIN, 5 characters", vins, key -> key.substring(0, 5));
+        measure(trie, random, "DNI, 5 characters", dnis, key -> key.substring(0, 5));
+        measure(trie, random, "no match", dnis, key -> key.substring(0, 8) + "0");
+    }
+
+    /**
+     * Times single lookups of one kind and prints their statistics.
+     *
+     * @param trie the trie
+     * @param random the random source used to pick the identifiers
+     * @param label the query kind
+     * @param keys the identifiers to pick from
+     * @param typed turns a picked identifier into the typed text
+     */
+    private static void measure(PrefixTrie<Integer> trie, Random random, String label,
+                                List<String> keys, Function<String, String> typed) {
+        long results = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            results += trie.findByPrefix(typed.apply(keys.get(random.nextInt(keys.size()))), LIMIT).size();
+        }
+
+        long[] times = new long[SAMPLES];
+        results = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            String prefix = typed.apply(keys.get(random.nextInt(keys.size())));
+
+            long start = System.nanoTime();
+            results += trie.findByPrefix(prefix, LIMIT).size();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+
+        System.out.printf("%-22s %8.1f %7.2f us %7.2f us %7.2f us%n", label, (double) results / SAMPLES,
+                times[SAMPLES / 2] / 1000.0, times[SAMPLES * 99 / 100] / 1000.0, times[SAMPLES - 1] / 1000.0);
+    }
+
+    private static String digits(Random random, int length) {
+        return chars(random, "0123456789", length);
+    }
+
+    private static String chars(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
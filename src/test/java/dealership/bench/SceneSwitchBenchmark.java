@@ -0,0 +1,209 @@
+package dealership.bench;
+
+import dealership.util.SceneLoader;
+import dealership.util.SessionContext;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Scene-switch benchmark for {@link SceneLoader#show(Stage, Parent)}.
+ * <p>
+ * It alternates full-window views (boss menu, boss repairs, mechanic tasks, login)
+ * on one stage and times each switch: {@code SceneLoader.show} followed by the
+ * CSS and layout passes of the new root. The FXML is loaded before the timer
+ * starts, so only the switch itself is measured. Each configuration runs in its
+ * own JVM, because {@code dealership.scene.reuse} is read once:
+ * - {@code reuse}: the root of the existing scene is replaced (the default)
+ * - {@code new scene}: a new scene is created per switch ({@code -Ddealership.scene.reuse=false})
+ * It prints the median, p90 and mean switch time of every run, in milliseconds.
+ * </p>
+ * <p>
+ * The views load their data in the background; without a database they show
+ * error dialogs, which the harness closes after each switch. Run it from the
+ * project root after {@code mvn test-compile}, on a machine with a display:
+ * </p>
+ * <pre>
+ * mvn -q dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) dealership.bench.SceneSwitchBenchmark [runs]
+ * </pre>
+ * <p>
+ * On a headless machine it can run with Monocle on the classpath and
+ * {@code -Dbench.jvmArgs="-Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw"};
+ * the software pipeline does not create native surfaces, so there it only shows
+ * the scene-graph part of the cost. The default is 3 runs per configuration.
+ * </p>
+ */
+public class SceneSwitchBenchmark {
+
+    private static final String RESULT_PREFIX = "RESULT ";
+
+    private static final int ROUNDS = 40;
+    private static final int WARMUP_ROUNDS = 10;
+
+    private static final String[] VIEWS = {
+            "/views/boss-menu-view.fxml",
+            "/views/boss-repairs-view.fxml",
+            "/views/mechanic-tasks-view.fxml",
+            "/views/login-view.fxml"
+    };
+
+    private static Stage stage;
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its main method.
+     * </p>
+     */
+    private SceneSwitchBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of runs per configuration (default 3), or
+     *             {@code --child} for a single measuring run in this JVM
+     * @throws Exception if a child JVM cannot be started or the FX thread is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "--child".equals(args[0])) {
+            measure();
+            return;
+        }
+
+        int runs = (args.length > 0) ? Integer.parseInt(args[0]) : 3;
+        System.out.printf("%-10s %10s %10s %10s%n", "Switch", "Median", "p90", "Mean");
+
+        for (int run = 0; run < runs; run++) {
+            runChild(false);
+            runChild(true);
+        }
+    }
+
+    /**
+     * Starts one measuring run in a separate JVM and prints its result.
+     *
+     * @param reuse the value of {@code dealership.scene.reuse} for the child
+     * @throws Exception if the child cannot be started
+     */
+    private static void runChild(boolean reuse) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+
+        String jvmArgs = System.getProperty("bench.jvmArgs", "").trim();
+        if (!jvmArgs.isEmpty()) {
+            command.addAll(List.of(jvmArgs.split("\\s+")));
+        }
+        command.add("-Ddealership.scene.reuse=" + reuse);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(SceneSwitchBenchmark.class.getName());
+        command.add("--child");
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (BufferedReader out = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    System.out.printf("%-10s %s%n", reuse ? "reuse" : "new scene", line.substring(RESULT_PREFIX.length()));
+                }
+            }
+        }
+        process.waitFor();
+    }
+
+    /**
+     * Switches between the views and prints the statistics of the timed switches.
+     *
+     * @throws Exception if the FX thread is interrupted
+     */
+    private static void measure() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+
+        SessionContext.setUserId(1);
+        SessionContext.setDealershipId(1);
+        SessionContext.setRoleName("CHIEF_MECHANIC");
+
+        runOnFx(() -> {
+            stage = new Stage();
+            stage.setWidth(1200);
+            stage.setHeight(800);
+        });
+
+        List<Double> times = new ArrayList<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (String view : VIEWS) {
+                long[] took = new long[1];
+
+                runOnFx(() -> {
+                    Parent root;
+                    try {
+                        root = FXMLLoader.load(SceneSwitchBenchmark.class.getResource(view));
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Could not load " + view, e);
+                    }
+
+                    long start = System.nanoTime();
+                    SceneLoader.show(stage, root);
+                    root.applyCss();
+                    root.layout();
+                    took[0] = System.nanoTime() - start;
+                });
+
+                // Let the background loads finish, then close their error dialogs
+                Thread.sleep(30);
+                runOnFx(SceneSwitchBenchmark::closeDialogs);
+
+                if (round >= WARMUP_ROUNDS) {
+                    times.add(took[0] / 1_000_000.0);
+                }
+            }
+        }
+
+        double[] sorted = times.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        System.out.printf("%s%7.2f ms %7.2f ms %7.2f ms%n", RESULT_PREFIX,
+                sorted[sorted.length / 2], sorted[sorted.length * 9 / 10], Arrays.stream(sorted).average().orElse(0));
+        System.exit(0);
+    }
+
+    /**
+     * Closes every window except the benchmark stage.
+     */
+    private static void closeDialogs() {
+        for (Window window : new ArrayList<>(Window.getWindows())) {
+            if (window != stage) window.hide();
+        }
+    }
+
+    /**
+     * Runs an action on the JavaFX Application Thread and waits for it.
+     *
+     * @param action the action
+     * @throws InterruptedException if the wait is interrupted
+     */
+    private static void runOnFx(Runnable action) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            try {
+                action.run();
+            } finally {
+                done.countDown();
+            }
+        });
+        done.await();
+    }
+}
@@ -0,0 +1,306 @@
+package dealership.bench;
+
+import dealership.MainApp;
+import dealership.dao.UserDao;
+import dealership.model.AuthUser;
+import dealership.util.SceneLoader;
+import dealership.util.SessionContext;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Startup-time harness for {@link MainApp}.
+ * <p>
+ * A single run starts the real application and reports:
+ * - {@code login}: time from JVM start to the first frame of the login screen
+ * - {@code SALES}, {@code CHIEF_MECHANIC}, {@code MECHANIC}: time from the end of
+ * authentication to the first frame of the role landing view
+ * and then exits. The role views are measured only for the roles that have
+ * credentials, given as system properties:
+ * </p>
+ * <pre>
+ * -Dbench.login.SALES=user:password -Dbench.login.MECHANIC=user:password ...
+ * </pre>
+ * <p>
+ * A blank value counts as no credentials, so the {@code appcds} Maven profile can
+ * always forward the three properties.
+ * </p>
+ * <p>
+ * "First frame" is the first pulse whose CSS and layout passes include the view;
+ * the frame is rendered right after it.
+ * </p>
+ * <p>
+ * With {@code --runs N}, the harness starts N separate JVMs instead (each one a
+ * single run) and prints min / median / max per metric, so results are repeatable.
+ * With {@code --archive FILE} as well, every run is done twice: without and with
+ * {@code -XX:SharedArchiveFile=FILE}, to compare startup with the AppCDS archive.
+ * Extra JVM options for the child runs can be given with {@code -Dbench.jvmArgs="..."}.
+ * </p>
+ * <p>
+ * The {@code appcds} Maven profile uses a single run of this class as the training
+ * run of the archive (see {@code pom.xml}). With {@code --app}, it just starts
+ * {@link MainApp} normally: the Java launcher refuses to start an
+ * {@link Application} subclass directly when JavaFX is on the classpath.
+ * </p>
+ */
+public class StartupBenchmark {
+
+    private static final String RESULT_PREFIX = "RESULT ";
+
+    /**
+     * Landing view of each role, as opened by the login screen.
+     */
+    private static final Map<String, String> LANDING_VIEWS = new LinkedHashMap<>();
+
+    static {
+        LANDING_VIEWS.put("SALES", "/views/sales-main-view.fxml");
+        LANDING_VIEWS.put("CHIEF_MECHANIC", "/views/boss-menu-view.fxml");
+        LANDING_VIEWS.put("MECHANIC", "/views/mechanic-tasks-view.fxml");
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its main method.
+     * </p>
+     */
+    private StartupBenchmark() {
+    }
+
+    /**
+     * Runs the harness.
+     *
+     * @param args {@code --app}, or {@code [--runs N] [--archive FILE]}; without {@code --runs},
+     *             a single run is done in this JVM
+     * @throws Exception if a child JVM cannot be started
+     */
+    public static void main(String[] args) throws Exception {
+        int runs = 0;
+        String archive = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--app".equals(args[i])) {
+                Application.launch(MainApp.class);
+                return;
+            } else if ("--runs".equals(args[i]) && i + 1 < args.length) {
+                runs = Integer.parseInt(args[++i]);
+            } else if ("--archive".equals(args[i]) && i + 1 < args.length) {
+                archive = args[++i];
+            }
+        }
+
+        if (runs <= 0) {
+            Application.launch(HarnessApp.class);
+            return;
+        }
+
+        report("default", runChildren(runs, List.of()));
+        if (archive != null) {
+            if (!new File(archive).isFile()) {
+                System.err.println("Archive not found: " + archive + " (build it with mvn -Pappcds package)");
+                return;
+            }
+            report("AppCDS", runChildren(runs, List.of("-XX:SharedArchiveFile=" + archive)));
+        }
+    }
+
+    /**
+     * Starts single runs in separate JVMs and collects their results.
+     *
+     * @param runs the number of runs
+     * @param extraJvmArgs JVM options added to every child
+     * @return the measured times in milliseconds, by metric
+     * @throws Exception if a child cannot be started
+     */
+    private static Map<String, List<Long>> runChildren(int runs, List<String> extraJvmArgs) throws Exception {
+        Map<String, List<Long>> results = new LinkedHashMap<>();
+
+        for (int run = 0; run < runs; run++) {
+            List<String> command = new ArrayList<>();
+            command.add(ProcessHandle.current().info().command().orElse("java"));
+
+            String jvmArgs = System.getProperty("bench.jvmArgs", "").trim();
+            if (!jvmArgs.isEmpty()) {
+                command.addAll(List.of(jvmArgs.split("\\s+")));
+            }
+            command.addAll(extraJvmArgs);
+
+            for (String role : LANDING_VIEWS.keySet()) {
+                String credentials = credentials(role);
+                if (credentials != null) {
+                    command.add("-Dbench.login." + role + "=" + credentials);
+                }
+            }
+
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(StartupBenchmark.class.getName());
+
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            try (BufferedReader out = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    if (!line.startsWith(RESULT_PREFIX)) continue;
+
+                    String[] parts = line.substring(RESULT_PREFIX.length()).split("=");
+                    results.computeIfAbsent(parts[0], k -> new ArrayList<>()).add(Long.parseLong(parts[1]));
+                }
+            }
+            process.waitFor();
+        }
+
+        return results;
+    }
+
+    /**
+     * Prints min / median / max per metric.
+     *
+     * @param label the configuration name
+     * @param results the measured times in milliseconds, by metric
+     */
+    private static void report(String label, Map<String, List<Long>> results) {
+        System.out.printf("%n%s%n%-16s %6s %8s %6s %6s%n", label, "Metric", "Min", "Median", "Max", "Runs");
+
+        for (Map.Entry<String, List<Long>> entry : results.entrySet()) {
+            List<Long> times = new ArrayList<>(entry.getValue());
+            Collections.sort(times);
+
+            System.out.printf("%-16s %6d %8d %6d %6d%n", entry.getKey(),
+                    times.get(0), times.get(times.size() / 2), times.get(times.size() - 1), times.size());
+        }
+    }
+
+    /**
+     * Prints one measured time in the format read by {@link #runChildren(int, List)}.
+     *
+     * @param metric the metric name
+     * @param millis the time in milliseconds
+     */
+    private static void result(String metric, long millis) {
+        System.out.println(RESULT_PREFIX + metric + "=" + millis);
+    }
+
+    /**
+     * Returns the benchmark credentials of a role.
+     *
+     * @param role the role name
+     * @return {@code user:password}, or null if none were given (or the value is blank)
+     */
+    private static String credentials(String role) {
+        String value = System.getProperty("bench.login." + role, "").trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Calls an action once, after the next pulse that lays out the scene.
+     *
+     * @param scene the scene to watch
+     * @param action the action to run on the JavaFX Application Thread
+     */
+    private static void afterNextFrame(Scene scene, Runnable action) {
+        Runnable[] listener = new Runnable[1];
+        boolean[] done = new boolean[1];
+
+        listener[0] = () -> {
+            if (done[0]) return;
+            done[0] = true;
+            Platform.runLater(() -> {
+                scene.removePostLayoutPulseListener(listener[0]);
+                action.run();
+            });
+        };
+
+        scene.addPostLayoutPulseListener(listener[0]);
+        Platform.requestNextPulse();
+    }
+
+    /**
+     * The real application, instrumented to report its first frames and then exit.
+     */
+    public static class HarnessApp extends MainApp {
+
+        private final List<String> roles = new ArrayList<>();
+
+        /**
+         * Starts the application and measures the login screen.
+         *
+         * @param stage the primary stage
+         * @throws Exception if the login view cannot be loaded
+         */
+        @Override
+        public void start(Stage stage) throws Exception {
+            super.start(stage);
+
+            for (String role : LANDING_VIEWS.keySet()) {
+                if (credentials(role) != null) {
+                    roles.add(role);
+                }
+            }
+
+            afterNextFrame(stage.getScene(), () -> {
+                long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+                result("login", sinceJvmStart);
+                nextRole(stage, 0);
+            });
+        }
+
+        /**
+         * Logs in as the next configured role and measures its landing view.
+         *
+         * @param stage the primary stage
+         * @param index the index of the role to measure
+         */
+        private void nextRole(Stage stage, int index) {
+            if (index >= roles.size()) {
+                Platform.exit();
+                return;
+            }
+
+            String role = roles.get(index);
+            String[] credentials = credentials(role).split(":", 2);
+
+            try {
+                AuthUser user = new UserDao().authenticate(credentials[0], credentials.length > 1 ? credentials[1] : "");
+                if (user == null) {
+                    System.err.println("Invalid credentials for " + role);
+                    nextRole(stage, index + 1);
+                    return;
+                }
+
+                SessionContext.setUserId(user.getId());
+                SessionContext.setDealershipId(user.getDealershipId());
+                SessionContext.setRoleName(user.getRoleName());
+
+                long start = System.nanoTime();
+                Parent root = new FXMLLoader(getClass().getResource(LANDING_VIEWS.get(role))).load();
+                SceneLoader.show(stage, root);
+
+                afterNextFrame(stage.getScene(), () -> {
+                    result(role, (System.nanoTime() - start) / 1_000_000);
+                    SessionContext.clear();
+                    nextRole(stage, index + 1);
+                });
+
+            } catch (Exception e) {
+                e.printStackTrace();
+                nextRole(stage, index + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package dealership.bench;
+
+import dealership.util.SalesNavigation;
+import dealership.util.SceneLoader;
+import dealership.util.SessionContext;
+import javafx.application.Platform;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * View-cache benchmark for {@link SalesNavigation#loadCenter(String)}.
+ * <p>
+ * It switches between the four Sales list views (vehicles, customers, proposals,
+ * sales) and times each switch: {@code loadCenter} followed by the CSS and
+ * layout passes of the content holder. Two modes run one after the other, in
+ * the same JVM (each with its own warm-up rounds):
+ * - {@code cache}: cached views are reused and only refreshed (the normal behaviour)
+ * - {@code no cache}: the view cache is cleared before every switch, so every
+ * view is parsed and built again, as before the cache existed
+ * It prints the median, p90 and mean switch time of each mode, in milliseconds.
+ * </p>
+ * <p>
+ * The views load their data in the background; without a database they show
+ * error dialogs, which the harness closes after each switch, so the numbers
+ * only cover the view work. Run it from the project root after
+ * {@code mvn test-compile}, on a machine with a display:
+ * </p>
+ * <pre>
+ * mvn -q dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) dealership.bench.ViewCacheBenchmark [rounds]
+ * </pre>
+ * <p>
+ * On a headless machine it can run with Monocle on the classpath and
+ * {@code -Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw}.
+ * The default is 40 timed rounds per mode, each mode after 10 warm-up rounds.
+ * </p>
+ */
+public class ViewCacheBenchmark {
+
+    private static final int WARMUP_ROUNDS = 10;
+
+    private static final String[] VIEWS = {
+            "/views/sales-vehicles-view.fxml",
+            "/views/sales-customers-view.fxml",
+            "/views/sales-proposals-view.fxml",
+            "/views/sales-sales-view.fxml"
+    };
+
+    private static Stage stage;
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its main method.
+     * </p>
+     */
+    private ViewCacheBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of rounds per mode (default 40)
+     * @throws Exception if the FX thread is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        int rounds = (args.length > 0) ? Integer.parseInt(args[0]) : 40;
+
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+
+        SessionContext.setUserId(1);
+        SessionContext.setDealershipId(1);
+        SessionContext.setRoleName("SALES");
+
+        StackPane holder = new StackPane();
+        runOnFx(() -> {
+            stage = new Stage();
+            stage.setWidth(1200);
+            stage.setHeight(800);
+            SceneLoader.show(stage, holder);
+            SalesNavigation.setContentHolder(holder);
+        });
+
+        System.out.printf("%-10s %10s %10s %10s%n", "Mode", "Median", "p90", "Mean");
+        print("cache", measure(holder, false, rounds));
+        print("no cache", measure(holder, true, rounds));
+        System.exit(0);
+    }
+
+    /**
+     * Runs the warm-up rounds and then the timed rounds of one mode.
+     *
+     * @param holder the Sales content holder
+     * @param clearCache true to clear the view cache before every switch
+     * @param rounds the number of timed rounds
+     * @return the switch times of the timed rounds, in milliseconds
+     * @throws InterruptedException if the FX thread is interrupted
+     */
+    private static List<Double> measure(StackPane holder, boolean clearCache, int rounds) throws InterruptedException {
+        List<Double> times = new ArrayList<>();
+        for (int round = 0; round < WARMUP_ROUNDS + rounds; round++) {
+            switchAll(holder, clearCache, (round >= WARMUP_ROUNDS) ? times : null);
+        }
+        return times;
+    }
+
+    /**
+     * Shows every list view once and records the switch times.
+     *
+     * @param holder the Sales content holder
+     * @param clearCache true to clear the view cache before every switch
+     * @param times receives the switch times in milliseconds, or null during warm-up
+     * @throws InterruptedException if the FX thread is interrupted
+     */
+    private static void switchAll(StackPane holder, boolean clearCache, List<Double> times) throws InterruptedException {
+        for (String view : VIEWS) {
+            long[] took = new long[1];
+
+            runOnFx(() -> {
+                long start = System.nanoTime();
+                if (clearCache) SalesNavigation.clearViewCache();
+                SalesNavigation.loadCenter(view);
+                holder.applyCss();
+                holder.layout();
+                took[0] = System.nanoTime() - start;
+            });
+
+            // Let the background loads finish, then close their error dialogs
+            Thread.sleep(30);
+            runOnFx(ViewCacheBenchmark::closeDialogs);
+
+            if (times != null) {
+                times.add(took[0] / 1_000_000.0);
+            }
+        }
+    }
+
+    private static void print(String label, List<Double> times) {
+        double[] sorted = times.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        System.out.printf("%-10s %7.2f ms %7.2f ms %7.2f ms%n", label,
+                sorted[sorted.length / 2], sorted[sorted.length * 9 / 10], Arrays.stream(sorted).average().orElse(0));
+    }
+
+    /**
+     * Closes every window except the benchmark stage.
+     */
+    private static void closeDialogs() {
+        for (Window window : new ArrayList<>(Window.getWindows())) {
+            if (window != stage) window.hide();
+        }
+    }
+
+    /**
+     * Runs an action on the JavaFX Application Thread and waits for it.
+     *
+     * @param action the action
+     * @throws InterruptedException if the wait is interrupted
+     */
+    private static void runOnFx(Runnable action) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            try {
+                action.run();
+            } finally {
+                done.countDown();
+            }
+        });
+        done.await();
+    }
+}
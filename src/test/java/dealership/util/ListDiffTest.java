@@ -0,0 +1,276 @@
+package dealership.util;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Self-contained checks of {@link ListDiff#merge}.
+ * <p>
+ * Each case merges a fresh list into an observable list and checks:
+ * - the final keys, in order
+ * - that rows present before and after keep their object identity and get the new values
+ * - the number of list change events fired
+ * It throws an {@link AssertionError} on the first failure. Run it from the
+ * project root after {@code mvn test-compile}:
+ * </p>
+ * <pre>
+ * mvn -q dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) dealership.util.ListDiffTest
+ * </pre>
+ */
+public class ListDiffTest {
+
+    private static int checks;
+
+    /**
+     * Private constructor to prevent instantiation.
+     * <p>
+     * This class is intended to be used only through its main method.
+     * </p>
+     */
+    private ListDiffTest() {
+    }
+
+    /**
+     * Runs every case.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        noOpRefresh();
+        emptyTarget();
+        removals();
+        inserts();
+        topToBottomMove();
+        bottomToTopMove();
+        swap();
+        reverse();
+        scrambled();
+        mixed();
+        randomized();
+        System.out.println("ListDiffTest: " + checks + " checks passed");
+    }
+
+    private static void noOpRefresh() {
+        Case c = new Case(1, 2, 3, 4, 5);
+        c.merge(rows(1, 2, 3, 4, 5));
+        c.expect("no-op refresh", 0, 1, 2, 3, 4, 5);
+
+        c.merge(new ArrayList<>());
+        c.expect("empty refresh", 1);
+        c.merge(new ArrayList<>());
+        c.expect("empty refresh again", 1);
+    }
+
+    private static void emptyTarget() {
+        Case c = new Case();
+        c.merge(rows(3, 1, 2));
+        c.expect("load into empty list", 1, 3, 1, 2);
+    }
+
+    private static void removals() {
+        Case c = new Case(1, 2, 3, 4, 5, 6);
+        c.merge(rows(2, 3, 5));
+        c.expect("scattered removals in one change", 1, 2, 3, 5);
+    }
+
+    private static void inserts() {
+        Case c = new Case(2, 4);
+        c.merge(rows(1, 2, 3, 4, 5));
+        c.expect("inserts at the top, middle and bottom", 3, 1, 2, 3, 4, 5);
+
+        c = new Case(1, 2);
+        c.merge(rows(1, 2, 3, 4, 5, 6));
+        c.expect("appended page in one change", 1, 1, 2, 3, 4, 5, 6);
+    }
+
+    private static void topToBottomMove() {
+        int[] before = range(0, 200);
+        int[] after = range(1, 200);
+        after = append(after, 0);
+
+        Case c = new Case(before);
+        c.merge(rows(after));
+        c.expect("top row moved to the bottom", 2, after);
+        c.expectMoves("top row moved to the bottom", 1);
+    }
+
+    private static void bottomToTopMove() {
+        int[] after = append(new int[]{199}, range(0, 199));
+
+        Case c = new Case(range(0, 200));
+        c.merge(rows(after));
+        c.expect("bottom row moved to the top", 2, after);
+        c.expectMoves("bottom row moved to the top", 1);
+    }
+
+    private static void swap() {
+        Case c = new Case(1, 2, 3, 4, 5);
+        c.merge(rows(1, 4, 3, 2, 5));
+        c.expect("two rows swapped in one run", 2, 1, 4, 3, 2, 5);
+        c.expectMoves("two rows swapped in one run", 2);
+    }
+
+    private static void reverse() {
+        int[] after = new int[100];
+        for (int i = 0; i < after.length; i++) after[i] = 99 - i;
+
+        Case c = new Case(range(0, 100));
+        c.merge(rows(after));
+        c.expect("reversed list in one removal and one insert run", 2, after);
+    }
+
+    private static void scrambled() {
+        // Every pair swapped: half the rows move, each to its own run
+        int[] after = new int[100];
+        for (int i = 0; i < after.length; i++) after[i] = i ^ 1;
+
+        Case c = new Case(range(0, 100));
+        c.merge(rows(after));
+        c.expect("scrambled list set at once", 1, after);
+    }
+
+    private static void mixed() {
+        Case c = new Case(1, 2, 3, 4, 5, 6, 7);
+        c.merge(rows(8, 1, 3, 7, 4, 5, 9));
+        c.expect("removals, inserts and a move", 4, 8, 1, 3, 7, 4, 5, 9);
+        c.expectMoves("removals, inserts and a move", 1);
+    }
+
+    private static void randomized() {
+        Random random = new Random(42);
+        for (int run = 0; run < 500; run++) {
+            List<Integer> keys = new ArrayList<>();
+            for (int k = 0; k < 60; k++) keys.add(k);
+
+            Collections.shuffle(keys, random);
+            int[] before = toArray(keys.subList(0, random.nextInt(40)));
+
+            Collections.shuffle(keys, random);
+            int[] after = toArray(keys.subList(0, random.nextInt(40)));
+
+            Case c = new Case(before);
+            c.merge(rows(after));
+            c.expectKeys("random refresh " + run, after);
+            c.merge(rows(after));
+            c.expect("random refresh " + run + " repeated", c.events, after);
+        }
+    }
+
+    // ---- helpers ----
+
+    /**
+     * A table row: an id and a value that changes with each load.
+     */
+    private static final class Row {
+
+        private final int id;
+        private int load;
+
+        private Row(int id, int load) {
+            this.id = id;
+            this.load = load;
+        }
+    }
+
+    /**
+     * One observable list, the rows it started with and the events it fired.
+     */
+    private static final class Case {
+
+        private final ObservableList<Row> target = FXCollections.observableArrayList();
+        private final List<Row> original;
+        private final List<Row> removed = new ArrayList<>();
+        private int events;
+        private int loads;
+
+        private Case(int... ids) {
+            target.setAll(rows(ids));
+            original = new ArrayList<>(target);
+            target.addListener((ListChangeListener<Row>) change -> {
+                events++;
+                while (change.next()) {
+                    removed.addAll(change.getRemoved());
+                }
+            });
+        }
+
+        private void merge(List<Row> fresh) {
+            loads++;
+            for (Row row : fresh) row.load = loads;
+            ListDiff.merge(target, fresh, row -> row.id, (existing, row) -> existing.load = row.load);
+        }
+
+        private void expect(String name, int expectedEvents, int... ids) {
+            expectKeys(name, ids);
+            check(events == expectedEvents, name + ": " + events + " change events, expected " + expectedEvents);
+        }
+
+        private void expectKeys(String name, int... ids) {
+            check(target.size() == ids.length, name + ": size " + target.size() + ", expected " + ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                Row row = target.get(i);
+                check(row.id == ids[i], name + ": key " + row.id + " at " + i + ", expected " + ids[i]);
+                check(row.load == loads, name + ": row " + row.id + " was not updated");
+            }
+            for (Row row : original) {
+                int index = indexOf(row.id);
+                if (index >= 0) {
+                    check(target.get(index) == row, name + ": row " + row.id + " was replaced");
+                }
+            }
+        }
+
+        private void expectMoves(String name, int expectedMoves) {
+            // A moved row is taken out by one change and put back by another
+            Set<Row> moved = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Row row : removed) {
+                if (indexOf(row.id) >= 0 && target.get(indexOf(row.id)) == row) moved.add(row);
+            }
+            check(moved.size() == expectedMoves, name + ": " + moved.size() + " moves, expected " + expectedMoves);
+        }
+
+        private int indexOf(int id) {
+            for (int i = 0; i < target.size(); i++) {
+                if (target.get(i).id == id) return i;
+            }
+            return -1;
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        checks++;
+        if (!condition) throw new AssertionError(message);
+    }
+
+    private static List<Row> rows(int... ids) {
+        List<Row> rows = new ArrayList<>(ids.length);
+        for (int id : ids) rows.add(new Row(id, 0));
+        return rows;
+    }
+
+    private static int[] range(int from, int to) {
+        int[] values = new int[to - from];
+        for (int i = 0; i < values.length; i++) values[i] = from + i;
+        return values;
+    }
+
+    private static int[] append(int[] first, int... second) {
+        int[] values = new int[first.length + second.length];
+        System.arraycopy(first, 0, values, 0, first.length);
+        System.arraycopy(second, 0, values, first.length, second.length);
+        return values;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+}